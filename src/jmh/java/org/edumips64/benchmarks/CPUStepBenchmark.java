@@ -0,0 +1,40 @@
+package org.edumips64.benchmarks;
+
+import org.edumips64.core.CPU;
+import org.edumips64.core.SynchronousException;
+import org.edumips64.core.is.HaltException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** A single CPU.step(), on the pipeline running set-bit-sort.s. The program is loaded again when it ends, which
+ * happens once every ~130000 steps. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CPUStepBenchmark {
+  @Param({"true", "false"})
+  public boolean forwarding;
+
+  private CPU cpu;
+
+  @Setup(Level.Trial)
+  public void load() throws Exception {
+    cpu = Programs.load("set-bit-sort.s", forwarding).getCPU();
+  }
+
+  @Benchmark
+  public int step() throws Exception {
+    try {
+      cpu.step();
+    } catch (SynchronousException e) {
+      // Not terminating by default.
+    } catch (HaltException e) {
+      load();
+    }
+    return cpu.getCycles();
+  }
+}
@@ -0,0 +1,35 @@
+package org.edumips64.benchmarks;
+
+import org.edumips64.core.Converter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Converter.binToHex() on random 64-bit strings. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+  private static final int VALUES = 1024;
+
+  private String[] values = new String[VALUES];
+  private int next;
+
+  @Setup(Level.Trial)
+  public void fill() {
+    Random random = new Random(42);
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = Converter.intToBin(64, random.nextLong());
+    }
+  }
+
+  @Benchmark
+  public String binToHex() throws Exception {
+    next = (next + 1) & (VALUES - 1);
+    return Converter.binToHex(values[next]);
+  }
+}
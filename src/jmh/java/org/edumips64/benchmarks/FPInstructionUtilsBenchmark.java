@@ -0,0 +1,37 @@
+package org.edumips64.benchmarks;
+
+import org.edumips64.core.FCSRRegister;
+import org.edumips64.core.fpu.FPInstructionUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** FPInstructionUtils.doubleSum() on random finite operands of similar magnitude, with the default FCSR. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class FPInstructionUtilsBenchmark {
+  private static final int VALUES = 1024;
+
+  private FPInstructionUtils fpu = new FPInstructionUtils(new FCSRRegister());
+  private long[] values = new long[VALUES];
+  private int next;
+
+  @Setup(Level.Trial)
+  public void fill() {
+    Random random = new Random(42);
+    for (int i = 0; i < VALUES; i++) {
+      values[i] = Double.doubleToRawLongBits((random.nextDouble() - 0.5) * 1e6);
+    }
+  }
+
+  @Benchmark
+  public long doubleSum() throws Exception {
+    next = (next + 1) & (VALUES - 1);
+    return fpu.doubleSum(values[next], values[(next + 1) & (VALUES - 1)]);
+  }
+}
@@ -0,0 +1,38 @@
+package org.edumips64.benchmarks;
+
+import org.edumips64.core.Memory;
+import org.edumips64.core.MemoryElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Memory.getCellByAddress() on random aligned addresses of the first 64 KB of data memory. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MemoryBenchmark {
+  private static final int ADDRESSES = 1024;
+
+  private Memory memory = new Memory();
+  private long[] addresses = new long[ADDRESSES];
+  private int next;
+
+  @Setup(Level.Trial)
+  public void fill() throws Exception {
+    Random random = new Random(42);
+    for (int i = 0; i < ADDRESSES; i++) {
+      addresses[i] = random.nextInt(8192) * 8L;
+      memory.getCellByAddress(addresses[i]).setLong(random.nextLong());
+    }
+  }
+
+  @Benchmark
+  public MemoryElement getCellByAddress() throws Exception {
+    next = (next + 1) & (ADDRESSES - 1);
+    return memory.getCellByAddress(addresses[next]);
+  }
+}
@@ -0,0 +1,50 @@
+package org.edumips64.benchmarks;
+
+import org.edumips64.core.SimulatorContext;
+import org.edumips64.core.parser.ParserMultiException;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/** Parser.doParsing() of the source of a program, already read from the file. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ParserBenchmark {
+  @Param({"set-bit-sort.s", "hailstoneenglish.s", "fpu-mul.s", "div.d.s"})
+  public String program;
+
+  private SimulatorContext context;
+  private String code;
+
+  @Setup(Level.Trial)
+  public void read() throws Exception {
+    context = Programs.load(program, true);
+    code = new String(Files.readAllBytes(Paths.get(Programs.path(program))), StandardCharsets.UTF_8);
+  }
+
+  // The code and the labels of the previous invocation must be removed before parsing again.
+  @Setup(Level.Invocation)
+  public void reset() {
+    context.getCPU().reset();
+    context.getSymbolTable().reset();
+  }
+
+  @Benchmark
+  public int doParsing() throws Exception {
+    try {
+      context.getParser().doParsing(code);
+    } catch (ParserMultiException e) {
+      if (e.hasErrors()) {
+        throw e;
+      }
+    }
+    return context.getMemory().getInstructionsNumber();
+  }
+}
@@ -0,0 +1,35 @@
+package org.edumips64.benchmarks;
+
+import org.edumips64.core.SimulatorContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Simulation of complete programs in the pipeline, with and without forwarding. Loading the program is not
+ * measured. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class ProgramBenchmark {
+  @Param({"set-bit-sort.s", "hailstoneenglish.s", "fpu-mul.s", "div.d.s"})
+  public String program;
+
+  @Param({"true", "false"})
+  public boolean forwarding;
+
+  private SimulatorContext context;
+
+  // Programs run for milliseconds, so loading each of them per invocation doesn't skew the timings.
+  @Setup(Level.Invocation)
+  public void load() throws Exception {
+    context = Programs.load(program, forwarding);
+  }
+
+  @Benchmark
+  public int run() throws Exception {
+    return Programs.run(context.getCPU());
+  }
+}
@@ -0,0 +1,63 @@
+package org.edumips64.benchmarks;
+
+import org.edumips64.core.CPU;
+import org.edumips64.core.SimulatorContext;
+import org.edumips64.core.SynchronousException;
+import org.edumips64.core.is.HaltException;
+import org.edumips64.core.parser.ParserMultiException;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.io.LocalFileUtils;
+import org.edumips64.utils.io.StringWriter;
+
+import java.io.File;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Loading and running of the test programs, shared by the benchmarks. The programs are read from
+ * src/test/resources, relative to the working directory (the project directory when run by Gradle). */
+class Programs {
+  static final String LOCATION = "src/test/resources/";
+
+  static {
+    // The simulator logs every step at INFO level, which would dominate the measurements.
+    Logger.getLogger("").setLevel(Level.SEVERE);
+  }
+
+  static String path(String program) {
+    return new File(LOCATION + program).getAbsolutePath();
+  }
+
+  /** Returns a new simulator with the program loaded and ready to run. */
+  static SimulatorContext load(String program, boolean forwarding) throws Exception {
+    SimulatorContext context = new SimulatorContext(new LocalFileUtils());
+    context.getConfig().putBoolean(ConfigKey.FORWARDING, forwarding);
+    context.getIOManager().setStdOutput(new StringWriter());
+    context.getDinero().setEnabled(false);
+    try {
+      context.getParser().parse(path(program));
+    } catch (ParserMultiException e) {
+      if (e.hasErrors()) {
+        throw e;
+      }
+    }
+    context.getCPU().setStatus(CPU.CPUStatus.RUNNING);
+    return context;
+  }
+
+  /** Steps the CPU until the program ends.
+   * @return the number of cycles
+   */
+  static int run(CPU cpu) throws Exception {
+    try {
+      while (true) {
+        try {
+          cpu.step();
+        } catch (SynchronousException e) {
+          // Not terminating by default, like in the GUI.
+        }
+      }
+    } catch (HaltException e) {
+      return cpu.getCycles();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package org.edumips64;
+
+import org.edumips64.core.SimulatorContext;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.ConfigStore;
+import org.edumips64.utils.InMemoryConfigStore;
+import org.edumips64.utils.io.LocalFileUtils;
+import org.edumips64.utils.io.StringWriter;
+
+import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Helpers shared by the headless tools: MainBatch, MainProfiler, MainHeatMap and MainCacheSweep. */
+final class CommandLineTools {
+  private CommandLineTools() {}
+
+  /** Logs only the errors: logging is per-instruction in some places, and only errors are worth the cost here. */
+  static void silenceLogging() {
+    Logger.getLogger("").setLevel(Level.SEVERE);
+  }
+
+  /** Creates a simulator with the given configuration, which reads files from the local file system and writes
+   * the standard output of the programs to stdOut. */
+  static SimulatorContext newContext(ConfigStore config, StringWriter stdOut) {
+    SimulatorContext context = new SimulatorContext(config, new LocalFileUtils());
+    context.getIOManager().setStdOutput(stdOut);
+    return context;
+  }
+
+  /** Returns a configuration holding the default values, overridden by the given ones. */
+  static ConfigStore newConfig(Map<ConfigKey, Object> values) {
+    ConfigStore config = new InMemoryConfigStore(ConfigStore.defaults);
+    for (Map.Entry<ConfigKey, Object> e : values.entrySet()) {
+      putConfig(config, e.getKey(), e.getValue());
+    }
+    return config;
+  }
+
+  /** Parses a "key=value" option (see MainBatch.parseDimension()) and adds it to the values.
+   * @throws IllegalArgumentException if the key doesn't exist, or the value is not a single value of its type
+   */
+  static void parseConfig(String arg, Map<ConfigKey, Object> values) {
+    Map<ConfigKey, List<Object>> dimension = new LinkedHashMap<>();
+    MainBatch.parseDimension(arg, dimension);
+    for (Map.Entry<ConfigKey, List<Object>> e : dimension.entrySet()) {
+      if (e.getValue().size() != 1) {
+        throw new IllegalArgumentException("Only one value is allowed: " + arg);
+      }
+      values.put(e.getKey(), e.getValue().get(0));
+    }
+  }
+
+  private static void putConfig(ConfigStore config, ConfigKey key, Object value) {
+    if (value instanceof Boolean) {
+      config.putBoolean(key, (Boolean) value);
+    } else if (value instanceof Integer) {
+      config.putInt(key, (Integer) value);
+    } else {
+      config.putString(key, (String) value);
+    }
+  }
+
+  /** Writes the contents to the file, in UTF-8. */
+  static void write(String file, String contents) throws IOException {
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))) {
+      out.write(contents);
+    }
+  }
+
+  /** Prints the error and the lines of the usage to the standard error, and exits with status 1. */
+  static void usageAndExit(String error, String... usage) {
+    System.err.println(error + "\n");
+    for (String line : usage) {
+      System.err.println(line);
+    }
+    System.exit(1);
+  }
+}
@@ -23,8 +23,6 @@
 package org.edumips64;
 
 import org.edumips64.core.*;
-import org.edumips64.core.is.BUBBLE;
-import org.edumips64.core.is.InstructionBuilder;
 import org.edumips64.core.parser.Parser;
 import org.edumips64.core.parser.ParserMultiException;
 import org.edumips64.core.parser.ParserMultiWarningException;
@@ -65,6 +63,7 @@ public class Main extends JApplet {
   private static Memory memory;
   private static CycleBuilder builder;
   private static Dinero dinero;
+  private static SimulatorContext context;
   private static GUIFrontend front;
   private static ConfigStore configStore;
   private static JFileChooser jfc;
@@ -163,6 +162,7 @@ public class Main extends JApplet {
     if (!debug_mode) {
       // Disable logging message whose level is less than WARNING.
       Logger rootLogger = log.getParent();
+      rootLogger.setLevel(java.util.logging.Level.WARNING);
 
       for (Handler h : rootLogger.getHandlers()) {
         h.setLevel(java.util.logging.Level.WARNING);
@@ -171,6 +171,14 @@ public class Main extends JApplet {
     return toOpen;
   }
 
+  /** In debug mode, traces everything the CPU does and logs it as it happens. */
+  static void configureTracer(CPU cpu) {
+    if (debug_mode) {
+      cpu.getTracer().setLevel(Tracer.Level.ALL);
+      cpu.getTracer().setEcho(true);
+    }
+  }
+
   public static void main(String args[]) {
     // Meta properties.
     VERSION = MetaInfo.get("Signature-Version");
@@ -281,15 +289,16 @@ public class Main extends JApplet {
     cp.setLayout(new BorderLayout());
     cp.add(createMenuBar(), BorderLayout.NORTH);
 
-    memory = new Memory();
-    cpu = new CPU(memory, configStore, new BUBBLE());
+    context = new SimulatorContext(configStore, lfu);
+    memory = context.getMemory();
+    cpu = context.getCPU();
+    configureTracer(cpu);
     cpu.setStatus(CPU.CPUStatus.READY);
 
-    symTab = new SymbolTable(memory);
-    iom = new IOManager(lfu, memory);
-    dinero = new Dinero();
-    InstructionBuilder instructionBuilder = new InstructionBuilder(memory, iom, cpu, dinero, configStore);
-    parser = new Parser(lfu, symTab, memory, instructionBuilder);
+    symTab = context.getSymbolTable();
+    iom = context.getIOManager();
+    dinero = context.getDinero();
+    parser = context.getParser();
 
     builder = new CycleBuilder(cpu);
     sb = new StatusBar(VERSION, configStore);
@@ -501,6 +510,7 @@ public class Main extends JApplet {
     cpu.reset();
     symTab.reset();
     dinero.reset();
+    setupMemoryTiming();
 
     try {
       // Aggiorniamo i componenti gai
@@ -575,6 +585,17 @@ public class Main extends JApplet {
     }
   }
 
+  /** Sets up the timing model of the memory described by the configuration, with empty caches. If the
+   * configuration is not valid, the previous model is kept. */
+  private static void setupMemoryTiming() {
+    try {
+      context.setupMemoryTiming();
+    } catch (IllegalArgumentException e) {
+      log.warning("Invalid memory timing configuration: " + e.getMessage());
+      JOptionPane.showMessageDialog(mainFrame, CurrentLocale.getString("MEMORY_TIMING_ERROR") + ": " + e.getMessage(), "EduMIPS64 - " + CurrentLocale.getString("ERROR"), JOptionPane.ERROR_MESSAGE);
+    }
+  }
+
   /** Tiles windows. */
   private static void tileWindows() {
     // First of all, we don't have to consider iconified frames, because
@@ -658,6 +679,7 @@ public class Main extends JApplet {
     cpu.reset();
     symTab.reset();
     dinero.reset();
+    setupMemoryTiming();
     builder.reset();
 
     try {
@@ -0,0 +1,503 @@
+package org.edumips64;
+
+import org.edumips64.core.*;
+import org.edumips64.core.cache.Cache;
+import org.edumips64.core.cache.CacheSimulator;
+import org.edumips64.metrics.SimulatorMetrics;
+import org.edumips64.utils.*;
+import org.edumips64.utils.io.LocalWriterAdapter;
+import org.edumips64.utils.io.StringWriter;
+import org.edumips64.utils.io.WriteException;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import javax.management.JMException;
+
+/** Headless batch runner: simulates many programs, each with many configurations, in parallel.
+ *
+ * Each job (a program with a configuration) runs on its own SimulatorContext, so jobs share nothing and the
+ * throughput grows with the number of cores. Jobs are executed by a work-stealing pool, and each result is written
+ * as soon as the job ends, as a line of JSON (JSON Lines format).
+ *
+ * Usage: MainBatch [-j threads] [-m max_cycles] [-o output_file] [-t trace_dir [-z]] [-k cache_options]
+ *                  [-c key=value1,value2...]... file_or_dir...
+ *
+ * Directories are scanned recursively for .s files. Each -c option adds a dimension to the configuration matrix,
+ * using the names of the configuration keys (e.g. -c forwarding=true,false); every program is run with every
+ * combination of values. With -t, the Dinero trace of each job is streamed to trace_dir/job-program.xdin while the
+ * job runs, gzipped (.xdin.gz) with -z. With -k, the accesses of each job go through the cache hierarchy described
+ * by the DineroIV options (see CacheSimulator.parse()), and the statistics of each cache are added to the result.
+ */
+public class MainBatch {
+  public static final long DEFAULT_MAX_CYCLES = 10000000;
+
+  // Exit reasons reported in the "exit" field.
+  static final String EXIT_HALT = "halt";
+  static final String EXIT_BREAK = "break";
+  static final String EXIT_SYNCHRONOUS_EXCEPTION = "synchronous_exception";
+  static final String EXIT_PARSE_ERROR = "parse_error";
+  static final String EXIT_CYCLE_LIMIT = "cycle_limit";
+  static final String EXIT_ERROR = "error";
+
+  private List<File> programs;
+  private List<Map<ConfigKey, Object>> configs;
+  private int threads;
+  private long maxCycles;
+  private Writer out;
+  private File traceDir;
+  private boolean gzipTraces;
+  private String cacheOptions;
+
+  MainBatch(List<File> programs, List<Map<ConfigKey, Object>> configs, int threads, long maxCycles, Writer out) {
+    this.programs = programs;
+    this.configs = configs;
+    this.threads = threads;
+    this.maxCycles = maxCycles;
+    this.out = out;
+  }
+
+  /** Simulates the cache hierarchy described by the given DineroIV options in each job.
+   * @throws IllegalArgumentException if the options are not valid
+   */
+  void simulateCaches(String options) {
+    CacheSimulator.parse(options);
+    this.cacheOptions = options;
+  }
+
+  /** Writes the Dinero trace of each job to a file in the given directory, optionally gzipped. */
+  void writeTraces(File dir, boolean gzip) {
+    this.traceDir = dir;
+    this.gzipTraces = gzip;
+  }
+
+  public static void main(String args[]) {
+    int threads = Runtime.getRuntime().availableProcessors();
+    long maxCycles = DEFAULT_MAX_CYCLES;
+    String outputFile = null;
+    File traceDir = null;
+    boolean gzipTraces = false;
+    String cacheOptions = null;
+    Map<ConfigKey, List<Object>> dimensions = new LinkedHashMap<>();
+    List<File> programs = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < args.length; ++i) {
+        if (args[i].equals("-j") && i + 1 < args.length) {
+          threads = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-m") && i + 1 < args.length) {
+          maxCycles = Long.parseLong(args[++i]);
+        } else if (args[i].equals("-o") && i + 1 < args.length) {
+          outputFile = args[++i];
+        } else if (args[i].equals("-t") && i + 1 < args.length) {
+          traceDir = new File(args[++i]);
+        } else if (args[i].equals("-z")) {
+          gzipTraces = true;
+        } else if (args[i].equals("-k") && i + 1 < args.length) {
+          cacheOptions = args[++i];
+          CacheSimulator.parse(cacheOptions);
+        } else if (args[i].equals("-c") && i + 1 < args.length) {
+          parseDimension(args[++i], dimensions);
+        } else if (args[i].startsWith("-")) {
+          usageAndExit("Unrecognized argument: " + args[i]);
+        } else {
+          findPrograms(new File(args[i]), programs);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      usageAndExit(e.getMessage());
+    }
+
+    if (programs.isEmpty()) {
+      usageAndExit("No programs to run");
+    }
+    if (threads <= 0 || maxCycles <= 0) {
+      usageAndExit("The number of threads and the maximum number of cycles must be positive");
+    }
+    if (traceDir != null && !traceDir.isDirectory() && !traceDir.mkdirs()) {
+      usageAndExit("Cannot create the trace directory " + traceDir);
+    }
+
+    CommandLineTools.silenceLogging();
+
+    try (Writer out = new BufferedWriter(outputFile == null
+        ? new OutputStreamWriter(System.out, "UTF-8")
+        : new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8"))) {
+      MainBatch batch = new MainBatch(programs, configMatrix(dimensions), threads, maxCycles, out);
+      if (traceDir != null) {
+        batch.writeTraces(traceDir, gzipTraces);
+      }
+      if (cacheOptions != null) {
+        batch.simulateCaches(cacheOptions);
+      }
+      long start = System.nanoTime();
+      int jobs = batch.run();
+      long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      System.err.println(jobs + " jobs on " + threads + " threads in " + wallMs + " ms");
+    } catch (IOException | InterruptedException e) {
+      System.err.println("Batch failed: " + e);
+      System.exit(1);
+    }
+  }
+
+  /** Runs all the jobs, writing a line to the output for each of them as soon as it ends.
+   * @return the number of jobs
+   */
+  int run() throws InterruptedException, IOException {
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+    int index = 0;
+    try {
+      for (File program : programs) {
+        for (Map<ConfigKey, Object> config : configs) {
+          int job = index++;
+          File trace = (traceDir == null) ? null
+              : new File(traceDir, job + "-" + program.getName() + (gzipTraces ? ".xdin.gz" : ".xdin"));
+          tasks.add(pool.submit(() -> write(runJob(job, program, config, maxCycles, trace, cacheOptions))));
+        }
+      }
+      for (ForkJoinTask<?> task : tasks) {
+        task.join();
+      }
+    } finally {
+      pool.shutdown();
+      pool.awaitTermination(1, TimeUnit.MINUTES);
+    }
+    return index;
+  }
+
+  private synchronized void write(String line) {
+    try {
+      out.write(line);
+      out.write('\n');
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Simulates a program with the given configuration on a new, private simulator, and returns the result as
+   * a line of JSON. Never throws: failures are reported in the "exit" and "message" fields. While the job runs,
+   * its metrics are published through JMX (see SimulatorMetrics).
+   * @param trace file the Dinero trace is streamed to, gzipped if the name ends in .gz, or null for no trace
+   * @param cacheOptions DineroIV options of the cache hierarchy to simulate, or null for none
+   */
+  static String runJob(int job, File program, Map<ConfigKey, Object> config, long maxCycles, File trace,
+                       String cacheOptions) {
+    long start = System.nanoTime();
+
+    StringWriter stdOut = new StringWriter();
+    SimulatorContext context = CommandLineTools.newContext(CommandLineTools.newConfig(config), stdOut);
+    context.getDinero().setEnabled(trace != null);
+    CacheSimulator caches = null;
+    if (cacheOptions != null) {
+      caches = CacheSimulator.parse(cacheOptions);
+      context.getDinero().addListener(caches);
+    }
+
+    SimulatorMetrics metrics = new SimulatorMetrics("job " + job + " " + program.getPath(), context);
+    boolean registered = false;
+    try {
+      metrics.register();
+      registered = true;
+    } catch (JMException e) {
+      // The job runs anyway, it just can't be monitored.
+      System.err.println("Could not publish the metrics of job " + job + ": " + e);
+    }
+
+    try (Writer traceOut = openTrace(trace)) {
+      if (traceOut != null) {
+        context.getDinero().setOutput(new LocalWriterAdapter(traceOut));
+      }
+      return simulate(job, program, config, maxCycles, context, caches, metrics, stdOut, start);
+    } catch (IOException e) {
+      return result(job, program, config, EXIT_ERROR, "Trace file: " + e, context.getCPU(), 0, stdOut, caches,
+          metrics, start);
+    } finally {
+      if (registered) {
+        try {
+          metrics.unregister();
+        } catch (JMException e) {
+          System.err.println("Could not remove the metrics of job " + job + ": " + e);
+        }
+      }
+    }
+  }
+
+  private static String simulate(int job, File program, Map<ConfigKey, Object> config, long maxCycles,
+                                 SimulatorContext context, CacheSimulator caches, SimulatorMetrics metrics,
+                                 StringWriter stdOut, long start) {
+    CPU cpu = context.getCPU();
+
+    long parseStart = System.nanoTime();
+    try {
+      context.load(program.getAbsolutePath());
+    } catch (IllegalArgumentException e) {
+      return result(job, program, config, EXIT_ERROR, "Memory timing: " + e.getMessage(), cpu, 0, stdOut, caches,
+          metrics, start);
+    } catch (Exception e) {
+      return result(job, program, config, EXIT_PARSE_ERROR, e.toString(), cpu, 0, stdOut, caches, metrics, start);
+    }
+    metrics.recordParseTime(System.nanoTime() - parseStart);
+    metrics.sample();
+
+    // Counts the synchronous exceptions, and keeps the code of the last one as the message.
+    class Listener implements SimulatorContext.RunListener {
+      int synchronousExceptions;
+      String message;
+
+      @Override
+      public void stepped() {
+        metrics.stepped();
+      }
+
+      @Override
+      public void synchronousException(SynchronousException e) {
+        synchronousExceptions++;
+        message = e.getCode();
+      }
+    }
+    Listener listener = new Listener();
+    String exit;
+    try {
+      exit = exitReason(context.run(maxCycles, listener));
+    } catch (Exception e) {
+      exit = EXIT_ERROR;
+      listener.message = e.toString();
+    }
+    metrics.sample();
+
+    try {
+      context.getDinero().flush();
+    } catch (WriteException e) {
+      exit = EXIT_ERROR;
+      listener.message = "Trace file: " + e;
+    }
+
+    return result(job, program, config, exit, listener.message, cpu, listener.synchronousExceptions, stdOut, caches,
+        metrics, start);
+  }
+
+  private static String exitReason(SimulatorContext.Exit exit) {
+    switch (exit) {
+      case HALT:
+        return EXIT_HALT;
+      case BREAK:
+        return EXIT_BREAK;
+      case SYNCHRONOUS_EXCEPTION:
+        return EXIT_SYNCHRONOUS_EXCEPTION;
+      default:
+        return EXIT_CYCLE_LIMIT;
+    }
+  }
+
+  // Opens the trace file for writing, or returns null if there is none.
+  private static Writer openTrace(File trace) throws IOException {
+    if (trace == null) {
+      return null;
+    }
+    OutputStream stream = new FileOutputStream(trace);
+    if (trace.getName().endsWith(".gz")) {
+      stream = new GZIPOutputStream(stream);
+    }
+    return new BufferedWriter(new OutputStreamWriter(stream, "UTF-8"));
+  }
+
+  private static String result(int job, File program, Map<ConfigKey, Object> config, String exit, String message,
+                               CPU cpu, int synchronousExceptions, StringWriter stdOut,
+                               CacheSimulator caches, SimulatorMetrics metrics, long start) {
+    StringBuilder json = new StringBuilder();
+    json.append("{\"job\":").append(job);
+    json.append(",\"program\":");
+    appendString(json, program.getPath());
+    json.append(",\"config\":{");
+    boolean first = true;
+    for (Map.Entry<ConfigKey, Object> e : config.entrySet()) {
+      if (!first) {
+        json.append(',');
+      }
+      first = false;
+      appendString(json, e.getKey().toString());
+      json.append(':');
+      appendValue(json, e.getValue());
+    }
+    json.append("},\"exit\":");
+    appendString(json, exit);
+    json.append(",\"message\":");
+    appendValue(json, message);
+    json.append(",\"cycles\":").append(cpu.getCycles());
+    json.append(",\"instructions\":").append(cpu.getInstructions());
+    json.append(",\"raw_stalls\":").append(cpu.getRAWStalls());
+    json.append(",\"waw_stalls\":").append(cpu.getWAWStalls());
+    json.append(",\"divider_stalls\":").append(cpu.getStructuralStallsDivider());
+    json.append(",\"memory_stalls\":").append(cpu.getStructuralStallsMemory());
+    json.append(",\"ex_stalls\":").append(cpu.getStructuralStallsEX());
+    json.append(",\"func_unit_stalls\":").append(cpu.getStructuralStallsFuncUnit());
+    json.append(",\"cache_miss_stalls\":").append(cpu.getCacheMissStalls());
+    json.append(",\"synchronous_exceptions\":").append(synchronousExceptions);
+    json.append(",\"stdout\":");
+    appendString(json, stdOut.toString());
+    if (caches != null) {
+      json.append(",\"caches\":[");
+      for (Cache cache : caches.getCaches()) {
+        if (cache != caches.getCaches().get(0)) {
+          json.append(',');
+        }
+        json.append("{\"name\":");
+        appendString(json, cache.getName());
+        json.append(",\"accesses\":").append(cache.getAccesses());
+        json.append(",\"misses\":").append(cache.getMisses());
+        json.append(",\"evictions\":").append(cache.getEvictions());
+        json.append(",\"writebacks\":").append(cache.getWritebacks());
+        json.append('}');
+      }
+      json.append(']');
+    }
+    json.append(",\"parse_ms\":").append(Math.round(metrics.getParseTimeMillis()));
+    json.append(",\"wall_ms\":").append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    json.append('}');
+    return json.toString();
+  }
+
+  private static void appendValue(StringBuilder json, Object value) {
+    if (value == null) {
+      json.append("null");
+    } else if (value instanceof String) {
+      appendString(json, (String) value);
+    } else {
+      json.append(value);
+    }
+  }
+
+  static void appendString(StringBuilder json, String value) {
+    json.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          json.append("\\\"");
+          break;
+        case '\\':
+          json.append("\\\\");
+          break;
+        case '\n':
+          json.append("\\n");
+          break;
+        case '\r':
+          json.append("\\r");
+          break;
+        case '\t':
+          json.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            String hex = Integer.toHexString(c);
+            json.append("\\u");
+            for (int j = hex.length(); j < 4; j++) {
+              json.append('0');
+            }
+            json.append(hex);
+          } else {
+            json.append(c);
+          }
+      }
+    }
+    json.append('"');
+  }
+
+  /** Parses a "key=value1,value2..." dimension of the configuration matrix. Values are converted to the type of
+   * the default value of the key.
+   * @throws IllegalArgumentException if the key doesn't exist or a value has the wrong type.
+   */
+  static void parseDimension(String arg, Map<ConfigKey, List<Object>> dimensions) {
+    int equals = arg.indexOf('=');
+    if (equals <= 0) {
+      throw new IllegalArgumentException("Invalid configuration: " + arg);
+    }
+
+    String name = arg.substring(0, equals);
+    ConfigKey key = null;
+    for (ConfigKey k : ConfigKey.values()) {
+      if (k.toString().equals(name)) {
+        key = k;
+      }
+    }
+    if (key == null) {
+      throw new IllegalArgumentException("Unknown configuration key: " + name);
+    }
+
+    Object defaultValue = ConfigStore.defaults.get(key);
+    List<Object> values = new ArrayList<>();
+    for (String v : arg.substring(equals + 1).split(",")) {
+      if (defaultValue instanceof Boolean) {
+        if (!v.equals("true") && !v.equals("false")) {
+          throw new IllegalArgumentException("Invalid boolean value for " + name + ": " + v);
+        }
+        values.add(Boolean.valueOf(v));
+      } else if (defaultValue instanceof Integer) {
+        values.add(Integer.valueOf(v));
+      } else {
+        values.add(v);
+      }
+    }
+    dimensions.put(key, values);
+  }
+
+  /** Returns the cartesian product of the dimensions, as a list of configurations. With no dimensions, the
+   * matrix contains only the empty configuration, i.e. the defaults. */
+  static List<Map<ConfigKey, Object>> configMatrix(Map<ConfigKey, List<Object>> dimensions) {
+    List<Map<ConfigKey, Object>> matrix = new ArrayList<>();
+    matrix.add(new LinkedHashMap<>());
+    for (Map.Entry<ConfigKey, List<Object>> dimension : dimensions.entrySet()) {
+      List<Map<ConfigKey, Object>> product = new ArrayList<>();
+      for (Map<ConfigKey, Object> config : matrix) {
+        for (Object value : dimension.getValue()) {
+          Map<ConfigKey, Object> c = new LinkedHashMap<>(config);
+          c.put(dimension.getKey(), value);
+          product.add(c);
+        }
+      }
+      matrix = product;
+    }
+    return matrix;
+  }
+
+  // Adds the file, or the .s files in the directory and its subdirectories, sorted by name.
+  static void findPrograms(File file, List<File> programs) {
+    if (!file.exists()) {
+      throw new IllegalArgumentException("File not found: " + file);
+    }
+    if (!file.isDirectory()) {
+      programs.add(file);
+      return;
+    }
+
+    File[] children = file.listFiles();
+    if (children == null) {
+      return;
+    }
+    Arrays.sort(children);
+    for (File child : children) {
+      if (child.isDirectory() || child.getName().endsWith(".s")) {
+        findPrograms(child, programs);
+      }
+    }
+  }
+
+  private static void usageAndExit(String error) {
+    CommandLineTools.usageAndExit(error,
+        "Usage: MainBatch [-j threads] [-m max_cycles] [-o output_file] [-t trace_dir [-z]] "
+            + "[-k cache_options] [-c key=value1,value2...]... file_or_dir...",
+        "  -j threads\t\tnumber of worker threads (default: number of cores)",
+        "  -m max_cycles\t\tstops each job after this many cycles (default: " + DEFAULT_MAX_CYCLES + ")",
+        "  -o output_file\twrites the results there instead of the standard output",
+        "  -t trace_dir\t\twrites the Dinero trace of each job there, while it runs",
+        "  -z\t\t\tgzips the trace files",
+        "  -k cache_options\tsimulates the caches described by the DineroIV options "
+            + "(e.g. \"-l1-usize 32k -l1-ubsize 64\")",
+        "  -c key=v1,v2...\tadds a dimension to the configuration matrix (e.g. forwarding=true,false)");
+  }
+}
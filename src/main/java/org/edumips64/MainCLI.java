@@ -46,16 +46,25 @@ public class MainCLI {
       String toOpen = Main.parseArgsOrExit(args);
 
       // Initialize the CPU and all its dependencies.
-      Memory memory = new Memory();
-      CPU c = new CPU(memory, cfg, new BUBBLE());
-      LocalFileUtils localFileUtils = new LocalFileUtils();
-      SymbolTable symTab = new SymbolTable(memory);
-      IOManager iom = new IOManager(localFileUtils, memory);
-      Dinero dinero = new Dinero();
-      InstructionBuilder instructionBuilder = new InstructionBuilder(memory, iom, c, dinero, cfg);
-      Parser p = new Parser(localFileUtils, symTab, memory, instructionBuilder);
+      SimulatorContext context = new SimulatorContext(cfg, new LocalFileUtils());
+      Memory memory = context.getMemory();
+      CPU c = context.getCPU();
+      Main.configureTracer(c);
+      SymbolTable symTab = context.getSymbolTable();
+      Dinero dinero = context.getDinero();
+      Parser p = context.getParser();
       c.setStatus(CPU.CPUStatus.READY);
 
+      // Undo journal for the back command, if enabled with the history command.
+      History history = createHistory(c, memory, dinero, cfg.getInt(ConfigKey.HISTORY_SIZE));
+
+      // Timing model of the caches, if enabled.
+      try {
+        context.setupMemoryTiming();
+      } catch (IllegalArgumentException e) {
+        System.out.println("Modello di temporizzazione della memoria non valido, disabilitato: " + e.getMessage());
+      }
+
       // Initialization done. Print a welcome message and open the file if needed.
       System.out.println("Benvenuto nella shell di EduMIPS64!!");
       if (toOpen != null) {
@@ -92,6 +101,13 @@ public class MainCLI {
           help += "step\t\t\tfa avanzare di uno step la macchina a stati della CPU:\n";
           help += "step n\t\t\tfa avanzare di n step la macchina a stati della CPU:\n";
           help += "run\t\t\tesegue il programma fino a terminazione\n";
+          help += "run functional\t\tesegue il programma fino a terminazione senza simulare la pipeline\n";
+          help += "run sampled [f w m]\tesegue il programma alternando f istruzioni senza pipeline, w di riscaldamento\n";
+          help += "\t\t\te m misurate nella pipeline, e stima i cicli (default: 10000 1000 1000)\n";
+          help += "back [n]\t\tannulla gli ultimi n step (default: 1)\n";
+          help += "back register n\t\ttorna all'ultimo step che ha scritto il registro n\n";
+          help += "back memory a\t\ttorna all'ultimo step che ha scritto l'indirizzo a\n";
+          help += "history n\t\tregistra gli step per il comando back, usando fino a n MB (0 la disabilita)\n";
           help += "show registers\t\tmostra il contenuto dei registri\n";
           help += "show memory\t\tmostra il contenuto della memoria\n";
           help += "show symbols\t\tmostra il contenuto della symbol table\n";
@@ -119,6 +135,39 @@ public class MainCLI {
               System.out.println("Bisogna fornire almeno un parametro al comando show");
             }
           }
+        } else if (tokens[0].compareTo("run") == 0 && tokens.length > 1 && tokens[1].compareTo("functional") == 0) {
+            // Functional mode: no pipeline, and no Dinero trace, which the CLI never writes.
+            FunctionalEngine engine = new FunctionalEngine(c, memory);
+            dinero.setEnabled(false);
+            long startTimeMs = System.currentTimeMillis();
+            try {
+              engine.run();
+            } catch (HaltException e) {
+              long endTimeMs = System.currentTimeMillis();
+              long totalTimeMs = endTimeMs - startTimeMs;
+              System.out.println("Esecuzione terminata. " + c.getInstructions() + " istruzioni eseguite in " + totalTimeMs + "ms");
+            } finally {
+              dinero.setEnabled(true);
+            }
+        } else if (tokens[0].compareTo("run") == 0 && tokens.length > 1 && tokens[1].compareTo("sampled") == 0) {
+            try {
+              int fastForward = tokens.length > 2 ? Integer.parseInt(tokens[2]) : 10000;
+              int warmUp = tokens.length > 3 ? Integer.parseInt(tokens[3]) : 1000;
+              int window = tokens.length > 4 ? Integer.parseInt(tokens[4]) : 1000;
+              SamplingEngine engine = new SamplingEngine(c, memory, fastForward, warmUp, window);
+              try {
+                engine.run();
+              } catch (HaltException e) {
+                System.out.println("Esecuzione terminata. " + engine.getInstructions() + " istruzioni eseguite, " + engine.getSamples() + " campioni.");
+                System.out.println("Stime (intervallo di confidenza al 95%):");
+                System.out.println("CPI: " + engine.getCPI());
+                for (SamplingEngine.Counter counter : SamplingEngine.Counter.values()) {
+                  System.out.println(counter + ": " + engine.getTotal(counter));
+                }
+              }
+            } catch (NumberFormatException e) {
+              System.out.println("I parametri del comando run sampled devono essere numeri interi");
+            }
         } else if (tokens[0].compareTo("run") == 0) {
             int steps = 0;
             long startTimeMs = System.currentTimeMillis();
@@ -157,6 +206,45 @@ public class MainCLI {
           } catch (NumberFormatException e) {
             System.out.println("Il secondo parametro del comando step dev'essere un numero intero");
           }
+        } else if (tokens[0].compareTo("back") == 0) {
+          if (history == null) {
+            System.out.println("La cronologia degli step e' disabilitata, si attiva con il comando history");
+          } else {
+            try {
+              int undone;
+              if (tokens.length > 2 && tokens[1].compareTo("register") == 0) {
+                undone = history.runBackToRegisterWrite(Integer.parseInt(tokens[2]));
+              } else if (tokens.length > 2 && tokens[1].compareTo("memory") == 0) {
+                undone = history.runBackToMemoryWrite(Long.parseLong(tokens[2]));
+              } else {
+                undone = history.stepBack(tokens.length > 1 ? Integer.parseInt(tokens[1]) : 1);
+              }
+              System.out.println("Annullati " + undone + " step");
+              System.out.println(c.pipeLineString());
+            } catch (NumberFormatException e) {
+              System.out.println("I parametri del comando back devono essere numeri interi");
+            } catch (IllegalArgumentException e) {
+              System.out.println(e.getMessage());
+            }
+          }
+        } else if (tokens[0].compareTo("history") == 0) {
+          if (tokens.length < 2) {
+            System.out.println("Dimensione della cronologia: " + cfg.getInt(ConfigKey.HISTORY_SIZE) + " MB");
+          } else {
+            try {
+              int historySize = Integer.parseInt(tokens[1]);
+              if (historySize < 0) {
+                throw new NumberFormatException();
+              }
+              if (history != null) {
+                history.detach();
+              }
+              history = createHistory(c, memory, dinero, historySize);
+              cfg.putInt(ConfigKey.HISTORY_SIZE, historySize);
+            } catch (NumberFormatException e) {
+              System.out.println("Il parametro del comando history dev'essere un numero intero non negativo");
+            }
+          }
         } else {
           System.out.println("Comando non riconosciuto.\nDigitare 'help' per avere un elenco di comandi");
         }
@@ -170,4 +258,12 @@ public class MainCLI {
       System.exit(1);
     }
   }
+
+  // Starts recording the steps in a journal of the given MB, or returns null if the size is 0.
+  private static History createHistory(CPU cpu, Memory memory, Dinero dinero, int megabytes) {
+    if (megabytes <= 0) {
+      return null;
+    }
+    return new History(cpu, memory, dinero, History.DEFAULT_SNAPSHOT_INTERVAL, megabytes * 1024L * 1024L);
+  }
 }
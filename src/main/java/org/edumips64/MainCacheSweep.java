@@ -0,0 +1,117 @@
+package org.edumips64;
+
+import org.edumips64.analysis.CacheSweep;
+import org.edumips64.core.*;
+import org.edumips64.core.cache.AccessTrace;
+import org.edumips64.core.cache.CacheSimulator;
+import org.edumips64.utils.io.StringWriter;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Cache-configuration sweep: runs a program once, recording its memory accesses, then evaluates a grid of cache
+ * hierarchies on them in parallel (see CacheSweep), and writes the results as CSV or as a table of miss rates.
+ *
+ * Usage: MainCacheSweep [-j threads] [-m max_cycles] [-o output_file] [-t] program grid
+ *
+ * The grid is made of DineroIV options with comma-separated alternatives, e.g.
+ * "-l1-dsize 8k,16k,32k -l1-dbsize 32,64 -l1-dassoc 1,2,4 -l1-isize 16k -l1-ibsize 64".
+ */
+public class MainCacheSweep {
+  public static void main(String args[]) {
+    int threads = Runtime.getRuntime().availableProcessors();
+    long maxCycles = MainBatch.DEFAULT_MAX_CYCLES;
+    String outputFile = null;
+    boolean table = false;
+    String program = null;
+    String grid = null;
+
+    try {
+      for (int i = 0; i < args.length; ++i) {
+        if (args[i].equals("-j") && i + 1 < args.length) {
+          threads = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-m") && i + 1 < args.length) {
+          maxCycles = Long.parseLong(args[++i]);
+        } else if (args[i].equals("-o") && i + 1 < args.length) {
+          outputFile = args[++i];
+        } else if (args[i].equals("-t")) {
+          table = true;
+        } else if (program == null && !args[i].startsWith("-")) {
+          program = args[i];
+        } else if (program != null && grid == null) {
+          grid = args[i];
+        } else {
+          usageAndExit("Unrecognized argument: " + args[i]);
+        }
+      }
+    } catch (NumberFormatException e) {
+      usageAndExit(e.getMessage());
+    }
+    if (program == null || grid == null) {
+      usageAndExit("The program and the grid are required");
+    }
+    if (threads <= 0 || maxCycles <= 0) {
+      usageAndExit("The number of threads and the maximum number of cycles must be positive");
+    }
+
+    List<String> configurations = null;
+    try {
+      configurations = CacheSweep.expand(grid);
+      for (String configuration : configurations) {
+        CacheSimulator.parse(configuration);
+      }
+    } catch (IllegalArgumentException e) {
+      usageAndExit("Invalid grid: " + e.getMessage());
+    }
+
+    CommandLineTools.silenceLogging();
+
+    try {
+      long start = System.nanoTime();
+      AccessTrace trace = record(new File(program), maxCycles);
+      long recordMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      start = System.nanoTime();
+      List<CacheSimulator> results = new CacheSweep(trace).run(configurations, threads);
+      long sweepMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      String output = table ? CacheSweep.toTable(configurations, results)
+          : CacheSweep.toCsv(configurations, results);
+      try (Writer out = new BufferedWriter(outputFile == null
+          ? new OutputStreamWriter(System.out, "UTF-8")
+          : new OutputStreamWriter(new FileOutputStream(outputFile), "UTF-8"))) {
+        out.write(output);
+      }
+      System.err.println(trace.size() + " accesses recorded in " + recordMs + " ms, " + configurations.size()
+          + " configurations on " + threads + " threads in " + sweepMs + " ms");
+    } catch (Exception e) {
+      System.err.println("Sweep failed: " + e);
+      System.exit(1);
+    }
+  }
+
+  /** Runs the program until it ends, or for at most maxCycles cycles, and returns its memory accesses. */
+  static AccessTrace record(File program, long maxCycles) throws Exception {
+    SimulatorContext context = CommandLineTools.newContext(CommandLineTools.newConfig(Collections.emptyMap()),
+        new StringWriter());
+    Dinero dinero = context.getDinero();
+    dinero.setEnabled(false);
+    AccessTrace trace = new AccessTrace();
+    dinero.addListener(trace);
+    context.load(program.getAbsolutePath());
+    context.run(maxCycles, null);
+    return trace;
+  }
+
+  private static void usageAndExit(String error) {
+    CommandLineTools.usageAndExit(error,
+        "Usage: MainCacheSweep [-j threads] [-m max_cycles] [-o output_file] [-t] program grid",
+        "  -j threads\t\tnumber of worker threads (default: number of cores)",
+        "  -m max_cycles\t\tstops the program after this many cycles (default: " + MainBatch.DEFAULT_MAX_CYCLES + ")",
+        "  -o output_file\twrites the results there instead of the standard output",
+        "  -t\t\t\twrites a table of miss rates instead of CSV",
+        "  grid\t\t\tDineroIV options with comma-separated values, e.g. \"-l1-usize 8k,16k -l1-ubsize 64\"");
+  }
+}
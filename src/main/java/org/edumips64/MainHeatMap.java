@@ -0,0 +1,100 @@
+package org.edumips64;
+
+import org.edumips64.analysis.HeatMapReport;
+import org.edumips64.core.*;
+import org.edumips64.utils.ConfigStore;
+import org.edumips64.utils.io.StringWriter;
+
+import java.io.*;
+import java.util.Collections;
+
+/** Memory heat map: runs a program counting the accesses to each data cell (see MemoryHeatMap), then writes a
+ * summary of the working set and of the reuse distances to the standard output, and the heat map as CSV and PNG
+ * (see HeatMapReport). Runs headless.
+ *
+ * Usage: MainHeatMap [-m max_cycles] [-w window] [-o csv_file] [-s working_set_csv_file] [-p png_file] program
+ */
+public class MainHeatMap {
+  private static final int DEFAULT_WINDOW = 1000;
+
+  public static void main(String args[]) {
+    long maxCycles = MainBatch.DEFAULT_MAX_CYCLES;
+    int window = DEFAULT_WINDOW;
+    String csvFile = null;
+    String workingSetFile = null;
+    String pngFile = null;
+    String program = null;
+
+    try {
+      for (int i = 0; i < args.length; ++i) {
+        if (args[i].equals("-m") && i + 1 < args.length) {
+          maxCycles = Long.parseLong(args[++i]);
+        } else if (args[i].equals("-w") && i + 1 < args.length) {
+          window = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-o") && i + 1 < args.length) {
+          csvFile = args[++i];
+        } else if (args[i].equals("-s") && i + 1 < args.length) {
+          workingSetFile = args[++i];
+        } else if (args[i].equals("-p") && i + 1 < args.length) {
+          pngFile = args[++i];
+        } else if (program == null && !args[i].startsWith("-")) {
+          program = args[i];
+        } else {
+          usageAndExit("Unrecognized argument: " + args[i]);
+        }
+      }
+    } catch (NumberFormatException e) {
+      usageAndExit(e.getMessage());
+    }
+    if (program == null) {
+      usageAndExit("The program is required");
+    }
+    if (maxCycles <= 0 || window <= 0) {
+      usageAndExit("The maximum number of cycles and the window must be positive");
+    }
+
+    System.setProperty("java.awt.headless", "true");
+    CommandLineTools.silenceLogging();
+
+    try {
+      ConfigStore config = CommandLineTools.newConfig(Collections.emptyMap());
+      SimulatorContext context = CommandLineTools.newContext(config, new StringWriter());
+      MemoryHeatMap heatMap = record(context, new File(program), maxCycles, window);
+      HeatMapReport report = new HeatMapReport(heatMap, context.getSymbolTable().getCellLabels());
+      System.out.print(report.toSummary());
+      if (csvFile != null) {
+        CommandLineTools.write(csvFile, report.toCsv());
+      }
+      if (workingSetFile != null) {
+        CommandLineTools.write(workingSetFile, report.toWorkingSetCsv());
+      }
+      if (pngFile != null) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(pngFile))) {
+          report.writePng(out);
+        }
+      }
+    } catch (Exception e) {
+      System.err.println("Heat map failed: " + e);
+      System.exit(1);
+    }
+  }
+
+  /** Runs the program until it ends, or for at most maxCycles cycles, and returns the accesses to its data. */
+  static MemoryHeatMap record(SimulatorContext context, File program, long maxCycles, int window) throws Exception {
+    context.load(program.getAbsolutePath());
+    MemoryHeatMap heatMap = new MemoryHeatMap(window);
+    context.getCPU().setHeatMap(heatMap);
+    context.run(maxCycles, null);
+    return heatMap;
+  }
+
+  private static void usageAndExit(String error) {
+    CommandLineTools.usageAndExit(error,
+        "Usage: MainHeatMap [-m max_cycles] [-w window] [-o csv_file] [-s working_set_csv_file] [-p png_file] program",
+        "  -m max_cycles\t\tstops the program after this many cycles (default: " + MainBatch.DEFAULT_MAX_CYCLES + ")",
+        "  -w window\t\tcycles in each window of the working set (default: " + DEFAULT_WINDOW + ")",
+        "  -o csv_file\t\twrites the accesses to each cell there, as CSV",
+        "  -s working_set_csv_file\twrites the working set of each window there, as CSV",
+        "  -p png_file\t\twrites the heat map there, as a PNG image");
+  }
+}
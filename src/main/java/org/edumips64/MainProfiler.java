@@ -0,0 +1,97 @@
+package org.edumips64;
+
+import org.edumips64.analysis.ProfileReport;
+import org.edumips64.core.*;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.io.StringWriter;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Execution profiler: runs a program with a Profiler attached to the CPU and writes the instructions that took
+ * the most cycles, with their stalls, to the standard output (see ProfileReport). The annotated source and the
+ * collapsed stacks for flame graphs can be written to files as well.
+ *
+ * Usage: MainProfiler [-m max_cycles] [-n top] [-a annotated_file] [-f folded_file] [-c key=value]... program
+ *
+ * Each -c option sets a configuration key, using the names of the keys as in MainBatch (e.g. -c forwarding=false,
+ * or -c memory_timing=true to charge the cache misses to the instructions).
+ */
+public class MainProfiler {
+  public static void main(String args[]) {
+    long maxCycles = MainBatch.DEFAULT_MAX_CYCLES;
+    int top = 20;
+    String annotatedFile = null;
+    String foldedFile = null;
+    String program = null;
+    Map<ConfigKey, Object> config = new LinkedHashMap<>();
+
+    try {
+      for (int i = 0; i < args.length; ++i) {
+        if (args[i].equals("-m") && i + 1 < args.length) {
+          maxCycles = Long.parseLong(args[++i]);
+        } else if (args[i].equals("-n") && i + 1 < args.length) {
+          top = Integer.parseInt(args[++i]);
+        } else if (args[i].equals("-a") && i + 1 < args.length) {
+          annotatedFile = args[++i];
+        } else if (args[i].equals("-f") && i + 1 < args.length) {
+          foldedFile = args[++i];
+        } else if (args[i].equals("-c") && i + 1 < args.length) {
+          CommandLineTools.parseConfig(args[++i], config);
+        } else if (program == null && !args[i].startsWith("-")) {
+          program = args[i];
+        } else {
+          usageAndExit("Unrecognized argument: " + args[i]);
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      usageAndExit(e.getMessage());
+    }
+    if (program == null) {
+      usageAndExit("The program is required");
+    }
+    if (maxCycles <= 0) {
+      usageAndExit("The maximum number of cycles must be positive");
+    }
+
+    CommandLineTools.silenceLogging();
+
+    try {
+      SimulatorContext context = CommandLineTools.newContext(CommandLineTools.newConfig(config), new StringWriter());
+      Profiler profiler = profile(context, new File(program), maxCycles);
+      ProfileReport report = new ProfileReport(profiler);
+      System.out.print(report.toTable(top));
+      if (annotatedFile != null) {
+        CommandLineTools.write(annotatedFile, report.toAnnotatedSource(context.getParser()));
+      }
+      if (foldedFile != null) {
+        CommandLineTools.write(foldedFile, report.toCollapsedStacks());
+      }
+      System.err.println(profiler.getCycles() + " cycles, " + context.getCPU().getInstructions() + " instructions");
+    } catch (Exception e) {
+      System.err.println("Profiling failed: " + e);
+      System.exit(1);
+    }
+  }
+
+  /** Runs the program until it ends, or for at most maxCycles cycles, and returns its profile. */
+  static Profiler profile(SimulatorContext context, File program, long maxCycles) throws Exception {
+    context.load(program.getAbsolutePath());
+    Profiler profiler = new Profiler(context.getMemory());
+    context.getCPU().setProfiler(profiler);
+    context.run(maxCycles, null);
+    return profiler;
+  }
+
+  private static void usageAndExit(String error) {
+    CommandLineTools.usageAndExit(error,
+        "Usage: MainProfiler [-m max_cycles] [-n top] [-a annotated_file] [-f folded_file] [-c key=value]... "
+            + "program",
+        "  -m max_cycles\t\tstops the program after this many cycles (default: " + MainBatch.DEFAULT_MAX_CYCLES + ")",
+        "  -n top\t\tnumber of instructions in the report, 0 for all (default: 20)",
+        "  -a annotated_file\twrites the source annotated with cycles and stalls there",
+        "  -f folded_file\twrites the cycles by call path there, as collapsed stacks for flame graphs",
+        "  -c key=value\t\tsets a configuration key (e.g. memory_timing=true)");
+  }
+}
@@ -0,0 +1,137 @@
+package org.edumips64.analysis;
+
+import org.edumips64.core.cache.AccessTrace;
+import org.edumips64.core.cache.Cache;
+import org.edumips64.core.cache.CacheConfig;
+import org.edumips64.core.cache.CacheSimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/** Evaluates a grid of cache hierarchies on the same recorded access stream. Each configuration replays the trace
+ * on its own CacheSimulator, and the configurations run in parallel on a work-stealing pool: the program is
+ * simulated once, and with enough cores the whole grid takes about as long as its slowest configuration.
+ *
+ * Grids are written as DineroIV options with comma-separated alternatives, e.g.
+ * "-l1-usize 8k,16k -l1-ubsize 32,64 -l1-uassoc 1,2" is a grid of 8 configurations.
+ */
+public class CacheSweep {
+  // Columns of the CSV output.
+  private static final List<String> COLUMNS = Arrays.asList("configuration", "cache", "size", "block_size",
+      "associativity", "replacement", "write_back", "write_allocate", "accesses", "misses", "miss_rate", "evictions",
+      "writebacks");
+
+  private AccessTrace trace;
+
+  public CacheSweep(AccessTrace trace) {
+    this.trace = trace;
+  }
+
+  /** Returns the options of every configuration of the grid, in order: the last option varies fastest. */
+  public static List<String> expand(String grid) {
+    List<String> configurations = new ArrayList<>();
+    configurations.add("");
+    if (grid.trim().isEmpty()) {
+      return configurations;
+    }
+    String[] tokens = grid.trim().split("\\s+");
+    if (tokens.length % 2 != 0) {
+      throw new IllegalArgumentException("Missing value for option " + tokens[tokens.length - 1]);
+    }
+    for (int i = 0; i < tokens.length; i += 2) {
+      List<String> expanded = new ArrayList<>();
+      for (String configuration : configurations) {
+        for (String value : tokens[i + 1].split(",")) {
+          if (value.isEmpty()) {
+            throw new IllegalArgumentException("Empty value for option " + tokens[i]);
+          }
+          expanded.add((configuration.isEmpty() ? "" : configuration + " ") + tokens[i] + " " + value);
+        }
+      }
+      configurations = expanded;
+    }
+    return configurations;
+  }
+
+  /** Simulates each configuration on the trace, on the given number of threads.
+   * @return the simulators, after the replay, in the order of the configurations
+   * @throws IllegalArgumentException if a configuration is not valid, before anything is simulated
+   */
+  public List<CacheSimulator> run(List<String> configurations, int threads) {
+    List<CacheSimulator> simulators = new ArrayList<>();
+    for (String configuration : configurations) {
+      try {
+        simulators.add(CacheSimulator.parse(configuration));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(configuration + ": " + e.getMessage(), e);
+      }
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      List<ForkJoinTask<?>> tasks = new ArrayList<>();
+      for (CacheSimulator simulator : simulators) {
+        tasks.add(pool.submit(() -> trace.replay(simulator)));
+      }
+      for (ForkJoinTask<?> task : tasks) {
+        task.join();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    return simulators;
+  }
+
+  /** Returns the results as CSV, a row per cache of each configuration. */
+  public static String toCsv(List<String> configurations, List<CacheSimulator> simulators) {
+    StringBuilder sb = new StringBuilder(String.join(",", COLUMNS)).append('\n');
+    for (int i = 0; i < configurations.size(); i++) {
+      for (Cache cache : simulators.get(i).getCaches()) {
+        CacheConfig config = cache.getConfig();
+        sb.append('"').append(configurations.get(i).replace("\"", "\"\"")).append('"');
+        sb.append(',').append(cache.getName());
+        sb.append(',').append(config.getSize());
+        sb.append(',').append(config.getBlockSize());
+        sb.append(',').append(config.getAssociativity());
+        sb.append(',').append(config.getReplacement());
+        sb.append(',').append(config.isWriteBack());
+        sb.append(',').append(config.isWriteAllocate());
+        sb.append(',').append(cache.getAccesses());
+        sb.append(',').append(cache.getMisses());
+        sb.append(',').append(String.format(Locale.ROOT, "%.6f", cache.getMissRate()));
+        sb.append(',').append(cache.getEvictions());
+        sb.append(',').append(cache.getWritebacks());
+        sb.append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
+  /** Returns the miss rates as a table, a row per configuration and a column per cache. */
+  public static String toTable(List<String> configurations, List<CacheSimulator> simulators) {
+    int width = "configuration".length();
+    for (String configuration : configurations) {
+      width = Math.max(width, configuration.length());
+    }
+
+    StringBuilder sb = new StringBuilder(String.format("%-" + width + "s", "configuration"));
+    if (!simulators.isEmpty()) {
+      for (Cache cache : simulators.get(0).getCaches()) {
+        sb.append(String.format("  %10s", cache.getName()));
+      }
+    }
+    sb.append('\n');
+    for (int i = 0; i < configurations.size(); i++) {
+      sb.append(String.format("%-" + width + "s", configurations.get(i)));
+      for (Cache cache : simulators.get(i).getCaches()) {
+        sb.append(String.format(Locale.ROOT, "  %9.2f%%", cache.getMissRate() * 100));
+      }
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+}
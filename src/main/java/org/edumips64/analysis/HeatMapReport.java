@@ -0,0 +1,201 @@
+package org.edumips64.analysis;
+
+import org.edumips64.core.MemoryHeatMap;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Exports of a MemoryHeatMap: the accesses of each data cell as CSV, with the data label it belongs to, the working
+ * set of each window as CSV, a summary of the reuse distances, and a PNG image of the accesses over time.
+ *
+ * The image has a row for each cell, in increasing order of address as in the CSV, and a column for each window;
+ * the brightness of each point grows with the logarithm of the accesses. A band on the left changes color at the
+ * start of each label. Large heat maps are scaled down by adding up neighbouring cells and windows.
+ */
+public class HeatMapReport {
+  private static final int MAX_ROWS = 1024;
+  private static final int MAX_COLUMNS = 1024;
+  private static final int LABEL_BAND = 6;
+
+  private MemoryHeatMap heatMap;
+  private TreeMap<Integer, String> labels;
+
+  /** @param labels labels of the data cells by address, see SymbolTable.getCellLabels() */
+  public HeatMapReport(MemoryHeatMap heatMap, Map<Integer, String> labels) {
+    this.heatMap = heatMap;
+    this.labels = new TreeMap<>(labels);
+  }
+
+  /** Returns the cells of the heat map in increasing order of address. */
+  public List<Integer> getCellsByAddress() {
+    List<Integer> cells = new ArrayList<>();
+    for (int cell = 0; cell < heatMap.getCells(); cell++) {
+      cells.add(cell);
+    }
+    Collections.sort(cells, (a, b) -> Long.compare(heatMap.getAddress(a), heatMap.getAddress(b)));
+    return cells;
+  }
+
+  /** Returns the label of the given address, followed by the offset from it if it is not labeled itself, e.g.
+   * "array+16". Addresses before the first label are written in hexadecimal. */
+  public String getLabel(long address) {
+    Map.Entry<Integer, String> label = address > Integer.MAX_VALUE ? labels.lastEntry()
+        : labels.floorEntry((int) address);
+    if (label == null) {
+      return String.format("0x%X", address);
+    }
+    return address == label.getKey() ? label.getValue() : label.getValue() + "+" + (address - label.getKey());
+  }
+
+  /** Returns the reads, writes and mean reuse distance of each cell, in increasing order of address. */
+  public String toCsv() {
+    StringBuilder sb = new StringBuilder("address,label,reads,writes,accesses,mean_reuse_distance\n");
+    for (int cell : getCellsByAddress()) {
+      double distance = heatMap.getMeanReuseDistance(cell);
+      sb.append(heatMap.getAddress(cell)).append(',')
+          .append(getLabel(heatMap.getAddress(cell))).append(',')
+          .append(heatMap.getReads(cell)).append(',')
+          .append(heatMap.getWrites(cell)).append(',')
+          .append(heatMap.getReads(cell) + heatMap.getWrites(cell)).append(',')
+          .append(Double.isNaN(distance) ? "" : String.format(Locale.ROOT, "%.2f", distance)).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /** Returns the accesses and the working set, in cells and bytes, of each window. */
+  public String toWorkingSetCsv() {
+    StringBuilder sb = new StringBuilder("window,first_cycle,accesses,working_set_cells,working_set_bytes\n");
+    for (int w = 0; w < heatMap.getWindows(); w++) {
+      sb.append(w).append(',')
+          .append((long) w * heatMap.getWindowSize() + 1).append(',')
+          .append(heatMap.getWindowAccesses(w)).append(',')
+          .append(heatMap.getWorkingSet(w)).append(',')
+          .append(heatMap.getWorkingSet(w) * 8L).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /** Returns the totals, the working set and the reuse distances. Next to each range of distances is the hit rate
+   * of a fully associative LRU cache with one more cell than the end of the range. */
+  public String toSummary() {
+    long reads = 0;
+    long writes = 0;
+    for (int cell = 0; cell < heatMap.getCells(); cell++) {
+      reads += heatMap.getReads(cell);
+      writes += heatMap.getWrites(cell);
+    }
+    long total = reads + writes;
+    int maxWorkingSet = 0;
+    long sumWorkingSet = 0;
+    for (int w = 0; w < heatMap.getWindows(); w++) {
+      maxWorkingSet = Math.max(maxWorkingSet, heatMap.getWorkingSet(w));
+      sumWorkingSet += heatMap.getWorkingSet(w);
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format(Locale.ROOT, "%d reads, %d writes, %d cells (%d bytes)\n", reads, writes,
+        heatMap.getCells(), heatMap.getCells() * 8L));
+    sb.append(String.format(Locale.ROOT, "Working set over %d windows of %d cycles: max %d cells, mean %.1f cells\n",
+        heatMap.getWindows(), heatMap.getWindowSize(), maxWorkingSet,
+        (double) sumWorkingSet / heatMap.getWindows()));
+    sb.append(String.format(Locale.ROOT, "\n%-16s %12s %8s\n", "reuse distance", "accesses", "lru hits"));
+    sb.append(String.format(Locale.ROOT, "%-16s %12d\n", "first access", heatMap.getColdAccesses()));
+    long[] histogram = heatMap.getReuseHistogram();
+    long hits = 0;
+    for (int k = 0; k < histogram.length; k++) {
+      if (histogram[k] == 0) {
+        continue;
+      }
+      hits += histogram[k];
+      long low = k == 0 ? 0 : 1L << (k - 1);
+      long high = k == 0 ? 0 : (1L << k) - 1;
+      String range = low == high ? String.valueOf(low) : low + "-" + high;
+      sb.append(String.format(Locale.ROOT, "%-16s %12d %7.2f%%\n", range, histogram[k],
+          total == 0 ? 0.0 : hits * 100.0 / total));
+    }
+    return sb.toString();
+  }
+
+  /** Renders the heat map, see the class documentation. */
+  public BufferedImage toImage() {
+    List<Integer> cells = getCellsByAddress();
+    int[] rowOf = new int[heatMap.getCells()];
+    int cellsPerRow = Math.max(1, (cells.size() + MAX_ROWS - 1) / MAX_ROWS);
+    int rows = Math.max(1, (cells.size() + cellsPerRow - 1) / cellsPerRow);
+    for (int i = 0; i < cells.size(); i++) {
+      rowOf[cells.get(i)] = i / cellsPerRow;
+    }
+    int windowsPerColumn = Math.max(1, (heatMap.getWindows() + MAX_COLUMNS - 1) / MAX_COLUMNS);
+    int columns = (heatMap.getWindows() + windowsPerColumn - 1) / windowsPerColumn;
+
+    long[][] counts = new long[rows][columns];
+    long max = 0;
+    for (int w = 0; w < heatMap.getWindows(); w++) {
+      int[] windowCells = heatMap.getWindowCells(w);
+      int[] windowCounts = heatMap.getWindowCounts(w);
+      for (int i = 0; i < windowCells.length; i++) {
+        long count = counts[rowOf[windowCells[i]]][w / windowsPerColumn] += windowCounts[i];
+        max = Math.max(max, count);
+      }
+    }
+
+    // Small heat maps are scaled up to be readable.
+    int rowHeight = Math.max(1, 256 / rows);
+    int columnWidth = Math.max(1, 512 / columns);
+    BufferedImage image = new BufferedImage(LABEL_BAND + columns * columnWidth, rows * rowHeight,
+        BufferedImage.TYPE_INT_RGB);
+
+    // Label band: alternates between two colors at each label.
+    String previous = null;
+    boolean odd = false;
+    for (int i = 0; i < cells.size(); i += cellsPerRow) {
+      String label = labels.isEmpty() ? "" : getLabel(heatMap.getAddress(cells.get(i))).replaceAll("\\+\\d+$", "");
+      if (!label.equals(previous)) {
+        odd = !odd;
+        previous = label;
+      }
+      fill(image, 0, rowOf[cells.get(i)] * rowHeight, LABEL_BAND, rowHeight, odd ? 0x4080C0 : 0x204060);
+    }
+
+    double scale = Math.log1p(max);
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < columns; c++) {
+        if (counts[r][c] != 0) {
+          fill(image, LABEL_BAND + c * columnWidth, r * rowHeight, columnWidth, rowHeight,
+              heat(Math.log1p(counts[r][c]) / scale));
+        }
+      }
+    }
+    return image;
+  }
+
+  /** Writes the image of the heat map as PNG. Works in headless mode. */
+  public void writePng(OutputStream out) throws IOException {
+    ImageIO.write(toImage(), "png", out);
+  }
+
+  private static void fill(BufferedImage image, int x, int y, int width, int height, int rgb) {
+    for (int i = x; i < x + width; i++) {
+      for (int j = y; j < y + height; j++) {
+        image.setRGB(i, j, rgb);
+      }
+    }
+  }
+
+  // From dark red to red, yellow and white, for t from 0 to 1.
+  private static int heat(double t) {
+    double v = 0.15 + 0.85 * t;
+    int red = (int) Math.round(255 * Math.min(1, v * 3));
+    int green = (int) Math.round(255 * Math.max(0, Math.min(1, v * 3 - 1)));
+    int blue = (int) Math.round(255 * Math.max(0, Math.min(1, v * 3 - 2)));
+    return (red << 16) | (green << 8) | blue;
+  }
+}
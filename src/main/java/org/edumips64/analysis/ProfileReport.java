@@ -0,0 +1,132 @@
+package org.edumips64.analysis;
+
+import org.edumips64.core.Profiler;
+import org.edumips64.core.Profiler.Counter;
+import org.edumips64.core.is.InstructionInterface;
+import org.edumips64.core.parser.Parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Exports of an execution profile (see Profiler): a report of the instructions sorted by the cycles charged to
+ * them, the source code annotated with the same figures, and the cycles by call path in the collapsed-stack format
+ * read by flame graph tools (one "frame;frame;...;leaf count" line per stack).
+ */
+public class ProfileReport {
+  private Profiler profiler;
+
+  public ProfileReport(Profiler profiler) {
+    this.profiler = profiler;
+  }
+
+  /** Returns the addresses of the profiled instructions, from the one that was charged the most cycles. */
+  public List<Integer> getHotAddresses() {
+    List<Integer> addresses = profiler.getAddresses();
+    Collections.sort(addresses, (a, b) -> {
+      int cmp = Long.compare(profiler.get(b, Counter.CYCLES), profiler.get(a, Counter.CYCLES));
+      return cmp != 0 ? cmp : Integer.compare(a, b);
+    });
+    return addresses;
+  }
+
+  /** Returns a table of the top instructions by cycles, with their executions, cycles per execution, stall cycles
+   * and the RAW stalls they caused to later instructions. If top is not positive, all instructions are listed.
+   */
+  public String toTable(int top) {
+    StringBuilder sb = new StringBuilder(String.format(Locale.ROOT,
+        "%-8s %10s %7s %10s %7s %8s %8s %8s %8s %8s  %s\n", "address", "cycles", "%", "executions", "cpi",
+        "raw", "raw_by", "waw", "struct", "cache", "instruction"));
+    long total = profiler.getCycles();
+    int rows = 0;
+    for (int address : getHotAddresses()) {
+      if (top > 0 && rows++ == top) {
+        break;
+      }
+      long cycles = profiler.get(address, Counter.CYCLES);
+      long executions = profiler.get(address, Counter.EXECUTIONS);
+      sb.append(String.format(Locale.ROOT, "%08X %10d %6.2f%% %10d %7s %8d %8d %8d %8d %8d  %s\n", address, cycles,
+          total == 0 ? 0.0 : cycles * 100.0 / total, executions,
+          executions == 0 ? "-" : String.format(Locale.ROOT, "%.2f", (double) cycles / executions),
+          profiler.get(address, Counter.RAW_STALLS), profiler.get(address, Counter.RAW_CAUSED),
+          profiler.get(address, Counter.WAW_STALLS), profiler.get(address, Counter.STRUCTURAL_STALLS),
+          profiler.get(address, Counter.CACHE_MISS_STALLS), describe(address, true)));
+    }
+    return sb.toString();
+  }
+
+  /** Returns the source code parsed by the given parser, each line holding an instruction prefixed by its cycles,
+   * executions and stall cycles (RAW, WAW, structural and cache misses together). */
+  public String toAnnotatedSource(Parser parser) {
+    Map<Integer, Integer> addressByRow = new HashMap<>();
+    for (int address : profiler.getAddresses()) {
+      int row = parser.getSourceRow(address);
+      if (row > 0) {
+        addressByRow.put(row, address);
+      }
+    }
+
+    StringBuilder sb = new StringBuilder(String.format(Locale.ROOT, "%10s %10s %8s | %5s\n", "cycles",
+        "executions", "stalls", "line"));
+    String[] lines = parser.getSourceLines();
+    for (int i = 0; i < lines.length; i++) {
+      Integer address = addressByRow.get(i + 1);
+      if (address == null) {
+        sb.append(String.format(Locale.ROOT, "%10s %10s %8s | %5d  %s\n", "", "", "", i + 1, lines[i]));
+      } else {
+        long stalls = profiler.get(address, Counter.RAW_STALLS) + profiler.get(address, Counter.WAW_STALLS)
+            + profiler.get(address, Counter.STRUCTURAL_STALLS) + profiler.get(address, Counter.CACHE_MISS_STALLS);
+        sb.append(String.format(Locale.ROOT, "%10d %10d %8d | %5d  %s\n", profiler.get(address, Counter.CYCLES),
+            profiler.get(address, Counter.EXECUTIONS), stalls, i + 1, lines[i]));
+      }
+    }
+    return sb.toString();
+  }
+
+  /** Returns the cycles by call path as collapsed stacks. Frames are named after the label of the first instruction
+   * of each function (or its address, if unlabeled), starting from "main"; the leaf is the instruction. */
+  public String toCollapsedStacks() {
+    // Sorted for a stable output.
+    Map<String, Long> stacks = new TreeMap<>();
+    for (long[] sample : profiler.getPathCycles()) {
+      String leaf = describe((int) sample[1], false).replace(';', ',').replace(' ', '_');
+      String stack = path((int) sample[0]) + ";" + leaf;
+      Long count = stacks.get(stack);
+      stacks.put(stack, (count == null ? 0 : count) + sample[2]);
+    }
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, Long> e : stacks.entrySet()) {
+      sb.append(e.getKey()).append(' ').append(e.getValue()).append('\n');
+    }
+    return sb.toString();
+  }
+
+  // Frames of the given call path, from the program down.
+  private String path(int path) {
+    List<String> frames = new ArrayList<>();
+    for (int p = path; p > 0; p = profiler.getCaller(p)) {
+      int entry = profiler.getEntry(p);
+      InstructionInterface instruction = profiler.getInstruction(entry);
+      String label = instruction == null ? null : instruction.getLabel();
+      frames.add(label == null || label.isEmpty() ? String.format("%08X", entry) : label);
+    }
+    frames.add("main");
+    Collections.reverse(frames);
+    return String.join(";", frames);
+  }
+
+  // The address and the code of the instruction at the given address, optionally with its label.
+  private String describe(int address, boolean withLabel) {
+    InstructionInterface instruction = profiler.getInstruction(address);
+    if (instruction == null) {
+      return String.format("%08X", address);
+    }
+    String label = withLabel ? instruction.getLabel() : null;
+    return String.format("%08X %s%s", address, label == null || label.isEmpty() ? "" : label + ": ",
+        instruction.getFullName().trim());
+  }
+}
@@ -5,13 +5,8 @@ import com.google.gwt.core.client.EntryPoint;
 import jsinterop.annotations.JsType;
 
 import org.edumips64.core.*;
-import org.edumips64.core.is.BUBBLE;
 import org.edumips64.core.is.HaltException;
-import org.edumips64.core.is.InstructionBuilder;
 import org.edumips64.core.parser.Parser;
-import org.edumips64.utils.ConfigStore;
-import org.edumips64.utils.InMemoryConfigStore;
-import org.edumips64.utils.io.FileUtils;
 import org.edumips64.utils.io.NullFileUtils;
 
 import java.util.logging.Logger;
@@ -23,6 +18,14 @@ public class WebUi implements EntryPoint {
   private SymbolTable symTab;
   private Memory memory;
   private Dinero dinero;
+  private FunctionalEngine functionalEngine;
+
+  // If set, programs are executed by the FunctionalEngine, without modeling the pipeline.
+  private boolean functionalMode;
+
+  public void setFunctionalMode(boolean functionalMode) {
+    this.functionalMode = functionalMode;
+  }
 
   // Executes the program. Returns an empty string on success, or an error message.
   public String runProgram(String code) {
@@ -31,6 +34,7 @@ public class WebUi implements EntryPoint {
     try {
       cpu.reset();
       dinero.reset();
+      dinero.setEnabled(!functionalMode);
       symTab.reset();
       logger.info("About to parse it.");
       parser.doParsing(code);
@@ -38,7 +42,11 @@ public class WebUi implements EntryPoint {
       logger.info("Parsed. Running.");
       cpu.setStatus(CPU.CPUStatus.RUNNING);
       while (true) {
-        cpu.step();
+        if (functionalMode) {
+          functionalEngine.step();
+        } else {
+          cpu.step();
+        }
       }
     } catch (HaltException e) {
       logger.info("All done.");
@@ -73,14 +81,12 @@ public class WebUi implements EntryPoint {
 
   public void init() {
     // Simulator initialization.
-    ConfigStore config = new InMemoryConfigStore(ConfigStore.defaults);
-    memory = new Memory();
-    symTab = new SymbolTable(memory);
-    FileUtils fu = new NullFileUtils();
-    IOManager iom = new IOManager(fu, memory);
-    cpu = new CPU(memory, config, new BUBBLE());
-    dinero = new Dinero();
-    InstructionBuilder instructionBuilder = new InstructionBuilder(memory, iom, cpu, dinero, config);
-    parser = new Parser(fu, symTab, memory, instructionBuilder);
+    SimulatorContext context = new SimulatorContext(new NullFileUtils());
+    memory = context.getMemory();
+    symTab = context.getSymbolTable();
+    cpu = context.getCPU();
+    dinero = context.getDinero();
+    parser = context.getParser();
+    functionalEngine = new FunctionalEngine(cpu, memory);
   }
 }
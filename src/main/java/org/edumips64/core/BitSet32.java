@@ -33,6 +33,13 @@ public class BitSet32 extends FixedBitSet {
   public BitSet32() {
     super(32);
   }
+
+  /** Returns the content of this BitSet32 as an int.
+   * @return the 32 bits of this BitSet32
+   */
+  public int getInt() {
+    return (int) getLong();
+  }
 }
 
 
@@ -23,17 +23,27 @@
 package org.edumips64.core;
 
 /** This class models a 64-bit array, useful for registers and memory representation.
+ * Bytes are numbered from the least significant one: byte 0 holds bits 0-7,
+ * byte 7 holds bits 56-63.
  * @author Salvatore Scellato
  * */
 
 public class BitSet64 extends FixedBitSet {
 
-//  public final long MAX_DOUBLE = 9223372036854775808L;
   /** Creates a default new instance of BitSet64. */
   public BitSet64() {
     super(64);
   }
 
+  /** Writes the least significant width bits of value at the given byte offset, leaving the rest of
+   * the FixedBitSet untouched.
+   */
+  private void writeField(long value, int offset, int width) {
+    int shift = offset * 8;
+    long fieldMask = ((1L << width) - 1) << shift;
+    setLong((getLongForUpdate() & ~fieldMask) | ((value << shift) & fieldMask));
+  }
+
   /** Writes an unsigned byte value into this FixedBitSet: the value to be written must be in the range [0, 255],
    * otherwise an exception will be thrown.
    * @param value number to be written: must be <CODE>0 &lt;= value &lt;= 255</CODE>
@@ -42,22 +52,9 @@ public class BitSet64 extends FixedBitSet {
   public void writeByteUnsigned(int value) throws IrregularWriteOperationException {
     if (value < 0 || value > 255) {
       throw new IrregularWriteOperationException();
-    } else {
-      String bits = Converter.positiveIntToBin(value);
-
-      try {
-
-        this.reset(false);
-        //dobbiamo scrivere solo negli ultimi 8 bit
-        //ma considerando la dimensione della nuova stringa di bit!!
-        this.setBits(bits, size - bits.length());
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-
     }
+
+    setLong(value);
   }
 
   /** Writes a byte value into this FixedBitSet: the value to be written must be in the range [-128, 127],
@@ -68,33 +65,10 @@ public class BitSet64 extends FixedBitSet {
   public void writeByte(int value) throws IrregularWriteOperationException {
     if (value < -128 || value > 127) {
       throw new IrregularWriteOperationException();
-    } else {
-      String bits = Converter.positiveIntToBin(value);
-
-      if (value >= 0) {
-        try {
-          this.reset(false);
-          this.setBits(bits, size - bits.length());
-        } catch (IrregularStringOfBitsException e) {
-          System.err.println("stringa errata: " + bits);
-          e.printStackTrace();
-          throw new IrregularWriteOperationException();
-        }
-      } else { //il numero Ãš negativo
-        value = -value;
-
-        try {
-          bits = Converter.twoComplement(bits);
-          //estensione del segno
-          this.reset(true);  //il numero Ãš negativo, ci vogliono tutti '1'
-          this.setBits(bits, size - bits.length());
-        } catch (IrregularStringOfBitsException e) {
-          System.err.println("stringa errata: " + bits);
-          e.printStackTrace();
-          throw new IrregularWriteOperationException();
-        }
-      }
     }
+
+    // Sign extension is performed by the int to long conversion.
+    setLong(value);
   }
 
   /** Writes a byte value into this FixedBitSet with an offset: the value to be written must be in the range [-128, 255],
@@ -104,35 +78,11 @@ public class BitSet64 extends FixedBitSet {
    * @throws IrregularWriteOperationException if value is not correct or anything else goes wrong during the operation
    */
   public void writeByte(int value, int offset) throws IrregularWriteOperationException {
-    offset *= 8;
-    offset = 56 - offset;
-
     if (value < -128 || value > 255) {
       throw new IrregularWriteOperationException();
-    } else {
-      String bits = Converter.positiveIntToBin(8, value);
-
-      if (value >= 0) {
-        try {
-          this.setBits(bits, offset);
-        } catch (IrregularStringOfBitsException e) {
-          System.err.println("stringa errata: " + bits);
-          e.printStackTrace();
-          throw new IrregularWriteOperationException();
-        }
-      } else { //il numero Ãš negativo
-        value = -value;
-
-        try {
-          bits = Converter.twoComplement(bits);
-          this.setBits(bits, offset);
-        } catch (IrregularStringOfBitsException e) {
-          System.err.println("stringa errata: " + bits);
-          e.printStackTrace();
-          throw new IrregularWriteOperationException();
-        }
-      }
     }
+
+    writeField(value, offset, 8);
   }
 
 
@@ -144,20 +94,9 @@ public class BitSet64 extends FixedBitSet {
   public void writeHalfUnsigned(int value) throws IrregularWriteOperationException {
     if (value < 0 || value > 65535) {
       throw new IrregularWriteOperationException();
-    } else {
-      String bits = Converter.positiveIntToBin(value);
-
-      try {
-        this.reset(false);
-        //dobbiamo scrivere solo negli ultimi 16 bit
-        this.setBits(bits, size - bits.length());
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-
     }
+
+    setLong(value);
   }
 
 
@@ -169,33 +108,9 @@ public class BitSet64 extends FixedBitSet {
   public void writeHalf(int value) throws IrregularWriteOperationException {
     if (value < -32768 || value > 32767) {
       throw new IrregularWriteOperationException();
-    } else {
-      String bits = Converter.positiveIntToBin(value);
-
-      if (value >= 0) {
-        try {
-          this.reset(false);
-          this.setBits(bits, size - bits.length());
-        } catch (IrregularStringOfBitsException e) {
-          System.err.println("stringa errata: " + bits);
-          e.printStackTrace();
-          throw new IrregularWriteOperationException();
-        }
-      } else { //il numero Ãš negativo
-        value = -value;
-
-        try {
-          bits = Converter.twoComplement(bits);
-          //estensione del segno
-          this.reset(true);  //il numero Ãš negativo, ci vogliono tutti '1'
-          this.setBits(bits, size - bits.length());
-        } catch (IrregularStringOfBitsException e) {
-          System.err.println("stringa errata: " + bits);
-          e.printStackTrace();
-          throw new IrregularWriteOperationException();
-        }
-      }
     }
+
+    setLong(value);
   }
   /** Writes a half-word (16 bit) value into this FixedBitSet with a ofset: the value to be written must be in the
    * range [-32768, 65536], otherwise an exception will be thrown.
@@ -205,37 +120,13 @@ public class BitSet64 extends FixedBitSet {
    * @throws NotAlignException if offset is not aligned to 16 bit
    */
   public void writeHalf(int value, int offset) throws IrregularWriteOperationException, NotAlignException {
-    offset *= 8;
-    offset = 48 - offset;
-
     if (value < -32768 || value > 65536) {
       throw new IrregularWriteOperationException();
-    } else if (offset % 16 !=  0) {
+    } else if (offset % 2 != 0) {
       throw new NotAlignException();
-    } else {
-      String bits = Converter.positiveIntToBin(16, value);
-
-      if (value >= 0) {
-        try {
-          this.setBits(bits, offset);
-        } catch (IrregularStringOfBitsException e) {
-          System.err.println("stringa errata: " + bits);
-          e.printStackTrace();
-          throw new IrregularWriteOperationException();
-        }
-      } else { //il numero Ãš negativo
-        value = -value;
-
-        try {
-          bits = Converter.twoComplement(bits);
-          this.setBits(bits, offset);
-        } catch (IrregularStringOfBitsException e) {
-          System.err.println("stringa errata: " + bits);
-          e.printStackTrace();
-          throw new IrregularWriteOperationException();
-        }
-      }
     }
+
+    writeField(value, offset, 16);
   }
 
   /** Writes an unsigned word (32 bit) value into this FixedBitSet: the value to be written must be in the range [0,4294967295],
@@ -246,55 +137,16 @@ public class BitSet64 extends FixedBitSet {
   public void writeWordUnsigned(long value) throws IrregularWriteOperationException, NotAlignException {
     if (value < 0 || value > 4294967295L) {
       throw new IrregularWriteOperationException();
-    } else {
-      String bits = Converter.positiveIntToBin(value);
-
-      try {
-        this.reset(false);
-        //dobbiamo scrivere solo negli ultimi 32 bit
-        this.setBits(bits, size - bits.length());
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-
     }
+
+    setLong(value);
   }
   /** Writes a word value (32 bit) into this FixedBitSet: the value to be written must be in the range [-2147483648, 2147483647],
    * otherwise an exception will be thrown (please note that this range is the same of the java <CODE>int</CODE> type).
    * @param value number to be written: must be <CODE>-2147483648 &lt;= value &lt;= 2147483647</CODE>
    */
   public void writeWord(int value) throws IrregularWriteOperationException {
-    if (value < -2147483648 || value > 2147483647) {
-      throw new IrregularWriteOperationException();
-    }
-
-    String bits = Converter.positiveIntToBin(value);
-
-    if (value >= 0) {
-      try {
-        this.reset(false);
-        this.setBits(bits, size - bits.length());
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-    } else { //il numero Ãš negativo
-      value = -value;
-
-      try {
-        bits = Converter.twoComplement(bits);
-        //estensione del segno
-        this.reset(true);  //il numero Ãš negativo, ci vogliono tutti '1'
-        this.setBits(bits, size - bits.length());
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-    }
+    setLong(value);
   }
 
 
@@ -306,37 +158,13 @@ public class BitSet64 extends FixedBitSet {
    * @throws NotAlignException if offset is not aligned to 32 bit
    */
   public void writeWord(long value, int offset) throws IrregularWriteOperationException, NotAlignException {
-    offset *= 8;
-    offset = 32 - offset;
-
     if (value < -2147483648 || value > 4294967295L) {
       throw new IrregularWriteOperationException();
-    } else if (offset % 32 !=  0) {
+    } else if (offset % 4 != 0) {
       throw new NotAlignException();
     }
 
-    String bits = Converter.positiveIntToBin(32, value);
-
-    if (value >= 0) {
-      try {
-        this.setBits(bits, offset);
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-    } else { //il numero Ãš negativo
-      value = -value;
-
-      try {
-        bits = Converter.twoComplement(bits);
-        this.setBits(bits, offset);
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-    }
+    writeField(value, offset, 32);
   }
 
 
@@ -347,45 +175,7 @@ public class BitSet64 extends FixedBitSet {
    * @throws IrregularWriteOperationException if value is not correct or anything else goes wrong during the operation
    */
   public void writeDoubleWord(long value) throws IrregularWriteOperationException {
-    String bits = Converter.positiveIntToBin(value);
-
-    if (value >= 0) {
-      try {
-        this.reset(false);
-        this.setBits(bits, size - bits.length());
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-    } else { //il numero Ãš negativo
-      if (value == -9223372036854775808L) {
-        //questo numero non puÃ² essere convertito dalla positiveIntToBin
-        //occorre fare a mano
-        //e mettere il valore "1000000....0000" (tutti zero nel mezzo)
-        this.reset(false);
-
-        try {
-          this.setBits("1", 0);
-        } catch (IrregularStringOfBitsException e) {} //non puÃ² accadere :-)
-
-        return;
-      }
-
-      value = -value;
-
-      try {
-        bits = Converter.positiveIntToBin(value);
-        bits = Converter.twoComplement(bits);
-        //estensione del segno
-        this.reset(true);  //il numero Ãš negativo, ci vogliono tutti '1'
-        this.setBits(bits, size - bits.length());
-      } catch (IrregularStringOfBitsException e) {
-        System.err.println("stringa errata: " + bits);
-        e.printStackTrace();
-        throw new IrregularWriteOperationException();
-      }
-    }
+    setLong(value);
   }
 
   /** Get the value of the one Byte of bitset by position
@@ -393,17 +183,7 @@ public class BitSet64 extends FixedBitSet {
    *  @return the value of the byte
    */
   public int readByte(int offset) {
-    offset *= 8;
-    offset = 56 - offset;
-    String val = getBinString().substring(offset, offset + 8);
-
-    try {
-      return Converter.binToInt(val, false);
-    } catch (IrregularStringOfBitsException e) {
-      System.err.println(e);
-      e.printStackTrace();
-      throw new RuntimeException(e);
-    }
+    return (byte)(getLong() >>> (offset * 8));
   }
 
   /** Get the value Unsigned of the one Byte of bitset by position
@@ -411,17 +191,7 @@ public class BitSet64 extends FixedBitSet {
    *  @return the value Unsigned of the byte
    */
   public int readByteUnsigned(int offset) {
-    offset *= 8;
-    offset = 56 - offset;
-    String val = getBinString().substring(offset, offset + 8);
-
-    try {
-      return Converter.binToInt(val, true);
-    } catch (IrregularStringOfBitsException e) {
-      System.err.println(e);
-      e.printStackTrace();
-      throw new RuntimeException(e);
-    }
+    return (int)(getLong() >>> (offset * 8)) & 0xFF;
   }
   /** Get the value of the one HalfWord of bitset by position
    *  @param offset position to read the byte
@@ -433,17 +203,7 @@ public class BitSet64 extends FixedBitSet {
       throw new NotAlignException();
     }
 
-    offset *= 8;
-    offset = 48 - offset;
-    String val = getBinString().substring(offset, offset + 16);
-
-    try {
-      return Converter.binToInt(val, false);
-    } catch (IrregularStringOfBitsException e) {
-      System.err.println(e);
-      e.printStackTrace();
-      throw new RuntimeException(e);
-    }
+    return (short)(getLong() >>> (offset * 8));
   }
 
   /** Get the value Unsigned of the one HalfWord of bitset by position
@@ -456,17 +216,7 @@ public class BitSet64 extends FixedBitSet {
       throw new NotAlignException();
     }
 
-    offset *= 8;
-    offset = 48 - offset;
-    String val = getBinString().substring(offset, offset + 16);
-
-    try {
-      return Converter.binToInt(val, true);
-    } catch (IrregularStringOfBitsException e) {
-      System.err.println(e);
-      e.printStackTrace();
-      throw new RuntimeException(e);
-    }
+    return (int)(getLong() >>> (offset * 8)) & 0xFFFF;
   }
   /** Get the value of the one Word of bitset by position
    *  @param offset position to read the byte
@@ -478,17 +228,7 @@ public class BitSet64 extends FixedBitSet {
       throw new NotAlignException();
     }
 
-    offset *= 8;
-    offset = 32 - offset;
-    String val = getBinString().substring(offset, offset + 32);
-
-    try {
-      return Converter.binToInt(val, false);
-    } catch (IrregularStringOfBitsException e) {
-      System.err.println(e);
-      e.printStackTrace();
-      throw new RuntimeException(e);
-    }
+    return (int)(getLong() >>> (offset * 8));
   }
 
   /** Get the value Unsigned of the one Word of bitset by position
@@ -501,16 +241,6 @@ public class BitSet64 extends FixedBitSet {
       throw new NotAlignException();
     }
 
-    offset *= 8;
-    offset = 32 - offset;
-    String val = getBinString().substring(offset, offset + 32);
-
-    try {
-      return Converter.binToLong(val, true);
-    } catch (IrregularStringOfBitsException e) {
-      System.err.println(e);
-      e.printStackTrace();
-      throw new RuntimeException(e);
-    }
+    return (getLong() >>> (offset * 8)) & 0xFFFFFFFFL;
   }
 }
@@ -23,16 +23,18 @@
 
 package org.edumips64.core;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.logging.Logger;
-import java.util.logging.Level;
 
+import org.edumips64.core.cache.MemoryTiming;
 import org.edumips64.core.fpu.*;
 import org.edumips64.core.is.AddressErrorException;
 import org.edumips64.core.is.BreakException;
 import org.edumips64.core.is.HaltException;
 import org.edumips64.core.is.InstructionInterface;
 import org.edumips64.core.is.JumpException;
+import org.edumips64.core.is.Opcode;
 import org.edumips64.core.is.RAWException;
 import org.edumips64.core.is.TwosComplementSumException;
 import org.edumips64.core.is.WAWException;
@@ -43,7 +45,7 @@ import org.edumips64.utils.*;
 */
 public class CPU {
   private Memory mem;
-  private Register[] gpr;
+  private RegisterFile gpr;
   private static final Logger logger = Logger.getLogger(CPU.class.getName());
 
   /** FPU Elements*/
@@ -89,17 +91,38 @@ public class CPU {
   /** Simulator configuration */
   private ConfigStore config;
 
+  /** Snapshot of the configuration used while simulating, and the version of the ConfigStore it was read from. */
+  private SimulationConfig simulationConfig;
+  private int configVersion;
+
+  /** If set, no instructions are fetched, so that the pipelines can be emptied. See drain(). */
+  private boolean draining;
+
+  /** Undo journal of the steps, if reverse stepping is enabled. See History. */
+  private History history;
+
+  /** Tracing of the simulation, off by default. */
+  private Tracer tracer = new Tracer();
+
+  /** Timing model of the memory hierarchy, if enabled. See setMemoryTiming(). */
+  private MemoryTiming memoryTiming;
+
+  /** Execution profile, if enabled. See setProfiler(). */
+  private Profiler profiler;
+
+  /** Counters of the data accesses, if enabled. See setHeatMap(). */
+  private MemoryHeatMap heatMap;
+
+  /** Cycles the instruction in MEM still has to wait for its memory access. */
+  private int memoryWaitCycles;
+
   /** Statistics */
   private int cycles, instructions, RAWStalls, WAWStalls, dividerStalls, funcUnitStalls, memoryStalls, exStalls;
+  private int cacheMissStalls;
 
   /** BUBBLE */
   private InstructionInterface bubble;
 
-  /** Terminating instructions */
-  private static ArrayList<String> terminating = new ArrayList<>(
-      Arrays.asList("0000000C",     // SYSCALL 0
-                    "04000000"));   // HALT
-
   public CPU(Memory memory, ConfigStore config, InstructionInterface bubble) {
     this.config = config;
     this.bubble = bubble;
@@ -111,12 +134,7 @@ public class CPU {
     logger.info("Got Memory instance..");
 
     // Registers initialization
-    gpr = new Register[32];
-    gpr[0] = new R0();
-
-    for (int i = 1; i < 32; i++) {
-      gpr[i] = new Register("R" + i);
-    }
+    gpr = new RegisterFile();
 
     pc = new Register("PC");
     old_pc = new Register("Old PC");
@@ -131,7 +149,7 @@ public class CPU {
     }
 
     FCSR = new FCSRRegister();
-    configFPExceptionsAndRM();
+    refreshConfig();
     fpPipe = new FPPipeline();
     fpPipe.reset();
 
@@ -148,31 +166,31 @@ public class CPU {
    *  @param status a CPUStatus value
    */
   public  void setStatus(CPUStatus status) {
-    logger.info("Changing CPU status to " + status.name());
+    tracer.record(Tracer.Level.PIPELINE, Tracer.Event.STATUS, status);
     this.status = status;
   }
 
-  /** Sets the flag bits of the FCSR
-  * @param tag a string value between  V  Z O U I
-  * @param value a binary value
+  /** Sets the flag bit of the given exception in the FCSR
+  * @param exceptionName the exception whose flag must be set
+  * @param value true to set the flag, false to clear it
    */
-  public void setFCSRFlags(String tag, int value) throws IrregularStringOfBitsException {
-    FCSR.setFCSRFlags(tag, value);
+  public void setFCSRFlags(FCSRRegister.FPExceptions exceptionName, boolean value) {
+    FCSR.setFCSRFlags(exceptionName, value);
   }
 
-  /** Sets the cause bits of the FCSR
-  * @param tag a string value between  V  Z O U I
-  * @param value a binary value
+  /** Sets the cause bit of the given exception in the FCSR
+  * @param exceptionName the exception whose cause bit must be set
+  * @param value true to set the cause bit, false to clear it
    */
-  public void setFCSRCause(String tag, int value) throws IrregularStringOfBitsException {
-    FCSR.setFCSRCause(tag, value);
+  public void setFCSRCause(FCSRRegister.FPExceptions exceptionName, boolean value) {
+    FCSR.setFCSRCause(exceptionName, value);
   }
 
   /** Sets the selected FCC bit of the FCSR
    * @param cc condition code is an int value in the range [0,7]
    * @param condition the binary value of the relative bit
    */
-  public void setFCSRConditionCode(int cc, int condition) throws IrregularStringOfBitsException {
+  public void setFCSRConditionCode(int cc, int condition) {
     FCSR.setFCSRConditionCode(cc, condition);
   }
 
@@ -186,6 +204,16 @@ public class CPU {
   }
 
   public Register[] getRegisters() {
+    return gpr.getRegisters();
+  }
+
+  /** Returns the configuration the CPU was created with. */
+  public ConfigStore getConfig() {
+    return config;
+  }
+
+  /** Returns the general purpose register file, with the scoreboard used to detect RAW hazards. */
+  public RegisterFile getRegisterFile() {
     return gpr;
   }
 
@@ -197,7 +225,7 @@ public class CPU {
    * @param index the register number (0-31)
    */
   public Register getRegister(int index) {
-    return gpr[index];
+    return gpr.getRegister(index);
   }
 
   public RegisterFP getRegisterFP(int index) {
@@ -225,6 +253,27 @@ public class CPU {
            fpPipe.isEmpty();
   }
 
+  /** Stops fetching instructions and steps the CPU until every instruction in the pipelines has completed.
+   * The instruction that was fetched but not executed is dropped, and the PC is moved back to it, so that the
+   * execution can go on outside of the pipeline, for example with the FunctionalEngine.
+   */
+  void drain() throws AddressErrorException, HaltException, IrregularWriteOperationException, StoppedCPUException, MemoryElementNotFoundException, IrregularStringOfBitsException, TwosComplementSumException, SynchronousException, BreakException, NotAlignException {
+    draining = true;
+    try {
+      while (!(isPipelinesEmpty() && pipe.isEmptyOrBubble(PipeStage.WB))) {
+        step();
+      }
+    } finally {
+      draining = false;
+    }
+
+    // old_pc holds the address of the instruction in IF.
+    if (!pipe.isEmpty(PipeStage.IF)) {
+      pc.writeDoubleWord(old_pc.getValue());
+    }
+    pipe.clear();
+  }
+
   /** Returns the instruction of the specified functional unit , null if it is empty.
    *  No controls are carried out on the legality of parameters, for mistaken parameters null is returned
    *  @param funcUnit The functional unit to check. Legal values are "ADDER", "MULTIPLIER", "DIVIDER"
@@ -320,6 +369,21 @@ public class CPU {
     return exStalls;
   }
 
+  /** Returns the number of cycles the pipeline stalled waiting for a load or a store that missed in the caches.
+   * Always 0 if there is no memory timing model.
+   * @return an integer
+   */
+  public int getCacheMissStalls() {
+    return cacheMissStalls;
+  }
+
+  /** Returns the number of cycles the instruction in MEM still has to wait for its memory access.
+   * @return an integer
+   */
+  public int getMemoryWaitCycles() {
+    return memoryWaitCycles;
+  }
+
   /** Returns the number of Structural Stalls (FP Adder and FP Multiplier not available) that happened inside the pipeline
    * @return an integer
    */
@@ -368,10 +432,15 @@ public class CPU {
     return memoryStalls;
   }
 
+  /** Counts an instruction executed outside of the pipeline, by the FunctionalEngine. */
+  void countInstruction() {
+    instructions++;
+  }
+
   /** This method performs a single pipeline step
   */
   public void step() throws AddressErrorException, HaltException, IrregularWriteOperationException, StoppedCPUException, MemoryElementNotFoundException, IrregularStringOfBitsException, TwosComplementSumException, SynchronousException, BreakException, NotAlignException {
-    configFPExceptionsAndRM();
+    refreshConfig();
 
     String syncex;
 
@@ -379,17 +448,32 @@ public class CPU {
       throw new StoppedCPUException();
     }
 
+    if (history != null) {
+      history.record();
+    }
+
     try {
       // Stages are executed from the last one (WB) to the first one (IF). After the
       // logic for the given stage is executed, the instruction is moved to the next
       // stage (except for WB, where the instruction is discarded.
-      logger.info("\n\nStarting cycle " + ++cycles + "\n---------------------------------------------");
+      tracer.setCycle(++cycles);
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.CYCLE_START, null);
+      if (heatMap != null) {
+        heatMap.setCycle(cycles);
+        mem.setHeatMap(heatMap);
+      }
 
       // WB: Write-back stage.
       stepWB();
 
       // MEM: Memory access stage.
-      stepMEM();
+      // If the memory access takes more cycles, the instruction stays in MEM and the
+      // previous stages are stalled.
+      if (stepMEM()) {
+        cacheMissStalls++;
+        tracer.record(Tracer.Level.PIPELINE, Tracer.Event.CACHE_MISS_STALL, pipe.MEM(), cacheMissStalls);
+        return;
+      }
 
       // EX: Execution/effective address stage.
       // Returns the code of the synchronous exception that can happen at this
@@ -410,14 +494,13 @@ public class CPU {
         throw new SynchronousException(syncex);
       }
     } catch (JumpException ex) {
-      logger.info("Executing a Jump.");
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.JUMP, pipe.EX(), pc.getValue());
       try {
         if (!pipe.isEmpty(PipeStage.IF)) {
-          logger.info("Executing the IF() method of the instruction in IF.");
           pipe.IF().IF();
         }
       } catch (BreakException bex) {
-        logger.info("Caught a BREAK after a Jump: ignoring it.");
+        // A BREAK after a Jump is ignored.
       }
 
       // A J-Type instruction has just modified the Program Counter. We need to
@@ -434,17 +517,15 @@ public class CPU {
       }
 
       RAWStalls++;
-      logger.info("RAW stalls incremented to " + RAWStalls);
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.RAW_STALL, pipe.ID(), RAWStalls);
 
     } catch (WAWException ex) {
-      logger.info(fpPipe.toString());
-
       if (currentPipeStage == PipeStage.ID) {
         pipe.setEX(bubble);
       }
 
       WAWStalls++;
-      logger.info("WAW stalls incremented to " + RAWStalls);
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.WAW_STALL, pipe.ID(), WAWStalls);
 
     } catch (FPDividerNotAvailableException ex) {
       if (currentPipeStage == PipeStage.ID) {
@@ -452,6 +533,7 @@ public class CPU {
       }
 
       dividerStalls++;
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.STRUCTURAL_STALL, pipe.ID(), dividerStalls);
 
     } catch (FPFunctionalUnitNotAvailableException ex) {
       if (currentPipeStage == PipeStage.ID) {
@@ -459,24 +541,38 @@ public class CPU {
       }
 
       funcUnitStalls++;
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.STRUCTURAL_STALL, pipe.ID(), funcUnitStalls);
 
     } catch (EXNotAvailableException ex) {
       exStalls++;
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.STRUCTURAL_STALL, pipe.ID(), exStalls);
 
     } catch (SynchronousException ex) {
-      logger.info("Exception: " + ex.getCode());
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.EXCEPTION, ex.getCode());
       throw ex;
     } catch (HaltException ex) {
       pipe.setWB(null);
       throw ex;
+    } catch (RuntimeException ex) {
+      if (tracer.isEnabled(Tracer.Level.PIPELINE)) {
+        logger.severe("Unexpected error in cycle " + cycles + ". Last traced events:\n" + tracer.dump());
+      }
+      throw ex;
     } finally {
-      logger.info("End of cycle " + cycles + "\n---------------------------------------------\n" + pipeLineString() + "\n");
+      if (heatMap != null) {
+        mem.setHeatMap(null);
+      }
+      if (profiler != null) {
+        profiler.cycle(this);
+      }
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.CYCLE_END, tracer.isEnabled(Tracer.Level.ALL) ? pipeLineString() : null);
     }
   }
 
   private void changeStage(PipeStage newStatus) {
-    logger.info(newStatus.toString() + " STAGE: " + pipe.get(newStatus) + "\n================================");
     currentPipeStage = newStatus;
+    tracer.setStage(newStatus);
+    tracer.record(Tracer.Level.PIPELINE, Tracer.Event.STAGE, pipe.get(newStatus));
   }
 
   // Individual stages, in execution order (WB, MEM, EX, ID, IF).
@@ -487,7 +583,7 @@ public class CPU {
       return;
     }
 
-    boolean terminatorInstrInWB = terminating.contains(pipe.WB().getRepr().getHexString());
+    boolean terminatorInstrInWB = pipe.WB().isTerminating();
     //we have to execute the WB method only if some conditions occur
     //the current instruction in WB is a terminating instruction and the fpPipe is working
     boolean notWBable = terminatorInstrInWB && !fpPipe.isEmpty();
@@ -499,41 +595,55 @@ public class CPU {
     }
 
     if (!notWBable) {
-      logger.info("Executing WB() for " + pipe.WB());
       pipe.WB().WB();
     }
 
     // Move the instruction in WB out of the pipeline.
-    logger.info("Instruction " + pipe.WB() + " has been completed. Removing it.");
+    tracer.record(Tracer.Level.PIPELINE, Tracer.Event.COMPLETED, pipe.WB());
     pipe.setWB(null);
 
     //if the pipeline is empty and it is into the stopping state (because a long latency instruction was executed) we can halt the cpu when computations finished
     if (isPipelinesEmpty() && getStatus() == CPUStatus.STOPPING) {
-      logger.info("Pipeline is empty and we are in STOPPING --> going to HALTED.");
       setStatus(CPU.CPUStatus.HALTED);
       throw new HaltException();
     }
   }
 
-  private void stepMEM() throws HaltException, NotAlignException, IrregularWriteOperationException, MemoryElementNotFoundException, AddressErrorException, IrregularStringOfBitsException {
+  // Returns true if the instruction in MEM has to wait for the memory, and therefore stays in MEM.
+  private boolean stepMEM() throws HaltException, NotAlignException, IrregularWriteOperationException, MemoryElementNotFoundException, AddressErrorException, IrregularStringOfBitsException {
     changeStage(PipeStage.MEM);
 
-    if (!pipe.isEmpty(PipeStage.MEM)) {
-      logger.info("Executing MEM() for " + pipe.MEM());
-      pipe.MEM().MEM();
+    if (memoryWaitCycles > 0) {
+      // The instruction already accessed the memory.
+      memoryWaitCycles--;
+    } else {
+      // Loads and stores report their accesses to Dinero in EX, where the address is computed, and SYSCALL in
+      // MEM, so the pending stall cycles, taken after MEM(), belong to the instruction in MEM. If MEM is empty,
+      // they were caused by accesses made outside of the pipeline (e.g., by the FunctionalEngine), and are dropped.
+      if (!pipe.isEmpty(PipeStage.MEM)) {
+        pipe.MEM().MEM();
+      }
+      int stallCycles = memoryTiming != null ? memoryTiming.takeStallCycles() : 0;
+      if (!pipe.isEmpty(PipeStage.MEM)) {
+        memoryWaitCycles = pipe.isBubble(PipeStage.MEM) ? 0 : stallCycles;
+      }
+    }
+
+    if (memoryWaitCycles > 0) {
+      return true;
     }
 
-    logger.info("Moving " + pipe.MEM() + " to WB");
     pipe.setWB(pipe.MEM());
     pipe.setMEM(null);
+    return false;
   }
 
   private String stepEX() throws SynchronousException, HaltException, NotAlignException, TwosComplementSumException, IrregularWriteOperationException, AddressErrorException, IrregularStringOfBitsException {
     changeStage(PipeStage.EX);
 
     // Used for exception handling
-    boolean masked = config.getBoolean(ConfigKey.SYNC_EXCEPTIONS_MASKED);
-    boolean terminate = config.getBoolean(ConfigKey.SYNC_EXCEPTIONS_TERMINATE);
+    boolean masked = simulationConfig.isSyncExceptionsMasked();
+    boolean terminate = simulationConfig.isSyncExceptionsTerminate();
 
     // Code of the synchronous exception that happens in EX.
     String syncex = null;
@@ -560,14 +670,12 @@ public class CPU {
     // Execute the instruction, and handle synchronous exceptions.
     if (instruction != null) {
       try {
-        logger.info("Executing EX() for " + instruction);
         instruction.EX();
       } catch (SynchronousException e) {
         if (masked) {
-          logger.info("[EXCEPTION] [MASKED] " + e.getCode());
+          tracer.record(Tracer.Level.PIPELINE, Tracer.Event.MASKED_EXCEPTION, e.getCode());
         } else {
           if (terminate) {
-            logger.info("Terminating due to an unmasked exception");
             throw new SynchronousException(e.getCode());
           } else {
             // We must complete this cycle, but we must notify the user.
@@ -580,7 +688,6 @@ public class CPU {
     }
 
     InstructionInterface toMove = shouldExecuteFP ? lastFPInstructionInEx : pipe.EX();
-    logger.info("Moving " + toMove + " to MEM");
     pipe.setMEM(toMove);
     if (!shouldExecuteFP) {
       pipe.setEX(null);
@@ -598,11 +705,12 @@ public class CPU {
     changeStage(PipeStage.ID);
 
     if (!pipe.isEmpty(PipeStage.ID)) {
-      boolean isFP = FPPipeline.Constants.fparithmetic.contains(pipe.get(PipeStage.ID).getName());
+      Opcode.FPUnit fpUnit = pipe.ID().getOpcode().getFPUnit();
+      boolean isFP = fpUnit != Opcode.FPUnit.NONE;
 
       // Check if the desired unit (FP or not) is available.
       if (isFP && (fpPipe.putInstruction(pipe.ID(), true) != 0)) {
-        if (pipe.ID().getName().compareToIgnoreCase("DIV.D") == 0) {
+        if (fpUnit == Opcode.FPUnit.DIVIDER) {
           throw new FPDividerNotAvailableException();
         } else {
           throw new FPFunctionalUnitNotAvailableException();
@@ -611,7 +719,6 @@ public class CPU {
         throw new EXNotAvailableException();
       }
 
-      logger.info("Executing ID() for " + pipe.ID());
       // Can change the CPU status from RUNNING to STOPPING.
       boolean rawException = pipe.ID().ID();
       if (rawException) {
@@ -619,10 +726,8 @@ public class CPU {
       }
 
       if (isFP) {
-        logger.info("Moving " + pipe.ID() + " to the FP pipeline.");
         fpPipe.putInstruction(pipe.ID(), false);
       } else {
-        logger.info("Moving " + pipe.ID() + " to EX");
         pipe.setEX(pipe.ID());
       }
 
@@ -636,36 +741,29 @@ public class CPU {
     // instruction from the symbol table.
     changeStage(PipeStage.IF);
 
-    logger.info("CPU Status: " + status.name());
-
     boolean breaking = false;
-    if (status == CPUStatus.RUNNING) {
+    if (status == CPUStatus.RUNNING && !draining) {
       if (!pipe.isEmpty(PipeStage.IF)) {  //rispetto a dinmips scambia le load con le IF
         try {
-          logger.info("Executing IF() for " + pipe.IF());
           pipe.IF().IF();
         } catch (BreakException exc) {
           breaking = true;
         }
       }
 
-      logger.info("Moving " + pipe.IF() + " to ID");
       pipe.setID(pipe.IF());
 
       InstructionInterface next_if = mem.getInstruction(pc);
-      logger.info("Fetched new instruction " + next_if);
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.FETCH, next_if, pc.getValue());
 
       old_pc.writeDoubleWord((pc.getValue()));
       pc.writeDoubleWord((pc.getValue()) + 4);
-      logger.info("New Program Counter value: " + pc.toString());
-      logger.info("Putting " + next_if + "in IF.");
       pipe.setIF(next_if);
     } else {
       pipe.setID(bubble);
     }
 
     if (breaking) {
-      logger.info("Re-throwing the BREAK exception");
       throw new BreakException();
     }
   }
@@ -686,11 +784,20 @@ public class CPU {
     funcUnitStalls = 0;
     exStalls = 0;
     memoryStalls = 0;
+    cacheMissStalls = 0;
+    memoryWaitCycles = 0;
+    if (memoryTiming != null) {
+      memoryTiming.reset();
+    }
+    if (profiler != null) {
+      profiler.reset();
+    }
+    if (heatMap != null) {
+      heatMap.reset();
+    }
 
     // Reset registers.
-    for (int i = 0; i < 32; i++) {
-      gpr[i].reset();
-    }
+    gpr.reset();
 
     //reset FPRs
     for (int i = 0; i < 32; i++) {
@@ -698,25 +805,15 @@ public class CPU {
     }
 
 
-    try {
-      // Reset the FCSR condition codes.
-      for (int cc = 0; cc < 8; cc++) {
-        setFCSRConditionCode(cc, 0);
-      }
-
-      // Reset the FCSR flags.
-      setFCSRFlags("V", 0);
-      setFCSRFlags("O", 0);
-      setFCSRFlags("U", 0);
-      setFCSRFlags("Z", 0);
+    // Reset the FCSR condition codes.
+    for (int cc = 0; cc < 8; cc++) {
+      setFCSRConditionCode(cc, 0);
+    }
 
-      // Reset the FCSR cause bits.
-      setFCSRCause("V", 0);
-      setFCSRCause("O", 0);
-      setFCSRCause("U", 0);
-      setFCSRCause("Z", 0);
-    } catch (IrregularStringOfBitsException ex) {
-      ex.printStackTrace();
+    // Reset the FCSR flags and cause bits.
+    for (FCSRRegister.FPExceptions exceptionName : FCSRRegister.FPExceptions.values()) {
+      setFCSRFlags(exceptionName, false);
+      setFCSRCause(exceptionName, false);
     }
 
     LO.reset();
@@ -731,12 +828,145 @@ public class CPU {
 
     // Reset pipeline
     pipe.clear();
+    draining = false;
     // Reset FP pipeline
     fpPipe.reset();
 
+    tracer.clear();
+    if (history != null) {
+      history.clear();
+    }
     logger.info("CPU Resetted");
   }
 
+  /** Saves the registers, the FCSR, the pipelines and the statistics. The configuration is not saved. */
+  void save(CheckpointWriter out) throws IOException {
+    out.writeInt(status.ordinal());
+    out.writeInt(cycles);
+    out.writeInt(instructions);
+    out.writeInt(RAWStalls);
+    out.writeInt(WAWStalls);
+    out.writeInt(dividerStalls);
+    out.writeInt(funcUnitStalls);
+    out.writeInt(memoryStalls);
+    out.writeInt(exStalls);
+    out.writeInt(cacheMissStalls);
+    out.writeInt(memoryWaitCycles);
+
+    gpr.save(out);
+    for (RegisterFP r : fpr) {
+      out.writeLong(r.getLong());
+      out.writeInt(r.getWriteSemaphore());
+      out.writeInt(r.getWAWSemaphore());
+    }
+    out.writeLong(FCSR.getLong());
+    LO.save(out);
+    HI.save(out);
+    pc.save(out);
+    old_pc.save(out);
+
+    for (PipeStage stage : PipeStage.values()) {
+      out.writeInstruction(pipe.get(stage));
+    }
+    fpPipe.save(out);
+  }
+
+  /** Restores the state saved by save(). The FPU exception enables and the rounding mode are taken from the
+   * current configuration, as in every step. */
+  void restore(CheckpointReader in) throws IOException {
+    int s = in.readInt();
+    if (s < 0 || s >= CPUStatus.values().length) {
+      throw new IOException("Invalid CPU status in checkpoint: " + s);
+    }
+    status = CPUStatus.values()[s];
+    cycles = in.readInt();
+    instructions = in.readInt();
+    RAWStalls = in.readInt();
+    WAWStalls = in.readInt();
+    dividerStalls = in.readInt();
+    funcUnitStalls = in.readInt();
+    memoryStalls = in.readInt();
+    exStalls = in.readInt();
+    cacheMissStalls = in.readInt();
+    memoryWaitCycles = in.readInt();
+
+    gpr.restore(in);
+    for (RegisterFP r : fpr) {
+      r.reset();
+      r.setLong(in.readLong());
+      for (int i = in.readInt(); i > 0; i--) {
+        r.incrWriteSemaphore();
+      }
+      for (int i = in.readInt(); i > 0; i--) {
+        r.incrWAWSemaphore();
+      }
+    }
+    FCSR.setLong(in.readLong());
+    refreshConfig();
+    simulationConfig.applyTo(FCSR);
+    LO.restore(in);
+    HI.restore(in);
+    pc.restore(in);
+    old_pc.restore(in);
+
+    for (PipeStage stage : PipeStage.values()) {
+      pipe.set(stage, in.readInstruction());
+    }
+    fpPipe.restore(in);
+    draining = false;
+    tracer.clear();
+  }
+
+  void setHistory(History history) {
+    this.history = history;
+  }
+
+  History getHistory() {
+    return history;
+  }
+
+  /** Sets the timing model of the memory hierarchy, or disables it if null. The model must be attached to the
+   * Dinero instance the instructions report their accesses to: after an instruction in MEM accesses the memory,
+   * it stays there for the stall cycles of the model, while the previous stages and the FPU are stalled. Without
+   * a model, every memory access takes one cycle.
+   *
+   * The contents of the caches are not part of checkpoints and of the undo journal.
+   */
+  public void setMemoryTiming(MemoryTiming memoryTiming) {
+    this.memoryTiming = memoryTiming;
+  }
+
+  public MemoryTiming getMemoryTiming() {
+    return memoryTiming;
+  }
+
+  /** Sets the execution profiler sampled at the end of every cycle, or disables profiling if null. The profile
+   * should be started with the program, after reset(): it is not rolled back by the undo journal.
+   */
+  public void setProfiler(Profiler profiler) {
+    this.profiler = profiler;
+  }
+
+  public Profiler getProfiler() {
+    return profiler;
+  }
+
+  /** Sets the counters of the data accesses, or disables them if null. The heat map is attached to the memory
+   * only while step() executes a cycle, so that the accesses of the user interface are not counted; like the
+   * profile, it is not rolled back by the undo journal.
+   */
+  public void setHeatMap(MemoryHeatMap heatMap) {
+    this.heatMap = heatMap;
+  }
+
+  public MemoryHeatMap getHeatMap() {
+    return heatMap;
+  }
+
+  InstructionInterface getBubble() {
+    return bubble;
+  }
+
   /** Test method that returns a string containing the status of the pipeline.
    * @return string representation of the pipeline status
    */
@@ -760,15 +990,26 @@ public class CPU {
 
     int i = 0;
 
-    for (Register r : gpr) {
+    for (Register r : gpr.getRegisters()) {
       s.append("Register ").append(i++).append(":\t").append(r.toString()).append("\n");
     }
 
     return s.toString();
   }
 
+  /** Returns true if forwarding is enabled. The value is read from the ConfigStore at the beginning of each step. */
   public boolean isEnableForwarding() {
-    return config.getBoolean(ConfigKey.FORWARDING);
+    return simulationConfig.isForwarding();
+  }
+
+  /** Returns the tracer that records the events of the simulation. */
+  public Tracer getTracer() {
+    return tracer;
+  }
+
+  /** Returns the configuration snapshot used in the current step. */
+  public SimulationConfig getSimulationConfig() {
+    return simulationConfig;
   }
 
   /** Test method that returns a string containing the values of every
@@ -786,27 +1027,16 @@ public class CPU {
     return s.toString();
   }
 
-  private void configFPExceptionsAndRM() {
-    try {
-      FCSR.setFPExceptions(FCSRRegister.FPExceptions.INVALID_OPERATION, config.getBoolean(ConfigKey.FP_INVALID_OPERATION));
-      FCSR.setFPExceptions(FCSRRegister.FPExceptions.OVERFLOW, config.getBoolean(ConfigKey.FP_OVERFLOW));
-      FCSR.setFPExceptions(FCSRRegister.FPExceptions.UNDERFLOW, config.getBoolean(ConfigKey.FP_UNDERFLOW));
-      FCSR.setFPExceptions(FCSRRegister.FPExceptions.DIVIDE_BY_ZERO, config.getBoolean(ConfigKey.FP_DIVIDE_BY_ZERO));
-
-      //setting the rounding mode
-      if (config.getBoolean(ConfigKey.FP_NEAREST)) {
-        FCSR.setFCSRRoundingMode(FCSRRegister.FPRoundingMode.TO_NEAREST);
-      } else if (config.getBoolean(ConfigKey.FP_TOWARDS_ZERO)) {
-        FCSR.setFCSRRoundingMode(FCSRRegister.FPRoundingMode.TOWARD_ZERO);
-      } else if (config.getBoolean(ConfigKey.FP_TOWARDS_PLUS_INFINITY)) {
-        FCSR.setFCSRRoundingMode(FCSRRegister.FPRoundingMode.TOWARDS_PLUS_INFINITY);
-      } else if (config.getBoolean(ConfigKey.FP_TOWARDS_MINUS_INFINITY)) {
-        FCSR.setFCSRRoundingMode(FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY);
-      }
-    } catch (IrregularStringOfBitsException ex) {
-      Logger.getLogger(CPU.class.getName()).log(Level.SEVERE, null, ex);
-    }
+  /** Builds a new configuration snapshot if the ConfigStore changed since the last one was read, and copies the
+   * FPU exception enables and rounding mode in the FCSR. */
+  void refreshConfig() {
+    int version = config.getVersion();
 
+    if (simulationConfig == null || version != configVersion) {
+      simulationConfig = new SimulationConfig(config);
+      configVersion = version;
+      simulationConfig.applyTo(FCSR);
+    }
   }
 
   public String toString() {
@@ -817,33 +1047,4 @@ public class CPU {
     s += fprString();
     return s;
   }
-
-  /** Private class, representing the R0 register */
-  // TODO: DEVE IMPOSTARE I SEMAFORI?????
-  private class R0 extends Register {
-    public R0() {
-      super("R0");
-    }
-    public long getValue() {
-      return (long) 0;
-    }
-    public String getBinString() {
-      return "0000000000000000000000000000000000000000000000000000000000000000";
-    }
-    public String getHexString() {
-      return "0000000000000000";
-    }
-    public void setBits(String bits, int start) {
-    }
-    public void writeByteUnsigned(int value) {}
-    public void writeByte(int value, int offset) {}
-    public void writeHalfUnsigned(int value) {}
-    public void writeHalf(int value) {}
-    public void writeHalf(int value, int offset) {}
-    public void writeWordUnsigned(long value) {}
-    public void writeWord(int value) {}
-    public void writeWord(long value, int offset) {}
-    public void writeDoubleWord(long value) {}
-
-  }
 }
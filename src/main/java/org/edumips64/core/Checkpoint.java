@@ -0,0 +1,89 @@
+package org.edumips64.core;
+
+import org.edumips64.core.is.InstructionInterface;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/** Binary checkpoint of the state of the simulator.
+ *
+ * A checkpoint contains the GPRs, the FPRs, the FCSR, LO, HI, the program counter, the instructions in the
+ * pipeline and in the FPU functional units (with their temporary registers, the divider counter and the
+ * register semaphores), the data memory cells written since the last reset, the symbol table and the
+ * statistics of the CPU. It doesn't contain the code, which must be loaded before restoring: the checkpoint
+ * records a fingerprint of the program, and restore() refuses checkpoints of a different one. The
+ * configuration, the files opened by the program and the Dinero trace are not part of the checkpoint.
+ *
+ * A typical use is running a program until the end of its initialization, saving a checkpoint and then
+ * restoring it at the beginning of each experiment, instead of simulating the initialization every time.
+ */
+public class Checkpoint {
+  private static final int MAGIC = 0x454D4350;  // "EMCP"
+  private static final int VERSION = 2;
+
+  private CPU cpu;
+  private Memory memory;
+  private SymbolTable symbolTable;
+
+  public Checkpoint(CPU cpu, Memory memory, SymbolTable symbolTable) {
+    this.cpu = cpu;
+    this.memory = memory;
+    this.symbolTable = symbolTable;
+  }
+
+  /** Writes the state of the simulator to the stream. The stream is not closed. */
+  public void save(OutputStream out) throws IOException {
+    CheckpointWriter writer = new CheckpointWriter(out, memory);
+    writer.writeInt(MAGIC);
+    writer.writeInt(VERSION);
+    writer.writeLong(programFingerprint());
+
+    memory.save(writer);
+    symbolTable.save(writer);
+    cpu.save(writer);
+    out.flush();
+  }
+
+  /** Brings the simulator to the state read from the stream. The program the checkpoint was saved with must
+   * be loaded.
+   * @throws IOException if the stream can't be read, isn't a checkpoint or was saved with a different
+   * program. If the checkpoint is rejected before any state is read, the simulator is unchanged; otherwise it
+   * must be reset.
+   */
+  public void restore(InputStream in) throws IOException {
+    CheckpointReader reader = new CheckpointReader(in, memory, cpu.getBubble());
+    if (reader.readInt() != MAGIC) {
+      throw new IOException("Not a checkpoint");
+    }
+
+    int version = reader.readInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported checkpoint version: " + version);
+    }
+
+    if (reader.readLong() != programFingerprint()) {
+      throw new IOException("The checkpoint was saved with a different program");
+    }
+
+    memory.restore(reader);
+    symbolTable.restore(reader);
+    cpu.restore(reader);
+
+    // The steps recorded before the checkpoint can't be undone any more.
+    if (cpu.getHistory() != null) {
+      cpu.getHistory().clear();
+    }
+  }
+
+  // Hash of the encodings of the instructions in the code memory.
+  private long programFingerprint() {
+    long hash = memory.getInstructionsNumber();
+    for (int i = 0; i <= memory.getLastInstructionIndex(); i++) {
+      InstructionInterface instruction = memory.getInstruction(i * 4);
+      long encoding = (instruction == null || instruction.isBubble()) ? -1 : instruction.getRepr().getLong();
+      hash = 31 * hash + encoding;
+    }
+    return hash;
+  }
+}
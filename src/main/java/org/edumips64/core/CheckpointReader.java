@@ -0,0 +1,83 @@
+package org.edumips64.core;
+
+import org.edumips64.core.is.InstructionInterface;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Decoder of the binary checkpoint format written by CheckpointWriter.
+ *
+ * Instructions are looked up in the code memory, so the program that was loaded when the checkpoint was
+ * saved must be loaded before restoring it.
+ */
+public class CheckpointReader {
+  private InputStream in;
+  private Memory memory;
+  private InstructionInterface bubble;
+  private Set<Integer> read = new HashSet<>();
+
+  public CheckpointReader(InputStream in, Memory memory, InstructionInterface bubble) {
+    this.in = in;
+    this.memory = memory;
+    this.bubble = bubble;
+  }
+
+  private int readByte() throws IOException {
+    int b = in.read();
+    if (b < 0) {
+      throw new IOException("Truncated checkpoint");
+    }
+    return b;
+  }
+
+  public int readInt() throws IOException {
+    return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+  }
+
+  public long readLong() throws IOException {
+    long high = readInt();
+    return (high << 32) | (readInt() & 0xFFFFFFFFL);
+  }
+
+  public boolean readBoolean() throws IOException {
+    return readByte() != 0;
+  }
+
+  public String readString() throws IOException {
+    int length = readInt();
+    if (length < 0) {
+      return null;
+    }
+
+    StringBuilder value = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      value.append((char) ((readByte() << 8) | readByte()));
+    }
+    return value.toString();
+  }
+
+  /** Reads a reference to an instruction written by CheckpointWriter.writeInstruction(), restoring its state the
+   * first time it is read. */
+  public InstructionInterface readInstruction() throws IOException {
+    int index = readInt();
+    if (index == CheckpointWriter.NO_INSTRUCTION) {
+      return null;
+    }
+
+    if (index == CheckpointWriter.BUBBLE) {
+      return bubble;
+    }
+
+    InstructionInterface instruction = memory.getInstruction(index * 4);
+    if (index < 0 || instruction == null || instruction.isBubble()) {
+      throw new IOException("Invalid instruction index in checkpoint: " + index);
+    }
+
+    if (read.add(index)) {
+      instruction.restore(this);
+    }
+    return instruction;
+  }
+}
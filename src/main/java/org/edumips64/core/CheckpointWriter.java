@@ -0,0 +1,85 @@
+package org.edumips64.core;
+
+import org.edumips64.core.is.InstructionInterface;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Encoder of the binary checkpoint format, used by the components of the simulator to save their state.
+ *
+ * Numbers are written in big-endian order. Instructions are written as their index in the code memory, and
+ * the state of each instruction is written only the first time it is referenced, so the same instruction can
+ * appear in more than one stage. See CheckpointReader for the decoder.
+ */
+public class CheckpointWriter {
+  // Codes written instead of the index of the instruction.
+  static final int NO_INSTRUCTION = -1;
+  static final int BUBBLE = -2;
+
+  private OutputStream out;
+  private Memory memory;
+  private Set<Integer> written = new HashSet<>();
+
+  public CheckpointWriter(OutputStream out, Memory memory) {
+    this.out = out;
+    this.memory = memory;
+  }
+
+  public void writeInt(int value) throws IOException {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  public void writeLong(long value) throws IOException {
+    writeInt((int) (value >>> 32));
+    writeInt((int) value);
+  }
+
+  public void writeBoolean(boolean value) throws IOException {
+    out.write(value ? 1 : 0);
+  }
+
+  /** Writes a string, which may be null. */
+  public void writeString(String value) throws IOException {
+    if (value == null) {
+      writeInt(-1);
+      return;
+    }
+
+    writeInt(value.length());
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      out.write(c >>> 8);
+      out.write(c);
+    }
+  }
+
+  /** Writes a reference to an instruction of the code memory, a bubble or null.
+   * @throws IllegalArgumentException if the instruction is not in the code memory.
+   */
+  public void writeInstruction(InstructionInterface instruction) throws IOException {
+    if (instruction == null) {
+      writeInt(NO_INSTRUCTION);
+      return;
+    }
+
+    if (instruction.isBubble()) {
+      writeInt(BUBBLE);
+      return;
+    }
+
+    int index = memory.getInstructionIndex(instruction);
+    if (index < 0) {
+      throw new IllegalArgumentException("The instruction is not in the code memory: " + instruction);
+    }
+
+    writeInt(index);
+    if (written.add(index)) {
+      instruction.save(this);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package org.edumips64.core;
+
+/** Storage backend for the data memory.
+ *
+ * Cells are 64 bits wide and are identified by their index (address / 8).
+ * Indexes are non-negative longs, so the backend may cover the whole 64-bit
+ * address space. Cells that were never written read as zero. Labels, comments
+ * and code strings are not stored here: Memory keeps them in a separate table.
+ */
+public interface DataMemory {
+  /** Returns the value of the cell with the given index. */
+  long read(long index);
+
+  /** Writes the given value to the cell with the given index, marking it as touched. */
+  void write(long index, long value);
+
+  /** Returns true if the cell with the given index was written since the last reset. */
+  boolean isTouched(long index);
+
+  /** Returns the index of the first touched cell whose index is greater than
+   * or equal to the given one, or -1 if there is no such cell. */
+  long nextTouched(long index);
+
+  /** Brings the cell with the given index back to zero, marking it as not touched. */
+  void erase(long index);
+
+  /** Brings all the cells back to zero. */
+  void reset();
+}
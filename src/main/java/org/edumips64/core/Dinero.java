@@ -27,18 +27,42 @@
 
 package org.edumips64.core;
 
+import org.edumips64.core.cache.AccessTrace;
 import org.edumips64.utils.io.Writer;
 import org.edumips64.utils.io.WriteException;
 import java.util.*;
 
 public class Dinero {
+  /** Number of accesses held in memory when the trace is written to an output as the simulation runs. */
+  public static final int BUFFER_SIZE = 4096;
 
-  private LinkedList <String> dineroData;
+  // Types of access, as written in the trace file, indexed by MemoryAccessListener.Type ordinal.
+  private static final char[] TYPES = {'i', 'r', 'w'};
+
+  // The accesses not yet written.
+  private AccessTrace buffer = new AccessTrace();
+
+  // Accesses already written to the output.
+  private long written;
+
+  // If not null, the trace is written here whenever a block fills, instead of being kept in memory.
+  private Writer output;
+
+  // First error while writing to the output. The accesses after it are not recorded, and flush() throws it.
+  private WriteException error;
 
   // Offset of the data segment. This class writes a trace file that assumes
   // that the data segment starts immediately after the code segment ends.
   private int offset;
 
+  // If false, memory accesses are not recorded.
+  private boolean enabled = true;
+
+  // Notified of every access, whether it is recorded or not.
+  private List<MemoryAccessListener> listeners = new ArrayList<>();
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
   /** Sets the data offset.
    * @param dataOffset offset of the data section. Should be after the code
    *                   section. Typically this is the number of instructions
@@ -49,46 +73,152 @@ public class Dinero {
     offset = dataOffset + dataOffset % 8;
   }
 
+  /** Enables or disables the recording of memory accesses. Runs that don't need the trace file, like the functional
+   * ones, can disable it to save the cost of formatting every access.
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Adds a listener that is notified of each memory access as it happens, whether the trace is enabled or not.
+   * Listeners are not rolled back by History.
+   */
+  public void addListener(MemoryAccessListener listener) {
+    listeners.add(listener);
+  }
+
+  public void removeListener(MemoryAccessListener listener) {
+    listeners.remove(listener);
+  }
+
+  /** Streams the trace to the given Writer while the simulation runs, so that the memory used doesn't grow with the
+   * trace: the accesses are written in batches of BUFFER_SIZE, and flush() writes the last ones. Accesses already
+   * recorded are written with the first batch. A null output keeps the trace in memory again, until
+   * writeTraceData() is called.
+   */
+  public void setOutput(Writer output) {
+    this.output = output;
+  }
+
+  /** Clears the trace and detaches the output, if any. */
   public void reset() {
     offset = 0;
-    dineroData = new LinkedList <>();
+    buffer = new AccessTrace();
+    written = 0;
+    output = null;
+    error = null;
   }
 
   /** Add a read Instruction
    * @param address address of the read Instruction
    */
-  public void IF(String address) {
-    dineroData.add("i " + address + " 4");
+  public void IF(long address) {
+    add(MemoryAccessListener.Type.FETCH, address, 4);
+  }
+
+  public void Load(long address, int nByte) {
+    add(MemoryAccessListener.Type.READ, address + offset, nByte);
   }
 
-  public void Load(String address, int nByte) {
-    try {
-      long addr = Long.parseLong(Converter.hexToLong("0x" + address));
-      addr += offset;
-      dineroData.add("r " + Converter.binToHex(Converter.intToBin(64, addr)) + " " + nByte);
-    } catch (IrregularStringOfHexException | IrregularStringOfBitsException ex) {
-      ex.printStackTrace();
+  public void Store(long address, int nByte) {
+    add(MemoryAccessListener.Type.WRITE, address + offset, nByte);
+  }
+
+  private void add(MemoryAccessListener.Type type, long address, int nByte) {
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).access(type, address, nByte);
+    }
+    if (!enabled || error != null) {
+      return;
+    }
+    buffer.access(type, address, nByte);
+
+    if (output != null && buffer.size() >= BUFFER_SIZE) {
+      try {
+        flush();
+      } catch (WriteException e) {
+        error = e;
+      }
     }
   }
 
-  public void Store(String address, int nByte) {
-    try {
-      long addr = Long.parseLong(Converter.hexToLong("0x" + address));
-      addr += offset;
-      dineroData.add("w " + Converter.binToHex(Converter.intToBin(64, addr)) + " " + nByte);
-    } catch (IrregularStringOfHexException | IrregularStringOfBitsException ex) {
-      ex.printStackTrace();
+  /** Returns the number of memory accesses recorded in the trace, including those already written to the output. */
+  public long size() {
+    return written + buffer.size();
+  }
+
+  // Returns the number of accesses already written to the output, which truncate() can't remove.
+  long getWrittenSize() {
+    return written;
+  }
+
+  // Removes the accesses after the given number. Used by History. Accesses already written to the output can't be
+  // removed.
+  void truncate(long size) {
+    if (size < written) {
+      throw new IllegalStateException("The trace up to access " + written + " was already written");
     }
+    buffer.truncate((int) (size - written));
+  }
 
+  /** Sends the accesses kept in memory, that is those not written to an output, to the given listener, in order.
+   * Used to analyze the trace of a program after running it, without formatting it.
+   */
+  public void replay(MemoryAccessListener listener) {
+    buffer.replay(listener);
+  }
+
+  /** Writes the accesses recorded since the last flush to the output set with setOutput().
+   * @throws WriteException if this or an earlier write to the output failed
+   */
+  public void flush() throws WriteException {
+    if (error != null) {
+      throw error;
+    }
+    if (output != null && buffer.size() > 0) {
+      for (int start = 0; start < buffer.size(); start += BUFFER_SIZE) {
+        output.write(format(start));
+      }
+      written += buffer.size();
+      buffer.truncate(0);
+    }
+  }
+
+  // Formats up to BUFFER_SIZE buffered accesses from the given one, one per line: the type, the address as 16
+  // hexadecimal digits (the two's complement of negative values) and the size.
+  private String format(int start) {
+    int end = Math.min(buffer.size(), start + BUFFER_SIZE);
+
+    StringBuilder sb = new StringBuilder((end - start) * 21);
+    char[] line = new char[20];
+    line[1] = ' ';
+    line[18] = ' ';
+    for (int i = start; i < end; i++) {
+      long address = buffer.getAddress(i);
+      line[0] = TYPES[buffer.getType(i).ordinal()];
+      for (int d = 17; d >= 2; --d) {
+        line[d] = HEX_DIGITS[(int) (address & 0xF)];
+        address >>>= 4;
+      }
+      line[19] = (char) ('0' + buffer.getSize(i));
+      sb.append(line).append('\n');
+    }
+    return sb.toString();
   }
 
   /** Writes the trace data to a Writer
    *  @param buff the Writer to output the data to
    */
   public void writeTraceData(Writer buff) throws java.io.IOException, WriteException {
-    for (int i = 0; i < dineroData.size(); i++) {
-      String tmp = dineroData.get(i) + "\n";
-      buff.write(tmp);
+    if (output != null) {
+      throw new IllegalStateException("The trace is being written to another output");
+    }
+    for (int start = 0; start < buffer.size(); start += BUFFER_SIZE) {
+      buff.write(format(start));
     }
   }
 }
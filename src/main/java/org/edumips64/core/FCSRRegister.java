@@ -26,96 +26,85 @@ import org.edumips64.core.fpu.FPInvalidOperationException;
 import org.edumips64.core.fpu.FPOverflowException;
 import org.edumips64.core.fpu.FPUnderflowException;
 
-/** This class models the Floating Point Control and Status Register
+/** This class models the Floating Point Control and Status Register.
+ *
+ * The register is a bitfield, accessed with masks on the int value of the BitSet32:
+ * <pre>
+ * 31 30 29 28 27 26 25 | 24 | 23 | 22 21 | 20 19 18 | 17 16 15 14 13 12 | 11 10 9 8 7 | 6 5 4 3 2 | 1 0
+ *         FCC          | FS | FCC|  Impl |    000   |        Cause      |   Enables   |   Flags   | RM
+ *  7  6  5  4  3  2  1 |    |  0 |       |          |     E V Z O U I   |  V Z O U I  | V Z O U I |
+ * </pre>
  * @author Massimo Trubia
  * */
 
 public class FCSRRegister extends BitSet32 {
-  public enum FPExceptions {INVALID_OPERATION, DIVIDE_BY_ZERO, UNDERFLOW, OVERFLOW}
+  public enum FPExceptions {INVALID_OPERATION, DIVIDE_BY_ZERO, UNDERFLOW, OVERFLOW, INEXACT}
   public enum FPRoundingMode { TO_NEAREST, TOWARD_ZERO, TOWARDS_PLUS_INFINITY, TOWARDS_MINUS_INFINITY}
-//SETTING PROPERTIES ----------------------------------------------------------
 
-  /**
-   * Sets the FCSR Enables bits (the numeration of the bitset bits goes in this way  0 1 .... 30 31
-   * 31 30 29 28 27 26 25  | 24 | 23 | 22 21 | 20 19 18 |17 16 15 14 13 12 | 11 10 9 8 7 | 6 5 4 3 2 | 1 0
-   * FCC           | FS | FCC|  Impl |    000   |        Cause     |    Enables  |   Flags   |  RM
-   * 7  6  5  4  3  2  1  |       0               |  V  Z O U I | V Z O U I
-   *
-   * @param tag   a string value between  V  Z O U I
-   * @param value a binary value
-   */
-  private void setFCSREnables(String tag, int value) throws IrregularStringOfBitsException {
-    if (tag.compareToIgnoreCase("V") == 0) {
-      setBits(String.valueOf(value), 20);
-    } else if (tag.compareToIgnoreCase("Z") == 0) {
-      setBits(String.valueOf(value), 21);
-    } else if (tag.compareToIgnoreCase("O") == 0) {
-      setBits(String.valueOf(value), 22);
-    } else if (tag.compareToIgnoreCase("U") == 0) {
-      setBits(String.valueOf(value), 23);
-    } else if (tag.compareToIgnoreCase("I") == 0) {  //not implemented
-      setBits(String.valueOf(value), 24);
+  private static final int RM_MASK = 0x3;
+  private static final int FLAGS_SHIFT = 2;
+  private static final int ENABLES_SHIFT = 7;
+  private static final int CAUSE_SHIFT = 12;
+  private static final int FCC0_BIT = 23;
+  private static final int FCC1_BIT = 25;
+  private static final FPRoundingMode[] ROUNDING_MODES = FPRoundingMode.values();
+
+  // Position of each exception inside the flags, enables and cause fields.
+  private static int getExceptionBit(FPExceptions exceptionName) {
+    switch (exceptionName) {
+      case INVALID_OPERATION:
+        return 4;
+      case DIVIDE_BY_ZERO:
+        return 3;
+      case OVERFLOW:
+        return 2;
+      case UNDERFLOW:
+        return 1;
+      default:
+        return 0;
     }
+  }
 
+  private boolean getBit(int bit) {
+    return (getInt() & (1 << bit)) != 0;
   }
 
+  private void setBit(int bit, boolean value) {
+    int fcsr = getInt();
+    fcsr = value ? (fcsr | (1 << bit)) : (fcsr & ~(1 << bit));
+    setLong(fcsr & 0xFFFFFFFFL);
+  }
+
+//SETTING PROPERTIES ----------------------------------------------------------
+
   /**
-   * Sets the flags bits of the FCSR
+   * Sets the flag bit of the given exception
    *
-   * @param tag   a string value between  V  Z O U I
-   * @param value a binary value
+   * @param exceptionName the exception whose flag must be set
+   * @param value         true to set the flag, false to clear it
    */
-  public void setFCSRFlags(String tag, int value) throws IrregularStringOfBitsException {
-    if (tag.compareToIgnoreCase("V") == 0) {
-      setBits(String.valueOf(value), 25);
-    } else if (tag.compareToIgnoreCase("Z") == 0) {
-      setBits(String.valueOf(value), 26);
-    } else if (tag.compareToIgnoreCase("O") == 0) {
-      setBits(String.valueOf(value), 27);
-    } else if (tag.compareToIgnoreCase("U") == 0) {
-      setBits(String.valueOf(value), 28);
-    } else if (tag.compareToIgnoreCase("I") == 0) {  // not implemented
-      setBits(String.valueOf(value), 29);
-    }
+  public void setFCSRFlags(FPExceptions exceptionName, boolean value) {
+    setBit(FLAGS_SHIFT + getExceptionBit(exceptionName), value);
   }
 
   /**
-   * Sets the flags bits of the FCSR
+   * Sets the cause bit of the given exception
    *
-   * @param tag   a string value between  V  Z O U I
-   * @param value a binary value
+   * @param exceptionName the exception whose cause bit must be set
+   * @param value         true to set the cause bit, false to clear it
    */
-  public void setFCSRCause(String tag, int value) throws IrregularStringOfBitsException {
-    if (tag.compareToIgnoreCase("V") == 0) {
-      setBits(String.valueOf(value), 15);
-    } else if (tag.compareToIgnoreCase("Z") == 0) {
-      setBits(String.valueOf(value), 16);
-    } else if (tag.compareToIgnoreCase("O") == 0) {
-      setBits(String.valueOf(value), 17);
-    } else if (tag.compareToIgnoreCase("U") == 0) {
-      setBits(String.valueOf(value), 18);
-    } else if (tag.compareToIgnoreCase("I") == 0) {  // not implemented
-      setBits(String.valueOf(value), 19);
-    }
+  public void setFCSRCause(FPExceptions exceptionName, boolean value) {
+    setBit(CAUSE_SHIFT + getExceptionBit(exceptionName), value);
   }
 
-
   /**
    * Sets the selected condition bit of the FCSR
    *
    * @param cc        condition code is an int value in the range [0,7]
    * @param condition the binary value of the relative bit
    */
-  void setFCSRConditionCode(int cc, int condition) throws IrregularStringOfBitsException {
-    final int FCC0 = 8;
-    final int DISCONTINUITY = 1;
-    final int OFFSET = FCC0 - DISCONTINUITY;
-
-    if (cc == 0) {
-      setBits(String.valueOf(condition), FCC0);
-    } else {
-      setBits(String.valueOf(condition), OFFSET - cc);
-    }
+  public void setFCSRConditionCode(int cc, int condition) {
+    setBit((cc == 0) ? FCC0_BIT : FCC1_BIT + cc - 1, condition != 0);
   }
 
   /**
@@ -123,22 +112,9 @@ public class FCSRRegister extends BitSet32 {
    *
    * @param rm a constant that belongs to the following values TO_NEAREST ,TOWARD_ZERO,TOWARDS_PLUS_INFINITY,TOWARDS_MINUS_INFINITY
    */
-  void setFCSRRoundingMode(FPRoundingMode rm) throws IrregularStringOfBitsException {
-    final int FCSR_RM_FIELD_INIT = 30;
-    switch (rm) {
-      case TO_NEAREST:
-        setBits("00", FCSR_RM_FIELD_INIT);
-        break;
-      case TOWARD_ZERO:
-        setBits("01", FCSR_RM_FIELD_INIT);
-        break;
-      case TOWARDS_PLUS_INFINITY:
-        setBits("10", FCSR_RM_FIELD_INIT);
-        break;
-      case TOWARDS_MINUS_INFINITY:
-        setBits("11", FCSR_RM_FIELD_INIT);
-        break;
-    }
+  public void setFCSRRoundingMode(FPRoundingMode rm) {
+    // The RM field encodings follow the order of the enum: 00 nearest, 01 zero, 10 +inf, 11 -inf.
+    setLong(((getInt() & ~RM_MASK) | rm.ordinal()) & 0xFFFFFFFFL);
   }
 
   /**
@@ -148,55 +124,24 @@ public class FCSRRegister extends BitSet32 {
    * @param value         boolean that is true in order to enable that exception or false for disabling it
    */
   public void setFPExceptions(FPExceptions exceptionName, boolean value) {
-    try {
-      switch (exceptionName) {
-        case DIVIDE_BY_ZERO:
-          setFCSREnables("Z", (value) ? 1 : 0);
-          break;
-        case OVERFLOW:
-          setFCSREnables("O", (value) ? 1 : 0);
-          break;
-        case UNDERFLOW:
-          setFCSREnables("U", (value) ? 1 : 0);
-          break;
-        case INVALID_OPERATION:
-          setFCSREnables("V", (value) ? 1 : 0);
-          break;
-      }
-    } catch (IrregularStringOfBitsException e) {
-      // Should never happen.
-      e.printStackTrace();
-    }
+    setBit(ENABLES_SHIFT + getExceptionBit(exceptionName), value);
   }
 
 
 // GETTING PROPERTIES ---------------------------------------------------------------------
 
   /**
-   * Gets the selected flag bit of the FCSR
-   *
-   * @param tag a string value between  V=Invalid  Z=Divide by zero O=Overflow U=Underflow I=Inexact (not implemented)
+   * Gets the flag bit of the given exception
    */
-  private boolean getFCSREnables(String tag) {
-    if (tag.compareToIgnoreCase("V") == 0) {
-      return (getBinString().charAt(20) == '1');
-    }
-
-    if (tag.compareToIgnoreCase("Z") == 0) {
-      return (getBinString().charAt(21) == '1');
-    }
-
-    if (tag.compareToIgnoreCase("O") == 0) {
-      return (getBinString().charAt(22) == '1');
-    }
-
-    if (tag.compareToIgnoreCase("U") == 0) {
-      return (getBinString().charAt(23) == '1');
-    }
-
-    //not implemented
-    return tag.compareToIgnoreCase("I") == 0 && (getBinString().charAt(24) == '1');
+  public boolean getFCSRFlags(FPExceptions exceptionName) {
+    return getBit(FLAGS_SHIFT + getExceptionBit(exceptionName));
+  }
 
+  /**
+   * Gets the cause bit of the given exception
+   */
+  public boolean getFCSRCause(FPExceptions exceptionName) {
+    return getBit(CAUSE_SHIFT + getExceptionBit(exceptionName));
   }
 
   /**
@@ -205,37 +150,14 @@ public class FCSRRegister extends BitSet32 {
    * @param cc condition code is an int value in the range [0,7]
    */
   public int getFCSRConditionCode(int cc) {
-    final int FCC0 = 8;
-    final int DISCONTINUITY = 1;
-    final int OFFSET = FCC0 - DISCONTINUITY;
-
-    if (cc == 0) {
-      return (Integer.valueOf(getBinString().substring(FCC0, FCC0 + 1)));
-    } else {
-      return (Integer.valueOf(getBinString().substring(OFFSET - cc, OFFSET - cc + 1)));
-    }
+    return getBit((cc == 0) ? FCC0_BIT : FCC1_BIT + cc - 1) ? 1 : 0;
   }
 
-  FPRoundingMode getFCSRRoundingMode() {
-    final int FCSR_RM_FIELD_INIT = 30;
-
-    if (getBinString().substring(FCSR_RM_FIELD_INIT, size).compareTo("00") == 0) {
-      return FPRoundingMode.TO_NEAREST;
-    }
-
-    if (getBinString().substring(FCSR_RM_FIELD_INIT, size).compareTo("01") == 0) {
-      return FPRoundingMode.TOWARD_ZERO;
-    }
-
-    if (getBinString().substring(FCSR_RM_FIELD_INIT, size).compareTo("10") == 0) {
-      return FPRoundingMode.TOWARDS_PLUS_INFINITY;
-    }
-
-    if (getBinString().substring(FCSR_RM_FIELD_INIT, size).compareTo("11") == 0) {
-      return FPRoundingMode.TOWARDS_MINUS_INFINITY;
-    }
-
-    return null;
+  /**
+   * Gets the current rounding mode
+   */
+  public FPRoundingMode getFCSRRoundingMode() {
+    return ROUNDING_MODES[getInt() & RM_MASK];
   }
 
   /**
@@ -244,46 +166,15 @@ public class FCSRRegister extends BitSet32 {
    * @return true if exceptionName is enabled, false in the other case
    */
   public boolean getFPExceptions(FPExceptions exceptionName) {
-    //return this.fpEnabledExceptions.get(exceptionName);
-    switch (exceptionName) {
-      case DIVIDE_BY_ZERO:
-        return getFCSREnables("Z");
-      case OVERFLOW:
-        return getFCSREnables("O");
-      case UNDERFLOW:
-        return getFCSREnables("U");
-      case INVALID_OPERATION:
-        return getFCSREnables("V");
-    }
-
-    return false;
-  }
-
-  private String getFlag(FPExceptions exceptionName) {
-    switch (exceptionName) {
-      case DIVIDE_BY_ZERO:
-        return "Z";
-      case OVERFLOW:
-        return "O";
-      case UNDERFLOW:
-        return "U";
-      case INVALID_OPERATION:
-        return "V";
-    }
-    // Can't happen.
-    return null;
+    return getBit(ENABLES_SHIFT + getExceptionBit(exceptionName));
   }
 
+  /**
+   * Sets the cause bit of the given exception, then raises it if it is enabled, or sets its flag bit otherwise.
+   */
   public void setFlagsOrRaiseException(FPExceptions exceptionName) throws FPDivideByZeroException, FPOverflowException, FPUnderflowException, FPInvalidOperationException {
-    String flag = getFlag(exceptionName);
-
     // Before raising the exception, we set the cause bit.
-    try {
-      setFCSRCause(flag, 1);
-    } catch (IrregularStringOfBitsException e) {
-      // Should never happen. 1 is a valid value to pass to setFCSRCause.
-      e.printStackTrace();
-    }
+    setFCSRCause(exceptionName, true);
 
     // If exceptions are enabled, throw the corresponding one.
     if (getFPExceptions(exceptionName)) {
@@ -297,14 +188,9 @@ public class FCSRRegister extends BitSet32 {
         case INVALID_OPERATION:
           throw new FPInvalidOperationException();
       }
-
-      // Otherwise, just set the corresponding FCSR flag.
-      try {
-        setFCSRFlags(flag, 1);
-      } catch (IrregularStringOfBitsException e) {
-        // Should never happen. 1 is a valid value to pass to setFCSRFlags.
-        e.printStackTrace();
-      }
     }
+
+    // Otherwise, just set the corresponding FCSR flag.
+    setFCSRFlags(exceptionName, true);
   }
 }
@@ -24,18 +24,21 @@
 package org.edumips64.core;
 
 /** Abstract class: it contains a fixed-size BitSet instance.
+ * The bits are stored in a primitive long: bit 0 of the long is the least
+ * significant (right-most) bit of the set. The string methods are only a
+ * derived view, meant to be used by the user interface.
  * @author Salvatore Scellato
  * */
 abstract public class FixedBitSet {
 
-  private char[] bitset;
+  private long bits;
+  private long mask;
   protected int size;
 
-  /** Creates a default new instance of FixedBitSet with a given size. */
+  /** Creates a default new instance of FixedBitSet with a given size (at most 64 bits). */
   public FixedBitSet(int desiredSize) {
     size = desiredSize;
-    bitset = new char[size];
-    reset(false);
+    mask = (size >= 64) ? -1L : (1L << size) - 1;
   }
 
   /** Resets this FixedBitSet, setting all bits to one if value is true and setting all bits to zero
@@ -43,9 +46,32 @@ abstract public class FixedBitSet {
    * @param value if true bits will be set to '1', if false bits will be set to '0'
    * */
   public void reset(boolean value) {
-    for (int i = 0; i < size; ++i) {
-      bitset[i] = value ? '1' : '0';
-    }
+    setLong(value ? -1L : 0L);
+  }
+
+  /** Returns the raw content of this FixedBitSet. Bits beyond the size of the
+   * FixedBitSet are always zero.
+   * @return the bits of this FixedBitSet, stored in a long
+   */
+  public long getLong() {
+    return bits;
+  }
+
+  /** Sets the raw content of this FixedBitSet. Bits of value beyond the size of
+   * the FixedBitSet are discarded.
+   * All the write operations go through this method, so that subclasses can
+   * intercept them (see the R0 register in the CPU).
+   * @param value the new bits
+   */
+  public void setLong(long value) {
+    bits = value & mask;
+  }
+
+  /** Returns the raw content that a partial write is going to update. Same as
+   * getLong(), but subclasses can tell it apart from a read (see MemoryElement).
+   */
+  long getLongForUpdate() {
+    return getLong();
   }
 
   /** Using a string containg binary digits (bits) this method sets the bit
@@ -57,26 +83,36 @@ abstract public class FixedBitSet {
    * @throws IrregularStringOfBitsException if the String bits does not contain only "0" and "1" chars
    */
   public void setBits(String bits, int start) throws IrregularStringOfBitsException {
-    int index;
-    for (int i = 0; i < bits.length(); i++) {
-      index = i + start;
+    long value = getLongForUpdate();
 
-      if (index >= size) {
-        return;
-      }
+    try {
+      for (int i = 0; i < bits.length(); i++) {
+        int index = i + start;
 
-      char c = bits.charAt(i);
-
-      switch (c) {
-      case '1':
-        bitset[index] = '1';
-        break;
-      case '0':
-        bitset[index] = '0';
-        break;
-      default:
-        throw new IrregularStringOfBitsException();
+        if (index >= size) {
+          return;
+        }
+
+        if (index < 0) {
+          throw new IndexOutOfBoundsException("Bit index " + index);
+        }
+
+        long bit = 1L << (size - 1 - index);
+
+        switch (bits.charAt(i)) {
+        case '1':
+          value |= bit;
+          break;
+        case '0':
+          value &= ~bit;
+          break;
+        default:
+          throw new IrregularStringOfBitsException();
+        }
       }
+    } finally {
+      // Bits preceding an invalid character are written anyway.
+      setLong(value);
     }
   }
 
@@ -85,7 +121,15 @@ abstract public class FixedBitSet {
    * @return string form of the bit sequence stored in this FixedBitSet
    */
   public String getBinString() {
-    return new String(bitset);
+    long value = getLong();
+    char[] chars = new char[size];
+
+    for (int i = size - 1; i >= 0; --i) {
+      chars[i] = ((value & 1) == 1) ? '1' : '0';
+      value >>>= 1;
+    }
+
+    return new String(chars);
   }
 
   /** Returns the bit sequence of this FixedBitSet as a string containing hexadecimal
@@ -94,7 +138,15 @@ abstract public class FixedBitSet {
    * @throws IrregularStringOfBitsException if the bit sequence is not well-formed
    */
   public String getHexString() throws IrregularStringOfBitsException {
-    return Converter.binToHex(this.getBinString());
+    final String digits = "0123456789ABCDEF";
+    long value = getLong();
+    char[] chars = new char[(size + 3) / 4];
+
+    for (int i = chars.length - 1; i >= 0; --i) {
+      chars[i] = digits.charAt((int)(value & 0xF));
+      value >>>= 4;
+    }
+
+    return new String(chars);
   }
 }
-
@@ -0,0 +1,136 @@
+package org.edumips64.core;
+
+import org.edumips64.core.fpu.FPInvalidOperationException;
+import org.edumips64.core.is.AddressErrorException;
+import org.edumips64.core.is.BreakException;
+import org.edumips64.core.is.HaltException;
+import org.edumips64.core.is.InstructionInterface;
+import org.edumips64.core.is.JumpException;
+import org.edumips64.core.is.TwosComplementSumException;
+import org.edumips64.core.is.WAWException;
+
+/** Functional (ISA-only) execution of a program.
+ *
+ * The engine runs each instruction through IF, ID, EX, MEM and WB before
+ * fetching the next one, so it needs neither the pipeline nor the hazard
+ * detection of the CPU: there are no stalls, no bubbles and no cycles. It
+ * works on the CPU it is built for, sharing its registers, memory, FCSR and
+ * I/O, so the architectural state at the end of a program is the same one the
+ * pipelined CPU would reach, and so are the instruction count and the output
+ * of the SYSCALLs. The Dinero trace contains the same instruction fetches and
+ * the same data accesses, but since there is no pipeline the data accesses of
+ * an instruction come right after its fetch instead of a few fetches later.
+ *
+ * The program counter is moved exactly like the pipeline does: when an
+ * instruction is decoded the next one has already been fetched, and when a
+ * jump is taken the fetched instruction is discarded after its IF stage.
+ */
+public class FunctionalEngine {
+  private CPU cpu;
+  private Memory memory;
+
+  public FunctionalEngine(CPU cpu, Memory memory) {
+    this.cpu = cpu;
+    this.memory = memory;
+  }
+
+  /** Executes a whole instruction. The CPU must be RUNNING, as for CPU.step().
+   * @throws HaltException when the program terminates
+   */
+  public void step() throws AddressErrorException, HaltException, IrregularWriteOperationException, StoppedCPUException, MemoryElementNotFoundException, IrregularStringOfBitsException, TwosComplementSumException, SynchronousException, BreakException, NotAlignException {
+    cpu.refreshConfig();
+
+    if (cpu.getStatus() != CPU.CPUStatus.RUNNING) {
+      throw new StoppedCPUException();
+    }
+
+    Register pc = cpu.getPC();
+    Register oldPc = cpu.getLastPC();
+    Tracer tracer = cpu.getTracer();
+
+    long address = pc.getValue();
+    InstructionInterface instruction = memory.getInstruction(pc);
+    tracer.record(Tracer.Level.PIPELINE, Tracer.Event.FETCH, instruction, address);
+    oldPc.writeDoubleWord(address);
+    pc.writeDoubleWord(address + 4);
+
+    if (instruction == null) {
+      return;
+    }
+
+    boolean breaking = false;
+    try {
+      instruction.IF();
+    } catch (BreakException e) {
+      breaking = true;
+    }
+
+    // In the pipeline, the next instruction is fetched while this one is decoded.
+    oldPc.writeDoubleWord(address + 4);
+    pc.writeDoubleWord(address + 8);
+
+    long next = address + 4;
+    try {
+      // Every previous instruction has already written its results, so there can't be RAW or WAW hazards.
+      if (instruction.ID()) {
+        throw new IllegalStateException("RAW hazard in functional mode: " + instruction);
+      }
+    } catch (JumpException e) {
+      next = pc.getValue();
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.JUMP, instruction, next);
+
+      // The instruction after the jump was fetched before being discarded.
+      InstructionInterface discarded = memory.getInstruction(address + 4);
+      if (discarded != null) {
+        try {
+          discarded.IF();
+        } catch (BreakException bex) {
+          // A BREAK after a Jump is ignored.
+        }
+      }
+    } catch (WAWException | FPInvalidOperationException e) {
+      throw new IllegalStateException("Unexpected exception in functional mode: " + e);
+    }
+
+    oldPc.writeDoubleWord(address);
+    pc.writeDoubleWord(next);
+
+    String syncex = null;
+    try {
+      instruction.EX();
+    } catch (SynchronousException e) {
+      SimulationConfig config = cpu.getSimulationConfig();
+      if (config.isSyncExceptionsMasked()) {
+        tracer.record(Tracer.Level.PIPELINE, Tracer.Event.MASKED_EXCEPTION, e.getCode());
+      } else if (config.isSyncExceptionsTerminate()) {
+        throw new SynchronousException(e.getCode());
+      } else {
+        // The instruction is completed before notifying the user, as the pipeline completes its cycle.
+        syncex = e.getCode();
+      }
+    }
+
+    instruction.MEM();
+    cpu.countInstruction();
+    instruction.WB();
+    tracer.record(Tracer.Level.PIPELINE, Tracer.Event.COMPLETED, instruction);
+
+    if (breaking) {
+      throw new BreakException();
+    }
+
+    if (syncex != null) {
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.EXCEPTION, syncex);
+      throw new SynchronousException(syncex);
+    }
+  }
+
+  /** Executes instructions until the program terminates.
+   * @throws HaltException when the program terminates
+   */
+  public void run() throws AddressErrorException, HaltException, IrregularWriteOperationException, StoppedCPUException, MemoryElementNotFoundException, IrregularStringOfBitsException, TwosComplementSumException, SynchronousException, BreakException, NotAlignException {
+    while (true) {
+      step();
+    }
+  }
+}
@@ -0,0 +1,371 @@
+package org.edumips64.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** Undo journal of the steps of the CPU, used for reverse stepping.
+ *
+ * Once created, the History records a frame at the beginning of every CPU.step(): the state of the CPU
+ * (registers, FCSR, the instructions in the pipelines with their temporary registers, semaphores and
+ * statistics, in the checkpoint format) and the old values of the memory cells and the GPRs written in that
+ * step. The state of the CPU is stored as the bytes that changed since the previous frame, with a full snapshot
+ * every snapshotInterval frames, so that rebuilding the state of a frame never needs more than that many
+ * patches. Going back n steps costs time proportional to n plus the snapshot interval, whatever the length of
+ * the program.
+ *
+ * The journal takes at most maxBytes (approximately): when it is full, the oldest frames are discarded, a
+ * snapshot interval at a time. Output of the SYSCALLs and files can't be taken back, so stepping forward again
+ * after going back repeats their effects. The Dinero trace is rolled back if a Dinero instance is given.
+ */
+public class History {
+  public static final int DEFAULT_SNAPSHOT_INTERVAL = 100;
+
+  // Approximate memory taken by a frame besides its data, and by each recorded memory write.
+  private static final int FRAME_OVERHEAD = 64;
+  private static final int CELL_WRITE_SIZE = 17;
+
+  private static class Frame {
+    // Full state of the CPU if snapshot is true, otherwise the patch from the state of the previous frame.
+    byte[] state;
+    boolean snapshot;
+
+    // Memory writes of the step, as (index, old value, 1 if the cell was touched) triples.
+    long[] cellWrites = new long[0];
+    int cellWriteCount;
+
+    // Mask (see RegisterFile.mask()) of the GPRs written in the step.
+    int registerWrites;
+
+    long dineroSize;
+
+    long size() {
+      return FRAME_OVERHEAD + state.length + (long) cellWriteCount * CELL_WRITE_SIZE;
+    }
+  }
+
+  // OutputStream on a reusable byte array, to avoid allocating one each step.
+  private static class Buffer extends OutputStream {
+    byte[] bytes = new byte[4096];
+    int length;
+
+    public void write(int b) {
+      if (length == bytes.length) {
+        bytes = Arrays.copyOf(bytes, length * 2);
+      }
+      bytes[length++] = (byte) b;
+    }
+  }
+
+  private CPU cpu;
+  private Memory memory;
+  private Dinero dinero;
+  private int snapshotInterval;
+  private long maxBytes;
+
+  private List<Frame> frames = new ArrayList<>();
+  private long bytes;
+
+  // Frame of the step being executed, and full state of the CPU of the last frame (null after going back).
+  private Frame current;
+  private byte[] lastState;
+  private int framesSinceSnapshot;
+
+  private Buffer buffer = new Buffer();
+
+  /** Creates the History and starts recording the steps of the CPU.
+   * @param dinero Dinero instance whose trace is rolled back when going back, or null
+   * @param snapshotInterval number of frames between two full snapshots of the CPU state
+   * @param maxBytes approximate maximum size of the journal
+   */
+  public History(CPU cpu, Memory memory, Dinero dinero, int snapshotInterval, long maxBytes) {
+    if (snapshotInterval <= 0 || maxBytes <= 0) {
+      throw new IllegalArgumentException("Invalid history parameters: " + snapshotInterval + ", " + maxBytes);
+    }
+    this.cpu = cpu;
+    this.memory = memory;
+    this.dinero = dinero;
+    this.snapshotInterval = snapshotInterval;
+    this.maxBytes = maxBytes;
+
+    cpu.setHistory(this);
+    memory.setHistory(this);
+    cpu.getRegisterFile().setHistory(this);
+  }
+
+  /** Stops recording and discards the journal. */
+  public void detach() {
+    clear();
+    cpu.setHistory(null);
+    memory.setHistory(null);
+    cpu.getRegisterFile().setHistory(null);
+  }
+
+  /** Discards the journal. Called when the CPU is reset. */
+  public void clear() {
+    frames.clear();
+    bytes = 0;
+    current = null;
+    lastState = null;
+  }
+
+  /** Returns the number of steps that can be undone. */
+  public int size() {
+    return frames.size();
+  }
+
+  /** Returns the approximate size of the journal in bytes. */
+  public long getBytes() {
+    return bytes;
+  }
+
+  // Called by CPU.step() before executing the step.
+  void record() {
+    byte[] state = saveCPU();
+    Frame frame = new Frame();
+
+    if (lastState == null || lastState.length != state.length || framesSinceSnapshot == snapshotInterval - 1) {
+      frame.state = state;
+      frame.snapshot = true;
+      framesSinceSnapshot = 0;
+    } else {
+      frame.state = diff(lastState, state);
+      framesSinceSnapshot++;
+    }
+    frame.dineroSize = (dinero == null) ? 0 : dinero.size();
+
+    lastState = state;
+    current = frame;
+    frames.add(frame);
+    bytes += frame.size();
+    trim();
+  }
+
+  // Called by RegisterFile.write().
+  void registerWritten(int index) {
+    if (current != null) {
+      current.registerWrites |= RegisterFile.mask(index);
+    }
+  }
+
+  // Called by Memory before writing a cell.
+  void cellWritten(long index, long oldValue, boolean touched) {
+    if (current == null) {
+      return;
+    }
+
+    Frame f = current;
+    int position = f.cellWriteCount * 3;
+    if (position == f.cellWrites.length) {
+      f.cellWrites = Arrays.copyOf(f.cellWrites, Math.max(6, position * 2));
+    }
+    f.cellWrites[position] = index;
+    f.cellWrites[position + 1] = oldValue;
+    f.cellWrites[position + 2] = touched ? 1 : 0;
+    f.cellWriteCount++;
+    bytes += CELL_WRITE_SIZE;
+  }
+
+  /** Brings the simulator back to the state it had n steps ago, or to the oldest one it can go back to if there
+   * are less than n steps in the journal. Steps whose memory accesses were already written to the output of the
+   * Dinero trace (see Dinero.setOutput()) can't be undone.
+   * @return the number of steps actually undone
+   */
+  public int stepBack(int n) {
+    n = Math.min(n, frames.size() - oldestFrame());
+    if (n <= 0) {
+      return 0;
+    }
+
+    int target = frames.size() - n;
+
+    // Memory writes are undone from the most recent one.
+    for (int i = frames.size() - 1; i >= target; i--) {
+      Frame f = frames.get(i);
+      for (int w = f.cellWriteCount - 1; w >= 0; w--) {
+        memory.undoCellWrite(f.cellWrites[w * 3], f.cellWrites[w * 3 + 1], f.cellWrites[w * 3 + 2] != 0);
+      }
+    }
+
+    restoreCPU(rebuildState(target));
+    if (dinero != null) {
+      dinero.truncate(frames.get(target).dineroSize);
+    }
+
+    for (int i = frames.size() - 1; i >= target; i--) {
+      bytes -= frames.remove(i).size();
+    }
+    current = null;
+    lastState = null;
+    return n;
+  }
+
+  /** Goes back to the beginning of the last step that wrote the given GPR, so that the next step writes it.
+   * @return the number of steps undone, 0 if the journal doesn't contain such a step or can't go back to it.
+   */
+  public int runBackToRegisterWrite(int register) {
+    if (register < 0 || register >= RegisterFile.SIZE) {
+      throw new IllegalArgumentException("Invalid register: " + register);
+    }
+
+    int mask = RegisterFile.mask(register);
+    int oldest = oldestFrame();
+    for (int i = frames.size() - 1; i >= oldest; i--) {
+      if ((frames.get(i).registerWrites & mask) != 0) {
+        return stepBack(frames.size() - i);
+      }
+    }
+    return 0;
+  }
+
+  /** Goes back to the beginning of the last step that wrote the memory cell holding the given address, so that
+   * the next step writes it.
+   * @return the number of steps undone, 0 if the journal doesn't contain such a step or can't go back to it.
+   */
+  public int runBackToMemoryWrite(long address) {
+    long index = address / 8;
+    int oldest = oldestFrame();
+    for (int i = frames.size() - 1; i >= oldest; i--) {
+      Frame f = frames.get(i);
+      for (int w = 0; w < f.cellWriteCount; w++) {
+        if (f.cellWrites[w * 3] == index) {
+          return stepBack(frames.size() - i);
+        }
+      }
+    }
+    return 0;
+  }
+
+  // Returns the index of the oldest frame that can be restored: the accesses of the Dinero trace already written to
+  // its output can't be removed.
+  private int oldestFrame() {
+    int first = 0;
+    if (dinero != null) {
+      long written = dinero.getWrittenSize();
+      while (first < frames.size() && frames.get(first).dineroSize < written) {
+        first++;
+      }
+    }
+    return first;
+  }
+
+  // Discards the oldest frames, up to the next snapshot, until the journal fits in maxBytes. The last frame is
+  // always kept.
+  private void trim() {
+    while (bytes > maxBytes && frames.size() > 1) {
+      int end = 1;
+      while (end < frames.size() - 1 && !frames.get(end).snapshot) {
+        end++;
+      }
+      if (!frames.get(end).snapshot) {
+        // The only snapshot is the first frame: turn the last frame into one, so the others can be discarded.
+        Frame last = frames.get(frames.size() - 1);
+        bytes -= last.state.length;
+        last.state = lastState;
+        last.snapshot = true;
+        bytes += last.state.length;
+        framesSinceSnapshot = 0;
+        end = frames.size() - 1;
+      }
+
+      List<Frame> discarded = frames.subList(0, end);
+      for (Frame f : discarded) {
+        bytes -= f.size();
+      }
+      discarded.clear();
+    }
+  }
+
+  private byte[] rebuildState(int index) {
+    int snapshot = index;
+    while (!frames.get(snapshot).snapshot) {
+      snapshot--;
+    }
+
+    byte[] state = frames.get(snapshot).state;
+    for (int i = snapshot + 1; i <= index; i++) {
+      state = patch(state, frames.get(i).state);
+    }
+    return state;
+  }
+
+  private byte[] saveCPU() {
+    buffer.length = 0;
+    try {
+      cpu.save(new CheckpointWriter(buffer, memory));
+    } catch (IOException e) {
+      // Buffer doesn't throw.
+      throw new IllegalStateException(e);
+    }
+    return Arrays.copyOf(buffer.bytes, buffer.length);
+  }
+
+  private void restoreCPU(byte[] state) {
+    try {
+      cpu.restore(new CheckpointReader(new ByteArrayInputStream(state), memory, cpu.getBubble()));
+    } catch (IOException e) {
+      throw new IllegalStateException("Corrupted history: " + e.getMessage());
+    }
+  }
+
+  // Encodes the bytes of to (as long as from) that differ from from, as a sequence of runs, each made of the
+  // offset, the length and the new bytes. Runs separated by less than 8 equal bytes are merged.
+  static byte[] diff(byte[] from, byte[] to) {
+    Buffer out = new Buffer();
+    int i = 0;
+    while (i < to.length) {
+      if (from[i] == to[i]) {
+        i++;
+        continue;
+      }
+
+      int start = i;
+      int end = i + 1;
+      int equal = 0;
+      for (int j = end; j < to.length && equal < 8; j++) {
+        if (from[j] == to[j]) {
+          equal++;
+        } else {
+          equal = 0;
+          end = j + 1;
+        }
+      }
+
+      writeInt(out, start);
+      writeInt(out, end - start);
+      for (int j = start; j < end; j++) {
+        out.write(to[j]);
+      }
+      i = end;
+    }
+    return Arrays.copyOf(out.bytes, out.length);
+  }
+
+  // Applies a patch computed by diff() to a copy of from.
+  static byte[] patch(byte[] from, byte[] diff) {
+    byte[] result = Arrays.copyOf(from, from.length);
+    int i = 0;
+    while (i < diff.length) {
+      int start = readInt(diff, i);
+      int length = readInt(diff, i + 4);
+      System.arraycopy(diff, i + 8, result, start, length);
+      i += 8 + length;
+    }
+    return result;
+  }
+
+  private static void writeInt(Buffer out, int value) {
+    out.write(value >>> 24);
+    out.write(value >>> 16);
+    out.write(value >>> 8);
+    out.write(value);
+  }
+
+  private static int readInt(byte[] bytes, int offset) {
+    return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16) | ((bytes[offset + 2] & 0xFF) << 8)
+        | (bytes[offset + 3] & 0xFF);
+  }
+}
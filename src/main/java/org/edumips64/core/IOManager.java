@@ -26,6 +26,7 @@ package org.edumips64.core;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.edumips64.utils.io.FileUtils;
@@ -85,13 +86,17 @@ public class IOManager {
 
   /** Closes all the open files */
   public void reset() throws IOException {
-    logger.info("IOManager: resetting... next_fd = " + next_descriptor);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("IOManager: resetting... next_fd = " + next_descriptor);
+    }
 
     while (next_descriptor > 3) {
       close(next_descriptor--);
     }
 
-    logger.info("IOManager: resetted. next_fd = " + next_descriptor);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("IOManager: resetted. next_fd = " + next_descriptor);
+    }
   }
 
   public IOManager(FileUtils fu, Memory memory) {
@@ -110,13 +115,17 @@ public class IOManager {
    *  @param fd the file descriptor to close
    */
   public int close(int fd) {
-    logger.info("call to close() with fd = " + fd);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("call to close() with fd = " + fd);
+    }
     int ret = -1;
     boolean in = ins.containsKey(fd);
     boolean out = outs.containsKey(fd);
 
     if (in) {
-      logger.info("found open input stream");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("found open input stream");
+      }
       Reader r = ins.get(fd);
       r.close();
       ins.remove(fd);
@@ -124,7 +133,9 @@ public class IOManager {
     }
 
     if (out) {
-      logger.info("found open output stream");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("found open output stream");
+      }
       Writer w = outs.get(fd);
       w.close();
       outs.remove(fd);
@@ -149,11 +160,15 @@ public class IOManager {
     // O_WRONLY (or O_RDWR) and the file does't exist
 
     if ((flags & O_CREAT) == O_CREAT) {
-      logger.info("flags & O_CREAT = " + O_CREAT);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("flags & O_CREAT = " + O_CREAT);
+      }
     }
 
     if (((flags & O_CREAT) != O_CREAT) && ((flags & O_WRONLY) == O_WRONLY)) {
-      logger.info("No O_CREAT, but O_WRONLY. We must check if the file exists");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("No O_CREAT, but O_WRONLY. We must check if the file exists");
+      }
       if (!fileUtils.Exists(pathname)) {
         throw new OpenException();
       }
@@ -162,7 +177,9 @@ public class IOManager {
     // The user can't open with the O_CREAT flag a file that could be read.
 
     if (((flags & O_CREAT) == O_CREAT) && ((flags & O_RDONLY) == O_RDONLY)) {
-      logger.info("Trying to open in read mode a file that might not exist.");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Trying to open in read mode a file that might not exist.");
+      }
       if (!fileUtils.Exists(pathname)) {
         throw new IOManagerException("OPENREADANDCREATE");
       }
@@ -172,22 +189,32 @@ public class IOManager {
     boolean append = false;
 
     if ((flags & O_APPEND) == O_APPEND) {
-      logger.info("flags & O_APPEND = " + O_APPEND);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("flags & O_APPEND = " + O_APPEND);
+      }
       append = true;
     }
 
     if ((flags & O_RDONLY) == O_RDONLY) {
-      logger.info("flags & O_RDONLY = " + O_RDONLY);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("flags & O_RDONLY = " + O_RDONLY);
+      }
       Reader r = fileUtils.openReadOnly(pathname);
       ins.put(next_descriptor, r);
-      logger.info("Opened " + pathname + " as read-only with file descriptor " + next_descriptor);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Opened " + pathname + " as read-only with file descriptor " + next_descriptor);
+      }
     }
 
     if ((flags & O_WRONLY) == O_WRONLY) {
-      logger.info("flags & O_WRONLY = " + O_WRONLY);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("flags & O_WRONLY = " + O_WRONLY);
+      }
       Writer w = fileUtils.openWriteOnly(pathname, append);
       outs.put(next_descriptor, w);
-      logger.info("Opened " + pathname + " as write-only (append = " + append + ") with file descriptor " + next_descriptor);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Opened " + pathname + " as write-only (append = " + append + ") with file descriptor " + next_descriptor);
+      }
     }
 
     // TODO: gestire creat, trunc
@@ -202,7 +229,9 @@ public class IOManager {
   public int write(int fd, long address, int count) throws IOManagerException, WriteException {
     // Let's verify if we've got a valid file descriptor
     if (!outs.containsKey(fd)) {
-      logger.info("File descriptor " + fd + " not valid for writing.");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("File descriptor " + fd + " not valid for writing.");
+      }
       throw new IOManagerException("FILENOTOPENED");
     }
 
@@ -217,7 +246,9 @@ public class IOManager {
       for (int i = 0; i < count; ++i) {
         if (i % 8 == 0) {
           posInWord = 0;
-          logger.info("write(): getting a new cell at address " + address);
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("write(): getting a new cell at address " + address);
+          }
           memEl = memory.getCellByAddress(address);
           address += 8;
         }
@@ -232,7 +263,9 @@ public class IOManager {
 
     // Write to stdout or to a classic file
     write(fd, new String(bytes_array));
-    logger.info("Wrote " + buff.toString() + " to fd " + fd);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Wrote " + buff.toString() + " to fd " + fd);
+    }
     return buff.length();
   }
 
@@ -253,7 +286,9 @@ public class IOManager {
    */
   public int read(int fd, long address, int count) throws IOManagerException, IOException, ReadException {
     if (!ins.containsKey(fd)) {
-      logger.info("File descriptor " + fd + " not valid for reading");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("File descriptor " + fd + " not valid for reading");
+      }
       throw new IOManagerException("FILENOTOPENED");
     }
 
@@ -262,7 +297,9 @@ public class IOManager {
     int read_byte = r.read(buffer, count);
     String read_str = new String(buffer);
 
-    logger.info("Read the string " + read_str + " from fd " + fd);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Read the string " + read_str + " from fd " + fd);
+    }
     MemoryElement memEl = null;
 
     try {
@@ -271,7 +308,9 @@ public class IOManager {
       for (int i = 0; i < read_str.length(); ++i) {
         if (i % 8 == 0) {
           posInWord = 0;
-          logger.info("read(): getting a new cell at address " + address);
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("read(): getting a new cell at address " + address);
+          }
           memEl = memory.getCellByAddress(address);
           address += 8;
         }
@@ -280,7 +319,9 @@ public class IOManager {
         memEl.writeByte(rb, posInWord++);
       }
 
-      logger.info("Wrote " + read_str + " to memory");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Wrote " + read_str + " to memory");
+      }
       return read_byte;
     } catch (MemoryElementNotFoundException e) {
       throw new IOManagerException("OUTOFMEMORY");
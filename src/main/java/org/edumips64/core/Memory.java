@@ -25,34 +25,70 @@ package org.edumips64.core;
 
 import org.edumips64.core.is.InstructionInterface;
 
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.logging.Logger;
 
 /**  This class models the main memory of a computer, with 64-bit elements (that is 8 byte).
- * The Memory is composed of MemoryElement and its size is not limited.
+ * The Memory is composed of MemoryElement and its size is not limited: both the code and the data memory span the
+ * 64-bit address space, and are stored in pages that are allocated only when the program uses them.
  */
 public class Memory {
-  /** The code and data sections limits*/
-  public static final int CODELIMIT = 16384; // 16 bit bus (2^12 / 4)
-  public static final int DATALIMIT = 8192;  // 16 bit bus (2^12 / 8)
+  // Each page of the code memory holds 2^CODE_PAGE_BITS instructions (4 KB of code), each page of views 2^VIEW_PAGE_BITS
+  // MemoryElement objects.
+  private static final int CODE_PAGE_BITS = 10;
+  private static final int VIEW_PAGE_BITS = 9;
 
-  // Data structures for the data and code memory. In both maps, the key is represented by the index of the element.
+  // Data structures for the data and code memory. In both of them, elements are identified by their index.
   // The index is derived by taking the address of the given element and dividing it by its width (8 for the memory,
   // 4 for the code).
-  // SortedMaps are used to have the map entries sorted by key (useful for string representation).
-  private SortedMap<Integer, MemoryElement> cells;
-  private SortedMap<Integer, InstructionInterface> instructions;
+  private DataMemory cells;
+  private PagedArray<InstructionInterface> instructions;
+
+  // Maps the serial number of each (non-BUBBLE) instruction in the code memory to its index.
+  private Map<Integer, Integer> instructionIndexes;
+
+  // MemoryElement views over the data cells, created the first time a cell is requested.
+  private PagedArray<MemoryElement> views;
+
+  // Labels, code and comments of the data cells. Only annotated cells have an entry, and the map itself is
+  // created only when the first annotation is added.
+  private Map<Long, CellAnnotation> annotations;
+
+  private static class CellAnnotation {
+    String label = "";
+    String code = "";
+    String comment = "";
+  }
 
   private static final Logger logger = Logger.getLogger(Memory.class.getName());
 
   // Keep track of non-BUBBLE instructions for code size purposes.
   private int instructionCount = 0;
 
+  // Highest indexes used in the data and code memory, so that the UI can size its tables.
+  private long lastUsedCell = -1;
+  private int lastInstruction = -1;
+
+  // The History that records the writes to the data cells, if any.
+  private History history;
+
+  // The MemoryHeatMap counting the accesses to the data cells, while the CPU executes a cycle.
+  private MemoryHeatMap heatMap;
+
   public Memory() {
+    this(new PagedDataMemory());
+  }
+
+  /** Creates a Memory that stores the data cells in the given backend. */
+  public Memory(DataMemory dataMemory) {
     logger.info("Building Memory: " + this.hashCode());
-    cells = new TreeMap<>();
-    instructions = new TreeMap<>();
+    cells = dataMemory;
+    views = new PagedArray<>(VIEW_PAGE_BITS);
+    instructions = new PagedArray<>(CODE_PAGE_BITS);
+    instructionIndexes = new HashMap<>();
     logger.info("Memory built: " + this.hashCode());
   }
 
@@ -64,99 +100,272 @@ public class Memory {
   }
 
   /** Gets the index of the given instruction
-   * @return the position of the instruction in the list, or -1 if the instruction doesn't exist.
+   * @return the position of the instruction in the list (its address divided by 4), or -1 if the instruction
+   * doesn't exist.
    */
   public int getInstructionIndex(InstructionInterface to_find) {
-    int pos = 0;
-    for(InstructionInterface i : instructions.values()) {
-      if (i.equals(to_find)) {
-        return pos;
-      }
-      pos++;
+    if (to_find == null || to_find.isBubble()) {
+      return -1;
     }
-    return -1;
+
+    Integer index = instructionIndexes.get(to_find.getSerialNumber());
+    return (index == null) ? -1 : index;
+  }
+
+  /** Gets the index of the last cell of the data memory that was written or annotated since the last reset.
+   * @return the index of the cell, or -1 if no cell was used.
+   */
+  public long getLastUsedCellIndex() {
+    return lastUsedCell;
+  }
+
+  /** Gets the index of the last slot of the code memory that was filled since the last reset.
+   * @return the index (address / 4), or -1 if the code memory is empty.
+   */
+  public int getLastInstructionIndex() {
+    return lastInstruction;
   }
 
   /** Returns the MemoryElement at given address.
    * Please note that an index is not an address, for addresses must be aligned to 8 byte and indexes do not.
    * @param address address of the requested element
    * @return MemoryElement with address equals to index*8
-   * @throws MemoryElementNotFoundException if given index is too large for this memory.
+   * @throws MemoryElementNotFoundException if given address is negative.
    */
   public MemoryElement getCellByAddress(long address) throws MemoryElementNotFoundException {
-    int index = (int)(address / 8);
-    return getCellByIndex(index);
+    return getCellByIndex(address / 8);
   }
 
-  /** Returns the MemoryElement with the given index. If there is no MemoryElement at the given index, create one,
-   * add it to the map and return it.
+  /** Returns the MemoryElement with the given index. The MemoryElement is a view over the data cell, so reading or
+   * writing it reads or writes the memory.
    * @param index index of the requested element
    * @return MemoryElement
-   * @throws MemoryElementNotFoundException if the given index is out of
-   * bounds
+   * @throws MemoryElementNotFoundException if the given index is negative
    */
-  public MemoryElement getCellByIndex(int index) throws MemoryElementNotFoundException {
-    if (index >= DATALIMIT || index < 0) {
+  public MemoryElement getCellByIndex(long index) throws MemoryElementNotFoundException {
+    if (index < 0) {
       throw new MemoryElementNotFoundException();
     }
 
-    if (!cells.containsKey(index)) {
-      cells.put(index, new MemoryElement(index * 8));
+    MemoryElement view = views.get(index);
+    if (view == null) {
+      view = new MemoryElement(this, index);
+      views.set(index, view);
     }
 
-    return cells.get(index);
+    return view;
+  }
+
+  // Accessors used by MemoryElement. The index is assumed to be valid.
+  long readCell(long index) {
+    if (heatMap != null) {
+      heatMap.read(index);
+    }
+    return cells.read(index);
+  }
+
+  // Reads a cell to update part of it, which only counts as a write.
+  long readCellForUpdate(long index) {
+    return cells.read(index);
+  }
+
+  void writeCell(long index, long value) {
+    if (history != null) {
+      history.cellWritten(index, cells.read(index), cells.isTouched(index));
+    }
+    if (heatMap != null) {
+      heatMap.write(index);
+    }
+    cells.write(index, value);
+    if (index > lastUsedCell) {
+      lastUsedCell = index;
+    }
+  }
+
+  // Brings a cell back to the value it had before a write recorded by the History.
+  void undoCellWrite(long index, long value, boolean touched) {
+    if (touched) {
+      cells.write(index, value);
+    } else {
+      cells.erase(index);
+    }
+  }
+
+  void setHistory(History history) {
+    this.history = history;
+  }
+
+  void setHeatMap(MemoryHeatMap heatMap) {
+    this.heatMap = heatMap;
+  }
+
+  String getCellLabel(long index) {
+    CellAnnotation a = getAnnotation(index, false);
+    return (a == null) ? "" : a.label;
+  }
+
+  void setCellLabel(long index, String label) {
+    CellAnnotation a = getAnnotation(index, !label.isEmpty());
+    if (a != null) {
+      a.label = label;
+    }
+  }
+
+  String getCellCode(long index) {
+    CellAnnotation a = getAnnotation(index, false);
+    return (a == null) ? "" : a.code;
+  }
+
+  void setCellCode(long index, String code) {
+    CellAnnotation a = getAnnotation(index, !code.isEmpty());
+    if (a != null) {
+      a.code = code;
+    }
+  }
+
+  String getCellComment(long index) {
+    CellAnnotation a = getAnnotation(index, false);
+    return (a == null) ? "" : a.comment;
+  }
+
+  void setCellComment(long index, String comment) {
+    CellAnnotation a = getAnnotation(index, !comment.isEmpty());
+    if (a != null) {
+      a.comment = comment;
+    }
+  }
+
+  private CellAnnotation getAnnotation(long index, boolean create) {
+    if (annotations == null) {
+      if (!create) {
+        return null;
+      }
+      annotations = new HashMap<>();
+    }
+
+    CellAnnotation a = annotations.get(index);
+    if (a == null && create) {
+      a = new CellAnnotation();
+      annotations.put(index, a);
+      if (index > lastUsedCell) {
+        lastUsedCell = index;
+      }
+    }
+    return a;
   }
 
   /** This method resets the memory*/
   public void reset() {
-    cells.clear();
+    cells.reset();
+    annotations = null;
+    views.clear();
     instructions.clear();
+    instructionIndexes.clear();
     instructionCount = 0;
+    lastUsedCell = -1;
+    lastInstruction = -1;
+  }
+
+  /** Saves the data cells that were written since the last reset. Code and annotations are not saved, as
+   * they come from the program. */
+  void save(CheckpointWriter out) throws IOException {
+    int count = 0;
+    for (long i = cells.nextTouched(0); i != -1; i = cells.nextTouched(i + 1)) {
+      count++;
+    }
+
+    out.writeLong(lastUsedCell);
+    out.writeInt(count);
+    for (long i = cells.nextTouched(0); i != -1; i = cells.nextTouched(i + 1)) {
+      out.writeLong(i);
+      out.writeLong(cells.read(i));
+    }
+  }
+
+  /** Restores the data cells saved by save(), leaving the code untouched. */
+  void restore(CheckpointReader in) throws IOException {
+    long last = in.readLong();
+    int count = in.readInt();
+
+    cells.reset();
+    for (int i = 0; i < count; i++) {
+      long index = in.readLong();
+      if (index < 0) {
+        throw new IOException("Invalid cell index in checkpoint: " + index);
+      }
+      cells.write(index, in.readLong());
+    }
+    lastUsedCell = last;
   }
 
   public String toString() {
     String tmp = "Data:\n";
 
-    for(MemoryElement m : cells.values()) {
-      tmp += m.toString() + "\n";
+    // Cells that were never written and have no label are not shown.
+    TreeSet<Long> used = new TreeSet<>();
+    for (long i = cells.nextTouched(0); i != -1; i = cells.nextTouched(i + 1)) {
+      used.add(i);
+    }
+    if (annotations != null) {
+      used.addAll(annotations.keySet());
+    }
+    for (long i : used) {
+      tmp += new MemoryElement(this, i).toString() + "\n";
     }
 
     tmp += "\nCode:\n";
-    for (InstructionInterface i : instructions.values()) {
-      tmp += i.toString() + "\n";
+    for (long i = instructions.nextIndex(0); i != -1; i = instructions.nextIndex(i + 1)) {
+      tmp += instructions.get(i).toString() + "\n";
     }
 
     return tmp;
   }
 
+  /** Adds an instruction to the code memory, replacing the one at the same address (if any).
+   * @throws SymbolTableOverflowException if the address is negative, which happens when the program overflows
+   * the address counter of the parser.
+   */
   public void addInstruction(InstructionInterface i, int address) throws SymbolTableOverflowException {
-    // TODO(lupino3): remove the limit.
-    if (address > CODELIMIT) {
-      logger.warning("Address exceeding the CPU code limit: " + address + " > " + CODELIMIT);
+    if (address < 0) {
+      logger.warning("Invalid code address: " + address);
       throw new SymbolTableOverflowException();
     }
 
     int listIndex = address / 4;
-    if (!i.isBubble() && !instructions.containsKey(listIndex)) {
+    InstructionInterface old = instructions.get(listIndex);
+    if (!i.isBubble() && old == null) {
       instructionCount++;
     }
-    instructions.put(listIndex, i);
+    if (old != null && !old.isBubble()) {
+      instructionIndexes.remove(old.getSerialNumber());
+    }
+    if (!i.isBubble()) {
+      instructionIndexes.put(i.getSerialNumber(), listIndex);
+    }
+    instructions.set(listIndex, i);
+    if (listIndex > lastInstruction) {
+      lastInstruction = listIndex;
+    }
   }
 
   // Returns null if there is no instruction at the given address.
   public InstructionInterface getInstruction(int address) {
-    int index = address / 4;
-    if (!instructions.containsKey(index)) {
-      return null;
-    }
-    return instructions.get(address / 4);
+    return getInstruction((long) address);
   }
 
   /** This method returns the instruction at the specified position.
-  *   @return an Instruction object
+  *   @return an Instruction object, or null if there is no instruction at the given address
   *   @param address a BitSet64 object holding the address of the Instruction
     */
-  InstructionInterface getInstruction(BitSet64 address) throws IrregularStringOfBitsException {
-      return instructions.get((int)(Converter.binToLong(address.getBinString(), false) / 4));
+  InstructionInterface getInstruction(BitSet64 address) {
+    return getInstruction(address.getLong());
+  }
+
+  /** Same as getInstruction(int), for any 64-bit address. */
+  InstructionInterface getInstruction(long address) {
+    if (address < 0) {
+      return null;
+    }
+    return instructions.get(address / 4);
   }
 }
@@ -0,0 +1,11 @@
+package org.edumips64.core;
+
+/** Receives the memory accesses of the simulated program, as they are recorded by Dinero: instruction fetches and
+ * data reads and writes, with the data addresses shifted after the code like in the Dinero trace.
+ * See Dinero.addListener().
+ */
+public interface MemoryAccessListener {
+  enum Type {FETCH, READ, WRITE}
+
+  void access(Type type, long address, int size);
+}
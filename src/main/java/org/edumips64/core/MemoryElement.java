@@ -24,58 +24,71 @@
 package org.edumips64.core;
 
 /** This class models a 64-bit memory location with a given address.
+ * A MemoryElement does not hold any data: it is a view over a cell of the
+ * Memory it belongs to, which stores the value and the annotations (label,
+ * code and comment).
  * @author Salvatore Scellato
  * */
 public class MemoryElement extends BitSet64 {
-  private int address;
-  private String comment;
-  private String label;
-  private String code;
+  private Memory memory;
+  private long index;
 
-  /** Creates a new MemoryElement with given address.
-   * @param address address of the MemoryElement
+  /** Creates a new MemoryElement for the cell with the given index.
+   * @param memory the memory holding the cell
+   * @param index index of the cell (address / 8)
    */
-  public MemoryElement(int address) {
+  MemoryElement(Memory memory, long index) {
     super();
-    this.address = address;
-    comment = "";
-    label = "";
-    code = "";
+    this.memory = memory;
+    this.index = index;
+  }
+
+  public long getLong() {
+    return memory.readCell(index);
+  }
+
+  public void setLong(long value) {
+    memory.writeCell(index, value);
+  }
+
+  @Override
+  long getLongForUpdate() {
+    return memory.readCellForUpdate(index);
   }
 
   /** Returns the address of this MemoryElement
    * @return address of the MemoryElement
    */
-  public int getAddress() {
-    return address;
+  public long getAddress() {
+    return index * 8;
   }
 
   /** Returns the comment related to this MemoryElement
    * @return comment of this MemoryElement
    */
   public String getComment() {
-    return comment;
+    return memory.getCellComment(index);
   }
 
   /** Sets the comment related to this MemoryElement
    * @param comment brief description of this MemoryElement
    */
   public void setComment(String comment) {
-    this.comment = comment;
+    memory.setCellComment(index, comment);
   }
 
   /** Returns the label of this MemoryElement
    * @return label of the MemoryElement
    */
   public String getLabel() {
-    return label;
+    return memory.getCellLabel(index);
   }
 
   /** Sets the label related to this MemoryElement
    * @param label label of this MemoryElement
    */
   public void setLabel(String label) {
-    this.label = label;
+    memory.setCellLabel(index, label);
   }
 
 
@@ -83,7 +96,7 @@ public class MemoryElement extends BitSet64 {
    * @return code of the MemoryElement
    */
   public String getCode() {
-    return code;
+    return memory.getCellCode(index);
   }
 
   /** Sets the code related to this MemoryElement
@@ -91,7 +104,7 @@ public class MemoryElement extends BitSet64 {
    */
 
   public void setCode(String code) {
-    this.code = code;
+    memory.setCellCode(index, code);
   }
 
   /** Returns the signed numeric decimal value stored in the 64 bits of this MemoryElement: basically
@@ -99,13 +112,7 @@ public class MemoryElement extends BitSet64 {
    * @return signed numerical value stored in this MemoryElement.
    */
   public long getValue() {
-    try {
-      return Converter.binToLong(this.getBinString(), false);
-    } catch (IrregularStringOfBitsException e) {
-      System.err.println("Errore in un registro");
-      this.reset(false);  //azzeriamo il registro
-      return 0;
-    }
+    return getLong();
   }
 
   /** Returns a string represention of this MemoryElement, formatted with the address and
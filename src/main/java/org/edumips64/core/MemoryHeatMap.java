@@ -0,0 +1,335 @@
+package org.edumips64.core;
+
+import java.util.Arrays;
+
+/** Counts the reads and writes of each data cell made by the program, with their reuse distance and the working set
+ * over windows of cycles. The CPU attaches it to the Memory while it executes a cycle (see CPU.setHeatMap()), so
+ * every data access is counted, by loads and stores as well as by system calls, but the ones made by the parser and
+ * the user interface are not.
+ *
+ * The reuse distance of an access is the number of other cells accessed since the previous access to the same cell:
+ * with a fully associative LRU cache of N cells, an access hits if its distance is less than N. Distances are
+ * computed exactly, on a Fenwick tree over the accesses where only the last access to each cell is marked; the tree
+ * is compacted when it fills up, so it takes memory proportional to the number of cells, not of the accesses.
+ *
+ * Everything is kept in primitive arrays indexed by slot, the order in which the cells were first accessed.
+ */
+public class MemoryHeatMap {
+  private static final long EMPTY = -1;
+  private static final int INITIAL_CAPACITY = 64;
+
+  // Cycles in each window.
+  private int window;
+
+  // Open addressing table from the cell index to its slot.
+  private long[] keys;
+  private int[] keySlots;
+
+  // Counters of each slot.
+  private int slots;
+  private long[] cells;
+  private long[] reads;
+  private long[] writes;
+  private long[] reuseSum;
+  private long[] reuses;
+  private int[] lastAccess;
+  private int[] windowCount;
+
+  // Reuse distances: bucket 0 holds distance 0, bucket k distances from 2^(k-1) to 2^k - 1.
+  private long[] reuseHistogram = new long[33];
+  private long coldAccesses;
+
+  // Fenwick tree over the accesses, from 1, with a mark on the last access to each cell.
+  private int[] tree;
+  private int time;
+
+  // Closed windows: the accesses of each cell in window w are in windowSlots and windowCounts, from
+  // windowOffsets[w] to windowOffsets[w + 1].
+  private int windows;
+  private int[] windowOffsets;
+  private long[] windowAccesses;
+  private int entries;
+  private int[] windowSlots;
+  private int[] windowCounts;
+
+  // The window of the current cycle, and the slots accessed in it.
+  private long currentWindow;
+  private long currentAccesses;
+  private int touched;
+  private int[] touchedSlots;
+
+  /** @param window number of cycles of each window of the working set
+   * @throws IllegalArgumentException if window is not positive
+   */
+  public MemoryHeatMap(int window) {
+    if (window <= 0) {
+      throw new IllegalArgumentException("The window must be positive: " + window);
+    }
+    this.window = window;
+    reset();
+  }
+
+  /** Clears all the counters. Called by CPU.reset(). */
+  public void reset() {
+    keys = new long[INITIAL_CAPACITY * 2];
+    Arrays.fill(keys, EMPTY);
+    keySlots = new int[INITIAL_CAPACITY * 2];
+    slots = 0;
+    cells = new long[INITIAL_CAPACITY];
+    reads = new long[INITIAL_CAPACITY];
+    writes = new long[INITIAL_CAPACITY];
+    reuseSum = new long[INITIAL_CAPACITY];
+    reuses = new long[INITIAL_CAPACITY];
+    lastAccess = new int[INITIAL_CAPACITY];
+    windowCount = new int[INITIAL_CAPACITY];
+    touchedSlots = new int[INITIAL_CAPACITY];
+    Arrays.fill(reuseHistogram, 0);
+    coldAccesses = 0;
+    tree = new int[INITIAL_CAPACITY * 4 + 1];
+    time = 0;
+    windows = 0;
+    windowOffsets = new int[INITIAL_CAPACITY + 1];
+    windowAccesses = new long[INITIAL_CAPACITY];
+    entries = 0;
+    windowSlots = new int[INITIAL_CAPACITY];
+    windowCounts = new int[INITIAL_CAPACITY];
+    currentWindow = 0;
+    currentAccesses = 0;
+    touched = 0;
+  }
+
+  /** Starts counting the accesses of the given cycle, from 1. Windows are closed as the cycles go past them. */
+  void setCycle(long cycle) {
+    long target = (cycle - 1) / window;
+    while (currentWindow < target) {
+      closeWindow();
+    }
+  }
+
+  /** Counts a read of the cell with the given index. */
+  void read(long index) {
+    int slot = access(index);
+    reads[slot]++;
+  }
+
+  /** Counts a write of the cell with the given index. */
+  void write(long index) {
+    int slot = access(index);
+    writes[slot]++;
+  }
+
+  public int getWindowSize() {
+    return window;
+  }
+
+  /** Returns the number of cells accessed. Cells are numbered by their first access. */
+  public int getCells() {
+    return slots;
+  }
+
+  public long getAddress(int cell) {
+    return cells[cell] * 8;
+  }
+
+  public long getReads(int cell) {
+    return reads[cell];
+  }
+
+  public long getWrites(int cell) {
+    return writes[cell];
+  }
+
+  /** Returns the mean reuse distance of the accesses to the given cell, or NaN if it was accessed once. */
+  public double getMeanReuseDistance(int cell) {
+    return reuses[cell] == 0 ? Double.NaN : (double) reuseSum[cell] / reuses[cell];
+  }
+
+  /** Returns the number of accesses by reuse distance: element 0 counts distance 0, element k distances from
+   * 2^(k-1) to 2^k - 1. */
+  public long[] getReuseHistogram() {
+    return Arrays.copyOf(reuseHistogram, reuseHistogram.length);
+  }
+
+  /** Returns the number of first accesses to a cell, which have no reuse distance. */
+  public long getColdAccesses() {
+    return coldAccesses;
+  }
+
+  /** Returns the number of windows, including the current one. */
+  public int getWindows() {
+    return windows + 1;
+  }
+
+  /** Returns the number of accesses in the given window. */
+  public long getWindowAccesses(int w) {
+    return w == windows ? currentAccesses : windowAccesses[w];
+  }
+
+  /** Returns the working set of the given window, in cells. */
+  public int getWorkingSet(int w) {
+    return w == windows ? touched : windowOffsets[w + 1] - windowOffsets[w];
+  }
+
+  /** Returns the cells accessed in the given window; see getWindowCounts(). */
+  public int[] getWindowCells(int w) {
+    if (w == windows) {
+      return Arrays.copyOf(touchedSlots, touched);
+    }
+    return Arrays.copyOfRange(windowSlots, windowOffsets[w], windowOffsets[w + 1]);
+  }
+
+  /** Returns the accesses in the given window to each cell of getWindowCells(). */
+  public int[] getWindowCounts(int w) {
+    if (w == windows) {
+      int[] counts = new int[touched];
+      for (int i = 0; i < touched; i++) {
+        counts[i] = windowCount[touchedSlots[i]];
+      }
+      return counts;
+    }
+    return Arrays.copyOfRange(windowCounts, windowOffsets[w], windowOffsets[w + 1]);
+  }
+
+  // Counts an access in the reuse distances and in the current window, and returns the slot of the cell.
+  private int access(long index) {
+    int slot = slot(index);
+
+    if (time == tree.length - 1) {
+      compact();
+    }
+    time++;
+    int last = lastAccess[slot];
+    if (last == 0) {
+      coldAccesses++;
+    } else {
+      int distance = prefix(time - 1) - prefix(last);
+      reuseHistogram[32 - Integer.numberOfLeadingZeros(distance)]++;
+      reuseSum[slot] += distance;
+      reuses[slot]++;
+      mark(last, -1);
+    }
+    mark(time, 1);
+    lastAccess[slot] = time;
+
+    if (windowCount[slot]++ == 0) {
+      if (touched == touchedSlots.length) {
+        touchedSlots = Arrays.copyOf(touchedSlots, touched * 2);
+      }
+      touchedSlots[touched++] = slot;
+    }
+    currentAccesses++;
+    return slot;
+  }
+
+  // Returns the slot of the cell with the given index, creating it if needed.
+  private int slot(long index) {
+    int mask = keys.length - 1;
+    int i = hash(index) & mask;
+    while (keys[i] != EMPTY) {
+      if (keys[i] == index) {
+        return keySlots[i];
+      }
+      i = (i + 1) & mask;
+    }
+
+    if (slots == cells.length) {
+      int capacity = slots * 2;
+      cells = Arrays.copyOf(cells, capacity);
+      reads = Arrays.copyOf(reads, capacity);
+      writes = Arrays.copyOf(writes, capacity);
+      reuseSum = Arrays.copyOf(reuseSum, capacity);
+      reuses = Arrays.copyOf(reuses, capacity);
+      lastAccess = Arrays.copyOf(lastAccess, capacity);
+      windowCount = Arrays.copyOf(windowCount, capacity);
+    }
+    int slot = slots++;
+    cells[slot] = index;
+    keys[i] = index;
+    keySlots[i] = slot;
+    if (slots * 2 > keys.length) {
+      rehash();
+    }
+    return slot;
+  }
+
+  private void rehash() {
+    keys = new long[keys.length * 2];
+    Arrays.fill(keys, EMPTY);
+    keySlots = new int[keys.length];
+    int mask = keys.length - 1;
+    for (int slot = 0; slot < slots; slot++) {
+      int i = hash(cells[slot]) & mask;
+      while (keys[i] != EMPTY) {
+        i = (i + 1) & mask;
+      }
+      keys[i] = cells[slot];
+      keySlots[i] = slot;
+    }
+  }
+
+  private static int hash(long index) {
+    long h = index * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  // Renumbers the last accesses of the cells from 1, keeping their order, in a tree with room for as many accesses
+  // again as there are cells.
+  private void compact() {
+    int[] byTime = new int[time + 1];
+    for (int slot = 0; slot < slots; slot++) {
+      if (lastAccess[slot] != 0) {
+        byTime[lastAccess[slot]] = slot + 1;
+      }
+    }
+    int marks = 0;
+    for (int t = 1; t <= time; t++) {
+      if (byTime[t] != 0) {
+        lastAccess[byTime[t] - 1] = ++marks;
+      }
+    }
+
+    tree = new int[Math.max(tree.length, marks * 2 + 1)];
+    for (int i = 1; i < tree.length; i++) {
+      int lowest = i & -i;
+      tree[i] = Math.max(0, Math.min(i, marks) - (i - lowest));
+    }
+    time = marks;
+  }
+
+  private void mark(int position, int delta) {
+    for (int i = position; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  private int prefix(int position) {
+    int sum = 0;
+    for (int i = position; i > 0; i -= i & -i) {
+      sum += tree[i];
+    }
+    return sum;
+  }
+
+  private void closeWindow() {
+    if (windows == windowAccesses.length) {
+      windowAccesses = Arrays.copyOf(windowAccesses, windows * 2);
+      windowOffsets = Arrays.copyOf(windowOffsets, windows * 2 + 1);
+    }
+    if (entries + touched > windowSlots.length) {
+      int capacity = Math.max(windowSlots.length * 2, entries + touched);
+      windowSlots = Arrays.copyOf(windowSlots, capacity);
+      windowCounts = Arrays.copyOf(windowCounts, capacity);
+    }
+    for (int i = 0; i < touched; i++) {
+      int slot = touchedSlots[i];
+      windowSlots[entries] = slot;
+      windowCounts[entries++] = windowCount[slot];
+      windowCount[slot] = 0;
+    }
+    windowAccesses[windows] = currentAccesses;
+    windowOffsets[++windows] = entries;
+    currentAccesses = 0;
+    touched = 0;
+    currentWindow++;
+  }
+}
@@ -0,0 +1,95 @@
+package org.edumips64.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Sparse array of objects indexed by a non-negative long.
+ *
+ * Elements are stored in fixed-size pages, allocated when the first element
+ * of the page is set. Memory uses it for the code memory and for the views
+ * over the data cells, so that both can span the 64-bit address space.
+ */
+class PagedArray<T> {
+  private final int pageBits;
+  private final int pageMask;
+
+  // Page table, sorted by page number so that elements can be visited in order.
+  private TreeMap<Long, Object[]> pages = new TreeMap<>();
+
+  // Last page found in the page table, to skip the lookup when the same page is used again.
+  private long lastPageNumber = -1;
+  private Object[] lastPage;
+
+  /** Creates an empty array whose pages hold 2^pageBits elements. */
+  PagedArray(int pageBits) {
+    this.pageBits = pageBits;
+    this.pageMask = (1 << pageBits) - 1;
+  }
+
+  /** Returns the element with the given index, or null if it was never set. */
+  @SuppressWarnings("unchecked")
+  T get(long index) {
+    Object[] page = getPage(index >>> pageBits, false);
+    return (page == null) ? null : (T) page[(int) index & pageMask];
+  }
+
+  /** Sets the element with the given index. */
+  void set(long index, T value) {
+    Object[] page = getPage(index >>> pageBits, value != null);
+    if (page != null) {
+      page[(int) index & pageMask] = value;
+    }
+  }
+
+  /** Returns the index of the first non-null element whose index is greater
+   * than or equal to the given one, or -1 if there is no such element. */
+  long nextIndex(long index) {
+    if (index < 0) {
+      index = 0;
+    }
+
+    long pageNumber = index >>> pageBits;
+    Map.Entry<Long, Object[]> entry = pages.ceilingEntry(pageNumber);
+
+    while (entry != null) {
+      long current = entry.getKey();
+      Object[] page = entry.getValue();
+      int offset = (current == pageNumber) ? (int) index & pageMask : 0;
+
+      for (; offset < page.length; ++offset) {
+        if (page[offset] != null) {
+          return (current << pageBits) + offset;
+        }
+      }
+      entry = pages.higherEntry(current);
+    }
+
+    return -1;
+  }
+
+  /** Removes all the elements and frees the pages. */
+  void clear() {
+    pages.clear();
+    lastPageNumber = -1;
+    lastPage = null;
+  }
+
+  private Object[] getPage(long pageNumber, boolean allocate) {
+    if (pageNumber == lastPageNumber) {
+      return lastPage;
+    }
+
+    Object[] page = pages.get(pageNumber);
+    if (page == null) {
+      if (!allocate) {
+        return null;
+      }
+      page = new Object[1 << pageBits];
+      pages.put(pageNumber, page);
+    }
+
+    lastPageNumber = pageNumber;
+    lastPage = page;
+    return page;
+  }
+}
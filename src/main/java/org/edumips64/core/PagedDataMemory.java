@@ -0,0 +1,131 @@
+package org.edumips64.core;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/** DataMemory covering the whole 64-bit address space.
+ *
+ * Cells are grouped in fixed-size pages, which are allocated the first time
+ * one of their cells is written: memory use grows with the number of pages a
+ * program actually touches, not with the highest address it uses. Reading a
+ * cell of a page that does not exist returns zero and allocates nothing.
+ */
+public class PagedDataMemory implements DataMemory {
+  // Each page holds 2^PAGE_BITS cells, that is 4 KB of data.
+  private static final int PAGE_BITS = 9;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+  private static class Page {
+    final long[] cells = new long[PAGE_SIZE];
+    // Bitmap of the cells written since the page was allocated.
+    final long[] touched = new long[PAGE_SIZE / 64];
+  }
+
+  // Page table, sorted by page number so that touched cells can be visited in order.
+  private TreeMap<Long, Page> pages = new TreeMap<>();
+
+  // Last page found in the page table. Loads and stores tend to hit the same
+  // page over and over, and in that case no lookup is needed.
+  private long lastPageNumber = -1;
+  private Page lastPage;
+
+  public long read(long index) {
+    Page page = getPage(index >>> PAGE_BITS, false);
+    return (page == null) ? 0 : page.cells[(int) index & PAGE_MASK];
+  }
+
+  public void write(long index, long value) {
+    Page page = getPage(index >>> PAGE_BITS, true);
+    int offset = (int) index & PAGE_MASK;
+    page.cells[offset] = value;
+    page.touched[offset >>> 6] |= 1L << offset;
+  }
+
+  public void erase(long index) {
+    Page page = getPage(index >>> PAGE_BITS, false);
+    if (page != null) {
+      int offset = (int) index & PAGE_MASK;
+      page.cells[offset] = 0;
+      page.touched[offset >>> 6] &= ~(1L << offset);
+    }
+  }
+
+  public boolean isTouched(long index) {
+    Page page = getPage(index >>> PAGE_BITS, false);
+    int offset = (int) index & PAGE_MASK;
+    return page != null && (page.touched[offset >>> 6] & (1L << offset)) != 0;
+  }
+
+  public long nextTouched(long index) {
+    if (index < 0) {
+      index = 0;
+    }
+
+    long pageNumber = index >>> PAGE_BITS;
+    Map.Entry<Long, Page> entry = pages.ceilingEntry(pageNumber);
+
+    while (entry != null) {
+      long current = entry.getKey();
+      // Only in the page holding the given index some cells must be skipped.
+      int offset = (current == pageNumber) ? (int) index & PAGE_MASK : 0;
+      int found = nextTouched(entry.getValue(), offset);
+
+      if (found != -1) {
+        return (current << PAGE_BITS) + found;
+      }
+      entry = pages.higherEntry(current);
+    }
+
+    return -1;
+  }
+
+  public void reset() {
+    // Pages are freed, so that a reset also gives back the memory.
+    pages.clear();
+    lastPageNumber = -1;
+    lastPage = null;
+  }
+
+  /** Returns the number of allocated pages. */
+  public int getPageCount() {
+    return pages.size();
+  }
+
+  private Page getPage(long pageNumber, boolean allocate) {
+    if (pageNumber == lastPageNumber) {
+      return lastPage;
+    }
+
+    Page page = pages.get(pageNumber);
+    if (page == null) {
+      if (!allocate) {
+        return null;
+      }
+      page = new Page();
+      pages.put(pageNumber, page);
+    }
+
+    lastPageNumber = pageNumber;
+    lastPage = page;
+    return page;
+  }
+
+  // Returns the offset of the first touched cell of the page whose offset is
+  // greater than or equal to the given one, or -1 if there is no such cell.
+  private static int nextTouched(Page page, int offset) {
+    int word = offset >>> 6;
+
+    // Ignore the bits of the first word that come before the given offset.
+    long bits = page.touched[word] & (-1L << offset);
+
+    while (bits == 0) {
+      if (++word == page.touched.length) {
+        return -1;
+      }
+      bits = page.touched[word];
+    }
+
+    return word * 64 + Long.numberOfTrailingZeros(bits);
+  }
+}
@@ -26,7 +26,7 @@ class Pipeline {
   }
 
   boolean isBubble(CPU.PipeStage stage) {
-    return !isEmpty(stage) && stageInstructionMap.get(stage).getName().equals(" ");
+    return !isEmpty(stage) && stageInstructionMap.get(stage).isBubble();
   }
 
   int size() {
@@ -68,6 +68,10 @@ class Pipeline {
     return get(CPU.PipeStage.WB);
   }
 
+  InstructionInterface set(CPU.PipeStage stage, InstructionInterface instruction) {
+    return stageInstructionMap.put(stage, instruction);
+  }
+
   InstructionInterface setIF(InstructionInterface instruction) {
     return stageInstructionMap.put(CPU.PipeStage.IF, instruction);
   }
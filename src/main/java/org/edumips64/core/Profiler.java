@@ -0,0 +1,323 @@
+package org.edumips64.core;
+
+import org.edumips64.core.is.Instruction;
+import org.edumips64.core.is.InstructionInterface;
+import org.edumips64.core.is.Opcode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Execution profile of a program by instruction address, sampled by the CPU at the end of every cycle (see
+ * CPU.setProfiler()).
+ *
+ * For each instruction it counts the executions, the cycles spent in each stage and the stall cycles: RAW, WAW,
+ * structural and cache-miss stalls are charged to the stalled instruction, and RAW stalls on general purpose
+ * registers also to the instruction that was going to write the register. Each cycle is also charged to a single
+ * instruction, the one holding up the pipeline: the instruction in MEM during a cache miss, the one waiting for
+ * MEM when it is taken by an FPU instruction, otherwise the one in ID or, if ID holds a bubble, the next older
+ * instruction. Those cycles are also recorded by call path, following JAL/JALR and JR R31, for flame graphs.
+ *
+ * The profile is not rolled back by the undo journal, and is not part of checkpoints.
+ */
+public class Profiler {
+  /** The counters kept for each instruction. IF to WB and FPU are the cycles spent in each stage. */
+  public enum Counter {
+    EXECUTIONS,
+    CYCLES,
+    IF,
+    ID,
+    EX,
+    MEM,
+    WB,
+    FPU,
+    RAW_STALLS,
+    RAW_CAUSED,
+    WAW_STALLS,
+    STRUCTURAL_STALLS,
+    CACHE_MISS_STALLS
+  }
+
+  private static final int COUNTERS = Counter.values().length;
+
+  // Stages of the functional units, as in CPU.getInstructionByFuncUnit().
+  private static final String[] FP_UNITS = {"ADDER", "MULTIPLIER", "DIVIDER"};
+  private static final int[] FP_FIRST_STAGE = {1, 1, 0};
+  private static final int[] FP_LAST_STAGE = {4, 7, 0};
+
+  private Memory memory;
+
+  // Counters of the instruction at index i (its address divided by 4) from i * COUNTERS.
+  private long[] counts = new long[256 * COUNTERS];
+  private long cycles;
+
+  // Values of the CPU stall counters at the previous cycle.
+  private int rawStalls, wawStalls, fpStructuralStalls, exStalls, memoryStalls, cacheMissStalls;
+
+  // Index of the instruction in ID at the previous cycle, or -1, and of the instruction that last locked each GPR.
+  private int previousID = -1;
+  private int[] writers = new int[RegisterFile.SIZE];
+  // The writers charged for the RAW stall of the current cycle.
+  private int[] chargedWriters = new int[RegisterFile.SIZE];
+
+  // Call paths: node 0 is the program, each other node is a call from its parent to an entry point.
+  private List<Integer> parents = new ArrayList<>();
+  private List<Integer> entries = new ArrayList<>();
+  private Map<Long, Integer> children = new HashMap<>();
+  private int node;
+  private boolean callPending;
+
+  // Cycles charged to each instruction on each call path, by (node << 32 | index).
+  private Map<Long, long[]> pathCycles = new HashMap<>();
+
+  public Profiler(Memory memory) {
+    this.memory = memory;
+    reset();
+  }
+
+  /** Clears the profile. Called by CPU.reset(). */
+  public void reset() {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = 0;
+    }
+    cycles = 0;
+    rawStalls = 0;
+    wawStalls = 0;
+    fpStructuralStalls = 0;
+    exStalls = 0;
+    memoryStalls = 0;
+    cacheMissStalls = 0;
+    previousID = -1;
+    for (int r = 0; r < writers.length; r++) {
+      writers[r] = -1;
+    }
+    parents.clear();
+    entries.clear();
+    children.clear();
+    parents.add(-1);
+    entries.add(-1);
+    node = 0;
+    callPending = false;
+    pathCycles.clear();
+  }
+
+  /** Samples the state of the CPU at the end of a cycle. */
+  void cycle(CPU cpu) {
+    cycles++;
+    Map<CPU.PipeStage, InstructionInterface> pipeline = cpu.getPipeline();
+    int ifIndex = count(pipeline.get(CPU.PipeStage.IF), Counter.IF);
+    int idIndex = count(pipeline.get(CPU.PipeStage.ID), Counter.ID);
+    int exIndex = count(pipeline.get(CPU.PipeStage.EX), Counter.EX);
+    int memIndex = count(pipeline.get(CPU.PipeStage.MEM), Counter.MEM);
+    int wbIndex = count(pipeline.get(CPU.PipeStage.WB), Counter.WB);
+    add(wbIndex, Counter.EXECUTIONS, 1);
+    // An instruction left in the last stage of a functional unit could not go to MEM.
+    int fpWaiting = -1;
+    for (int unit = 0; unit < FP_UNITS.length; unit++) {
+      for (int stage = FP_FIRST_STAGE[unit]; stage <= FP_LAST_STAGE[unit]; stage++) {
+        int index = count(cpu.getInstructionByFuncUnit(FP_UNITS[unit], stage), Counter.FPU);
+        if (stage == FP_LAST_STAGE[unit] && fpWaiting == -1) {
+          fpWaiting = index;
+        }
+      }
+    }
+
+    // Stalls.
+    boolean raw = cpu.getRAWStalls() != rawStalls;
+    boolean waw = cpu.getWAWStalls() != wawStalls;
+    int fpStructural = cpu.getStructuralStallsDivider() + cpu.getStructuralStallsFuncUnit();
+    boolean fpUnitBusy = fpStructural != fpStructuralStalls;
+    boolean exBusy = cpu.getStructuralStallsEX() != exStalls;
+    boolean memoryStructural = cpu.getStructuralStallsMemory() != memoryStalls;
+    boolean cacheMiss = cpu.getCacheMissStalls() != cacheMissStalls;
+    rawStalls = cpu.getRAWStalls();
+    wawStalls = cpu.getWAWStalls();
+    fpStructuralStalls = fpStructural;
+    exStalls = cpu.getStructuralStallsEX();
+    memoryStalls = cpu.getStructuralStallsMemory();
+    cacheMissStalls = cpu.getCacheMissStalls();
+
+    if (raw) {
+      add(idIndex, Counter.RAW_STALLS, 1);
+      // The instruction in ID waits for the pending writes of the registers it reads.
+      InstructionInterface stalled = pipeline.get(CPU.PipeStage.ID);
+      int blocked = stalled instanceof Instruction
+          ? cpu.getRegisterFile().getPendingWrites() & ((Instruction) stalled).getSourceRegisters() : 0;
+      // Each writer is charged once, however many of the registers it is going to write.
+      int charged = 0;
+      for (int r = 0; r < RegisterFile.SIZE; r++) {
+        if ((blocked & RegisterFile.mask(r)) != 0 && !contains(chargedWriters, charged, writers[r])) {
+          chargedWriters[charged++] = writers[r];
+          add(writers[r], Counter.RAW_CAUSED, 1);
+        }
+      }
+    }
+    if (waw) {
+      add(idIndex, Counter.WAW_STALLS, 1);
+    }
+    if (fpUnitBusy) {
+      add(idIndex, Counter.STRUCTURAL_STALLS, 1);
+    }
+    // The CPU also counts a bubble in ID waiting for EX, which is then held by an instruction that can't go to MEM.
+    if (exBusy) {
+      add(idIndex != -1 ? idIndex : exIndex, Counter.STRUCTURAL_STALLS, 1);
+    }
+    // MEM is taken by an instruction leaving the FPU, while the one in EX or another one in the FPU waits.
+    int memoryStalled = exIndex != -1 ? exIndex : fpWaiting;
+    if (memoryStructural) {
+      add(memoryStalled, Counter.STRUCTURAL_STALLS, 1);
+    }
+    if (cacheMiss) {
+      add(memIndex, Counter.CACHE_MISS_STALLS, 1);
+    }
+
+    // If the instruction in ID at the previous cycle was decoded, it locked the register it writes, and if it
+    // was a call or a return the next instruction in ID is in another function.
+    boolean decoded = !(raw || waw || fpUnitBusy || exBusy || cacheMiss);
+    if (decoded && previousID != -1) {
+      InstructionInterface decodedInstruction = memory.getInstruction(previousID * 4);
+      if (decodedInstruction instanceof Instruction && ((Instruction) decodedInstruction).getDestRegister() >= 0) {
+        writers[((Instruction) decodedInstruction).getDestRegister()] = previousID;
+      }
+      Opcode opcode = decodedInstruction == null ? null : decodedInstruction.getOpcode();
+      if (opcode == Opcode.JAL || opcode == Opcode.JALR) {
+        callPending = true;
+      } else if (opcode == Opcode.JR && ((Instruction) decodedInstruction).getParams()[0] == 31) {
+        node = node == 0 ? 0 : parents.get(node);
+      }
+    }
+    if (decoded && callPending && idIndex != -1) {
+      callPending = false;
+      node = child(node, idIndex);
+    }
+    if (decoded) {
+      previousID = idIndex;
+    }
+
+    // The instruction holding up the pipeline.
+    int charged;
+    if (cacheMiss) {
+      charged = memIndex;
+    } else if (memoryStructural) {
+      charged = memoryStalled;
+    } else {
+      charged = firstValid(idIndex, exIndex, memIndex, wbIndex, ifIndex);
+    }
+    if (charged != -1) {
+      add(charged, Counter.CYCLES, 1);
+      long key = ((long) node << 32) | charged;
+      long[] pathCount = pathCycles.get(key);
+      if (pathCount == null) {
+        pathCount = new long[1];
+        pathCycles.put(key, pathCount);
+      }
+      pathCount[0]++;
+    }
+  }
+
+  /** Returns the number of cycles sampled. */
+  public long getCycles() {
+    return cycles;
+  }
+
+  /** Returns the given counter of the instruction at the given address. */
+  public long get(int address, Counter counter) {
+    int base = address / 4 * COUNTERS;
+    return base + COUNTERS <= counts.length ? counts[base + counter.ordinal()] : 0;
+  }
+
+  /** Returns the addresses of the instructions that went through the pipeline, in increasing order. */
+  public List<Integer> getAddresses() {
+    List<Integer> addresses = new ArrayList<>();
+    for (int base = 0; base < counts.length; base += COUNTERS) {
+      for (int c = 0; c < COUNTERS; c++) {
+        if (counts[base + c] != 0) {
+          addresses.add(base / COUNTERS * 4);
+          break;
+        }
+      }
+    }
+    return addresses;
+  }
+
+  /** Returns the instruction at the given address. */
+  public InstructionInterface getInstruction(int address) {
+    return memory.getInstruction(address);
+  }
+
+  /** Returns the number of call paths; path 0 is the program itself. */
+  public int getPaths() {
+    return parents.size();
+  }
+
+  /** Returns the path the given one was called from, or -1 for path 0. */
+  public int getCaller(int path) {
+    return parents.get(path);
+  }
+
+  /** Returns the address of the function called by the given path, or -1 for path 0. */
+  public int getEntry(int path) {
+    return entries.get(path) == -1 ? -1 : entries.get(path) * 4;
+  }
+
+  /** Returns the cycles charged to each instruction on each call path, as {path, address, cycles} triples. */
+  public List<long[]> getPathCycles() {
+    List<long[]> result = new ArrayList<>();
+    for (Map.Entry<Long, long[]> e : pathCycles.entrySet()) {
+      result.add(new long[] {e.getKey() >>> 32, (e.getKey() & 0xFFFFFFFFL) * 4, e.getValue()[0]});
+    }
+    return result;
+  }
+
+  // Counts a cycle of the given instruction in the given stage, and returns its index, or -1 for bubbles.
+  private int count(InstructionInterface instruction, Counter stage) {
+    int index = memory.getInstructionIndex(instruction);
+    add(index, stage, 1);
+    return index;
+  }
+
+  private void add(int index, Counter counter, long value) {
+    if (index < 0) {
+      return;
+    }
+    int position = index * COUNTERS + counter.ordinal();
+    if (position >= counts.length) {
+      long[] newCounts = new long[Math.max(counts.length * 2, (index + 1) * COUNTERS)];
+      System.arraycopy(counts, 0, newCounts, 0, counts.length);
+      counts = newCounts;
+    }
+    counts[position] += value;
+  }
+
+  private int child(int parent, int entry) {
+    long key = ((long) parent << 32) | entry;
+    Integer child = children.get(key);
+    if (child == null) {
+      child = parents.size();
+      parents.add(parent);
+      entries.add(entry);
+      children.put(key, child);
+    }
+    return child;
+  }
+
+  // True if the first length elements of values contain the given value.
+  private static boolean contains(int[] values, int length, int value) {
+    for (int i = 0; i < length; i++) {
+      if (values[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static int firstValid(int... indexes) {
+    for (int index : indexes) {
+      if (index != -1) {
+        return index;
+      }
+    }
+    return -1;
+  }
+}
@@ -25,10 +25,14 @@
  */
 package org.edumips64.core;
 
+import java.io.IOException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 
 /** This class models a 64-bit CPU's internal register.
+ * The general purpose registers are stored in the RegisterFile of the CPU: the Register objects returned for them
+ * are views over the file, used by the UI and by the code that is not performance-critical.
  * @author Salvatore Scellato
  */
 public class Register extends BitSet64 {
@@ -65,14 +69,18 @@ public class Register extends BitSet64 {
    */
   public void incrReadSemaphore() {
     readSemaphore++;
-    logger.info("Incremented read semaphore for " + reg_name + ": " + readSemaphore);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Incremented read semaphore for " + reg_name + ": " + readSemaphore);
+    }
   }
 
   /** Increments the value of the semaphore
    */
   public void incrWriteSemaphore() {
     writeSemaphore++;
-    logger.info("Incremented write semaphore for " + reg_name + ": " + writeSemaphore);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Incremented write semaphore for " + reg_name + ": " + writeSemaphore);
+    }
   }
 
   /** Decrements the value of the semaphore.
@@ -85,7 +93,9 @@ public class Register extends BitSet64 {
       throw new RuntimeException();
     }
 
-    logger.info("Decremented write semaphore for " + reg_name + ": " + writeSemaphore);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Decremented write semaphore for " + reg_name + ": " + writeSemaphore);
+    }
   }
 
   /** Decrements the value of the semaphore.
@@ -98,20 +108,16 @@ public class Register extends BitSet64 {
       throw new RuntimeException();
     }
 
-    logger.info("Decremented read semaphore for " + reg_name + ": " + writeSemaphore);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Decremented read semaphore for " + reg_name + ": " + writeSemaphore);
+    }
   }
 
   /** Returns the signed numeric decimal value stored in this register.
    * @return signed numerical value stored in this register
    */
   public long getValue() {
-    try {
-      return Converter.binToLong(this.getBinString(), false);
-    } catch (IrregularStringOfBitsException e) {
-      e.printStackTrace();
-      this.reset(false);  //azzeriamo il registro
-      return 0;
-    }
+    return getLong();
   }
 
   /** Reset the register and its associated semaphores
@@ -122,6 +128,20 @@ public class Register extends BitSet64 {
     readSemaphore = 0;
   }
 
+  /** Saves the value and the semaphores of the register. */
+  void save(CheckpointWriter out) throws IOException {
+    out.writeLong(getLong());
+    out.writeInt(writeSemaphore);
+    out.writeInt(readSemaphore);
+  }
+
+  /** Restores the state saved by save(). */
+  void restore(CheckpointReader in) throws IOException {
+    setLong(in.readLong());
+    writeSemaphore = in.readInt();
+    readSemaphore = in.readInt();
+  }
+
 
   public String toString() {
     String s = new String();
@@ -0,0 +1,186 @@
+package org.edumips64.core;
+
+import java.io.IOException;
+
+/** The 32 general purpose registers of the CPU, along with the scoreboard
+ * used by the ID stage to detect RAW hazards.
+ *
+ * Values are kept in a long array. For each register the scoreboard holds
+ * the number of instructions in flight that will write it (the write
+ * semaphore) and a bit in a 32-bit mask that is set while that number is
+ * greater than zero, so that the hazards on all the source registers of an
+ * instruction can be checked with a single mask test, using the mask
+ * computed when the instruction was decoded:
+ *
+ * <pre>
+ *   if (gpr.isWritePending(getSourceRegisters())) {
+ *     // RAW stall
+ *   }
+ * </pre>
+ *
+ * R0 is hardwired to zero: writes to it are ignored, but its write semaphore
+ * works as for any other register.
+ */
+public class RegisterFile {
+  public static final int SIZE = 32;
+
+  private long[] values = new long[SIZE];
+  private int[] writeSemaphores = new int[SIZE];
+  private int pendingWrites;
+
+  // The History that records the writes to the registers, if any.
+  private History history;
+
+  // Register objects handed out to the code that still needs them (mainly the UI).
+  private Register[] views = new Register[SIZE];
+
+  public RegisterFile() {
+    for (int i = 0; i < SIZE; ++i) {
+      views[i] = new View(this, i);
+    }
+  }
+
+  /** Returns the bit of the given register in the scoreboard masks. */
+  public static int mask(int index) {
+    return 1 << index;
+  }
+
+  /** Returns the value of the given register. */
+  public long read(int index) {
+    return values[index];
+  }
+
+  /** Writes the given value in the given register. Writes to R0 are ignored. */
+  public void write(int index, long value) {
+    if (index != 0) {
+      values[index] = value;
+      if (history != null) {
+        history.registerWritten(index);
+      }
+    }
+  }
+
+  /** Returns true if at least one of the registers in the given mask is going to be written by an instruction
+   * in flight. */
+  public boolean isWritePending(int mask) {
+    return (pendingWrites & mask) != 0;
+  }
+
+  /** Returns the mask of the registers that are going to be written by an instruction in flight. */
+  public int getPendingWrites() {
+    return pendingWrites;
+  }
+
+  /** Returns the number of instructions in flight that are going to write the given register. */
+  public int getWriteSemaphore(int index) {
+    return writeSemaphores[index];
+  }
+
+  /** Records that an instruction in flight is going to write the given register. */
+  public void incrWriteSemaphore(int index) {
+    writeSemaphores[index]++;
+    pendingWrites |= mask(index);
+  }
+
+  /** Records that an instruction wrote the given register.
+   *  It throws a <code>RuntimeException</code> if the semaphore value gets below zero, because
+   *  that only happens in case of programming errors.
+   */
+  public void decrWriteSemaphore(int index) {
+    int value = --writeSemaphores[index];
+
+    if (value < 0) {
+      throw new RuntimeException();
+    }
+
+    if (value == 0) {
+      pendingWrites &= ~mask(index);
+    }
+  }
+
+  /** Returns a Register object reading and writing the given register. */
+  public Register getRegister(int index) {
+    return views[index];
+  }
+
+  /** Returns Register objects for all the registers, in order. */
+  public Register[] getRegisters() {
+    return views;
+  }
+
+  /** Sets every register to zero and clears the scoreboard. */
+  public void reset() {
+    for (int i = 0; i < SIZE; ++i) {
+      values[i] = 0;
+      writeSemaphores[i] = 0;
+    }
+    pendingWrites = 0;
+  }
+
+  // Brings a single register back to zero and clears its write semaphore.
+  void reset(int index) {
+    values[index] = 0;
+    writeSemaphores[index] = 0;
+    pendingWrites &= ~mask(index);
+  }
+
+  /** Saves the values and the write semaphores of the registers. */
+  void save(CheckpointWriter out) throws IOException {
+    for (int i = 0; i < SIZE; ++i) {
+      out.writeLong(values[i]);
+      out.writeInt(writeSemaphores[i]);
+    }
+  }
+
+  /** Restores the state saved by save(). */
+  void restore(CheckpointReader in) throws IOException {
+    reset();
+    for (int i = 0; i < SIZE; ++i) {
+      values[i] = in.readLong();
+      writeSemaphores[i] = in.readInt();
+      if (writeSemaphores[i] != 0) {
+        pendingWrites |= mask(i);
+      }
+    }
+  }
+
+  void setHistory(History history) {
+    this.history = history;
+  }
+
+  /** A Register that is a view over a register of the file. */
+  private static class View extends Register {
+    private RegisterFile file;
+    private int index;
+
+    View(RegisterFile file, int index) {
+      super("R" + index);
+      this.file = file;
+      this.index = index;
+    }
+
+    public long getLong() {
+      return file.read(index);
+    }
+
+    public void setLong(long value) {
+      file.write(index, value);
+    }
+
+    public int getWriteSemaphore() {
+      return file.getWriteSemaphore(index);
+    }
+
+    public void incrWriteSemaphore() {
+      file.incrWriteSemaphore(index);
+    }
+
+    public void decrWriteSemaphore() {
+      file.decrWriteSemaphore(index);
+    }
+
+    public void reset() {
+      file.reset(index);
+    }
+  }
+}
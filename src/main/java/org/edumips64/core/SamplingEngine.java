@@ -0,0 +1,217 @@
+package org.edumips64.core;
+
+import org.edumips64.core.is.AddressErrorException;
+import org.edumips64.core.is.BreakException;
+import org.edumips64.core.is.HaltException;
+import org.edumips64.core.is.TwosComplementSumException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/** Sampled simulation of a program, in the style of SMARTS.
+ *
+ * The program is executed by alternating three phases: the FunctionalEngine
+ * fast-forwards a number of instructions, then the pipelined CPU executes some
+ * warm-up instructions, to fill the pipelines, and a measurement window. At the
+ * end of the window the pipelines are drained and the cycle repeats. Each
+ * window gives a sample of the cycles and stalls per instruction, and the
+ * totals for the whole program are estimated from the mean of the samples,
+ * with a 95% confidence interval.
+ *
+ * Instructions are counted exactly in every phase, so getInstructions() is the
+ * actual instruction count of the program.
+ */
+public class SamplingEngine {
+  // Quantile of the normal distribution for 95% confidence intervals.
+  private static final double Z_95 = 1.96;
+
+  /** The counters of the CPU estimated by sampling. */
+  public enum Counter {
+    CYCLES,
+    RAW_STALLS,
+    WAW_STALLS,
+    DIVIDER_STALLS,
+    FUNC_UNIT_STALLS,
+    MEMORY_STALLS,
+    EX_STALLS,
+    CACHE_MISS_STALLS;
+
+    private int read(CPU cpu) {
+      switch (this) {
+        case CYCLES:
+          return cpu.getCycles();
+        case RAW_STALLS:
+          return cpu.getRAWStalls();
+        case WAW_STALLS:
+          return cpu.getWAWStalls();
+        case DIVIDER_STALLS:
+          return cpu.getStructuralStallsDivider();
+        case FUNC_UNIT_STALLS:
+          return cpu.getStructuralStallsFuncUnit();
+        case MEMORY_STALLS:
+          return cpu.getStructuralStallsMemory();
+        case CACHE_MISS_STALLS:
+          return cpu.getCacheMissStalls();
+        default:
+          return cpu.getStructuralStallsEX();
+      }
+    }
+  }
+
+  /** Estimate of a value: the mean of the samples and the half width of its confidence interval. */
+  public static class Estimate {
+    private final double mean;
+    private final double halfWidth;
+
+    Estimate(double mean, double halfWidth) {
+      this.mean = mean;
+      this.halfWidth = halfWidth;
+    }
+
+    /** Computes the estimate of the mean from the given samples. With less than two samples the width of the
+     * interval is unknown, and it is NaN. */
+    static Estimate of(List<Double> samples) {
+      int n = samples.size();
+      if (n == 0) {
+        return new Estimate(Double.NaN, Double.NaN);
+      }
+
+      double sum = 0;
+      for (double x : samples) {
+        sum += x;
+      }
+      double mean = sum / n;
+      if (n == 1) {
+        return new Estimate(mean, Double.NaN);
+      }
+
+      double squares = 0;
+      for (double x : samples) {
+        squares += (x - mean) * (x - mean);
+      }
+      double stdDev = Math.sqrt(squares / (n - 1));
+      return new Estimate(mean, Z_95 * stdDev / Math.sqrt(n));
+    }
+
+    public double getMean() {
+      return mean;
+    }
+
+    /** Returns the half width of the 95% confidence interval. */
+    public double getHalfWidth() {
+      return halfWidth;
+    }
+
+    /** Returns the half width of the confidence interval divided by the mean. */
+    public double getRelativeError() {
+      return halfWidth / mean;
+    }
+
+    Estimate scale(double factor) {
+      return new Estimate(mean * factor, halfWidth * factor);
+    }
+
+    public String toString() {
+      return mean + " +/- " + halfWidth;
+    }
+  }
+
+  private CPU cpu;
+  private FunctionalEngine functionalEngine;
+  private int fastForward;
+  private int warmUp;
+  private int window;
+
+  // Instructions executed by the last run.
+  private int instructions;
+
+  // Per-instruction rate of each counter, one sample per measurement window.
+  private Map<Counter, List<Double>> samples = new EnumMap<>(Counter.class);
+
+  /**
+   * @param fastForward instructions executed functionally before each window
+   * @param warmUp instructions executed by the pipeline before each window, not measured
+   * @param window instructions measured in each window
+   */
+  public SamplingEngine(CPU cpu, Memory memory, int fastForward, int warmUp, int window) {
+    if (window <= 0 || fastForward < 0 || warmUp < 0) {
+      throw new IllegalArgumentException("Invalid sampling parameters: " + fastForward + ", " + warmUp + ", " + window);
+    }
+    this.cpu = cpu;
+    this.functionalEngine = new FunctionalEngine(cpu, memory);
+    this.fastForward = fastForward;
+    this.warmUp = warmUp;
+    this.window = window;
+    for (Counter c : Counter.values()) {
+      samples.put(c, new ArrayList<>());
+    }
+  }
+
+  /** Executes the program until it terminates. The estimates are available after HaltException is thrown.
+   * @throws HaltException when the program terminates
+   */
+  public void run() throws AddressErrorException, HaltException, IrregularWriteOperationException, StoppedCPUException, MemoryElementNotFoundException, IrregularStringOfBitsException, TwosComplementSumException, SynchronousException, BreakException, NotAlignException {
+    int[] start = new int[Counter.values().length];
+    for (List<Double> s : samples.values()) {
+      s.clear();
+    }
+
+    try {
+      while (true) {
+        int target = cpu.getInstructions() + fastForward;
+        while (cpu.getInstructions() < target) {
+          functionalEngine.step();
+        }
+
+        stepPipeline(warmUp);
+
+        // Windows cut short by the end of the program are not sampled.
+        for (Counter c : Counter.values()) {
+          start[c.ordinal()] = c.read(cpu);
+        }
+        stepPipeline(window);
+        for (Counter c : Counter.values()) {
+          samples.get(c).add((double) (c.read(cpu) - start[c.ordinal()]) / window);
+        }
+
+        cpu.drain();
+      }
+    } finally {
+      instructions = cpu.getInstructions();
+    }
+  }
+
+  private void stepPipeline(int instructions) throws AddressErrorException, HaltException, IrregularWriteOperationException, StoppedCPUException, MemoryElementNotFoundException, IrregularStringOfBitsException, TwosComplementSumException, SynchronousException, BreakException, NotAlignException {
+    int target = cpu.getInstructions() + instructions;
+    while (cpu.getInstructions() < target) {
+      cpu.step();
+    }
+  }
+
+  /** Returns the number of measurement windows that were sampled. */
+  public int getSamples() {
+    return samples.get(Counter.CYCLES).size();
+  }
+
+  /** Returns the number of instructions executed by run(), in all phases. */
+  public int getInstructions() {
+    return instructions;
+  }
+
+  /** Returns the estimated cycles per instruction. */
+  public Estimate getCPI() {
+    return getRate(Counter.CYCLES);
+  }
+
+  /** Returns the estimated value of the counter per instruction. */
+  public Estimate getRate(Counter counter) {
+    return Estimate.of(samples.get(counter));
+  }
+
+  /** Returns the estimated value of the counter for the whole program. */
+  public Estimate getTotal(Counter counter) {
+    return getRate(counter).scale(getInstructions());
+  }
+}
@@ -0,0 +1,89 @@
+package org.edumips64.core;
+
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.ConfigStore;
+
+/** Immutable snapshot of the configuration values read by the CPU while simulating.
+ *
+ * Reading the ConfigStore can be expensive (the GUI one is backed by Java
+ * Preferences), so the CPU builds a new snapshot only when the store signals a
+ * change through its version number, and uses the snapshot in every cycle.
+ */
+public class SimulationConfig {
+  private final boolean forwarding;
+  private final boolean syncExceptionsMasked;
+  private final boolean syncExceptionsTerminate;
+  private final boolean fpInvalidOperation;
+  private final boolean fpOverflow;
+  private final boolean fpUnderflow;
+  private final boolean fpDivideByZero;
+  private final FCSRRegister.FPRoundingMode roundingMode;
+
+  public SimulationConfig(ConfigStore config) {
+    forwarding = config.getBoolean(ConfigKey.FORWARDING);
+    syncExceptionsMasked = config.getBoolean(ConfigKey.SYNC_EXCEPTIONS_MASKED);
+    syncExceptionsTerminate = config.getBoolean(ConfigKey.SYNC_EXCEPTIONS_TERMINATE);
+    fpInvalidOperation = config.getBoolean(ConfigKey.FP_INVALID_OPERATION);
+    fpOverflow = config.getBoolean(ConfigKey.FP_OVERFLOW);
+    fpUnderflow = config.getBoolean(ConfigKey.FP_UNDERFLOW);
+    fpDivideByZero = config.getBoolean(ConfigKey.FP_DIVIDE_BY_ZERO);
+
+    // The rounding modes are radio buttons: the first one that is set wins.
+    if (config.getBoolean(ConfigKey.FP_NEAREST)) {
+      roundingMode = FCSRRegister.FPRoundingMode.TO_NEAREST;
+    } else if (config.getBoolean(ConfigKey.FP_TOWARDS_ZERO)) {
+      roundingMode = FCSRRegister.FPRoundingMode.TOWARD_ZERO;
+    } else if (config.getBoolean(ConfigKey.FP_TOWARDS_PLUS_INFINITY)) {
+      roundingMode = FCSRRegister.FPRoundingMode.TOWARDS_PLUS_INFINITY;
+    } else if (config.getBoolean(ConfigKey.FP_TOWARDS_MINUS_INFINITY)) {
+      roundingMode = FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY;
+    } else {
+      roundingMode = null;
+    }
+  }
+
+  public boolean isForwarding() {
+    return forwarding;
+  }
+
+  public boolean isSyncExceptionsMasked() {
+    return syncExceptionsMasked;
+  }
+
+  public boolean isSyncExceptionsTerminate() {
+    return syncExceptionsTerminate;
+  }
+
+  /** Returns true if the given FPU exception must be trapped. */
+  public boolean isFPExceptionEnabled(FCSRRegister.FPExceptions exceptionName) {
+    switch (exceptionName) {
+      case INVALID_OPERATION:
+        return fpInvalidOperation;
+      case OVERFLOW:
+        return fpOverflow;
+      case UNDERFLOW:
+        return fpUnderflow;
+      case DIVIDE_BY_ZERO:
+        return fpDivideByZero;
+      default:
+        return false;
+    }
+  }
+
+  /** Returns the configured rounding mode, or null if none is selected. */
+  public FCSRRegister.FPRoundingMode getRoundingMode() {
+    return roundingMode;
+  }
+
+  /** Copies the FPU exception enables and the rounding mode in the given FCSR. */
+  void applyTo(FCSRRegister fcsr) {
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.INVALID_OPERATION, fpInvalidOperation);
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.OVERFLOW, fpOverflow);
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.UNDERFLOW, fpUnderflow);
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.DIVIDE_BY_ZERO, fpDivideByZero);
+
+    if (roundingMode != null) {
+      fcsr.setFCSRRoundingMode(roundingMode);
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package org.edumips64.core;
+
+import org.edumips64.core.cache.MemoryTiming;
+import org.edumips64.core.is.AddressErrorException;
+import org.edumips64.core.is.BUBBLE;
+import org.edumips64.core.is.BreakException;
+import org.edumips64.core.is.HaltException;
+import org.edumips64.core.is.InstructionBuilder;
+import org.edumips64.core.is.TwosComplementSumException;
+import org.edumips64.core.parser.Parser;
+import org.edumips64.core.parser.ParserMultiException;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.ConfigStore;
+import org.edumips64.utils.CurrentLocale;
+import org.edumips64.utils.InMemoryConfigStore;
+import org.edumips64.utils.io.FileUtils;
+import org.edumips64.utils.io.ReadException;
+
+/** A complete simulator: the configuration, the CPU, the memory, the symbol table, the IOManager, Dinero, the
+ * instruction builder and the parser, wired together.
+ *
+ * All the mutable state of a simulator is owned by its context: the only static state of the simulator is made
+ * of constants, the read-only ConfigStore.defaults and the message tables of CurrentLocale. Different contexts can
+ * therefore be used on different threads at the same time, each by one thread at a time, which allows hosting
+ * many independent simulations in one process.
+ */
+public class SimulatorContext {
+  /** How run() ended. */
+  public enum Exit {
+    /** The program executed HALT or SYSCALL 0. */
+    HALT,
+    /** The program executed BREAK. */
+    BREAK,
+    /** A synchronous exception was raised, and SYNC_EXCEPTIONS_TERMINATE is set. */
+    SYNCHRONOUS_EXCEPTION,
+    /** The CPU ran for the maximum number of cycles. */
+    CYCLE_LIMIT
+  }
+
+  /** Notified by run() of its progress. */
+  public interface RunListener {
+    /** Called after each cycle, unless it ended the run. */
+    void stepped();
+
+    /** Called for each synchronous exception, before it ends the run or the run goes on. */
+    void synchronousException(SynchronousException e);
+  }
+
+  private ConfigStore config;
+  private Memory memory;
+  private CPU cpu;
+  private SymbolTable symbolTable;
+  private IOManager ioManager;
+  private Dinero dinero;
+  private InstructionBuilder instructionBuilder;
+  private Parser parser;
+  private MemoryTiming memoryTiming;
+
+  /** Creates a simulator with the given configuration, which must not be shared with other contexts.
+   * @param fileUtils used to read the programs and the files opened by them
+   */
+  public SimulatorContext(ConfigStore config, FileUtils fileUtils) {
+    this.config = config;
+    memory = new Memory();
+    cpu = new CPU(memory, config, BUBBLE.INSTANCE);
+    symbolTable = new SymbolTable(memory);
+    ioManager = new IOManager(fileUtils, memory);
+    dinero = new Dinero();
+    instructionBuilder = new InstructionBuilder(memory, ioManager, cpu, dinero, config);
+    parser = new Parser(fileUtils, symbolTable, memory, instructionBuilder);
+  }
+
+  /** Creates a simulator with a private, in-memory configuration holding the default values. */
+  public SimulatorContext(FileUtils fileUtils) {
+    this(new InMemoryConfigStore(ConfigStore.defaults), fileUtils);
+  }
+
+  public ConfigStore getConfig() {
+    return config;
+  }
+
+  public Memory getMemory() {
+    return memory;
+  }
+
+  public CPU getCPU() {
+    return cpu;
+  }
+
+  public SymbolTable getSymbolTable() {
+    return symbolTable;
+  }
+
+  public IOManager getIOManager() {
+    return ioManager;
+  }
+
+  public Dinero getDinero() {
+    return dinero;
+  }
+
+  public InstructionBuilder getInstructionBuilder() {
+    return instructionBuilder;
+  }
+
+  public Parser getParser() {
+    return parser;
+  }
+
+  /** Returns the timing model of the memory hierarchy, or null if it is disabled. */
+  public MemoryTiming getMemoryTiming() {
+    return memoryTiming;
+  }
+
+  /** Replaces the timing model of the memory hierarchy with a new one, with empty caches, described by the
+   * current configuration (see MemoryTiming.fromConfig()), and attaches it to Dinero and to the CPU.
+   * @return the new model, or null if it is disabled
+   * @throws IllegalArgumentException if the configuration of the model is not valid; the previous model is kept
+   */
+  public MemoryTiming setupMemoryTiming() {
+    MemoryTiming timing = MemoryTiming.fromConfig(config);
+    if (memoryTiming != null) {
+      dinero.removeListener(memoryTiming);
+    }
+    memoryTiming = timing;
+    if (memoryTiming != null) {
+      dinero.addListener(memoryTiming);
+    }
+    cpu.setMemoryTiming(memoryTiming);
+    return memoryTiming;
+  }
+
+  /** Prepares the simulator to run a program: sets up the timing model of the memory hierarchy (see
+   * setupMemoryTiming()), parses the program, ignoring the warnings, and tells Dinero where its data starts.
+   * @throws IllegalArgumentException if the configuration of the timing model is not valid; nothing is parsed
+   * @throws ParserMultiException if the program has errors
+   */
+  public void load(String path) throws ParserMultiException, ReadException {
+    setupMemoryTiming();
+    try {
+      parser.parse(path);
+    } catch (ParserMultiException e) {
+      if (e.hasErrors()) {
+        throw e;
+      }
+    }
+    dinero.setDataOffset(memory.getInstructionsNumber() * 4);
+  }
+
+  /** Runs the loaded program until it ends, or until the CPU has run for maxCycles cycles. As in the GUI,
+   * a synchronous exception ends the run only if SYNC_EXCEPTIONS_TERMINATE is set.
+   * @param listener notified of each cycle and of each synchronous exception, or null
+   * @throws AddressErrorException or another exception of CPU.step() that stops the program
+   */
+  public Exit run(long maxCycles, RunListener listener) throws AddressErrorException,
+      IrregularWriteOperationException, StoppedCPUException, MemoryElementNotFoundException,
+      IrregularStringOfBitsException, TwosComplementSumException, NotAlignException {
+    boolean terminate = config.getBoolean(ConfigKey.SYNC_EXCEPTIONS_TERMINATE);
+    cpu.setStatus(CPU.CPUStatus.RUNNING);
+    while (cpu.getCycles() < maxCycles) {
+      try {
+        cpu.step();
+      } catch (HaltException e) {
+        return Exit.HALT;
+      } catch (BreakException e) {
+        return Exit.BREAK;
+      } catch (SynchronousException e) {
+        if (listener != null) {
+          listener.synchronousException(e);
+        }
+        if (terminate) {
+          return Exit.SYNCHRONOUS_EXCEPTION;
+        }
+      }
+      if (listener != null) {
+        listener.stepped();
+      }
+    }
+    return Exit.CYCLE_LIMIT;
+  }
+
+  /** Returns the message in the language of the configuration of this simulator. */
+  public String getString(String key) {
+    return CurrentLocale.getString(key, config);
+  }
+}
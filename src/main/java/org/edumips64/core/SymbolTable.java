@@ -24,8 +24,11 @@
 
 package org.edumips64.core;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.edumips64.core.is.InstructionInterface;
@@ -59,12 +62,16 @@ public class SymbolTable {
       MemoryElement temp = mem.getCellByAddress(address);
       // TODO: attualmente la cella  si prende l'ultima etichetta
       temp.setLabel(label);
-      logger.info("Added memory label " + label + " to address " + address);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Added memory label " + label + " to address " + address);
+      }
     }
   }
 
   public MemoryElement getCell(String label) throws MemoryElementNotFoundException {
-    logger.info("Request for memory element labelled " + label);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Request for memory element labelled " + label);
+    }
 
     if (label == null) {
       throw new MemoryElementNotFoundException();
@@ -77,10 +84,25 @@ public class SymbolTable {
     }
 
     int address = mem_labels.get(label);
-    logger.info("Label found at address " + address);
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Label found at address " + address);
+    }
     return mem.getCellByAddress(address);
   }
 
+  /** Returns the labels of the data cells by address, in increasing order of address. If an address has more
+   * than one label, the first one in alphabetical order is returned. */
+  public Map<Integer, String> getCellLabels() {
+    Map<Integer, String> labels = new TreeMap<>();
+    for (Map.Entry<String, Integer> entry : mem_labels.entrySet()) {
+      String other = labels.get(entry.getValue());
+      if (other == null || entry.getKey().compareTo(other) < 0) {
+        labels.put(entry.getValue(), entry.getKey());
+      }
+    }
+    return labels;
+  }
+
   /** Adds to the Symbol Table, at the specified address, the given
    * instruction with the given label.
    */
@@ -98,7 +120,9 @@ public class SymbolTable {
       }
       // TODO: attualmente l'istruzione si prende l'ultima etichetta
       temp.setLabel(label);
-      logger.info("Added instruction label " + label + " to address " + address);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Added instruction label " + label + " to address " + address);
+      }
     }
   }
 
@@ -121,6 +145,36 @@ public class SymbolTable {
     // istruzioni?
   }
 
+  /** Saves the labels. The labels of the cells and of the instructions are not saved, as they come from the
+   * program. */
+  void save(CheckpointWriter out) throws IOException {
+    saveLabels(out, instr_labels);
+    saveLabels(out, mem_labels);
+  }
+
+  /** Restores the labels saved by save(). */
+  void restore(CheckpointReader in) throws IOException {
+    reset();
+    restoreLabels(in, instr_labels);
+    restoreLabels(in, mem_labels);
+  }
+
+  private static void saveLabels(CheckpointWriter out, Map<String, Integer> labels) throws IOException {
+    out.writeInt(labels.size());
+    for (Map.Entry<String, Integer> entry : labels.entrySet()) {
+      out.writeString(entry.getKey());
+      out.writeInt(entry.getValue());
+    }
+  }
+
+  private static void restoreLabels(CheckpointReader in, Map<String, Integer> labels) throws IOException {
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      String label = in.readString();
+      labels.put(label, in.readInt());
+    }
+  }
+
   public String toString() {
     String output = new String();
     output += "\nInstructions:\n";
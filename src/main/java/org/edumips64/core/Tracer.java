@@ -0,0 +1,238 @@
+package org.edumips64.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/** Tracing facility for the simulator core.
+ *
+ * The CPU and the instructions record typed events (a cycle start, a stall, a
+ * register write...) instead of building log messages. Events are stored in a
+ * fixed-size ring buffer of preallocated records, so tracing never allocates:
+ * the subject of an event (usually an instruction) is stored as a reference,
+ * and it's turned into a string only when the buffer is dumped, typically
+ * after an error.
+ *
+ * Recording is guarded by a level: with the default level, OFF, recording an
+ * event costs a comparison between two ints. Callers that need to compute the
+ * values of an event should check isEnabled() first.
+ */
+public class Tracer {
+  private static final Logger logger = Logger.getLogger(Tracer.class.getName());
+
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  /** Tracing levels. PIPELINE records what happens to the pipeline, ALL also records the work of the
+   * instructions (register reads and writes, hazards, syscalls). */
+  public enum Level {OFF, PIPELINE, ALL}
+
+  public enum Event {
+    CYCLE_START,
+    CYCLE_END,
+    STATUS,
+    STAGE,
+    FETCH,
+    COMPLETED,
+    JUMP,
+    RAW_STALL,
+    WAW_STALL,
+    STRUCTURAL_STALL,
+    CACHE_MISS_STALL,
+    EXCEPTION,
+    MASKED_EXCEPTION,
+    RAW,
+    REGISTER_READ,
+    REGISTER_WRITE,
+    SYSCALL
+  }
+
+  /** A trace record. Records are owned by the ring buffer and overwritten when it wraps around. */
+  public static class Record {
+    private Event event;
+    private int cycle;
+    private CPU.PipeStage stage;
+    private Object subject;
+    private int index;
+    private long value;
+
+    public Event getEvent() {
+      return event;
+    }
+
+    public int getCycle() {
+      return cycle;
+    }
+
+    /** Returns the pipeline stage the CPU was executing when the event was recorded. */
+    public CPU.PipeStage getStage() {
+      return stage;
+    }
+
+    /** Returns the object the event is about, usually an instruction. */
+    public Object getSubject() {
+      return subject;
+    }
+
+    /** Returns the register index of REGISTER_READ, REGISTER_WRITE and RAW events. */
+    public int getIndex() {
+      return index;
+    }
+
+    public long getValue() {
+      return value;
+    }
+
+    private void copyFrom(Record other) {
+      event = other.event;
+      cycle = other.cycle;
+      stage = other.stage;
+      subject = other.subject;
+      index = other.index;
+      value = other.value;
+    }
+
+    public String toString() {
+      StringBuilder sb = new StringBuilder();
+      sb.append('[').append(cycle).append("] ");
+      if (stage != null) {
+        sb.append(stage).append(' ');
+      }
+      sb.append(event);
+      if (subject != null) {
+        sb.append(' ').append(subject);
+      }
+      switch (event) {
+        case RAW:
+        case REGISTER_READ:
+          sb.append(" R").append(index);
+          break;
+        case REGISTER_WRITE:
+          sb.append(" R").append(index).append(" = ").append(value);
+          break;
+        case CYCLE_START:
+        case CYCLE_END:
+        case STATUS:
+        case STAGE:
+        case COMPLETED:
+        case EXCEPTION:
+        case MASKED_EXCEPTION:
+          break;
+        default:
+          sb.append(' ').append(value);
+      }
+      return sb.toString();
+    }
+  }
+
+  private Record[] records;
+  private int next;
+  private int size;
+
+  private Level level = Level.OFF;
+  private int levelValue;
+  private boolean echo;
+
+  private int cycle;
+  private CPU.PipeStage stage;
+
+  public Tracer() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public Tracer(int capacity) {
+    records = new Record[capacity];
+    for (int i = 0; i < capacity; ++i) {
+      records[i] = new Record();
+    }
+  }
+
+  public Level getLevel() {
+    return level;
+  }
+
+  public void setLevel(Level level) {
+    this.level = level;
+    levelValue = level.ordinal();
+  }
+
+  /** If set, every recorded event is also logged at INFO level, as the simulator used to do. */
+  public void setEcho(boolean echo) {
+    this.echo = echo;
+  }
+
+  /** Returns true if events of the given level are recorded. */
+  public boolean isEnabled(Level level) {
+    return level.ordinal() <= levelValue;
+  }
+
+  /** Sets the cycle and the stage attached to the events recorded from now on. */
+  void setCycle(int cycle) {
+    this.cycle = cycle;
+  }
+
+  void setStage(CPU.PipeStage stage) {
+    this.stage = stage;
+  }
+
+  /** Records an event, if the given level is enabled. */
+  public void record(Level level, Event event, Object subject, int index, long value) {
+    if (level.ordinal() > levelValue) {
+      return;
+    }
+
+    Record r = records[next];
+    r.event = event;
+    r.cycle = cycle;
+    r.stage = stage;
+    r.subject = subject;
+    r.index = index;
+    r.value = value;
+
+    next = (next + 1) % records.length;
+    if (size < records.length) {
+      size++;
+    }
+
+    if (echo) {
+      logger.info(r.toString());
+    }
+  }
+
+  public void record(Level level, Event event, Object subject) {
+    record(level, event, subject, 0, 0);
+  }
+
+  public void record(Level level, Event event, Object subject, long value) {
+    record(level, event, subject, 0, value);
+  }
+
+  /** Returns copies of the records in the buffer, from the oldest to the newest. */
+  public List<Record> getRecords() {
+    List<Record> result = new ArrayList<>(size);
+    int first = (next - size + records.length) % records.length;
+    for (int i = 0; i < size; ++i) {
+      Record copy = new Record();
+      copy.copyFrom(records[(first + i) % records.length]);
+      result.add(copy);
+    }
+    return result;
+  }
+
+  /** Returns the content of the buffer, one record per line, from the oldest to the newest. */
+  public String dump() {
+    StringBuilder sb = new StringBuilder();
+    for (Record r : getRecords()) {
+      sb.append(r).append('\n');
+    }
+    return sb.toString();
+  }
+
+  /** Empties the buffer. */
+  public void clear() {
+    for (Record r : records) {
+      r.subject = null;
+    }
+    next = 0;
+    size = 0;
+  }
+}
@@ -0,0 +1,64 @@
+package org.edumips64.core.cache;
+
+import org.edumips64.core.MemoryAccessListener;
+
+/** A recording of memory accesses, as primitive arrays: attached to Dinero while a program runs, it records the
+ * access stream once, and can then replay it to any number of cache simulators. Replaying doesn't modify the
+ * trace, so different threads can replay it at the same time once the recording is over.
+ *
+ * Dinero also keeps the accesses it hasn't written yet in one of these.
+ */
+public class AccessTrace implements MemoryAccessListener {
+  private static final Type[] TYPES = Type.values();
+
+  private long[] addresses = new long[1024];
+  // Type ordinal * 16 + size.
+  private byte[] accesses = new byte[1024];
+  private int size;
+
+  public void access(Type type, long address, int size) {
+    if (this.size == addresses.length) {
+      long[] newAddresses = new long[addresses.length * 2];
+      byte[] newAccesses = new byte[accesses.length * 2];
+      System.arraycopy(addresses, 0, newAddresses, 0, this.size);
+      System.arraycopy(accesses, 0, newAccesses, 0, this.size);
+      addresses = newAddresses;
+      accesses = newAccesses;
+    }
+    addresses[this.size] = address;
+    accesses[this.size] = (byte) (type.ordinal() * 16 + size);
+    this.size++;
+  }
+
+  /** Returns the number of accesses recorded. */
+  public int size() {
+    return size;
+  }
+
+  public Type getType(int i) {
+    return TYPES[accesses[i] / 16];
+  }
+
+  public long getAddress(int i) {
+    return addresses[i];
+  }
+
+  /** Returns the number of bytes of the given access. */
+  public int getSize(int i) {
+    return accesses[i] % 16;
+  }
+
+  /** Removes the accesses after the first size ones. */
+  public void truncate(int size) {
+    if (size < this.size) {
+      this.size = Math.max(size, 0);
+    }
+  }
+
+  /** Sends the recorded accesses to the given listener, in order. */
+  public void replay(MemoryAccessListener listener) {
+    for (int i = 0; i < size; i++) {
+      listener.access(getType(i), addresses[i], getSize(i));
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package org.edumips64.core.cache;
+
+import org.edumips64.core.MemoryAccessListener.Type;
+
+import java.util.Random;
+
+/** A level of a cache hierarchy, with its statistics. The state of the lines is kept in primitive arrays, indexed
+ * by set * associativity + way.
+ *
+ * Accesses that miss are forwarded to the next level, or to the memory if there is none: the demand fetch of the
+ * block as a read (a fetch for instruction caches), and the writes of dirty blocks on eviction, or of every write
+ * for write-through caches.
+ */
+public class Cache {
+  private final String name;
+  private final CacheConfig config;
+  private Cache next;
+
+  private final int blockBits;
+  private final long setMask;
+  private final int ways;
+  private final boolean lru;
+
+  private final long[] blocks;
+  private final boolean[] valid;
+  private final boolean[] dirty;
+  // Time of the last use (LRU) or of the load (FIFO) of each line.
+  private final long[] stamps;
+  private long clock;
+  // Fixed seed, so that runs are repeatable.
+  private final Random random = new Random(0);
+
+  // Indexed by Type ordinal.
+  private final long[] accesses = new long[Type.values().length];
+  private final long[] misses = new long[Type.values().length];
+  private long evictions;
+  private long writebacks;
+
+  public Cache(String name, CacheConfig config) {
+    this.name = name;
+    this.config = config;
+    blockBits = Integer.numberOfTrailingZeros(config.getBlockSize());
+    setMask = config.getSets() - 1;
+    ways = config.getAssociativity();
+    lru = config.getReplacement() == CacheConfig.Replacement.LRU;
+
+    int lines = config.getSets() * ways;
+    blocks = new long[lines];
+    valid = new boolean[lines];
+    dirty = new boolean[lines];
+    stamps = new long[lines];
+  }
+
+  void setNext(Cache next) {
+    this.next = next;
+  }
+
+  /** Simulates an access, which may span more than one block. Each block is accessed with the part of the access
+   * that falls in it, so that a write-through forwards each byte once.
+   * @return 0 if all the blocks were in this cache, otherwise 1 + the result of the next level (1 if this is the
+   *         last one) for the block that went deepest
+   */
+  public int access(Type type, long address, int size) {
+    long last = (address + Math.max(size, 1) - 1) >> blockBits;
+    int depth = 0;
+    for (long block = address >> blockBits; block <= last; block++) {
+      long start = Math.max(address, block << blockBits);
+      long end = Math.min(address + size, (block + 1) << blockBits);
+      depth = Math.max(depth, accessBlock(type, block, start, (int) Math.max(end - start, 0)));
+    }
+    return depth;
+  }
+
+  // Accesses the given block with the part of the access in it.
+  private int accessBlock(Type type, long block, long address, int size) {
+    accesses[type.ordinal()]++;
+    boolean write = (type == Type.WRITE);
+    int base = (int) (block & setMask) * ways;
+    for (int line = base; line < base + ways; line++) {
+      if (valid[line] && blocks[line] == block) {
+        if (lru) {
+          stamps[line] = ++clock;
+        }
+        if (write) {
+          write(line, address, size);
+        }
+        return 0;
+      }
+    }
+
+    misses[type.ordinal()]++;
+    if (write && !config.isWriteAllocate()) {
+      return 1 + forward(Type.WRITE, address, size);
+    }
+
+    int line = victim(base);
+    if (valid[line]) {
+      evictions++;
+      if (dirty[line]) {
+        writebacks++;
+        forward(Type.WRITE, blocks[line] << blockBits, config.getBlockSize());
+      }
+    }
+    int depth = 1 + forward(write ? Type.READ : type, block << blockBits, config.getBlockSize());
+    valid[line] = true;
+    dirty[line] = false;
+    blocks[line] = block;
+    stamps[line] = ++clock;
+    if (write) {
+      write(line, address, size);
+    }
+    return depth;
+  }
+
+  private void write(int line, long address, int size) {
+    if (config.isWriteBack()) {
+      dirty[line] = true;
+    } else {
+      forward(Type.WRITE, address, size);
+    }
+  }
+
+  private int forward(Type type, long address, int size) {
+    return (next == null) ? 0 : next.access(type, address, size);
+  }
+
+  // The line to load a block in: an invalid one if any, otherwise the one chosen by the replacement policy.
+  private int victim(int base) {
+    for (int line = base; line < base + ways; line++) {
+      if (!valid[line]) {
+        return line;
+      }
+    }
+    if (config.getReplacement() == CacheConfig.Replacement.RANDOM) {
+      return base + random.nextInt(ways);
+    }
+    int victim = base;
+    for (int line = base + 1; line < base + ways; line++) {
+      if (stamps[line] < stamps[victim]) {
+        victim = line;
+      }
+    }
+    return victim;
+  }
+
+  /** Empties the cache and clears the statistics. */
+  public void reset() {
+    for (int line = 0; line < valid.length; line++) {
+      valid[line] = false;
+      dirty[line] = false;
+    }
+    clock = 0;
+    random.setSeed(0);
+    for (int t = 0; t < accesses.length; t++) {
+      accesses[t] = 0;
+      misses[t] = 0;
+    }
+    evictions = 0;
+    writebacks = 0;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public CacheConfig getConfig() {
+    return config;
+  }
+
+  /** Accesses to the blocks: an access spanning two blocks counts twice. */
+  public long getAccesses(Type type) {
+    return accesses[type.ordinal()];
+  }
+
+  public long getMisses(Type type) {
+    return misses[type.ordinal()];
+  }
+
+  public long getAccesses() {
+    long total = 0;
+    for (long a : accesses) {
+      total += a;
+    }
+    return total;
+  }
+
+  public long getMisses() {
+    long total = 0;
+    for (long m : misses) {
+      total += m;
+    }
+    return total;
+  }
+
+  public long getHits() {
+    return getAccesses() - getMisses();
+  }
+
+  /** Misses over accesses, 0 if there were no accesses. */
+  public double getMissRate() {
+    long accesses = getAccesses();
+    return (accesses == 0) ? 0 : (double) getMisses() / accesses;
+  }
+
+  /** Valid blocks replaced by other blocks. */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  /** Evicted blocks that were dirty, and so were written to the next level. */
+  public long getWritebacks() {
+    return writebacks;
+  }
+}
@@ -0,0 +1,81 @@
+package org.edumips64.core.cache;
+
+/** Geometry and policies of a cache. Immutable. */
+public class CacheConfig {
+  public enum Replacement {LRU, FIFO, RANDOM}
+
+  private final int size;
+  private final int blockSize;
+  private final int associativity;
+  private final Replacement replacement;
+  private final boolean writeBack;
+  private final boolean writeAllocate;
+
+  /**
+   * @param size total size in bytes
+   * @param blockSize size of a block in bytes, a power of 2
+   * @param associativity number of blocks in a set; size / blockSize for a fully associative cache
+   * @param replacement block chosen for eviction when a set is full
+   * @param writeBack if true, writes go to the next level when a dirty block is evicted, otherwise immediately
+   * @param writeAllocate if true, a write miss loads the block in the cache
+   * @throws IllegalArgumentException if the geometry is not valid: the number of sets must be a power of 2
+   */
+  public CacheConfig(int size, int blockSize, int associativity, Replacement replacement, boolean writeBack,
+                     boolean writeAllocate) {
+    if (blockSize <= 0 || Integer.bitCount(blockSize) != 1) {
+      throw new IllegalArgumentException("The block size must be a power of 2: " + blockSize);
+    }
+    if (associativity <= 0 || size <= 0 || size % ((long) blockSize * associativity) != 0) {
+      throw new IllegalArgumentException("The size must be a multiple of the block size times the associativity: "
+          + size + ", " + blockSize + ", " + associativity);
+    }
+    if (Integer.bitCount(size / (blockSize * associativity)) != 1) {
+      throw new IllegalArgumentException("The number of sets must be a power of 2: "
+          + size / (blockSize * associativity));
+    }
+    this.size = size;
+    this.blockSize = blockSize;
+    this.associativity = associativity;
+    this.replacement = replacement;
+    this.writeBack = writeBack;
+    this.writeAllocate = writeAllocate;
+  }
+
+  /** A write-back, write-allocate cache with LRU replacement, the DineroIV defaults. */
+  public CacheConfig(int size, int blockSize, int associativity) {
+    this(size, blockSize, associativity, Replacement.LRU, true, true);
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public int getBlockSize() {
+    return blockSize;
+  }
+
+  public int getAssociativity() {
+    return associativity;
+  }
+
+  public int getSets() {
+    return size / (blockSize * associativity);
+  }
+
+  public Replacement getReplacement() {
+    return replacement;
+  }
+
+  public boolean isWriteBack() {
+    return writeBack;
+  }
+
+  public boolean isWriteAllocate() {
+    return writeAllocate;
+  }
+
+  public String toString() {
+    return size + "B/" + blockSize + "B/" + associativity + "-way/" + replacement
+        + (writeBack ? "/write-back" : "/write-through") + (writeAllocate ? "/allocate" : "/no-allocate");
+  }
+}
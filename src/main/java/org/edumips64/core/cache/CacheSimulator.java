@@ -0,0 +1,229 @@
+package org.edumips64.core.cache;
+
+import org.edumips64.core.MemoryAccessListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/** A cache hierarchy simulated in process, as a replacement for running DineroIV on the trace file. Each level is
+ * either unified or split in an instruction and a data cache; the levels are added from the closest to the CPU.
+ *
+ * Attached to Dinero (see Dinero.addListener()), it simulates the accesses while the program runs; Dinero.replay()
+ * feeds it the accesses of a program that already ran.
+ */
+public class CacheSimulator implements MemoryAccessListener {
+  // Parameters of the -lN-T options, in the order they are stored by parse().
+  private static final List<String> PARAMETERS = Arrays.asList("size", "bsize", "assoc", "repl", "walloc", "wback");
+
+  private List<Cache> caches = new ArrayList<>();
+  private int levels;
+
+  // First and last cache that instruction fetches and data accesses go through, null if there are none.
+  private Cache firstInstruction, firstData;
+  private Cache lastInstruction, lastData;
+
+  /** Adds a unified level below the existing ones. */
+  public CacheSimulator addLevel(CacheConfig unified) {
+    Cache cache = new Cache("l" + (levels + 1) + "-ucache", unified);
+    add(cache, cache);
+    return this;
+  }
+
+  /** Adds a split level below the existing ones, which must be split too. */
+  public CacheSimulator addLevel(CacheConfig instruction, CacheConfig data) {
+    add(new Cache("l" + (levels + 1) + "-icache", instruction), new Cache("l" + (levels + 1) + "-dcache", data));
+    return this;
+  }
+
+  private void add(Cache instruction, Cache data) {
+    if (lastData == lastInstruction && lastInstruction != null && data != instruction) {
+      throw new IllegalArgumentException("A split level can't be below a unified one");
+    }
+    if (lastInstruction == null) {
+      firstInstruction = instruction;
+      firstData = data;
+    } else {
+      lastInstruction.setNext(instruction);
+      if (lastData != lastInstruction) {
+        lastData.setNext(data);
+      }
+    }
+    lastInstruction = instruction;
+    lastData = data;
+    caches.add(instruction);
+    if (data != instruction) {
+      caches.add(data);
+    }
+    levels++;
+  }
+
+  /** Builds a hierarchy from DineroIV command line options, e.g. "-l1-isize 16k -l1-ibsize 32 -l1-dsize 16k
+   * -l1-dbsize 32 -l1-dassoc 2 -l2-usize 256k -l2-ubsize 64".
+   *
+   * Supported options are -lN-Tsize (with an optional k, m or g suffix), -lN-Tbsize, -lN-Tassoc (default 1),
+   * -lN-Trepl (l, f or r; default l), -lN-Twalloc (a, n or f; default a) and -lN-Twback (a, n or f; default a),
+   * where T is u for a unified cache, or i and d for a split level.
+   *
+   * @throws IllegalArgumentException if an option is not supported or the hierarchy is not valid
+   */
+  public static CacheSimulator parse(String options) {
+    String[] tokens = options.trim().split("\\s+");
+    if (tokens.length == 1 && tokens[0].isEmpty()) {
+      return new CacheSimulator();
+    }
+    if (tokens.length % 2 != 0) {
+      throw new IllegalArgumentException("Missing value for option " + tokens[tokens.length - 1]);
+    }
+
+    // Options by level (from 1) and cache type: u, i, d.
+    List<String[][]> levels = new ArrayList<>();
+    for (int i = 0; i < tokens.length; i += 2) {
+      String option = tokens[i];
+      int dash = option.indexOf('-', 1);
+      if (!option.startsWith("-l") || dash < 0 || dash + 2 > option.length()) {
+        throw new IllegalArgumentException("Unsupported option " + option);
+      }
+      int level;
+      try {
+        level = Integer.parseInt(option.substring(2, dash));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Unsupported option " + option);
+      }
+      int type = "uid".indexOf(option.charAt(dash + 1));
+      int param = PARAMETERS.indexOf(option.substring(dash + 2));
+      if (level < 1 || level > 16 || type < 0 || param < 0) {
+        throw new IllegalArgumentException("Unsupported option " + option);
+      }
+      while (levels.size() < level) {
+        levels.add(new String[3][PARAMETERS.size()]);
+      }
+      levels.get(level - 1)[type][param] = tokens[i + 1];
+    }
+
+    CacheSimulator simulator = new CacheSimulator();
+    for (int level = 0; level < levels.size(); level++) {
+      String[][] levelOptions = levels.get(level);
+      String prefix = "-l" + (level + 1) + "-";
+      boolean unified = levelOptions[0][0] != null;
+      boolean split = levelOptions[1][0] != null || levelOptions[2][0] != null;
+      if (unified == split) {
+        throw new IllegalArgumentException("Level " + (level + 1) + " needs either " + prefix + "usize or both "
+            + prefix + "isize and " + prefix + "dsize");
+      }
+      if (unified) {
+        simulator.addLevel(config(prefix + "u", levelOptions[0]));
+      } else {
+        simulator.addLevel(config(prefix + "i", levelOptions[1]), config(prefix + "d", levelOptions[2]));
+      }
+    }
+    return simulator;
+  }
+
+  private static CacheConfig config(String prefix, String[] values) {
+    if (values[0] == null || values[1] == null) {
+      throw new IllegalArgumentException("Missing " + prefix + "size or " + prefix + "bsize");
+    }
+    int size = size(values[0]);
+    int blockSize = size(values[1]);
+    int associativity = (values[2] == null) ? 1 : size(values[2]);
+
+    CacheConfig.Replacement replacement = CacheConfig.Replacement.LRU;
+    if (values[3] != null) {
+      int r = "lfr".indexOf(values[3]);
+      if (values[3].length() != 1 || r < 0) {
+        throw new IllegalArgumentException("Invalid " + prefix + "repl: " + values[3]);
+      }
+      replacement = CacheConfig.Replacement.values()[r];
+    }
+    // For both options, f (only when the block must not be fetched) is treated as a.
+    boolean writeAllocate = !"n".equals(values[4]);
+    boolean writeBack = !"n".equals(values[5]);
+    return new CacheConfig(size, blockSize, associativity, replacement, writeBack, writeAllocate);
+  }
+
+  private static int size(String value) {
+    int multiplier = 1;
+    String digits = value;
+    switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+      case 'k':
+        multiplier = 1 << 10;
+        break;
+      case 'm':
+        multiplier = 1 << 20;
+        break;
+      case 'g':
+        multiplier = 1 << 30;
+        break;
+    }
+    if (multiplier != 1) {
+      digits = value.substring(0, value.length() - 1);
+    }
+    try {
+      long size = Long.parseLong(digits) * multiplier;
+      if (size <= 0 || size > Integer.MAX_VALUE) {
+        throw new IllegalArgumentException("Invalid size: " + value);
+      }
+      return (int) size;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid size: " + value);
+    }
+  }
+
+  /** Simulates an access.
+   * @return the level that had the data, from 0 for the first one; getLevels() if it came from the memory
+   */
+  public int simulate(Type type, long address, int size) {
+    Cache first = (type == Type.FETCH) ? firstInstruction : firstData;
+    return (first == null) ? 0 : first.access(type, address, size);
+  }
+
+  public void access(Type type, long address, int size) {
+    simulate(type, address, size);
+  }
+
+  public int getLevels() {
+    return levels;
+  }
+
+  /** The caches, from the first level; instruction caches come before data ones. */
+  public List<Cache> getCaches() {
+    return Collections.unmodifiableList(caches);
+  }
+
+  /** Empties the caches and clears the statistics. */
+  public void reset() {
+    for (Cache cache : caches) {
+      cache.reset();
+    }
+  }
+
+  /** Returns the statistics of the caches, as a human-readable table. */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    for (Cache cache : caches) {
+      sb.append(cache.getName()).append(" (").append(cache.getConfig()).append(")\n");
+      sb.append("  accesses: ").append(cache.getAccesses());
+      sb.append(", misses: ").append(cache.getMisses());
+      sb.append(" (").append(percent(cache.getMisses(), cache.getAccesses())).append(")");
+      sb.append(", evictions: ").append(cache.getEvictions());
+      sb.append(", writebacks: ").append(cache.getWritebacks()).append('\n');
+      for (Type type : Type.values()) {
+        if (cache.getAccesses(type) > 0) {
+          sb.append("  ").append(type.toString().toLowerCase()).append(": ").append(cache.getAccesses(type));
+          sb.append(", misses: ").append(cache.getMisses(type));
+          sb.append(" (").append(percent(cache.getMisses(type), cache.getAccesses(type))).append(")\n");
+        }
+      }
+    }
+    return sb.toString();
+  }
+
+  // Formats a ratio as a percentage with two decimals (no String.format in GWT).
+  static String percent(long part, long total) {
+    long hundredths = (total == 0) ? 0 : Math.round(part * 10000.0 / total);
+    long decimals = hundredths % 100;
+    return (hundredths / 100) + "." + (decimals < 10 ? "0" : "") + decimals + "%";
+  }
+}
@@ -0,0 +1,99 @@
+package org.edumips64.core.cache;
+
+import org.edumips64.core.MemoryAccessListener;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.ConfigStore;
+
+import java.util.Arrays;
+
+/** Timing model of the memory hierarchy: attached to Dinero, it sends every access to a CacheSimulator and turns
+ * the level that served each load and store into a latency, given in cycles for each level of caches and then for
+ * the memory. An access taking one cycle fits the MEM stage; the CPU holds the instruction in MEM for the other
+ * cycles (see CPU.setMemoryTiming()). Instruction fetches go through the caches too, but never stall the pipeline.
+ */
+public class MemoryTiming implements MemoryAccessListener {
+  private CacheSimulator caches;
+  private int[] latencies;
+
+  // Stall cycles of the accesses since the last call to takeStallCycles().
+  private int stallCycles;
+
+  /** @param latencies cycles taken by an access served by each level of caches, from L1, and by the memory
+   * @throws IllegalArgumentException if there isn't a latency for each level and for the memory, or if a latency
+   * is not positive
+   */
+  public MemoryTiming(CacheSimulator caches, int[] latencies) {
+    if (latencies.length != caches.getLevels() + 1) {
+      throw new IllegalArgumentException("Expected " + (caches.getLevels() + 1) + " latencies for "
+          + caches.getLevels() + " levels of caches and the memory, got " + latencies.length);
+    }
+    for (int latency : latencies) {
+      if (latency < 1) {
+        throw new IllegalArgumentException("Latencies must be positive: " + latency);
+      }
+    }
+    this.caches = caches;
+    this.latencies = Arrays.copyOf(latencies, latencies.length);
+  }
+
+  /** Returns the timing model described by the configuration (MEMORY_TIMING, CACHE_OPTIONS and CACHE_LATENCIES),
+   * or null if it is disabled.
+   * @throws IllegalArgumentException if the options or the latencies are not valid
+   */
+  public static MemoryTiming fromConfig(ConfigStore config) {
+    if (!config.getBoolean(ConfigKey.MEMORY_TIMING)) {
+      return null;
+    }
+    return new MemoryTiming(CacheSimulator.parse(config.getString(ConfigKey.CACHE_OPTIONS)),
+        parseLatencies(config.getString(ConfigKey.CACHE_LATENCIES)));
+  }
+
+  /** Parses a list of latencies separated by spaces, e.g. "1 10 100".
+   * @throws IllegalArgumentException if a latency is not a number
+   */
+  public static int[] parseLatencies(String latencies) {
+    String trimmed = latencies.trim();
+    if (trimmed.isEmpty()) {
+      return new int[0];
+    }
+    String[] tokens = trimmed.split("\\s+");
+    int[] result = new int[tokens.length];
+    for (int i = 0; i < tokens.length; i++) {
+      try {
+        result[i] = Integer.parseInt(tokens[i]);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid latency: " + tokens[i]);
+      }
+    }
+    return result;
+  }
+
+  public void access(Type type, long address, int size) {
+    int level = caches.simulate(type, address, size);
+    if (type != Type.FETCH) {
+      stallCycles += latencies[level] - 1;
+    }
+  }
+
+  /** Returns the stall cycles caused by the loads and stores since the last call, and starts counting again. */
+  public int takeStallCycles() {
+    int cycles = stallCycles;
+    stallCycles = 0;
+    return cycles;
+  }
+
+  /** Returns the latency of an access served by the given level; getCaches().getLevels() is the memory. */
+  public int getLatency(int level) {
+    return latencies[level];
+  }
+
+  public CacheSimulator getCaches() {
+    return caches;
+  }
+
+  /** Empties the caches and clears their statistics and the pending stall cycles. */
+  public void reset() {
+    caches.reset();
+    stallCycles = 0;
+  }
+}
@@ -37,7 +37,14 @@ public class BitSet64FP extends FixedBitSet {
   /** Creates a default new instance of BitSet64FP. */
   public BitSet64FP() {
     super(64);
-    fpInstructionUtils = new FPInstructionUtils(new FCSRRegister());
+  }
+
+  // Only needed to write values given in decimal form, so it is created on first use.
+  private FPInstructionUtils getFPInstructionUtils() {
+    if (fpInstructionUtils == null) {
+      fpInstructionUtils = new FPInstructionUtils(new FCSRRegister());
+    }
+    return fpInstructionUtils;
   }
 
   /** Writes a floating point double precision number into this FixedBitSet: the value to be written must be in the range
@@ -48,15 +55,14 @@ public class BitSet64FP extends FixedBitSet {
    * @throws FPUnderflowException,FPOverflowException, IrregularWriteOperationException,FPInvalidOperationException
    */
   public void writeDouble(double value) throws FPUnderflowException, FPOverflowException, FPInvalidOperationException, IrregularWriteOperationException, IrregularStringOfBitsException {
-    this.reset(false);
-    String bits = fpInstructionUtils.doubleToBin(value + "");
-
-    try {
-      this.setBits(bits, 0);
-    } catch (IrregularStringOfBitsException e) {
-      e.printStackTrace();
-      throw new IrregularWriteOperationException();
+    // Values that raise FPU exceptions when written in decimal form still go through doubleToBin(): NaN, infinities
+    // and the smallest denormal, which is printed as 4.9E-324 and underflows. The others have the same bits with
+    // doubleToRawLongBits(), which GWT does not emulate.
+    if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) == Double.MIN_VALUE) {
+      writeDouble(value + "");
+      return;
     }
+    setLong(Double.doubleToLongBits(value));
   }
 
   /** Writes a floating point double precision number expressed as string into this FixedBitSet: the value to be written must be in the range
@@ -68,7 +74,7 @@ public class BitSet64FP extends FixedBitSet {
    */
   public void writeDouble(String value) throws  FPOverflowException, FPUnderflowException, FPInvalidOperationException, IrregularWriteOperationException, IrregularStringOfBitsException {
     this.reset(false);
-    String bits = fpInstructionUtils.doubleToBin(value);
+    String bits = getFPInstructionUtils().doubleToBin(value);
 
     try {
       this.setBits(bits, 0);
@@ -25,8 +25,6 @@ package org.edumips64.core.fpu;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.math.MathContext;
-import java.math.RoundingMode;
 
 import org.edumips64.core.FCSRRegister;
 import org.edumips64.core.Converter;
@@ -69,6 +67,21 @@ public class FPInstructionUtils {
   private final static String QNAN_NEW = "0111111111110111111111111111111111111111111111111111111111111111";
   private final static String QNAN_PATTERN = "X111111111110XXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXXX"; //XX..XX cannot be equal to zero at the same time
 
+  private final static long SIGN_BIT = 0x8000000000000000L;
+  private final static long EXPONENT_MASK = 0x7FF0000000000000L;
+  private final static long FRACTION_MASK = 0x000FFFFFFFFFFFFFL;
+  private final static long IMPLICIT_BIT = 0x0010000000000000L;
+  private final static long ONE_BITS = 0x3FF0000000000000L;
+  private final static long PLUSINFINITY_BITS = 0x7FF0000000000000L;
+  private final static long MAX_VALUE_BITS = 0x7FEFFFFFFFFFFFFFL;
+  private final static long QNAN_NEW_BITS = 0x7FF7FFFFFFFFFFFFL;
+  private final static int EXPONENT_BIAS = 1023;
+  private final static int MIN_EXPONENT = -1022;
+  private final static int MAX_EXPONENT = 1023;
+  private final static double TWO_TO_54 = 18014398509481984.0;
+  // 2^27 + 1, used by Dekker's algorithm to split a double in two halves.
+  private final static double SPLITTER = 134217729.0;
+
 
   /**
    * Converts a double value passed as string to a 64 bit binary string according with IEEE754 standard for double precision floating point numbers
@@ -135,10 +148,10 @@ public class FPInstructionUtils {
 
     } catch (NumberFormatException e) {
       if (fcsr.getFPExceptions(FCSRRegister.FPExceptions.OVERFLOW)) {
-        fcsr.setFCSRCause("O", 1);
+        fcsr.setFCSRCause(FCSRRegister.FPExceptions.OVERFLOW, true);
         throw new FPOverflowException();
       } else {
-        fcsr.setFCSRFlags("V", 1);
+        fcsr.setFCSRFlags(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
       }
       return PLUSZERO;
     } catch (FPDivideByZeroException | FPInvalidOperationException e) {
@@ -194,130 +207,73 @@ public class FPInstructionUtils {
    * and the invalid operation exception is not enabled  the result of the operation is a Qnan  else an InvalidOperation exception occurs,
    * if the passed values are infinities and their signs agree, an infinity (positive or negative is returned),
    * if signs don't agree then an invalid operation exception occurs if this trap is enabled.
-   * After the addition, if the result is too large in absolute value a right signed infinity is returned, else
-   * if the FP overflow or underflow are enabled an exception occurs.
+   * Finite values are added and the result is rounded according to the FCSR rounding mode, raising
+   * overflow, underflow and inexact as described in {@link #round}.
    *
-   * @param value1 the binary string representing the double value
-   * @param value2 the binary string representing the double value
-   * @return the result value (if trap are disabled, special values are returned as binary string)
+   * @param value1 the IEEE754 bits of the first operand
+   * @param value2 the IEEE754 bits of the second operand
+   * @return the IEEE754 bits of the result (if trap are disabled, special values are returned)
    * @throws FPInvalidOperationException,FPUnderflowException,FPOverflowException
    */
-  public String doubleSum(String value1, String value2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, IrregularStringOfBitsException {
-    if (is64BinaryString(value1) && is64BinaryString(value2)) {
-      // QNaN check:
-      // 1. any NaN
-      boolean isNan = isQNaN(value1) || isQNaN(value2) || isSNaN(value1) || isSNaN(value2);
-      // 2. signs that make it impossible to determine the final result
-      boolean wrongOperands = isPositiveInfinity(value1) && isNegativeInfinity(value2);
-      wrongOperands = wrongOperands || (isNegativeInfinity(value1) && isPositiveInfinity(value2));
-      if (isNan || wrongOperands) {
-        try {
-          fcsr.setFlagsOrRaiseException(FCSRRegister.FPExceptions.INVALID_OPERATION);
-        } catch (FPDivideByZeroException e) {
-          // Should never happen.
-          e.printStackTrace();
-        }
-        return QNAN_NEW;
-      }
+  public long doubleSum(long value1, long value2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException {
+    // QNaN check:
+    // 1. any NaN
+    boolean isNan = isNaN(value1) || isNaN(value2);
+    // 2. infinities with different signs
+    boolean wrongOperands = isInfinity(value1) && isInfinity(value2) && ((value1 ^ value2) & SIGN_BIT) != 0;
+    if (isNan || wrongOperands) {
+      signal(FCSRRegister.FPExceptions.INVALID_OPERATION);
+      return QNAN_NEW_BITS;
+    }
 
-      // Return +Inf if:
-      // 1. +Inf + Inf
-      boolean plusInf = isPositiveInfinity(value1) && isPositiveInfinity(value2);
-      // 2. +Inf + (any)
-      plusInf =  plusInf || (isPositiveInfinity(value1) && !isInfinity(value2));
-      // 3. (any) + +Inf
-      plusInf = plusInf || !isInfinity(value1) && isPositiveInfinity(value2);
-      if (plusInf) {
-        return PLUSINFINITY;
-      }
+    // (sign)Inf + any, any + (sign)Inf
+    if (isInfinity(value1)) {
+      return value1;
+    }
+    if (isInfinity(value2)) {
+      return value2;
+    }
 
-      // Return -Inf if:
-      // 1. -Inf + -Inf
-      boolean minusInf = isNegativeInfinity(value1) && isNegativeInfinity(value2);
-      // 2. -Inf + (any)
-      minusInf =  minusInf || (isNegativeInfinity(value1) && !isInfinity(value2));
-      // 3. (any) + -Inf
-      minusInf = minusInf || !isInfinity(value1) && isNegativeInfinity(value2);
-      if (minusInf) {
-        return MINUSINFINITY;
-      }
+    double a = Double.longBitsToDouble(value1);
+    double b = Double.longBitsToDouble(value2);
+    double sum = a + b;
 
-      // At this point operands can be added and if an overflow or an underflow occurs
-      // and if exceptions are activated then trap else results are returned
-      MathContext mc = new MathContext(1000, RoundingMode.HALF_EVEN);
-      BigDecimal operand1 = new BigDecimal(Double.longBitsToDouble(Converter.binToLong(value1, false)));
-      BigDecimal operand2 = new BigDecimal(Double.longBitsToDouble(Converter.binToLong(value2, false)));
-      BigDecimal result = operand1.add(operand2, mc);
+    // A zero sum is always exact. Opposite operands give +0, or -0 when rounding towards minus infinity.
+    if (sum == 0) {
+      if ((value1 & value2 & SIGN_BIT) != 0) {
+        return SIGN_BIT;
+      }
+      if (((value1 | value2) & SIGN_BIT) == 0) {
+        return 0;
+      }
+      return fcsr.getFCSRRoundingMode() == FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY ? SIGN_BIT : 0;
+    }
 
-      //checking for underflows or overflows are performed inside the doubleToBin method (if relative traps are disabled output is returned)
-      //if an underflow or overflow occur and they are activated (trap enabled) this point is never reached
-      return doubleToBin(result.toString());
+    // If the rounded sum overflows, both operands are big enough to be halved exactly.
+    int scale = 0;
+    if (Double.isInfinite(sum)) {
+      a *= 0.5;
+      b *= 0.5;
+      sum = a + b;
+      scale = 1;
     }
 
-    return null;
+    // TwoSum: sum + error is exactly a + b.
+    double bVirtual = sum - a;
+    double error = (a - (sum - bVirtual)) + (b - bVirtual);
+    int direction = (error == 0) ? 0 : ((error < 0) == (sum < 0) ? 1 : -1);
+    return round(sum < 0, Math.abs(sum), direction, scale);
   }
 
-
   /**
    * This method performs the subtraction between two double values, if  the passed values are Snan or Qnan
    * and the invalid operation exception is not enabled  the result of the operation is a Qnan else an InvalidOperation exception occurs,
    * if the passed values are infinities and their signs agree, an infinity (positive or negative is returned),
    * if signs don't agree then an invalid operation exception occurs if this trap is enabled.
-   * After the addition, if the result is too large in absolute value a right signed infinity is returned, else
-   * if the FP overflow or underflow are enabled an exception occurs.
+   * The subtraction is carried out as the sum of value1 and the negated value2.
    */
-  public String doubleSubtraction(String value1, String value2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, IrregularStringOfBitsException {
-    if (!(is64BinaryString(value1) && is64BinaryString(value2))) {
-      return null;
-    }
-    // QNaN check:
-    // 1. any NaN
-    boolean isNan = isQNaN(value1) || isQNaN(value2) || isSNaN(value1) || isSNaN(value2);
-    // 2. signs that make it impossible to determine the final result
-    boolean wrongOperands = isPositiveInfinity(value1) && isPositiveInfinity(value2);
-    wrongOperands = wrongOperands || (isNegativeInfinity(value1) && isNegativeInfinity(value2));
-    if (isNan || wrongOperands) {
-      try {
-        fcsr.setFlagsOrRaiseException(FCSRRegister.FPExceptions.INVALID_OPERATION);
-      } catch (FPDivideByZeroException e) {
-        // Should never happen.
-        e.printStackTrace();
-      }
-      return QNAN_NEW;
-    }
-
-    // Return +Inf if:
-    // 1. +Inf - -Inf
-    boolean plusInf = isPositiveInfinity(value1) && isNegativeInfinity(value2);
-    // 2. +Inf - (any)
-    plusInf =  plusInf || (isPositiveInfinity(value1) && !isInfinity(value2));
-    // 3. (any) - -Inf
-    plusInf = plusInf || !isInfinity(value1) && isNegativeInfinity(value2);
-    if (plusInf) {
-      return PLUSINFINITY;
-    }
-
-    // Return -Inf if:
-    // 1. -Inf - +Inf
-    boolean minusInf = isNegativeInfinity(value1) && isPositiveInfinity(value2);
-    // 2. -Inf - (any)
-    minusInf =  minusInf || (isNegativeInfinity(value1) && !isInfinity(value2));
-    // 3. (any) - +Inf
-    minusInf = minusInf || !isInfinity(value1) && isPositiveInfinity(value2);
-    if (minusInf) {
-      return MINUSINFINITY;
-    }
-
-    //at this point operands can be subtracted and if an overflow or an underflow occurs
-    //and if exceptions are activated then a trap happens else results are returned
-    MathContext mc = new MathContext(1000, RoundingMode.HALF_EVEN);
-    BigDecimal operand1 = new BigDecimal(Double.longBitsToDouble(Converter.binToLong(value1, false)));
-    BigDecimal operand2 = new BigDecimal(Double.longBitsToDouble(Converter.binToLong(value2, false)));
-
-    BigDecimal result = operand1.subtract(operand2, mc);
-    //checking for underflows or overflows are performed inside the doubleToBin method (if the relative traps are disabled the output is returned)
-    //if an underflow or overflow occur and they are activated (trap enabled) this point is never reached
-    return doubleToBin(result.toString());
+  public long doubleSubtraction(long value1, long value2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException {
+    return doubleSum(value1, value2 ^ SIGN_BIT);
   }
 
   /**
@@ -325,75 +281,39 @@ public class FPInstructionUtils {
    * and the invalid operation exception is not enabled  the result of the operation is a Qnan else an InvalidOperation exception occurs,
    * if the passed values are infinities a positive or negative infinity is returned depending of the signs product,
    * Only if we attempt to perform (sign)0 X (sign)Infinity and the Invalid operation exception is not enabled NAN is returned,
-   * else a trap occur. After the multiplication, if the result is too large in absolute value a right signed infinity is returned, else
-   * if the FP overflow or underflow are enabled an exception occurs.
+   * else a trap occur. Finite values are multiplied and the result is rounded according to the FCSR rounding mode.
    */
-  public String doubleMultiplication(String value1, String value2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, IrregularStringOfBitsException {
-    if (!(is64BinaryString(value1) && is64BinaryString(value2))) {
-      return null;
-    }
+  public long doubleMultiplication(long value1, long value2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException {
     // QNaN check:
     // 1. any NaN
-    boolean isNan = isQNaN(value1) || isQNaN(value2) || isSNaN(value1) || isSNaN(value2);
+    boolean isNan = isNaN(value1) || isNaN(value2);
     // 2. zero x Inf or Inf x zero
     boolean wrongOperands = isZero(value1) && isInfinity(value2);
     wrongOperands = wrongOperands || (isInfinity(value1) && isZero(value2));
     if (isNan || wrongOperands) {
-      try {
-        fcsr.setFlagsOrRaiseException(FCSRRegister.FPExceptions.INVALID_OPERATION);
-      } catch (FPDivideByZeroException e) {
-        // Should never happen.
-        e.printStackTrace();
-      }
-      return QNAN_NEW;
+      signal(FCSRRegister.FPExceptions.INVALID_OPERATION);
+      return QNAN_NEW_BITS;
     }
 
-    // Get signs of value1 and value2, and the resulting sign.
-    int sign1 = getDoubleSign(value1);
-    int sign2 = getDoubleSign(value2);
-    int res_sign = sign1 * sign2;
+    long sign = (value1 ^ value2) & SIGN_BIT;
 
-    // Return a signed infinity when infinity is involved. Zeros and NaNs won't be
-    // operands because of the previous checks.
-    boolean returnInf = isInfinity(value1) && isInfinity(value2);
-    returnInf = returnInf || (isInfinity(value1) && !isInfinity(value2));
-    // any X (sign)Infinity
-    returnInf = returnInf || (!isInfinity(value1) && isInfinity(value2));
-    //(sign)Infinity X (sign)Infinity
-    if (returnInf) {
-      return getSignedInfinity(res_sign);
+    // (sign)Infinity X any, any X (sign)Infinity
+    if (isInfinity(value1) || isInfinity(value2)) {
+      return sign | PLUSINFINITY_BITS;
     }
 
-    //(sign)zero X (sign)zero
-    if (isZero(value1) && isZero(value2)) {
-      return getSignedZero(res_sign);
+    // (sign)zero X any, any X (sign)zero
+    if (isZero(value1) || isZero(value2)) {
+      return sign;
     }
 
-    //at this point operands can be multiplied and if an overflow or an underflow occurs
-    //and if exceptions are activated then a trap happens else results are returned
-    MathContext mc = new MathContext(1000, RoundingMode.HALF_EVEN);
-    BigDecimal operand1 = new BigDecimal(Double.longBitsToDouble(Converter.binToLong(value1, false)));
-    BigDecimal operand2 = new BigDecimal(Double.longBitsToDouble(Converter.binToLong(value2, false)));
-
-    BigDecimal result = operand1.multiply(operand2, mc);
-
-    //checking for underflows or overflows are performed inside the doubleToBin method (if the relative traps are disabled the output is returned)
-    //if an underflow or overflow occur and they are activated (trap enabled) this point is never reached
-    return doubleToBin(result.toString());
-  }
-
-  private static String getSignedInfinity(int sign) {
-    if (sign == -1) {
-      return MINUSINFINITY;
-    }
-    return PLUSINFINITY;
-  }
-
-  private static String getSignedZero(int sign) {
-    if (sign == -1) {
-      return MINUSZERO;
-    }
-    return PLUSZERO;
+    // The significands are multiplied in [1, 4), where TwoProduct can't overflow or underflow.
+    double a = getSignificand(value1);
+    double b = getSignificand(value2);
+    double product = a * b;
+    double error = twoProductError(a, b, product);
+    int direction = (error == 0) ? 0 : (error > 0 ? 1 : -1);
+    return round(sign != 0, product, direction, getExponent(value1) + getExponent(value2));
   }
 
   /**
@@ -401,54 +321,199 @@ public class FPInstructionUtils {
    * and the invalid operation exception is not enabled  the result of the operation is a Qnan else an InvalidOperation exception occurs,
    * Only if the passed values are  both infinities or zeros a Qnan is returned if  the InvalidOperation exception is not enabled else a trap occurs,
    * If value2 (not also value1) is Zero a DivisionByZero Exception occurs if it is enabled else a right infinity is returned depending on the product's signs
-   * After the operation, if the result is too small in absolute value a right signed infinity is returned, else
-   * if the FP underflow is enabled an exception occurs.
+   * Finite values are divided and the result is rounded according to the FCSR rounding mode.
    */
-  public String doubleDivision(String value1, String value2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException, IrregularStringOfBitsException {
-    if (!(is64BinaryString(value1) && is64BinaryString(value2))) {
-      return null;
-    }
+  public long doubleDivision(long value1, long value2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException {
     // QNaN check:
     // 1. any NaN
-    boolean isNan = isQNaN(value1) || isQNaN(value2) || isSNaN(value1) || isSNaN(value2);
+    boolean isNan = isNaN(value1) || isNaN(value2);
     // 2. Inf / Inf or zero / zero
     boolean wrongOperands = isInfinity(value1) && isInfinity(value2);
     wrongOperands = wrongOperands || (isZero(value1) && isZero(value2));
     if (isNan || wrongOperands) {
       fcsr.setFlagsOrRaiseException(FCSRRegister.FPExceptions.INVALID_OPERATION);
-      return QNAN_NEW;
+      return QNAN_NEW_BITS;
     }
 
-    // Get signs of value1 and value2, and the resulting sign.
-    int sign1 = getDoubleSign(value1);
-    int sign2 = getDoubleSign(value2);
-    int res_sign = sign1 * sign2;
+    long sign = (value1 ^ value2) & SIGN_BIT;
 
     // (sign)Zero / any
-    if (isZero(value1) && !isZero(value2)) {
-      return getSignedZero(res_sign);
+    if (isZero(value1)) {
+      return sign;
     }
 
-    if (!isZero(value1) && isZero(value2)) {
+    if (isZero(value2)) {
       fcsr.setFlagsOrRaiseException(FCSRRegister.FPExceptions.DIVIDE_BY_ZERO);
-      return getSignedInfinity(res_sign);
+      return sign | PLUSINFINITY_BITS;
     }
 
     // (sign)infinity / any(different from infinity and zero)
     if (isInfinity(value1)) {
-      return getSignedInfinity(res_sign);
+      return sign | PLUSINFINITY_BITS;
     }
 
-    //at this point operands can be divided and if an  underflow occurs
-    //and if exceptions are activated then a trap happens else results are returned
-    MathContext mc = new MathContext(1000, RoundingMode.HALF_EVEN);
-    BigDecimal operand1 = new BigDecimal(Double.longBitsToDouble(Converter.binToLong(value1, false)));
-    BigDecimal operand2 = new BigDecimal(Double.longBitsToDouble(Converter.binToLong(value2, false)));
+    // any(different from infinity and zero) / (sign)infinity
+    if (isInfinity(value2)) {
+      return sign;
+    }
 
-    BigDecimal result = operand1.divide(operand2, mc);
+    // The significands are divided in [1, 2); the sign of the remainder a - q * b, computed exactly
+    // with TwoProduct, tells on which side of the quotient q the exact result lies.
+    double a = getSignificand(value1);
+    double b = getSignificand(value2);
+    double quotient = a / b;
+    double high = quotient * b;
+    double low = twoProductError(quotient, b, high);
+    // a - high is exact, since high is within a factor of 2 from a.
+    double remainder = a - high;
+    int direction = (remainder > low) ? 1 : (remainder < low ? -1 : 0);
+    return round(sign != 0, quotient, direction, getExponent(value1) - getExponent(value2));
+  }
 
-    //checking for underflows is performed inside the doubleToBin method (if the relative traps are disabled the output is returned)
-    return doubleToBin(result.toString());
+  /**
+   * Rounds an exact result to double precision according to the FCSR rounding mode.
+   *
+   * The exact magnitude is (magnitude + e) * 2^scale, where magnitude is the positive, round-to-nearest result
+   * of the operation and e is an error smaller than half an ulp of magnitude, of which only the sign (direction) is
+   * known. This is enough to round to any precision in any mode, including the smaller precision of subnormal results.
+   *
+   * Overflow is raised when the result rounded with an unbounded exponent is bigger than the largest double;
+   * underflow is raised when the exact result is smaller than the smallest normal double and the rounded result is
+   * inexact. Both are always accompanied by inexact.
+   *
+   * @param negative true if the result is negative
+   * @param magnitude the absolute value of the round-to-nearest result
+   * @param direction -1, 0 or 1 if the exact magnitude is smaller, equal or bigger than magnitude
+   * @param scale the power of 2 magnitude must be multiplied by
+   * @return the IEEE754 bits of the rounded result
+   */
+  private long round(boolean negative, double magnitude, int direction, int scale) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException {
+    long bits = Double.doubleToLongBits(magnitude);
+    int exponent = (int) (bits >>> 52);
+    if (exponent == 0) {
+      bits = Double.doubleToLongBits(magnitude * TWO_TO_54);
+      exponent = (int) (bits >>> 52) - 54;
+    }
+    exponent += scale - EXPONENT_BIAS;
+    long significand = (bits & FRACTION_MASK) | IMPLICIT_BIT;
+
+    FCSRRegister.FPRoundingMode rm = fcsr.getFCSRRoundingMode();
+    boolean towardZero = rm == FCSRRegister.FPRoundingMode.TOWARD_ZERO
+        || (rm == FCSRRegister.FPRoundingMode.TOWARDS_PLUS_INFINITY && negative)
+        || (rm == FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY && !negative);
+    boolean awayFromZero = (rm == FCSRRegister.FPRoundingMode.TOWARDS_PLUS_INFINITY && !negative)
+        || (rm == FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY && negative);
+
+    boolean tiny = exponent < MIN_EXPONENT || (exponent == MIN_EXPONENT && significand == IMPLICIT_BIT && direction < 0);
+    long result;
+
+    if (!tiny) {
+      // Normal result: magnitude already has the right precision, directed modes may move it by one ulp.
+      if (direction < 0 && towardZero) {
+        significand--;
+        if (significand < IMPLICIT_BIT) {
+          significand = (IMPLICIT_BIT << 1) - 1;
+          exponent--;
+        }
+      } else if (direction > 0 && awayFromZero) {
+        significand++;
+        if (significand == IMPLICIT_BIT << 1) {
+          significand = IMPLICIT_BIT;
+          exponent++;
+        }
+      }
+
+      if (exponent > MAX_EXPONENT) {
+        signal(FCSRRegister.FPExceptions.OVERFLOW);
+        signal(FCSRRegister.FPExceptions.INEXACT);
+        result = towardZero ? MAX_VALUE_BITS : PLUSINFINITY_BITS;
+      } else {
+        if (direction != 0) {
+          signal(FCSRRegister.FPExceptions.INEXACT);
+        }
+        result = ((long) (exponent + EXPONENT_BIAS) << 52) | (significand & FRACTION_MASK);
+      }
+    } else {
+      // Subnormal result: the bits below 2^-1074 are dropped, the direction breaks ties and exact cases.
+      int shift = Math.min(MIN_EXPONENT - exponent, 54);
+      long kept = significand >>> shift;
+      long rest = significand - (kept << shift);
+      long half = (shift == 0) ? 1 : 1L << (shift - 1);
+
+      if (towardZero) {
+        if (rest == 0 && direction < 0) {
+          kept--;
+        }
+      } else if (awayFromZero) {
+        if (rest != 0 || direction > 0) {
+          kept++;
+        }
+      } else if (rest > half || (rest == half && (direction > 0 || (direction == 0 && (kept & 1) != 0)))) {
+        kept++;
+      }
+
+      if (rest != 0 || direction != 0) {
+        signal(FCSRRegister.FPExceptions.UNDERFLOW);
+        signal(FCSRRegister.FPExceptions.INEXACT);
+      }
+      // A carry into the exponent field gives the smallest normal double.
+      result = kept;
+    }
+
+    return negative ? result | SIGN_BIT : result;
+  }
+
+  /**
+   * Returns the error of the product a * b rounded to nearest, so that a * b = product + error exactly.
+   * This is Dekker's TwoProduct, valid as long as no intermediate result overflows or underflows.
+   */
+  private static double twoProductError(double a, double b, double product) {
+    double c = SPLITTER * a;
+    double aHigh = c - (c - a);
+    double aLow = a - aHigh;
+    c = SPLITTER * b;
+    double bHigh = c - (c - b);
+    double bLow = b - bHigh;
+    return ((aHigh * bHigh - product) + aHigh * bLow + aLow * bHigh) + aLow * bLow;
+  }
+
+  /** Returns the absolute value of the significand of a finite, non-zero double, in [1, 2). */
+  private static double getSignificand(long value) {
+    if ((value & EXPONENT_MASK) == 0) {
+      value = Double.doubleToLongBits(Double.longBitsToDouble(value & ~SIGN_BIT) * TWO_TO_54);
+    }
+    return Double.longBitsToDouble((value & FRACTION_MASK) | ONE_BITS);
+  }
+
+  /** Returns the unbiased exponent of a finite, non-zero double, normalizing subnormal values. */
+  private static int getExponent(long value) {
+    if ((value & EXPONENT_MASK) == 0) {
+      value = Double.doubleToLongBits(Double.longBitsToDouble(value & ~SIGN_BIT) * TWO_TO_54);
+      return (int) ((value & EXPONENT_MASK) >>> 52) - EXPONENT_BIAS - 54;
+    }
+    return (int) ((value & EXPONENT_MASK) >>> 52) - EXPONENT_BIAS;
+  }
+
+  private static boolean isNaN(long value) {
+    return (value & ~SIGN_BIT) > PLUSINFINITY_BITS;
+  }
+
+  private static boolean isInfinity(long value) {
+    return (value & ~SIGN_BIT) == PLUSINFINITY_BITS;
+  }
+
+  private static boolean isZero(long value) {
+    return (value & ~SIGN_BIT) == 0;
+  }
+
+  /** Sets the flags for (or raises) an exception that can't be a division by zero. */
+  private void signal(FCSRRegister.FPExceptions exception) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException {
+    try {
+      fcsr.setFlagsOrRaiseException(exception);
+    } catch (FPDivideByZeroException e) {
+      // Should never happen.
+      e.printStackTrace();
+    }
   }
 
   /**
@@ -567,22 +632,6 @@ public class FPInstructionUtils {
   }
 
 
-  /**
-   * Returns -1 if "value" is a negative double binary string,+1 if it is positive, 0 if "value" is not a well formed 64 binary string according to IEEE754 standard
-   */
-  private static int getDoubleSign(String value) {
-    if (is64BinaryString(value)) {
-      switch (value.charAt(0)) {
-        case '0':
-          return 1;
-        case '1':
-          return -1;
-      }
-    }
-
-    return 0;
-  }
-
   /**
    * Determines if value is a positive zero according to the IEEE754 standard
    *
@@ -614,24 +663,6 @@ public class FPInstructionUtils {
     return false;
   }
 
-  /**
-   * Determines if value is a zero according to the IEEE754 standard
-   *
-   * @param value the binary string of 64 bits
-   * @return true if the value is  infinity
-   */
-  private static boolean isZero(String value) {
-    if (is64BinaryString(value)) {
-      if (isPositiveZero(value) || isNegativeZero(value)) {
-        return true;
-      }
-    }
-
-    return false;
-
-  }
-
-
   /**
    * Determines if the passed value is a binary string of 64 bits
    *
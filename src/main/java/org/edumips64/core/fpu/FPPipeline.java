@@ -27,6 +27,7 @@ package org.edumips64.core.fpu;
 import org.edumips64.core.*;
 import org.edumips64.core.is.*;
 
+import java.io.IOException;
 import java.util.*;
 
 /** This class models a MIPS FPU  pipeline that supports multiple outstanding FP operations
@@ -39,10 +40,8 @@ public class FPPipeline {
     public enum FPAdderStatus {A1, A2, A3, A4};
     public enum FPMultiplierStatus {M1, M2, M3, M4, M5, M6, M7};
     public enum FPDividerStatus {DIVIDER};
-    public static List<String> fparithmetic = new ArrayList<>(Arrays.asList("ADD.D",
-        "SUB.D", "DIV.D", "MUL.D"));
   }
-  private static int STRUCT_HAZARD = 0; //status constant of pipeStatus[]
+  private static final int STRUCT_HAZARD = 0; //status constant of pipeStatus[]
   private int pipeStatus[];
   private Divider divider;
   private Multiplier multiplier;
@@ -174,23 +173,24 @@ public class FPPipeline {
    *  If an integer instruction is passed at the method 3 is returned
    */
   public int putInstruction(InstructionInterface instr, boolean simulation) {  //throws InputStructuralHazardException
-    if (instr != null && Constants.fparithmetic.contains(instr.getName())) {
-      String instrName = instr.getName();
-
-      if ((instrName.compareToIgnoreCase("ADD.D") == 0) || (instrName.compareToIgnoreCase("SUB.D") == 0))
-        if (adder.putInstruction(instr, simulation) == -1) {
-          return 1;
-        }
-
-      if (instrName.compareToIgnoreCase("MUL.D") == 0)
-        if (multiplier.putInstruction(instr, simulation) == -1) {
-          return 1;
-        }
-
-      if (instrName.compareToIgnoreCase("DIV.D") == 0)
-        if (divider.putInstruction(instr, simulation) == -1) {
-          return 2;
-        }
+    if (instr != null && instr.getOpcode().isFPArithmetic()) {
+      switch (instr.getOpcode().getFPUnit()) {
+        case ADDER:
+          if (adder.putInstruction(instr, simulation) == -1) {
+            return 1;
+          }
+          break;
+        case MULTIPLIER:
+          if (multiplier.putInstruction(instr, simulation) == -1) {
+            return 1;
+          }
+          break;
+        case DIVIDER:
+          if (divider.putInstruction(instr, simulation) == -1) {
+            return 2;
+          }
+          break;
+      }
 
       if (!simulation) {
         nInstructions++;
@@ -253,6 +253,32 @@ public class FPPipeline {
     return divider.getCounter();
   }
 
+  /** Saves the instructions in the functional units and the counter of the divider. */
+  public void save(CheckpointWriter out) throws IOException {
+    out.writeInt(nInstructions);
+    for (Constants.FPAdderStatus stage : Constants.FPAdderStatus.values()) {
+      out.writeInstruction(adder.getFuncUnit().get(stage));
+    }
+    for (Constants.FPMultiplierStatus stage : Constants.FPMultiplierStatus.values()) {
+      out.writeInstruction(multiplier.getFuncUnit().get(stage));
+    }
+    out.writeInstruction(divider.instr);
+    out.writeInt(divider.counter);
+  }
+
+  /** Restores the state saved by save(). */
+  public void restore(CheckpointReader in) throws IOException {
+    nInstructions = in.readInt();
+    for (Constants.FPAdderStatus stage : Constants.FPAdderStatus.values()) {
+      adder.getFuncUnit().put(stage, in.readInstruction());
+    }
+    for (Constants.FPMultiplierStatus stage : Constants.FPMultiplierStatus.values()) {
+      multiplier.getFuncUnit().put(stage, in.readInstruction());
+    }
+    divider.instr = in.readInstruction();
+    divider.counter = in.readInt();
+  }
+
   /* Resets the fp pipeline */
   public void reset() {
     nInstructions = 0;
@@ -49,7 +49,7 @@ class ADD_D extends FPArithmeticInstructions {
   }
 
   @Override
-  protected String doFPArith(String operand1, String operand2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException, IrregularStringOfBitsException {
+  protected long doFPArith(long operand1, long operand2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException {
     return fpInstructionUtils.doubleSum(operand1, operand2);
   }
 }
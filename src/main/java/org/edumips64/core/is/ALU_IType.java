@@ -24,8 +24,6 @@ package org.edumips64.core.is;
 
 import org.edumips64.core.*;
 import org.edumips64.core.fpu.FPInvalidOperationException;
-//per diagnostica
-import java.util.logging.Logger;
 
 /** This is the base class for all the immediate ALU instructions
  *
@@ -43,8 +41,6 @@ public class ALU_IType extends ComputationalInstructions {
   final static int IMM_FIELD_LENGTH = 16;
   String OPCODE_VALUE = "";
 
-  private static final Logger logger = Logger.getLogger(ALU_IType.class.getName());
-
   ALU_IType() {
     this.syntax = "%R,%R,%I";
     this.paramCount = 3;
@@ -52,18 +48,18 @@ public class ALU_IType extends ComputationalInstructions {
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the source register is valid passing its own values into a temporary register
-    Register rs = cpu.getRegister(params.get(RS_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
 
-    if (rs.getWriteSemaphore() > 0) {
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    TR[RS_FIELD].setBits(rs.getBinString(), 0);
+    TR[RS_FIELD].setLong(gpr.read(rs));
     //locking the target register
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
-    rt.incrWriteSemaphore();
+    gpr.incrWriteSemaphore(params[RT_FIELD]);
     //writing the immediate value of "params" on a temporary register
-    TR[IMM_FIELD].writeHalf(params.get(IMM_FIELD));
+    TR[IMM_FIELD].writeHalf(params[IMM_FIELD]);
     return false;
   }
 
@@ -82,15 +78,16 @@ public class ALU_IType extends ComputationalInstructions {
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing result from temporary register to destination register and unlocking it
-    logger.info("WB of the ALU I-Type instruction. Writing " + TR[RT_FIELD].getValue() + " to R" + params.get(RT_FIELD));
-    cpu.getRegister(params.get(RT_FIELD)).setBits(TR[RT_FIELD].getBinString(), 0);
-    cpu.getRegister(params.get(RT_FIELD)).decrWriteSemaphore();
+    RegisterFile gpr = cpu.getRegisterFile();
+    gpr.write(params[RT_FIELD], TR[RT_FIELD].getLong());
+    gpr.decrWriteSemaphore(params[RT_FIELD]);
+    cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.REGISTER_WRITE, this, params[RT_FIELD], TR[RT_FIELD].getLong());
   }
 
   public void pack() throws IrregularStringOfBitsException {
     repr.setBits(OPCODE_VALUE, 0);
-    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, params.get(RS_FIELD)), RS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(IMM_FIELD_LENGTH, params.get(IMM_FIELD)), IMM_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, params[RS_FIELD]), RS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(IMM_FIELD_LENGTH, params[IMM_FIELD]), IMM_FIELD_INIT);
   }
 }
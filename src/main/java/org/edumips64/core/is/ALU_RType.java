@@ -27,8 +27,6 @@ package org.edumips64.core.is;
 
 import org.edumips64.core.*;
 import org.edumips64.core.fpu.FPInvalidOperationException;
-//per diagnostica
-import java.util.logging.Logger;
 
 /**This is the base class for the R-Type instructions
  *
@@ -46,7 +44,6 @@ public abstract class ALU_RType extends ComputationalInstructions {
   final static int RT_FIELD_LENGTH = 5;
   String OPCODE_VALUE = "";
   final static int OPCODE_VALUE_INIT = 26;
-  private static final Logger logger = Logger.getLogger(ALU_RType.class.getName());
   ALU_RType() {
     syntax = "%R,%R,%R";
     paramCount = 3;
@@ -54,37 +51,33 @@ public abstract class ALU_RType extends ComputationalInstructions {
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if source registers are valid passing their own values into temporary registers
-    logger.info("Executing step ID of " + fullname);
-    logger.info("RD is R" + params.get(RD_FIELD) + "; RS is R" + params.get(RS_FIELD) + "; RT is R" + params.get(RT_FIELD) + ";");
-    Register rs = cpu.getRegister(params.get(RS_FIELD));
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
+    int rt = params[RT_FIELD];
+    int rd = params[RD_FIELD];
 
-    //if(rs.getWriteSemaphore()>0 || rt.getWriteSemaphore()>0)
-    //    throw new RAWException();
-    if (rs.getWriteSemaphore() > 0) {
-      logger.info("RAW on RS");
+    if (gpr.isWritePending(getSourceRegisters())) {
+      Tracer tracer = cpu.getTracer();
+      if (tracer.isEnabled(Tracer.Level.ALL)) {
+        tracer.record(Tracer.Level.ALL, Tracer.Event.RAW, this, gpr.isWritePending(RegisterFile.mask(rs)) ? rs : rt, 0);
+      }
       return true;
     }
 
-    if (rt.getWriteSemaphore() > 0) {
-      logger.info("RAW on RT");
-      return true;
-    }
-
-    TR[RS_FIELD].setBits(rs.getBinString(), 0);
-    TR[RT_FIELD].setBits(rt.getBinString(), 0);
+    TR[RS_FIELD].setLong(gpr.read(rs));
+    TR[RT_FIELD].setLong(gpr.read(rt));
+    cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.REGISTER_READ, this, rs, TR[RS_FIELD].getLong());
+    cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.REGISTER_READ, this, rt, TR[RT_FIELD].getLong());
 
     // Get the Destination Register value.
     // BE CAREFUL! If the instruction does not use RD (like MOVN and MOVZ
     // if the condition is false), and someone changes the value of RD
     // between the ID and the WB stage of the current instruction, the old
     // value of RD, read during ID, will be written to RD during WB.
-    Register rd = cpu.getRegister(params.get(RD_FIELD));
-    TR[RD_FIELD].setBits(rd.getBinString(), 0);
+    TR[RD_FIELD].setLong(gpr.read(rd));
 
     // Lock RD
-    rd.incrWriteSemaphore();
-    logger.info("RD = " + TR[RD_FIELD].getValue() + "; RS = " + TR[RS_FIELD].getValue() + "; RT = " + TR[RT_FIELD].getValue() + ";");
+    gpr.incrWriteSemaphore(rd);
     return false;
   }
 
@@ -102,16 +95,18 @@ public abstract class ALU_RType extends ComputationalInstructions {
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing result from temporary register to destination register and unlocking it
-    cpu.getRegister(params.get(RD_FIELD)).setBits(TR[RD_FIELD].getBinString(), 0);
-    cpu.getRegister(params.get(RD_FIELD)).decrWriteSemaphore();
+    RegisterFile gpr = cpu.getRegisterFile();
+    gpr.write(params[RD_FIELD], TR[RD_FIELD].getLong());
+    gpr.decrWriteSemaphore(params[RD_FIELD]);
+    cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.REGISTER_WRITE, this, params[RD_FIELD], TR[RD_FIELD].getLong());
 
   }
 
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of "params" list to the "repr" form (32 binary value)
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, params.get(RS_FIELD)), RS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RD_FIELD_LENGTH, params.get(RD_FIELD)), RD_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, params[RS_FIELD]), RS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RD_FIELD_LENGTH, params[RD_FIELD]), RD_FIELD_INIT);
   }
 }
@@ -48,50 +48,32 @@ class ANDI extends ALU_IType {
   //of all others instructions in the same category, is necessary the overriding of ID method
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the source register is valid passing its own values into a temporary register
-    Register rs = cpu.getRegister(params.get(RS_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
 
-    if (rs.getWriteSemaphore() > 0) {
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    TR[RS_FIELD] = rs;
+    TR[RS_FIELD].setLong(gpr.read(rs));
     //locking the target register
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
-    rt.incrWriteSemaphore();
+    gpr.incrWriteSemaphore(params[RT_FIELD]);
     //writing the immediate value of "params" on a temporary register
-    TR[IMM_FIELD].writeHalf(params.get(IMM_FIELD));
+    TR[IMM_FIELD].writeHalf(params[IMM_FIELD]);
     //forcing zero-padding in the same temporary register
-    StringBuffer sb = new StringBuffer();
-
-    for (int i = 0; i < 48; i++) {
-      sb.append('0');
-    }
-
-    sb.append(TR[IMM_FIELD].getBinString().substring(48, 64));
-    TR[IMM_FIELD].setBits(sb.substring(0), 0);
+    TR[IMM_FIELD].setLong(TR[IMM_FIELD].getLong() & 0xFFFFL);
     return false;
   }
   public void EX() throws IrregularStringOfBitsException {
     //getting values from temporary registers
-    String imm = TR[IMM_FIELD].getBinString();
-    String rs = TR[RS_FIELD].getBinString();
-    StringBuffer sb = new StringBuffer();
-    boolean immbit, rsbit, resbit;
-
-    //performing bitwise OR between immediate and rs register
-    for (int i = 0; i < 64; i++) {
-      rsbit = rs.charAt(i) == '1';
-      immbit = imm.charAt(i) == '1';
-      resbit = rsbit && immbit;
-      sb.append(resbit ? '1' : '0');
-    }
-
-    TR[RT_FIELD].setBits(sb.substring(0), 0);
+    long rs = TR[RS_FIELD].getLong();
+    long imm = TR[IMM_FIELD].getLong();
+    //performing bitwise AND between immediate and rs register
+    TR[RT_FIELD].setLong(rs & imm);
 
     if (cpu.isEnableForwarding()) {
       doWB();
     }
-
   }
 
 }
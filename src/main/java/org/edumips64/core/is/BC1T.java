@@ -37,9 +37,9 @@ import org.edumips64.core.fpu.FPInvalidOperationException;
  */
 
 public class BC1T extends FPConditionalBranchesInstructions {
-  static String ND_FIELD = "0";
-  static String TF_FIELD = "1";
-  static String NAME = "BC1T";
+  static final String ND_FIELD = "0";
+  static final String TF_FIELD = "1";
+  static final String NAME = "BC1T";
 
   BC1T() {
     super.ND_FIELD = ND_FIELD;
@@ -48,27 +48,11 @@ public class BC1T extends FPConditionalBranchesInstructions {
   }
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
-    boolean condition = cpu.getFCSRConditionCode(params.get(CC_FIELD)) == 1;
+    boolean condition = cpu.getFCSRConditionCode(params[CC_FIELD]) == 1;
 
-    //converting offset into a signed binary value of 64 bits in length
-    BitSet64 bs = new BitSet64();
-    bs.writeHalf(params.get(OFFSET_FIELD));
-    String offset = bs.getBinString();
 
     if (condition) {
-      String pc_new = "";
-      Register pc = cpu.getPC();
-      String pc_old = cpu.getPC().getBinString();
-
-      //subtracting 4 to the pc_old temporary variable using bitset64 safe methods
-      BitSet64 bs_temp = new BitSet64();
-      bs_temp.writeDoubleWord(-4);
-      pc_old = InstructionsUtils.twosComplementSum(pc_old, bs_temp.getBinString());
-
-      //updating program counter
-      pc_new = InstructionsUtils.twosComplementSum(pc_old, offset);
-      pc.setBits(pc_new, 0);
-
+      setBranchTarget(params[OFFSET_FIELD]);
       throw new JumpException();
     }
     return false;
@@ -46,33 +46,18 @@ public class BEQ extends FlowControl_IType {
   }
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
-    if (cpu.getRegister(params.get(RS_FIELD)).getWriteSemaphore() > 0 || cpu.getRegister(params.get(RT_FIELD)).getWriteSemaphore() > 0) {
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
+    int rt = params[RT_FIELD];
+
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    //getting registers rs and rt
-    String rs = cpu.getRegister(params.get(RS_FIELD)).getBinString();
-    String rt = cpu.getRegister(params.get(RT_FIELD)).getBinString();
-    //converting offset into a signed binary value of 64 bits in length
-    BitSet64 bs = new BitSet64();
-    bs.writeHalf(params.get(OFFSET_FIELD));
-    String offset = bs.getBinString();
-    boolean condition = rs.equals(rt);
+    boolean condition = gpr.read(rs) == gpr.read(rt);
 
     if (condition) {
-      String pc_new = "";
-      Register pc = cpu.getPC();
-      String pc_old = cpu.getPC().getBinString();
-
-      //subtracting 4 to the pc_old temporary variable using bitset64 safe methods
-      BitSet64 bs_temp = new BitSet64();
-      bs_temp.writeDoubleWord(-4);
-      pc_old = InstructionsUtils.twosComplementSum(pc_old, bs_temp.getBinString());
-
-      //updating program counter
-      pc_new = InstructionsUtils.twosComplementSum(pc_old, offset);
-      pc.setBits(pc_new, 0);
-
+      setBranchTarget(params[OFFSET_FIELD]);
       throw new JumpException();
     }
     return false;
@@ -47,33 +47,17 @@ public class BNEZ extends FlowControl_IType {
 
   public boolean ID()
       throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
-    //getting registers rs and rt
-    if (cpu.getRegister(params.get(RS_FIELD)).getWriteSemaphore() > 0) {
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
+
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    String rs = cpu.getRegister(params.get(RS_FIELD)).getBinString();
-    String zero = Converter.positiveIntToBin(64, 0);
-    //converting offset into a signed binary value of 64 bits in length
-    BitSet64 bs = new BitSet64();
-    bs.writeHalf(params.get(OFFSET_FIELD));
-    String offset = bs.getBinString();
-    boolean condition = ! rs.equals(zero);
+    boolean condition = gpr.read(rs) != 0;
 
     if (condition) {
-      String pc_new = "";
-      Register pc = cpu.getPC();
-      String pc_old = cpu.getPC().getBinString();
-
-      //subtracting 4 to the pc_old temporary variable using bitset64 safe methods
-      BitSet64 bs_temp = new BitSet64();
-      bs_temp.writeDoubleWord(-4);
-      pc_old = InstructionsUtils.twosComplementSum(pc_old, bs_temp.getBinString());
-
-      //updating program counter
-      pc_new = InstructionsUtils.twosComplementSum(pc_old, offset);
-      pc.setBits(pc_new, 0);
-
+      setBranchTarget(params[OFFSET_FIELD]);
       throw new JumpException();
     }
     return false;
@@ -81,8 +65,8 @@ public class BNEZ extends FlowControl_IType {
   public void pack() throws IrregularStringOfBitsException {
 
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, 0/*params.get(RS_FIELD)*/), RS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RS_FIELD) /*0*/), RT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(OFFSET_FIELD_LENGTH, params.get(OFFSET_FIELD) / 4), OFFSET_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, 0/*params[RS_FIELD]*/), RS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RS_FIELD] /*0*/), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(OFFSET_FIELD_LENGTH, params[OFFSET_FIELD] / 4), OFFSET_FIELD_INIT);
   }
 }
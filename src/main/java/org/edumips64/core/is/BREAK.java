@@ -41,11 +41,7 @@ public class BREAK extends Instruction {
     name = "BREAK";
   }
   public void IF() throws BreakException {
-    try {
-      dinero.IF(Converter.binToHex(Converter.intToBin(64, cpu.getLastPC().getValue())));
-    } catch (IrregularStringOfBitsException e) {
-      e.printStackTrace();
-    }
+    dinero.IF(cpu.getLastPC().getValue());
 
     throw new BreakException();
   }
@@ -31,12 +31,16 @@ import org.edumips64.core.fpu.FPInvalidOperationException;
  * @author Trubia Massimo, Russo Daniele
  */
 public class BUBBLE extends Instruction {
+  /** The single BUBBLE, shared by all the pipelines. It has no state, and the methods that would change it throw
+   * UnsupportedOperationException. It is public because it is an internal instruction, which the CPU gets without
+   * going through InstructionBuilder. */
+  public static final BUBBLE INSTANCE = new BUBBLE();
 
-  /** Creates a new instance of BUBBLE. This constructor is public because the CPU can build new BUBBLE instructions
-   * itself, since it's an internal instruction. */
-  public BUBBLE() {
+  private BUBBLE() {
+    super(false);
     name = " ";
     fullname = " ";
+    opcode = Opcode.BUBBLE;
   }
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
@@ -55,4 +59,20 @@ public class BUBBLE extends Instruction {
   public void pack() throws IrregularStringOfBitsException {
   }
 
+  public void addParam(int value) {
+    throw new UnsupportedOperationException("BUBBLE has no parameters");
+  }
+
+  public void setFullName(String value) {
+    throw new UnsupportedOperationException("BUBBLE cannot be changed");
+  }
+
+  public void setComment(String comment) {
+    throw new UnsupportedOperationException("BUBBLE cannot be changed");
+  }
+
+  public void setLabel(String value) {
+    throw new UnsupportedOperationException("BUBBLE cannot be changed");
+  }
+
 }
@@ -37,9 +37,9 @@ import java.math.*;
  *</pre>
  */
 class CVT_D_L extends FPConversionFCSRInstructions {
-  static String OPCODE_VALUE = "100101";
-  static String FMT_FIELD = "10101"; //LONG IS 21
-  static String NAME = "CVT.D.L";
+  static final String OPCODE_VALUE = "100101";
+  static final String FMT_FIELD = "10101"; //LONG IS 21
+  static final String NAME = "CVT.D.L";
 
   CVT_D_L() {
     super.OPCODE_VALUE = OPCODE_VALUE;
@@ -54,12 +54,12 @@ class CVT_D_L extends FPConversionFCSRInstructions {
 
     if ((bd = FPInstructionUtils.longToDouble(fs)) == null) {
       //before raising the trap or return the special value we modify the cause bit
-      cpu.setFCSRCause("V", 1);
+      cpu.setFCSRCause(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
 
       if (cpu.getFPExceptions(FCSRRegister.FPExceptions.INVALID_OPERATION)) {
         throw new FPInvalidOperationException();
       } else {
-        cpu.setFCSRFlags("V", 1);
+        cpu.setFCSRFlags(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
         TRfp[FD_FIELD].setBits("0000000000000000000000000000000000000000000000000000000000000000", 0);
       }
     } else {
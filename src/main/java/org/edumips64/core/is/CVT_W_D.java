@@ -37,9 +37,9 @@ import java.math.*;
  *</pre>
  */
 class CVT_W_D extends FPConversionFCSRInstructions {
-  static String OPCODE_VALUE = "100100";
-  static String FMT_FIELD = "10001"; //DOUBLE IS 17
-  static String NAME = "CVT.W.D";
+  static final String OPCODE_VALUE = "100100";
+  static final String FMT_FIELD = "10001"; //DOUBLE IS 17
+  static final String NAME = "CVT.W.D";
 
   CVT_W_D() {
     super.OPCODE_VALUE = OPCODE_VALUE;
@@ -57,12 +57,12 @@ class CVT_W_D extends FPConversionFCSRInstructions {
     //if the value is larger than an int an exception may occur
     if (bi == null || bi.compareTo(biggest) == 1 || bi.compareTo(smallest) == -1) {
       //before raising the trap or return the special value we modify the cause bit
-      cpu.setFCSRCause("V", 1);
+      cpu.setFCSRCause(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
 
       if (cpu.getFPExceptions(FCSRRegister.FPExceptions.INVALID_OPERATION)) {
         throw new FPInvalidOperationException();
       } else {
-        cpu.setFCSRFlags("V", 1);
+        cpu.setFCSRFlags(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
         //if an exception occured without a trap the biggest value is returned
         bi = new BigInteger("2147483648");  //2^31-1
       }
@@ -71,7 +71,7 @@ class CVT_W_D extends FPConversionFCSRInstructions {
     //writing the int value into a temporary integer register in order to obtain the binary value
     Register tmp = new Register("tmp-CVT.W.D");
     tmp.writeWord(bi.intValue());
-    TRfp[FD_FIELD].setBits(tmp.getBinString(), 0);
+    TRfp[FD_FIELD].setLong(tmp.getLong());
 
     if (cpu.isEnableForwarding()) {
       doWB();
@@ -43,17 +43,13 @@ class DADDI extends ALU_IType {
   }
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
-    //getting strings from temporary registers
-    String imm = TR[IMM_FIELD].getBinString();
-    String rs = TR[RS_FIELD].getBinString();
-    //performing mips64 operations to detect IntegerOverflow
-    rs = rs.charAt(0) + rs;
-    imm = imm.charAt(0) + imm;
-    String outputstring = InstructionsUtils.twosComplementSum(rs, imm);
+    //getting values from temporary registers
+    long rs = TR[RS_FIELD].getLong();
+    long imm = TR[IMM_FIELD].getLong();
+    long result = rs + imm;
 
-    //comparison between the two most significant bits of the outputstring and
-    //raising integer overflow if the first bit is different from the second one
-    if (outputstring.charAt(0) != outputstring.charAt(1)) {
+    //the sum overflows if both operands have a different sign from the result
+    if (((rs ^ result) & (imm ^ result)) < 0) {
       //if the enable forwarding is turned on we have to ensure that registers
       //should be unlocked also if a synchronous exception occurs. This is performed
       //by executing the WB method before raising the trap
@@ -62,11 +58,9 @@ class DADDI extends ALU_IType {
       }
 
       throw new IntegerOverflowException();
-    } else {
-      outputstring = outputstring.substring(1, 65);
     }
 
-    TR[RT_FIELD].setBits(outputstring, 0);
+    TR[RT_FIELD].setLong(result);
 
     if (cpu.isEnableForwarding()) {
       doWB();
@@ -47,8 +47,8 @@ class DADDIU extends ALU_IType {
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException, IrregularWriteOperationException {
     //getting values from temporary registers
-    long imm = TR[IMM_FIELD].getValue();
-    long rs = TR[RS_FIELD].getValue();
+    long imm = TR[IMM_FIELD].getLong();
+    long rs = TR[RS_FIELD].getLong();
     //adding values without to control integer overflow
     long result = imm + rs;
     TR[RT_FIELD].writeDoubleWord(result);
@@ -47,13 +47,11 @@ public class DADDU extends ALU_RType {
 
   public void EX()
   throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
-    //getting String from temporary register
-    String rs = TR[RS_FIELD].getBinString();
-    String rt = TR[RT_FIELD].getBinString();
-
-    String outputstring = InstructionsUtils.twosComplementSum(rs, rt);
-    //There isn't IntegerOverflow cases
-    TR[RD_FIELD].setBits(outputstring, 0);
+    //getting values from temporary registers
+    long rs = TR[RS_FIELD].getLong();
+    long rt = TR[RT_FIELD].getLong();
+    //adding values without checking for integer overflow
+    TR[RD_FIELD].setLong(rs + rt);
 
     if (cpu.isEnableForwarding()) {
       doWB();
@@ -59,15 +59,16 @@ class DIV extends ALU_RType {
   }
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if source registers are valid passing their own values into temporary registers
-    Register rs = cpu.getRegister(params.get(RS_FIELD));
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
+    int rt = params[RT_FIELD];
 
-    if (rs.getWriteSemaphore() > 0 || rt.getWriteSemaphore() > 0) {
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    TR[RS_FIELD] = rs;
-    TR[RT_FIELD] = rt;
+    TR[RS_FIELD].setLong(gpr.read(rs));
+    TR[RT_FIELD].setLong(gpr.read(rt));
     //locking the destination registers (quozient and remainder)
     cpu.getLO().incrWriteSemaphore();
     cpu.getHI().incrWriteSemaphore();
@@ -153,15 +154,15 @@ class DIV extends ALU_RType {
     //passing results from temporary registers to destination registers and unlocking them
     Register lo = cpu.getLO();
     Register hi = cpu.getHI();
-    lo.setBits(TR[LO_REG].getBinString(), 0);
-    hi.setBits(TR[HI_REG].getBinString(), 0);
+    lo.setLong(TR[LO_REG].getLong());
+    hi.setLong(TR[HI_REG].getLong());
     lo.decrWriteSemaphore();
     hi.decrWriteSemaphore();
   }
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of "params" list to the "repr" form (32 binary value)
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, params.get(RS_FIELD)), RS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, params[RS_FIELD]), RS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
   }
 }
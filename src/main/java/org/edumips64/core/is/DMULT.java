@@ -27,10 +27,14 @@
 package org.edumips64.core.is;
 import org.edumips64.core.IrregularWriteOperationException;
 import org.edumips64.core.Register;
+import org.edumips64.core.RegisterFile;
 import org.edumips64.core.fpu.FPInvalidOperationException;
 import org.edumips64.core.Converter;
 import org.edumips64.core.IrregularStringOfBitsException;
+import org.edumips64.core.CheckpointReader;
+import org.edumips64.core.CheckpointWriter;
 
+import java.io.IOException;
 import java.math.BigInteger;
 
 /**
@@ -59,15 +63,16 @@ class DMULT extends ALU_RType {
   }
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if source registers are valid passing their own values into temporary registers
-    Register rs = cpu.getRegister(params.get(RS_FIELD));
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
+    int rt = params[RT_FIELD];
 
-    if (rs.getWriteSemaphore() > 0 || rt.getWriteSemaphore() > 0) {
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    TR[RS_FIELD] = rs;
-    TR[RT_FIELD] = rt;
+    TR[RS_FIELD].setLong(gpr.read(rs));
+    TR[RT_FIELD].setLong(gpr.read(rt));
     //locking the destination register
 
     cpu.getLO().incrWriteSemaphore();
@@ -77,8 +82,8 @@ class DMULT extends ALU_RType {
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
 
     //getting values from temporary registers
-    BigInteger rs = new BigInteger(Long.toString(TR[RS_FIELD].getValue()));
-    BigInteger rt = new BigInteger(Long.toString(TR[RT_FIELD].getValue()));
+    BigInteger rs = new BigInteger(Long.toString(TR[RS_FIELD].getLong()));
+    BigInteger rt = new BigInteger(Long.toString(TR[RT_FIELD].getLong()));
     BigInteger result = rs.multiply(rt);
 
     // Convert result to a String of 128-bit
@@ -121,7 +126,19 @@ class DMULT extends ALU_RType {
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of "params" list to the "repr" form (32 binary value)
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, params.get(RS_FIELD)), RS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, params[RS_FIELD]), RS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
+  }
+
+  public void save(CheckpointWriter out) throws IOException {
+    super.save(out);
+    out.writeString(lo);
+    out.writeString(hi);
+  }
+
+  public void restore(CheckpointReader in) throws IOException {
+    super.restore(in);
+    lo = in.readString();
+    hi = in.readString();
   }
 }
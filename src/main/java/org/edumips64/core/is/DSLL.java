@@ -57,24 +57,24 @@ public class DSLL extends ALU_RType {
   //the overriding of ID method
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the source register is valid passing his own value into a temporary register
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rt = params[RT_FIELD];
 
-    if (rt.getWriteSemaphore() > 0) {
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    TR[RT_FIELD] = rt;
+    TR[RT_FIELD].setLong(gpr.read(rt));
     //writing on a temporary register the sa field as unsigned value
-    TR[SA_FIELD].writeDoubleWord(params.get(SA_FIELD));
+    TR[SA_FIELD].writeDoubleWord(params[SA_FIELD]);
     //increment the semaphore of the destination register
-    Register rd = cpu.getRegister(params.get(RD_FIELD));
-    rd.incrWriteSemaphore();
+    gpr.incrWriteSemaphore(params[RD_FIELD]);
     return false;
   }
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
     //getting strings from temporary registers
-    int sa = (int) TR[SA_FIELD].getValue();
+    int sa = (int) TR[SA_FIELD].getLong();
     String rt = TR[RT_FIELD].getBinString();
     //composing new shifted value
     StringBuffer sb = new StringBuffer();
@@ -93,8 +93,8 @@ public class DSLL extends ALU_RType {
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of "params" list to the "repr" form (32 binary value)
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(SA_FIELD_LENGTH, params.get(SA_FIELD)), SA_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RD_FIELD_LENGTH, params.get(RD_FIELD)), RD_FIELD_INIT);
+    repr.setBits(Converter.intToBin(SA_FIELD_LENGTH, params[SA_FIELD]), SA_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RD_FIELD_LENGTH, params[RD_FIELD]), RD_FIELD_INIT);
   }
 }
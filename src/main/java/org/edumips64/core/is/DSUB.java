@@ -42,17 +42,13 @@ public class DSUB extends ALU_RType {
     name = "DSUB";
   }
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
-    //getting strings from temporary registers
-    String rs = TR[RS_FIELD].getBinString();
-    String rt = TR[RT_FIELD].getBinString();
-    //performing sign extension to detect IntegerOverflow
-    rs = rs.charAt(0) + rs;
-    rt = rt.charAt(0) + rt;
-    String outputstring = InstructionsUtils.twosComplementSubstraction(rs, rt);
+    //getting values from temporary registers
+    long rs = TR[RS_FIELD].getLong();
+    long rt = TR[RT_FIELD].getLong();
+    long result = rs - rt;
 
-    //comparison between the two most significant bits of the outputstring and
-    //raising integer overflow if the first bit is different from the second one
-    if (outputstring.charAt(0) != outputstring.charAt(1)) {
+    //the difference overflows if the operands have different signs and the result has the sign of rt
+    if (((rs ^ rt) & (rs ^ result)) < 0) {
       //if the enable forwarding is turned on we have to ensure that registers
       //should be unlocked also if a synchronous exception occurs. This is performed
       //by executing the WB method before raising the trap
@@ -61,16 +57,13 @@ public class DSUB extends ALU_RType {
       }
 
       throw new IntegerOverflowException();
-    } else {
-      outputstring = outputstring.substring(1, 65);
     }
 
-    TR[RD_FIELD].setBits(outputstring, 0);
+    TR[RD_FIELD].setLong(result);
 
     if (cpu.isEnableForwarding()) {
       doWB();
     }
-
   }
 
 
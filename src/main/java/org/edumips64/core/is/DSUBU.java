@@ -43,19 +43,15 @@ public class DSUBU extends ALU_RType {
   }
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
-    //getting strings from temporary registers
-    String rs = TR[RS_FIELD].getBinString();
-    String rt = TR[RT_FIELD].getBinString();
-
-    String outputstring = InstructionsUtils.twosComplementSubstraction(rs, rt);
-
-    //There isn't IntegerOverflow cases
-    TR[RD_FIELD].setBits(outputstring, 0);
+    //getting values from temporary registers
+    long rs = TR[RS_FIELD].getLong();
+    long rt = TR[RT_FIELD].getLong();
+    //subtracting values without checking for integer overflow
+    TR[RD_FIELD].setLong(rs - rt);
 
     if (cpu.isEnableForwarding()) {
       doWB();
     }
-
   }
 
 
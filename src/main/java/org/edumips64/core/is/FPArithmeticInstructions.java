@@ -37,7 +37,7 @@ public abstract class FPArithmeticInstructions extends ComputationalInstructions
   final static int FD_FIELD = 0;
   final static int FS_FIELD = 1;
   final static int FT_FIELD = 2;
-  static String COP1_FIELD = "010001";
+  static final String COP1_FIELD = "010001";
   final static int COP1_FIELD_INIT = 0;
   final static int FD_FIELD_INIT = 21;
   final static int FS_FIELD_INIT = 16;
@@ -56,22 +56,23 @@ public abstract class FPArithmeticInstructions extends ComputationalInstructions
   FPArithmeticInstructions(FCSRRegister fcsr) {
     syntax = "%F,%F,%F";
     paramCount = 3;
+    allocateFPTemporaries();
     fpInstructionUtils = new FPInstructionUtils(fcsr);
   }
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if source registers are valid passing their own values into temporary registers
-    RegisterFP fs = cpu.getRegisterFP(params.get(FS_FIELD));
-    RegisterFP ft = cpu.getRegisterFP(params.get(FT_FIELD));
+    RegisterFP fs = cpu.getRegisterFP(params[FS_FIELD]);
+    RegisterFP ft = cpu.getRegisterFP(params[FT_FIELD]);
 
     if (fs.getWriteSemaphore() > 0 || ft.getWriteSemaphore() > 0) {
       return true;
     }
 
-    TRfp[FS_FIELD].setBits(fs.getBinString(), 0);
-    TRfp[FT_FIELD].setBits(ft.getBinString(), 0);
+    TRfp[FS_FIELD].setLong(fs.getLong());
+    TRfp[FT_FIELD].setLong(ft.getLong());
     //locking the destination register
-    RegisterFP fd = cpu.getRegisterFP(params.get(FD_FIELD));
+    RegisterFP fd = cpu.getRegisterFP(params[FD_FIELD]);
 
     if (fd.getWAWSemaphore() > 0) {
       throw new WAWException();
@@ -84,13 +85,11 @@ public abstract class FPArithmeticInstructions extends ComputationalInstructions
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException, IrregularWriteOperationException, DivisionByZeroException, FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException {
     //getting values from temporary registers
-    String operand1 = TRfp[FS_FIELD].getBinString();
-    String operand2 = TRfp[FT_FIELD].getBinString();
-    String outputstring = null;
+    long operand1 = TRfp[FS_FIELD].getLong();
+    long operand2 = TRfp[FT_FIELD].getLong();
 
     try {
-      outputstring = doFPArith(operand1, operand2);
-      TRfp[FD_FIELD].setBits(outputstring, 0);
+      TRfp[FD_FIELD].setLong(doFPArith(operand1, operand2));
     } catch (Exception ex) {
       //if the enable forwarding is turned on we have to ensure that registers
       //should be unlocked also if a synchronous exception occurs. This is performed
@@ -107,8 +106,6 @@ public abstract class FPArithmeticInstructions extends ComputationalInstructions
         throw new FPOverflowException();
       } else if (ex instanceof FPDivideByZeroException) {
         throw new FPDivideByZeroException();
-      } else if (ex instanceof IrregularStringOfBitsException) {
-        throw new IrregularStringOfBitsException();
       }
     }
 
@@ -117,10 +114,10 @@ public abstract class FPArithmeticInstructions extends ComputationalInstructions
     }
   }
 
-  protected abstract String doFPArith(String operand1, String operand2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException, IrregularStringOfBitsException;
+  protected abstract long doFPArith(long operand1, long operand2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException;
 
   public void MEM() throws IrregularStringOfBitsException, MemoryElementNotFoundException {
-    cpu.getRegisterFP(params.get(FD_FIELD)).decrWAWSemaphore();
+    cpu.getRegisterFP(params[FD_FIELD]).decrWAWSemaphore();
   }
 
   public void WB() throws IrregularStringOfBitsException {
@@ -131,17 +128,17 @@ public abstract class FPArithmeticInstructions extends ComputationalInstructions
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing result from temporary register to destination register and unlocking it
-    cpu.getRegisterFP(params.get(FD_FIELD)).setBits(TRfp[FD_FIELD].getBinString(), 0);
-    cpu.getRegisterFP(params.get(FD_FIELD)).decrWriteSemaphore();
+    cpu.getRegisterFP(params[FD_FIELD]).setLong(TRfp[FD_FIELD].getLong());
+    cpu.getRegisterFP(params[FD_FIELD]).decrWriteSemaphore();
 
   }
 
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of "params" list to the "repr" form (32 binary value)
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params.get(FS_FIELD)), FS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FT_FIELD_LENGTH, params.get(FT_FIELD)), FT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FD_FIELD_LENGTH, params.get(FD_FIELD)), FD_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params[FS_FIELD]), FS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FT_FIELD_LENGTH, params[FT_FIELD]), FT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FD_FIELD_LENGTH, params[FD_FIELD]), FD_FIELD_INIT);
     repr.setBits(COP1_FIELD, COP1_FIELD_INIT);
     repr.setBits(FMT_FIELD, FMT_FIELD_INIT);
   }
@@ -38,8 +38,8 @@ public abstract class FPC_cond_DInstructions extends ComputationalInstructions {
   final static int CC_FIELD = 0;
   final static int FS_FIELD = 1;
   final static int FT_FIELD = 2;
-  static String COP1_FIELD = "010001";
-  static String CONST_FIELD = "0011";
+  static final String COP1_FIELD = "010001";
+  static final String CONST_FIELD = "0011";
   final static int COP1_FIELD_INIT = 0;
   final static int CONST_FIELD_INIT = 24;
   final static int CC_FIELD_INIT = 21;
@@ -50,32 +50,33 @@ public abstract class FPC_cond_DInstructions extends ComputationalInstructions {
   final static int FT_FIELD_LENGTH = 5;
   final static int COND_VALUE_INIT = 28;
   final static int FMT_FIELD_INIT = 6;
-  static String FMT_FIELD = "10001"; // 17 is for double
+  static final String FMT_FIELD = "10001"; // 17 is for double
 
   String COND_VALUE = "";
 
   FPC_cond_DInstructions() {
     syntax = "%C,%F,%F";
     paramCount = 3;
+    allocateFPTemporaries();
   }
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if source registers are valid passing their own values into temporary registers
-    RegisterFP fs = cpu.getRegisterFP(params.get(FS_FIELD));
-    RegisterFP ft = cpu.getRegisterFP(params.get(FT_FIELD));
+    RegisterFP fs = cpu.getRegisterFP(params[FS_FIELD]);
+    RegisterFP ft = cpu.getRegisterFP(params[FT_FIELD]);
 
     if (fs.getWriteSemaphore() > 0 || ft.getWriteSemaphore() > 0) {
       return true;
     }
 
-    TRfp[FS_FIELD].setBits(fs.getBinString(), 0);
-    TRfp[FT_FIELD].setBits(ft.getBinString(), 0);
+    TRfp[FS_FIELD].setLong(fs.getLong());
+    TRfp[FT_FIELD].setLong(ft.getLong());
     return false;
   }
 
   public void EX() throws IrregularStringOfBitsException, FPInvalidOperationException {
-    RegisterFP fs = TRfp[FS_FIELD];
-    RegisterFP ft = TRfp[FT_FIELD];
+    BitSet64FP fs = TRfp[FS_FIELD];
+    BitSet64FP ft = TRfp[FT_FIELD];
     boolean less;
     boolean equal;
     boolean unordered;
@@ -99,7 +100,7 @@ public abstract class FPC_cond_DInstructions extends ComputationalInstructions {
       if (FPInstructionUtils.isSNaN(fs.getBinString()) || FPInstructionUtils.isSNaN(ft.getBinString())
           || (cpu.getFPExceptions(FCSRRegister.FPExceptions.INVALID_OPERATION) && (FPInstructionUtils.isQNaN(fs.getBinString()) || FPInstructionUtils.isQNaN(ft.getBinString())))) {
         //before raising the trap or return the special value we modify the cause bit
-        cpu.setFCSRCause("V", 1);
+        cpu.setFCSRCause(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
         throw new FPInvalidOperationException();
       }
     } else {
@@ -114,7 +115,7 @@ public abstract class FPC_cond_DInstructions extends ComputationalInstructions {
     //now we make the and operation between the truth mask and the comparison of the registers
     condition = (cond2 && less) || (cond1 && equal) || (cond0 && unordered);
     condition_int = condition ? 1 : 0;
-    cpu.setFCSRConditionCode(params.get(CC_FIELD).intValue(), condition_int);
+    cpu.setFCSRConditionCode(params[CC_FIELD], condition_int);
   }
   public void MEM() {}
   public void WB() {};
@@ -123,9 +124,9 @@ public abstract class FPC_cond_DInstructions extends ComputationalInstructions {
     //conversion of instruction parameters of "params" list to the "repr" form (32 binary value)
     repr.setBits(COP1_FIELD, COP1_FIELD_INIT);
     repr.setBits(FMT_FIELD, FMT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FT_FIELD_LENGTH, params.get(FT_FIELD)), FT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params.get(FS_FIELD)), FS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(CC_FIELD_LENGTH, params.get(CC_FIELD)), CC_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FT_FIELD_LENGTH, params[FT_FIELD]), FT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params[FS_FIELD]), FS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(CC_FIELD_LENGTH, params[CC_FIELD]), CC_FIELD_INIT);
     repr.setBits(CONST_FIELD, CONST_FIELD_INIT);
     repr.setBits(COND_VALUE, COND_VALUE_INIT);
   }
@@ -39,9 +39,9 @@ public abstract class FPConditionalBranchesInstructions extends FlowControlInstr
   final static int OFFSET_FIELD = 1;
   final static int OFFSET_FIELD_INIT = 16;
   final static int OFFSET_FIELD_LENGTH = 16;
-  static String COP1_VALUE = "010001";
+  static final String COP1_VALUE = "010001";
   final static int COP1_FIELD_INIT = 0;
-  static String BC_VALUE = "01000";
+  static final String BC_VALUE = "01000";
   final static int BC_FIELD_INIT = 6;
   final static int ND_FIELD_INIT = 14;
   final static int TF_FIELD_INIT = 15;
@@ -68,10 +68,10 @@ public abstract class FPConditionalBranchesInstructions extends FlowControlInstr
   public void pack() throws IrregularStringOfBitsException {
     repr.setBits(COP1_VALUE, COP1_FIELD_INIT);
     repr.setBits(BC_VALUE, BC_FIELD_INIT);
-    repr.setBits(Converter.intToBin(CC_FIELD_LENGTH, params.get(CC_FIELD)), CC_FIELD_INIT);
+    repr.setBits(Converter.intToBin(CC_FIELD_LENGTH, params[CC_FIELD]), CC_FIELD_INIT);
     repr.setBits(ND_FIELD, ND_FIELD_INIT);
     repr.setBits(TF_FIELD, TF_FIELD_INIT);
-    repr.setBits(Converter.intToBin(OFFSET_FIELD_LENGTH, params.get(OFFSET_FIELD) / 4), OFFSET_FIELD_INIT);
+    repr.setBits(Converter.intToBin(OFFSET_FIELD_LENGTH, params[OFFSET_FIELD] / 4), OFFSET_FIELD_INIT);
   }
 
 }
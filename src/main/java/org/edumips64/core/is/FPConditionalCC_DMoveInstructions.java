@@ -42,14 +42,14 @@ public abstract class FPConditionalCC_DMoveInstructions extends ComputationalIns
   final static int CC_FIELD = 2;
   final static int CC_FIELD_INIT = 11;
   final static int CC_FIELD_LENGTH = 3;
-  static String COP1_FIELD = "010001";
-  static int COP1_FIELD_INIT = 0;
-  static int MOVCF_FIELD_INIT = 26;
-  static String MOVCF_FIELD_VALUE = "010001";
-  static String ZERO_FIELD = "0";
+  static final String COP1_FIELD = "010001";
+  static final int COP1_FIELD_INIT = 0;
+  static final int MOVCF_FIELD_INIT = 26;
+  static final String MOVCF_FIELD_VALUE = "010001";
+  static final String ZERO_FIELD = "0";
   final static int ZERO_FIELD_INIT = 14;
-  static String FMT_FIELD = "10001"; //17 for double
-  static int FMT_FIELD_INIT = 6;
+  static final String FMT_FIELD = "10001"; //17 for double
+  static final int FMT_FIELD_INIT = 6;
   final static int TF_FIELD_INIT = 15;
 
   int TF_FIELD_VALUE;
@@ -57,18 +57,19 @@ public abstract class FPConditionalCC_DMoveInstructions extends ComputationalIns
   FPConditionalCC_DMoveInstructions() {
     this.syntax = "%F,%F,%C";
     this.paramCount = 3;
+    allocateFPTemporaries();
   }
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the source register is valid we pass its own value into a temporary register
-    RegisterFP fd = cpu.getRegisterFP(params.get(FD_FIELD));
-    RegisterFP fs = cpu.getRegisterFP(params.get(FS_FIELD));
+    RegisterFP fd = cpu.getRegisterFP(params[FD_FIELD]);
+    RegisterFP fs = cpu.getRegisterFP(params[FS_FIELD]);
 
     if (fs.getWriteSemaphore() > 0) {
       return true;
     }
 
-    TRfp[FS_FIELD].setBits(fs.getBinString(), 0);
-    TRfp[FD_FIELD].setBits(fd.getBinString(), 0);
+    TRfp[FS_FIELD].setLong(fs.getLong());
+    TRfp[FD_FIELD].setLong(fd.getLong());
 
     //locking the destination register
     if (fd.getWAWSemaphore() > 0) {
@@ -82,12 +83,12 @@ public abstract class FPConditionalCC_DMoveInstructions extends ComputationalIns
   public void EX() throws IrregularStringOfBitsException {
     String fs = TRfp[FS_FIELD].getBinString();
 
-    if (cpu.getFCSRConditionCode(params.get(CC_FIELD).intValue()) == TF_FIELD_VALUE) {
+    if (cpu.getFCSRConditionCode(params[CC_FIELD]) == TF_FIELD_VALUE) {
       TRfp[FD_FIELD].setBits(fs, 0);
     }
   }
   public void MEM() throws MemoryElementNotFoundException {
-    cpu.getRegisterFP(params.get(FD_FIELD)).decrWAWSemaphore();
+    cpu.getRegisterFP(params[FD_FIELD]).decrWAWSemaphore();
   }
   public void WB() throws IrregularStringOfBitsException {
     if (!cpu.isEnableForwarding()) {
@@ -97,19 +98,19 @@ public abstract class FPConditionalCC_DMoveInstructions extends ComputationalIns
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing result from temporary register to destination register and unlocking it
-    cpu.getRegisterFP(params.get(FD_FIELD)).setBits(TRfp[FD_FIELD].getBinString(), 0);
-    cpu.getRegisterFP(params.get(FD_FIELD)).decrWriteSemaphore();
+    cpu.getRegisterFP(params[FD_FIELD]).setLong(TRfp[FD_FIELD].getLong());
+    cpu.getRegisterFP(params[FD_FIELD]).decrWriteSemaphore();
   }
 
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of params list to the "repr" 32 binary value
     repr.setBits(COP1_FIELD, COP1_FIELD_INIT);
     repr.setBits(FMT_FIELD, FMT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(CC_FIELD_LENGTH, params.get(CC_FIELD)), CC_FIELD_INIT);
+    repr.setBits(Converter.intToBin(CC_FIELD_LENGTH, params[CC_FIELD]), CC_FIELD_INIT);
     repr.setBits(ZERO_FIELD, ZERO_FIELD_INIT);
     repr.setBits(String.valueOf(TF_FIELD_VALUE), TF_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params.get(FS_FIELD)), FS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FD_FIELD_LENGTH, params.get(FD_FIELD)), FD_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params[FS_FIELD]), FS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FD_FIELD_LENGTH, params[FD_FIELD]), FD_FIELD_INIT);
     repr.setBits(MOVCF_FIELD_VALUE, MOVCF_FIELD_INIT);
   }
 
@@ -42,30 +42,32 @@ public abstract class FPConditionalZerosMoveInstructions extends ComputationalIn
   final static int RT_FIELD = 2;
   final static int RT_FIELD_INIT = 11;
   final static int RT_FIELD_LENGTH = 5;
-  static String COP1_FIELD = "010001";
-  static int COP1_FIELD_INIT = 0;
-  static int OPCODE_VALUE_INIT = 26;
-  static int FMT_FIELD_INIT = 6;
+  static final String COP1_FIELD = "010001";
+  static final int COP1_FIELD_INIT = 0;
+  static final int OPCODE_VALUE_INIT = 26;
+  static final int FMT_FIELD_INIT = 6;
 
   String OPCODE_VALUE = "";
   String FMT_FIELD = "";
   FPConditionalZerosMoveInstructions() {
     this.syntax = "%F,%F,%R";
     this.paramCount = 3;
+    allocateFPTemporaries();
   }
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the source register is valid we pass its own value into a temporary register
-    RegisterFP fd = cpu.getRegisterFP(params.get(FD_FIELD));
-    RegisterFP fs = cpu.getRegisterFP(params.get(FS_FIELD));
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
+    RegisterFP fd = cpu.getRegisterFP(params[FD_FIELD]);
+    RegisterFP fs = cpu.getRegisterFP(params[FS_FIELD]);
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rt = params[RT_FIELD];
 
-    if (fs.getWriteSemaphore() > 0 || rt.getWriteSemaphore() > 0) {
+    if (fs.getWriteSemaphore() > 0 || gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    TRfp[FS_FIELD].setBits(fs.getBinString(), 0);
-    TRfp[FD_FIELD].setBits(fd.getBinString(), 0);
-    TR[RT_FIELD].setBits(rt.getBinString(), 0);
+    TRfp[FS_FIELD].setLong(fs.getLong());
+    TRfp[FD_FIELD].setLong(fd.getLong());
+    TR[RT_FIELD].setLong(gpr.read(rt));
 
     //locking the destination register
     if (fd.getWAWSemaphore() > 0) {
@@ -78,7 +80,7 @@ public abstract class FPConditionalZerosMoveInstructions extends ComputationalIn
   }
   public abstract void EX() throws IrregularStringOfBitsException;
   public void MEM() throws MemoryElementNotFoundException {
-    cpu.getRegisterFP(params.get(FD_FIELD)).decrWAWSemaphore();
+    cpu.getRegisterFP(params[FD_FIELD]).decrWAWSemaphore();
   };
   public void WB() throws IrregularStringOfBitsException {
     if (!cpu.isEnableForwarding()) {
@@ -88,17 +90,17 @@ public abstract class FPConditionalZerosMoveInstructions extends ComputationalIn
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing result from temporary register to destination register and unlocking it
-    cpu.getRegisterFP(params.get(FD_FIELD)).setBits(TRfp[FD_FIELD].getBinString(), 0);
-    cpu.getRegisterFP(params.get(FD_FIELD)).decrWriteSemaphore();
+    cpu.getRegisterFP(params[FD_FIELD]).setLong(TRfp[FD_FIELD].getLong());
+    cpu.getRegisterFP(params[FD_FIELD]).decrWriteSemaphore();
   }
 
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of params list to the "repr" 32 binary value
     repr.setBits(COP1_FIELD, COP1_FIELD_INIT);
     repr.setBits(FMT_FIELD, FMT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params.get(FS_FIELD)), FS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FD_FIELD_LENGTH, params.get(FD_FIELD)), FD_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params[FS_FIELD]), FS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FD_FIELD_LENGTH, params[FD_FIELD]), FD_FIELD_INIT);
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
   }
 
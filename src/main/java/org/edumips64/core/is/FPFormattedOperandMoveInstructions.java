@@ -38,30 +38,31 @@ public abstract class FPFormattedOperandMoveInstructions extends ComputationalIn
   final static int FS_FIELD = 1;
   final static int FS_FIELD_INIT = 16;
   final static int FS_FIELD_LENGTH = 5;
-  static String COP1_FIELD = "010001";
-  static int COP1_FIELD_INIT = 0;
-  static int OPCODE_VALUE_INIT = 26;
-  static int FMT_FIELD_INIT = 6;
-  static String ZERO_FIELD = "00000";
-  static int ZERO_FIELD_INIT = 11;
+  static final String COP1_FIELD = "010001";
+  static final int COP1_FIELD_INIT = 0;
+  static final int OPCODE_VALUE_INIT = 26;
+  static final int FMT_FIELD_INIT = 6;
+  static final String ZERO_FIELD = "00000";
+  static final int ZERO_FIELD_INIT = 11;
 
   String OPCODE_VALUE = "";
   String FMT_FIELD = "";
   FPFormattedOperandMoveInstructions() {
     this.syntax = "%F,%F";
     this.paramCount = 2;
+    allocateFPTemporaries();
   }
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the source register is valid we pass its own value into a temporary register
-    RegisterFP fd = cpu.getRegisterFP(params.get(FD_FIELD));
-    RegisterFP fs = cpu.getRegisterFP(params.get(FS_FIELD));
+    RegisterFP fd = cpu.getRegisterFP(params[FD_FIELD]);
+    RegisterFP fs = cpu.getRegisterFP(params[FS_FIELD]);
 
     if (fs.getWriteSemaphore() > 0) {
       return true;
     }
 
-    TRfp[FS_FIELD].setBits(fs.getBinString(), 0);
-    TRfp[FD_FIELD].setBits(fd.getBinString(), 0);
+    TRfp[FS_FIELD].setLong(fs.getLong());
+    TRfp[FD_FIELD].setLong(fd.getLong());
 
     //locking the destination register
     if (fd.getWAWSemaphore() > 0) {
@@ -74,7 +75,7 @@ public abstract class FPFormattedOperandMoveInstructions extends ComputationalIn
   }
   public abstract void EX() throws IrregularStringOfBitsException, FPInvalidOperationException, IrregularWriteOperationException, FPUnderflowException, FPOverflowException;
   public void MEM() throws MemoryElementNotFoundException {
-    cpu.getRegisterFP(params.get(FD_FIELD)).decrWAWSemaphore();
+    cpu.getRegisterFP(params[FD_FIELD]).decrWAWSemaphore();
   };
   public void WB() throws IrregularStringOfBitsException {
     if (!cpu.isEnableForwarding()) {
@@ -84,8 +85,8 @@ public abstract class FPFormattedOperandMoveInstructions extends ComputationalIn
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing result from temporary register to destination register and unlocking it
-    cpu.getRegisterFP(params.get(FD_FIELD)).setBits(TRfp[FD_FIELD].getBinString(), 0);
-    cpu.getRegisterFP(params.get(FD_FIELD)).decrWriteSemaphore();
+    cpu.getRegisterFP(params[FD_FIELD]).setLong(TRfp[FD_FIELD].getLong());
+    cpu.getRegisterFP(params[FD_FIELD]).decrWriteSemaphore();
   }
 
   public void pack() throws IrregularStringOfBitsException {
@@ -93,8 +94,8 @@ public abstract class FPFormattedOperandMoveInstructions extends ComputationalIn
     repr.setBits(COP1_FIELD, COP1_FIELD_INIT);
     repr.setBits(FMT_FIELD, FMT_FIELD_INIT);
     repr.setBits(ZERO_FIELD, ZERO_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params.get(FS_FIELD)), FS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FD_FIELD_LENGTH, params.get(FD_FIELD)), FD_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params[FS_FIELD]), FS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FD_FIELD_LENGTH, params[FD_FIELD]), FD_FIELD_INIT);
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
   }
 
@@ -49,9 +49,9 @@ public abstract class FPLDSTInstructions extends LDSTInstructions {
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of params list to the "repr" 32 binary value
     repr.setBits(OPCODE_VALUE, 0);
-    repr.setBits(Converter.intToBin(BASE_FIELD_LENGTH, params.get(BASE_FIELD)), BASE_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FT_FIELD_LENGTH, params.get(FT_FIELD)), FT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(OFFSET_FIELD_LENGTH, params.get(OFFSET_FIELD)), OFFSET_FIELD_INIT);
+    repr.setBits(Converter.intToBin(BASE_FIELD_LENGTH, params[BASE_FIELD]), BASE_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FT_FIELD_LENGTH, params[FT_FIELD]), FT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(OFFSET_FIELD_LENGTH, params[OFFSET_FIELD]), OFFSET_FIELD_INIT);
   }
 
   // FP Instructions don't use the doMEM method, let's provide an empty
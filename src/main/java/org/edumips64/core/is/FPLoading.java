@@ -41,18 +41,19 @@ public abstract class FPLoading extends FPLDSTInstructions {
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the base register is valid ...
-    Register base = cpu.getRegister(params.get(BASE_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int base = params[BASE_FIELD];
 
-    if (base.getWriteSemaphore() > 0) {
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
     //calculating  address (base+offset)
-    long address = base.getValue() + params.get(OFFSET_FIELD);
+    long address = gpr.read(base) + params[OFFSET_FIELD];
     //saving address into a temporary register
     TR[OFFSET_PLUS_BASE].writeDoubleWord(address);
     //locking ft register either in write mode or in read mode
-    RegisterFP ft = cpu.getRegisterFP(params.get(FT_FIELD));
+    RegisterFP ft = cpu.getRegisterFP(params[FT_FIELD]);
 
     if (ft.getWAWSemaphore() > 0) {
       throw new WAWException();
@@ -68,7 +69,7 @@ public abstract class FPLoading extends FPLDSTInstructions {
 
   public void MEM() throws IrregularStringOfBitsException, NotAlignException, MemoryElementNotFoundException, AddressErrorException, IrregularWriteOperationException {
     //since the load instruction reaches the MEM() stage, the (read) lock can be removed because WB() is reached first by the load instruction
-    cpu.getRegisterFP(params.get(FT_FIELD)).decrWAWSemaphore();
+    cpu.getRegisterFP(params[FT_FIELD]).decrWAWSemaphore();
   }
 
   public void WB() throws IrregularStringOfBitsException {
@@ -79,8 +80,8 @@ public abstract class FPLoading extends FPLDSTInstructions {
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing memory value from temporary LMD register to the destination register and unlocking it
-    cpu.getRegisterFP(params.get(FT_FIELD)).setBits(TR[LMD_REGISTER].getBinString(), 0);
-    cpu.getRegisterFP(params.get(FT_FIELD)).decrWriteSemaphore();
+    cpu.getRegisterFP(params[FT_FIELD]).setLong(TR[LMD_REGISTER].getLong());
+    cpu.getRegisterFP(params[FT_FIELD]).decrWriteSemaphore();
   }
 }
 
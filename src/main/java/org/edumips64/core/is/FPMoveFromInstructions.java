@@ -38,21 +38,22 @@ public abstract class FPMoveFromInstructions extends FPMoveToAndFromInstructions
   }
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the source register is valid we pass its own value into a temporary register
-    RegisterFP fs = cpu.getRegisterFP(params.get(FS_FIELD));
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
+    RegisterFP fs = cpu.getRegisterFP(params[FS_FIELD]);
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rt = params[RT_FIELD];
 
     if (fs.getWriteSemaphore() > 0) {
       return true;
     }
 
-    TRfp[FS_FIELD].setBits(fs.getBinString(), 0);
-    TR[RT_FIELD].setBits(rt.getBinString(), 0);
+    TRfp[FS_FIELD].setLong(fs.getLong());
+    TR[RT_FIELD].setLong(gpr.read(rt));
     //locking the destination register
 
     // it is not necessary because no one long latency instruction writes an integer register
     /*if(rt.getWriteSemaphore()>0)
       throw new WAWException();*/
-    rt.incrWriteSemaphore();
+    gpr.incrWriteSemaphore(rt);
     return false;
   }
   public abstract void EX() throws IrregularStringOfBitsException, IrregularWriteOperationException;
@@ -65,8 +66,9 @@ public abstract class FPMoveFromInstructions extends FPMoveToAndFromInstructions
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing result from temporary register to destination register and unlocking it
-    cpu.getRegister(params.get(RT_FIELD)).setBits(TR[RT_FIELD].getBinString(), 0);
-    cpu.getRegister(params.get(RT_FIELD)).decrWriteSemaphore();
+    RegisterFile gpr = cpu.getRegisterFile();
+    gpr.write(params[RT_FIELD], TR[RT_FIELD].getLong());
+    gpr.decrWriteSemaphore(params[RT_FIELD]);
   }
 }
 
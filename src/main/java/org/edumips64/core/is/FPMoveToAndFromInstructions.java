@@ -38,16 +38,17 @@ public abstract class FPMoveToAndFromInstructions extends ComputationalInstructi
   final static int FS_FIELD = 1;
   final static int FS_FIELD_INIT = 16;
   final static int FS_FIELD_LENGTH = 5;
-  static String ZERO_FIELD = "00000000000";
+  static final String ZERO_FIELD = "00000000000";
   final static int ZERO_FIELD_INIT = 21;
-  static String COP1_FIELD = "010001";
-  static int COP1_FIELD_INIT = 0;
-  static int OPCODE_VALUE_INIT = 6;
+  static final String COP1_FIELD = "010001";
+  static final int COP1_FIELD_INIT = 0;
+  static final int OPCODE_VALUE_INIT = 6;
   String OPCODE_VALUE = "";
 
   FPMoveToAndFromInstructions() {
     this.syntax = "%R,%F";
     this.paramCount = 2;
+    allocateFPTemporaries();
   }
   public abstract boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException;
   public abstract void EX() throws IrregularStringOfBitsException, IrregularWriteOperationException;
@@ -58,8 +59,8 @@ public abstract class FPMoveToAndFromInstructions extends ComputationalInstructi
     //conversion of instruction parameters of params list to the "repr" 32 binary value
     repr.setBits(COP1_FIELD, COP1_FIELD_INIT);
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params.get(FS_FIELD)), FS_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(FS_FIELD_LENGTH, params[FS_FIELD]), FS_FIELD_INIT);
     repr.setBits(ZERO_FIELD, ZERO_FIELD_INIT);
   }
 
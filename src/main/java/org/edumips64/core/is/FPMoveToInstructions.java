@@ -39,15 +39,16 @@ public abstract class FPMoveToInstructions extends FPMoveToAndFromInstructions {
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if source registers are valid we pass their own values into temporary registers
-    RegisterFP fs = cpu.getRegisterFP(params.get(FS_FIELD));
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
+    RegisterFP fs = cpu.getRegisterFP(params[FS_FIELD]);
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rt = params[RT_FIELD];
 
-    if (rt.getWriteSemaphore() > 0) {
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
 
-    TRfp[FS_FIELD].setBits(fs.getBinString(), 0);
-    TR[RT_FIELD].setBits(rt.getBinString(), 0);
+    TRfp[FS_FIELD].setLong(fs.getLong());
+    TR[RT_FIELD].setLong(gpr.read(rt));
 
     //locking the destination register
     if (fs.getWAWSemaphore() > 0) {
@@ -60,7 +61,7 @@ public abstract class FPMoveToInstructions extends FPMoveToAndFromInstructions {
   }
   public abstract void EX() throws IrregularStringOfBitsException;
   public void MEM() throws IrregularStringOfBitsException, MemoryElementNotFoundException {
-    cpu.getRegisterFP(params.get(FS_FIELD)).decrWAWSemaphore();
+    cpu.getRegisterFP(params[FS_FIELD]).decrWAWSemaphore();
   }
 
   public void WB() throws IrregularStringOfBitsException {
@@ -71,8 +72,8 @@ public abstract class FPMoveToInstructions extends FPMoveToAndFromInstructions {
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing result from temporary register to destination register and unlocking it
-    cpu.getRegisterFP(params.get(FS_FIELD)).setBits(TRfp[FS_FIELD].getBinString(), 0);
-    cpu.getRegisterFP(params.get(FS_FIELD)).decrWriteSemaphore();
+    cpu.getRegisterFP(params[FS_FIELD]).setLong(TRfp[FS_FIELD].getLong());
+    cpu.getRegisterFP(params[FS_FIELD]).decrWriteSemaphore();
 
   }
 }
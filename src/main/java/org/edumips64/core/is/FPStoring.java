@@ -39,16 +39,17 @@ public abstract class FPStoring extends FPLDSTInstructions {
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the base register and the ft register are valid passing value of ft register into a temporary floating point register
-    Register base = cpu.getRegister(params.get(BASE_FIELD));
-    RegisterFP ft = cpu.getRegisterFP(params.get(FT_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int base = params[BASE_FIELD];
+    RegisterFP ft = cpu.getRegisterFP(params[FT_FIELD]);
 
-    if (base.getWriteSemaphore() > 0 || ft.getWriteSemaphore() > 0) {
+    if (gpr.isWritePending(getSourceRegisters()) || ft.getWriteSemaphore() > 0) {
       return true;
     }
 
-    TR[FT_FIELD].setBits(ft.getBinString(), 0);
+    TR[FT_FIELD].setLong(ft.getLong());
     //calculating  address (base+offset)
-    long address = base.getValue() + params.get(OFFSET_FIELD);
+    long address = gpr.read(base) + params[OFFSET_FIELD];
     //saving address into a temporary register
     TR[OFFSET_PLUS_BASE].writeDoubleWord(address);
     return false;
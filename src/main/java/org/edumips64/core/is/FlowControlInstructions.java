@@ -35,11 +35,21 @@ import org.edumips64.core.fpu.FPInvalidOperationException;
  */
 public abstract class FlowControlInstructions extends Instruction {
   public void IF() {
-    try {
-      dinero.IF(Converter.binToHex(Converter.intToBin(64, cpu.getLastPC().getValue())));
-    } catch (IrregularStringOfBitsException e) {
-      e.printStackTrace();
+    dinero.IF(cpu.getLastPC().getValue());
+  }
+
+  /** Moves the program counter to the target of a branch. The offset is relative to the instruction after the
+   * branch, and the program counter already points to the one after that.
+   * @param offset the offset, which must fit in 16 bits
+   * @throws IrregularWriteOperationException if the offset is out of range
+   */
+  protected void setBranchTarget(int offset) throws IrregularWriteOperationException {
+    if (offset < -32768 || offset > 32767) {
+      throw new IrregularWriteOperationException();
     }
+
+    Register pc = cpu.getPC();
+    pc.writeDoubleWord(pc.getValue() - 4 + offset);
   }
   public abstract boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException;
   public abstract void EX() throws IrregularStringOfBitsException, IntegerOverflowException, IrregularWriteOperationException;
@@ -62,7 +62,7 @@ public class FlowControl_JType extends FlowControlInstructions {
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of "params" list to the "repr" form (32 binary value)
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(INSTR_INDEX_LENGTH, params.get(INSTR_INDEX) / 4), INSTR_INDEX_INIT);
+    repr.setBits(Converter.intToBin(INSTR_INDEX_LENGTH, params[INSTR_INDEX] / 4), INSTR_INDEX_INIT);
   }
 
 
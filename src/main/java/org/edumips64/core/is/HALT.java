@@ -43,11 +43,7 @@ public class HALT extends Instruction {
     name = "HALT";
   }
   public void IF() {
-    try {
-      dinero.IF(Converter.binToHex(Converter.intToBin(64, cpu.getLastPC().getValue())));
-    } catch (IrregularStringOfBitsException e) {
-      e.printStackTrace();
-    }
+    dinero.IF(cpu.getLastPC().getValue());
   }
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     cpu.setStatus(CPU.CPUStatus.STOPPING);
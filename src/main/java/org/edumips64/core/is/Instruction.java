@@ -24,8 +24,8 @@ package org.edumips64.core.is;
 import org.edumips64.core.*;
 import org.edumips64.core.fpu.*;
 
-import java.util.LinkedList;
-import java.util.List;
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.logging.Logger;
 
 /**Abstract class: it provides all methods and attributes for each instruction type
@@ -35,19 +35,31 @@ import java.util.logging.Logger;
 public abstract class Instruction implements InstructionInterface {
 
   protected BitSet32 repr;
-  protected List<Integer> params;
+  protected int[] params;
+  private int paramsLength;
   protected int paramCount;
   protected String syntax;
   protected String name;
   protected String comment;
   //protected static CPU cpu;
-  protected Register[] TR; //is not static because each instruction has got its own registers
-  protected RegisterFP[] TRfp;
+  protected BitSet64[] TR; //is not static because each instruction has got its own registers
+  protected BitSet64FP[] TRfp; // only allocated by the FP instructions that use it, see allocateFPTemporaries()
   protected String fullname;
   protected String label;
   protected static final Logger logger = Logger.getLogger(Instruction.class.getName());
   protected int serialNumber;
 
+  /** Encodings of the instructions that stop the CPU: HALT and SYSCALL 0. */
+  private static final int HALT_ENCODING = 0x04000000;
+  private static final int SYSCALL_0_ENCODING = 0x0000000C;
+
+  /** Decoded representation, filled in by InstructionBuilder (the opcode) and by decode() (the rest). */
+  protected Opcode opcode;
+  private int encoding;
+  private boolean terminating;
+  private int destRegister = -1;
+  private int sourceRegisters;
+
   /** CPU instance. It is set through setCPU, and it should always be set before the instruction is considered
    * fully built. InstructionBuilder + package-local instruction constructors enforce this.
    */
@@ -68,19 +80,37 @@ public abstract class Instruction implements InstructionInterface {
     this.serialNumber = serialNumber;
   }
 
+  void setOpcode(Opcode opcode) {
+    this.opcode = opcode;
+  }
+
   /** Creates a new instance of Instruction */
   Instruction() {
-    params = new LinkedList<>();
-    TR = new Register[5];
-    TRfp = new RegisterFP[5];
+    this(true);
+  }
+
+  /** Creates a new instance of Instruction, without temporary registers if withTemporaries is false. */
+  Instruction(boolean withTemporaries) {
+    params = new int[3];
     repr = new BitSet32();
     syntax = "";
-    repr.reset(false);
 
-    //initialization of temporary registers
-    for (int i = 0; i < TR.length; i++) {
-      TR[i] = new Register("TR " + i + "(Instruction " + serialNumber + ")");
-      TRfp[i] = new RegisterFP();
+    // The temporary registers are plain latches: they hold values between the stages of the
+    // pipeline and need neither a name nor semaphores.
+    if (withTemporaries) {
+      TR = new BitSet64[5];
+      for (int i = 0; i < TR.length; i++) {
+        TR[i] = new BitSet64();
+      }
+    }
+  }
+
+  /** Allocates the floating point temporary registers. Called by the constructors of the FP instructions
+   * that need them. */
+  protected void allocateFPTemporaries() {
+    TRfp = new BitSet64FP[5];
+    for (int i = 0; i < TRfp.length; i++) {
+      TRfp[i] = new BitSet64FP();
     }
   }
 
@@ -101,6 +131,66 @@ public abstract class Instruction implements InstructionInterface {
    **/
   public abstract void pack() throws IrregularStringOfBitsException;
 
+  /**
+   * <pre>
+   * Computes the fields derived from the binary encoding and from the parameters of the
+   * instruction, so that the CPU does not need to work them out at every cycle.
+   * It must be called after pack(), every time the instruction is packed.
+   * </pre>
+   **/
+  public void decode() {
+    encoding = repr.getInt();
+    terminating = encoding == HALT_ENCODING || encoding == SYSCALL_0_ENCODING;
+    destRegister = opcode.linksR31() ? 31 : -1;
+    sourceRegisters = 0;
+
+    // Each placeholder of the syntax corresponds to a parameter, in order.
+    boolean firstRegister = true;
+    int param = 0;
+    for (int i = 0; i < syntax.length() - 1 && param < paramsLength; ++i) {
+      if (syntax.charAt(i) != '%') {
+        continue;
+      }
+
+      if (syntax.charAt(++i) == 'R') {
+        int index = params[param];
+        if (firstRegister && opcode.writesFirstRegister()) {
+          destRegister = index;
+        } else {
+          sourceRegisters |= RegisterFile.mask(index);
+        }
+        firstRegister = false;
+      }
+      param++;
+    }
+  }
+
+  /** Returns the opcode of the instruction. */
+  public Opcode getOpcode() {
+    return opcode;
+  }
+
+  /** Returns the binary encoding of the instruction, as computed by the last call to decode(). */
+  public int getEncoding() {
+    return encoding;
+  }
+
+  /** Returns true if the instruction stops the CPU when it reaches WB (HALT and SYSCALL 0). */
+  public boolean isTerminating() {
+    return terminating;
+  }
+
+  /** Returns the general purpose register written by the instruction, or -1 if it writes none. */
+  public int getDestRegister() {
+    return destRegister;
+  }
+
+  /** Returns the mask (see RegisterFile.mask()) of the general purpose registers read by the instruction, which
+   * ID() checks for RAW hazards. */
+  public int getSourceRegisters() {
+    return sourceRegisters;
+  }
+
   /**
    * <pre>
    * Gets the syntax of any instruction as string composed by the following simbols
@@ -136,27 +226,30 @@ public abstract class Instruction implements InstructionInterface {
 
   /**
    *<pre>
-   * Returns a list with the instruction parameters
+   * Returns the instruction parameters
    * e.g. DADD R1,R2,R3 --> params= { 1, 2, 3}
    *      LD R1, var(R0)--> params= { 1, address memory corresponding with var, 0}
    * </pre>
-   *@return the list of parameters
+   *@return a copy of the parameters
    **/
-  public List<Integer> getParams() {
-    return params;
+  public int[] getParams() {
+    return Arrays.copyOf(params, paramsLength);
   }
 
 
   /**
    *<pre>
-   * Sets the instruction with a list of parameters
-   *          Passed list                                      | Instruction to set
-   * e.g. list= { 1, 2, 3}                                     |   DADD R1,R2,R3
-   *      list= { 1, address memory corresponding with var, 0} |   LD R1, var(R0)
-   *@param params The list of parameters
+   * Appends a parameter to the instruction. Parameters are added in the order of the syntax
+   *          Added parameters                                 | Instruction to set
+   * e.g. 1, 2, 3                                              |   DADD R1,R2,R3
+   *      1, address memory corresponding with var, 0          |   LD R1, var(R0)
+   *@param value the parameter
    **/
-  public void setParams(List<Integer> params) {
-    this.params = params;
+  public void addParam(int value) {
+    if (paramsLength == params.length) {
+      params = Arrays.copyOf(params, params.length * 2);
+    }
+    params[paramsLength++] = value;
   }
 
   /**
@@ -266,6 +359,37 @@ public abstract class Instruction implements InstructionInterface {
    * </pre>
    */
   public boolean isBubble() {
-    return name.equals(" ");
+    return opcode == Opcode.BUBBLE;
+  }
+
+  /** Saves the temporary registers. Instructions that keep more state between the stages of the pipeline
+   * override this method and restore(), calling the superclass ones. */
+  public void save(CheckpointWriter out) throws IOException {
+    saveTemporaries(out, TR);
+    saveTemporaries(out, TRfp);
+  }
+
+  public void restore(CheckpointReader in) throws IOException {
+    restoreTemporaries(in, TR);
+    restoreTemporaries(in, TRfp);
+  }
+
+  private static void saveTemporaries(CheckpointWriter out, FixedBitSet[] registers) throws IOException {
+    out.writeInt(registers == null ? 0 : registers.length);
+    if (registers != null) {
+      for (FixedBitSet r : registers) {
+        out.writeLong(r.getLong());
+      }
+    }
+  }
+
+  private static void restoreTemporaries(CheckpointReader in, FixedBitSet[] registers) throws IOException {
+    int length = in.readInt();
+    if (length != (registers == null ? 0 : registers.length)) {
+      throw new IOException("Invalid number of temporary registers in checkpoint: " + length);
+    }
+    for (int i = 0; i < length; i++) {
+      registers[i].setLong(in.readLong());
+    }
   }
 }
@@ -7,8 +7,12 @@ import org.edumips64.core.Memory;
 import org.edumips64.utils.ConfigKey;
 import org.edumips64.utils.ConfigStore;
 
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
 /** InstructionBuilder should be used to build all the instructions to be run by the CPU. The only exception is
- * BUBBLE, which has a public constructor to allow the CPU to build it without depending on InstructionBuilder.
+ * BUBBLE, a single shared instance (BUBBLE.INSTANCE) that the CPU gets without depending on InstructionBuilder.
  *
  * BUBBLE is a special instruction that should not be used by programs (it's not rendered), therefore InstructionBuilder
  * will refuse to build it.
@@ -20,378 +24,197 @@ public class InstructionBuilder {
   private Dinero dinero;
   private ConfigStore config;
 
+  // Constructors of the instructions, registered once when the builder is created.
+  private Map<Opcode, Supplier<Instruction>> constructors = new EnumMap<>(Opcode.class);
+
   public InstructionBuilder(Memory memory, IOManager iom, CPU cpu, Dinero dinero, ConfigStore config) {
     this.memory = memory;
     this.iom = iom;
     this.cpu = cpu;
     this.dinero = dinero;
     this.config = config;
+
+    //ALU R-Type 32-bits
+    register(Opcode.ADD, ADD::new);
+    register(Opcode.ADDU, ADDU::new);
+    register(Opcode.SUB, SUB::new);
+    register(Opcode.SUBU, SUBU::new);
+    register(Opcode.DIV, DIV::new);
+    register(Opcode.DIVU, DIVU::new);
+    register(Opcode.MULT, MULT::new);
+    register(Opcode.MULTU, MULTU::new);
+
+    //ALU I-Type 32-bits
+    register(Opcode.ADDI, ADDI::new);
+    register(Opcode.ADDIU, ADDIU::new);
+
+    //ALU Shifting 32-bits
+    register(Opcode.SLL, SLL::new);
+    register(Opcode.SLLV, SLLV::new);
+    register(Opcode.SRA, SRA::new);
+    register(Opcode.SRAV, SRAV::new);
+    register(Opcode.SRL, SRL::new);
+    register(Opcode.SRLV, SRLV::new);
+
+    //ALU R-Type
+    register(Opcode.AND, AND::new);
+    register(Opcode.DADD, DADD::new);
+    register(Opcode.DADDU, DADDU::new);
+    register(Opcode.DSUB, DSUB::new);
+    register(Opcode.DSUBU, DSUBU::new);
+    register(Opcode.OR, OR::new);
+    register(Opcode.SLT, SLT::new);
+    register(Opcode.SLTU, SLTU::new);
+    register(Opcode.XOR, XOR::new);
+    register(Opcode.MOVN, MOVN::new);
+    register(Opcode.MOVZ, MOVZ::new);
+    register(Opcode.DDIV, DDIV::new);
+    register(Opcode.DDIVU, DDIVU::new);
+    register(Opcode.DMULT, DMULT::new);
+    register(Opcode.DMULTU, DMULTU::new);
+    register(Opcode.MFLO, MFLO::new);
+    register(Opcode.MFHI, MFHI::new);
+
+    //ALU I-Type
+    register(Opcode.ANDI, ANDI::new);
+    register(Opcode.DADDI, DADDI::new);
+    register(Opcode.DADDUI, DADDUI::new);
+    register(Opcode.DADDIU, DADDIU::new);
+    register(Opcode.LUI, LUI::new);
+    register(Opcode.ORI, ORI::new);
+    register(Opcode.SLTI, SLTI::new);
+    register(Opcode.SLTIU, SLTIU::new);
+    register(Opcode.XORI, XORI::new);
+
+    //ALU Shifting
+    register(Opcode.DSLL, DSLL::new);
+    register(Opcode.DSLLV, DSLLV::new);
+    register(Opcode.DSRA, DSRA::new);
+    register(Opcode.DSRAV, DSRAV::new);
+    register(Opcode.DSRL, DSRL::new);
+    register(Opcode.DSRLV, DSRLV::new);
+
+    //Load-Signed
+    register(Opcode.LB, () -> new LB(memory));
+    register(Opcode.LH, () -> new LH(memory));
+    register(Opcode.LW, () -> new LW(memory));
+    register(Opcode.LD, () -> new LD(memory));
+
+    //Load-Unsigned
+    register(Opcode.LBU, () -> new LBU(memory));
+    register(Opcode.LHU, () -> new LHU(memory));
+    register(Opcode.LWU, () -> new LWU(memory));
+
+    //Store
+    register(Opcode.SB, () -> new SB(memory));
+    register(Opcode.SH, () -> new SH(memory));
+    register(Opcode.SW, () -> new SW(memory));
+    register(Opcode.SD, () -> new SD(memory));
+
+    //Unconditional branches
+    register(Opcode.J, J::new);
+    register(Opcode.JAL, JAL::new);
+    register(Opcode.JALR, JALR::new);
+    register(Opcode.JR, JR::new);
+    register(Opcode.B, B::new);
+
+    //Conditional branches
+    register(Opcode.BEQ, BEQ::new);
+    register(Opcode.BNE, BNE::new);
+    register(Opcode.BNEZ, BNEZ::new);
+    register(Opcode.BEQZ, BEQZ::new);
+    register(Opcode.BGEZ, BGEZ::new);
+
+    //Special instructions
+    register(Opcode.NOP, NOP::new);
+    register(Opcode.HALT, HALT::new);
+    register(Opcode.TRAP, () -> new TRAP(memory, iom));
+    register(Opcode.SYSCALL, () -> new SYSCALL(memory, iom));
+    register(Opcode.BREAK, BREAK::new);
+
+    //Floating point instructions
+
+    //Arithmetic
+    register(Opcode.ADD_D, () -> new ADD_D(cpu.getFCSR()));
+    register(Opcode.SUB_D, () -> new SUB_D(cpu.getFCSR()));
+    register(Opcode.MUL_D, () -> new MUL_D(cpu.getFCSR()));
+    register(Opcode.DIV_D, () -> new DIV_D(cpu.getFCSR()));
+
+    //Load store
+    register(Opcode.LDC1, () -> new LDC1(memory));
+    register(Opcode.L_D, () -> new L_D(memory));
+    register(Opcode.SDC1, () -> new SDC1(memory));
+    register(Opcode.S_D, () -> new S_D(memory));
+    register(Opcode.LWC1, () -> new LWC1(memory));
+    register(Opcode.SWC1, () -> new SWC1(memory));
+
+    //Move to and from
+    register(Opcode.DMTC1, DMTC1::new);
+    register(Opcode.DMFC1, DMFC1::new);
+    register(Opcode.MTC1, MTC1::new);
+    register(Opcode.MFC1, MFC1::new);
+
+    //Formatted operand move
+    register(Opcode.MOV_D, MOV_D::new);
+    register(Opcode.MOVZ_D, MOVZ_D::new);
+    register(Opcode.MOVN_D, MOVN_D::new);
+
+    //Special arithmetic instructions
+    register(Opcode.C_LT_D, C_LT_D::new);
+    register(Opcode.C_EQ_D, C_EQ_D::new);
+
+    //Conditional branches instructions
+    register(Opcode.BC1T, BC1T::new);
+    register(Opcode.BC1F, BC1F::new);
+
+    //Conditional move on CC instructions
+    register(Opcode.MOVT_D, MOVT_D::new);
+    register(Opcode.MOVF_D, MOVF_D::new);
+
+    //Conversion instructions
+    register(Opcode.CVT_L_D, CVT_L_D::new);
+    register(Opcode.CVT_D_L, CVT_D_L::new);
+    register(Opcode.CVT_W_D, CVT_W_D::new);
+    register(Opcode.CVT_D_W, CVT_D_W::new);
   }
+
+  private void register(Opcode opcode, Supplier<Instruction> constructor) {
+    constructors.put(opcode, constructor);
+  }
+
   /**
    * Creates a new instance of an Instruction's subclass
-   * @param instructionName string value to pass in order to instantiate an instruction object
+   * @param instructionName the mnemonic of the instruction (e.g. "DADD" or "ADD.D")
    * @return the instruction object, or null if the instruction is not implemented.
    *
    */
   public Instruction buildInstruction(String instructionName) {
-    // If the name of the requested instruction has got a dot, the instruction is FP and an
-    // underscore takes the place of the dot because classes names cannot contain dots
-    String name = instructionName.replaceAll("\\.", "_");
-
-    Instruction instruction;
-    switch(name) {
-      //ALU R-Type 32-bits
-      case "ADD":
-        instruction = new ADD();
-        break;
-      case "ADDU":
-        instruction = new ADDU();
-        break;
-      case "SUB":
-        instruction = new SUB();
-        break;
-      case "SUBU":
-        instruction = new SUBU();
-        break;
-      case "DIV":
-        instruction = new DIV();
-        break;
-      case "DIVU":
-        instruction = new DIVU();
-        break;
-      case "MULT":
-        instruction = new MULT();
-        break;
-      case "MULTU":
-        instruction = new MULTU();
-        break;
-
-      //ALU I-Type 32-bits
-      case "ADDI":
-        instruction = new ADDI();
-        break;
-      case "ADDIU":
-        instruction = new ADDIU();
-        break;
-
-      //ALU Shifting 32-bits
-      case "SLL":
-        instruction = new SLL();
-        break;
-      case "SLLV":
-        instruction = new SLLV();
-        break;
-      case "SRA":
-        instruction = new SRA();
-        break;
-      case "SRAV":
-        instruction = new SRAV();
-        break;
-      case "SRL":
-        instruction = new SRL();
-        break;
-      case "SRLV":
-        instruction = new SRLV();
-        break;
-
-      //ALU R-Type
-      case "AND":
-        instruction = new AND();
-        break;
-      case "DADD":
-        instruction = new DADD();
-        break;
-      case "DADDU":
-        instruction = new DADDU();
-        break;
-      case "DSUB":
-        instruction = new DSUB();
-        break;
-      case "DSUBU":
-        instruction = new DSUBU();
-        break;
-      case "OR":
-        instruction = new OR();
-        break;
-      case "SLT":
-        instruction = new SLT();
-        break;
-      case "SLTU":
-        instruction = new SLTU();
-        break;
-      case "XOR":
-        instruction = new XOR();
-        break;
-      case "MOVN":
-        instruction = new MOVN();
-        break;
-      case "MOVZ":
-        instruction = new MOVZ();
-        break;
-      case "DDIV":
-        instruction = new DDIV();
-        break;
-      case "DDIVU":
-        instruction = new DDIVU();
-        break;
-      case "DMULT":
-        instruction = new DMULT();
-        break;
-      case "DMULTU":
-        instruction = new DMULTU();
-        break;
-      case "MFLO":
-        instruction = new MFLO();
-        break;
-      case "MFHI":
-        instruction = new MFHI();
-        break;
-
-      //ALU I-Type
-      case "ANDI":
-        instruction = new ANDI();
-        break;
-      case "DADDI":
-        instruction = new DADDI();
-        break;
-      case "DADDUI":
-        instruction = new DADDUI();
-        break;
-      case "DADDIU":
-        instruction = new DADDIU();
-        break;
-      case "LUI":
-        instruction = new LUI();
-        break;
-      case "ORI":
-        instruction = new ORI();
-        break;
-      case "SLTI":
-        instruction = new SLTI();
-        break;
-      case "SLTIU":
-        instruction = new SLTIU();
-        break;
-      case "XORI":
-        instruction = new XORI();
-        break;
-
-      //ALU Shifting
-      case "DSLL":
-        instruction = new DSLL();
-        break;
-      case "DSLLV":
-        instruction = new DSLLV();
-        break;
-      case "DSRA":
-        instruction = new DSRA();
-        break;
-      case "DSRAV":
-        instruction = new DSRAV();
-        break;
-      case "DSRL":
-        instruction = new DSRL();
-        break;
-      case "DSRLV":
-        instruction = new DSRLV();
-        break;
-
-      //Load-Signed
-      case "LB":
-        instruction = new LB(memory);
-        break;
-      case "LH":
-        instruction = new LH(memory);
-        break;
-      case "LW":
-        instruction = new LW(memory);
-        break;
-      case "LD":
-        instruction = new LD(memory);
-        break;
-
-      //Load-Unsigned
-      case "LBU":
-        instruction = new LBU(memory);
-        break;
-      case "LHU":
-        instruction = new LHU(memory);
-        break;
-      case "LWU":
-        instruction = new LWU(memory);
-        break;
-
-      //Store
-      case "SB":
-        instruction = new SB(memory);
-        break;
-      case "SH":
-        instruction = new SH(memory);
-        break;
-      case "SW":
-        instruction = new SW(memory);
-        break;
-      case "SD":
-        instruction = new SD(memory);
-        break;
-
-      //Unconditional branches
-      case "J":
-        instruction = new J();
-        break;
-      case "JAL":
-        instruction = new JAL();
-        break;
-      case "JALR":
-        instruction = new JALR();
-        break;
-      case "JR":
-        instruction = new JR();
-        break;
-      case "B":
-        instruction = new B();
-        break;
-
-      //Conditional branches
-      case "BEQ":
-        instruction = new BEQ();
-        break;
-      case "BNE":
-        instruction = new BNE();
-        break;
-      case "BNEZ":
-        instruction = new BNEZ();
-        break;
-      case "BEQZ":
-        instruction = new BEQZ();
-        break;
-      case "BGEZ":
-        instruction = new BGEZ();
-        break;
-
-      //Special instructions
-      case "NOP":
-        instruction = new NOP();
-        break;
-      case "HALT":
-        instruction = new HALT();
-        break;
-      case "TRAP":
-        instruction = new TRAP(memory, iom);
-        break;
-      case "SYSCALL":
-        instruction = new SYSCALL(memory, iom);
-        break;
-      case "BREAK":
-        instruction = new BREAK();
-        break;
-
-      //Floating point instructions
-      //Arithmetic
-      case "ADD_D":
-        instruction = new ADD_D(cpu.getFCSR());
-        break;
-      case "SUB_D":
-        instruction = new SUB_D(cpu.getFCSR());
-        break;
-      case "MUL_D":
-        instruction = new MUL_D(cpu.getFCSR());
-        break;
-      case "DIV_D":
-        instruction = new DIV_D(cpu.getFCSR());
-        break;
-
-      //Load store
-      case "LDC1":
-        instruction = new LDC1(memory);
-        break;
-      case "L_D":
-        instruction = new L_D(memory);
-        break;
-      case "SDC1":
-        instruction = new SDC1(memory);
-        break;
-      case "S_D":
-        instruction = new S_D(memory);
-        break;
-      case "LWC1":
-        instruction = new LWC1(memory);
-        break;
-      case "SWC1":
-        instruction = new SWC1(memory);
-        break;
-
-      //Move to and from
-      case "DMTC1":
-        instruction = new DMTC1();
-        break;
-      case "DMFC1":
-        instruction = new DMFC1();
-        break;
-      case "MTC1":
-        instruction = new MTC1();
-        break;
-      case "MFC1":
-        instruction = new MFC1();
-        break;
-
-      //Formatted operand move
-      case "MOV_D":
-        instruction = new MOV_D();
-        break;
-      case "MOVZ_D":
-        instruction = new MOVZ_D();
-        break;
-      case "MOVN_D":
-        instruction = new MOVN_D();
-        break;
-
-      //Special arithmetic instructions
-      case "C_LT_D":
-        instruction = new C_LT_D();
-        break;
-      case "C_EQ_D":
-        instruction = new C_EQ_D();
-        break;
-
-      //Conditional branches instructions
-      case "BC1T":
-        instruction = new BC1T();
-        break;
-      case "BC1F":
-        instruction = new BC1F();
-        break;
-
-      //Conditional move on CC instructions
-      case "MOVT_D":
-        instruction = new MOVT_D();
-        break;
-      case "MOVF_D":
-        instruction = new MOVF_D();
-        break;
-
-      //Conversion instructions
-      case "CVT_L_D":
-        instruction = new CVT_L_D();
-        break;
-      case "CVT_D_L":
-        instruction = new CVT_D_L();
-        break;
-      case "CVT_W_D":
-        instruction = new CVT_W_D();
-        break;
-      case "CVT_D_W":
-        instruction = new CVT_D_W();
-        break;
-
-      default:
-        return null;
+    Opcode opcode = Opcode.fromMnemonic(instructionName);
+    return opcode == null ? null : buildInstruction(opcode);
+  }
+
+  /** Returns the configuration of the simulator the instructions are built for. */
+  public ConfigStore getConfig() {
+    return config;
+  }
+
+  /**
+   * Creates a new instance of the instruction with the given opcode
+   * @param opcode the opcode of the instruction
+   * @return the instruction object, or null if the instruction can't be built (BUBBLE).
+   */
+  public Instruction buildInstruction(Opcode opcode) {
+    Supplier<Instruction> constructor = constructors.get(opcode);
+    if (constructor == null) {
+      return null;
     }
+    Instruction instruction = constructor.get();
 
     // Serial number for the instruction being built.
     int serialNumber = config.getInt(ConfigKey.SERIAL_NUMBER);
     config.putInt(ConfigKey.SERIAL_NUMBER, serialNumber + 1);
     instruction.setSerialNumber(serialNumber);
+    instruction.setOpcode(opcode);
 
     // Inject other dependencies.
     instruction.setCPU(cpu);
@@ -6,6 +6,8 @@ import org.edumips64.core.fpu.FPInvalidOperationException;
 import org.edumips64.core.fpu.FPOverflowException;
 import org.edumips64.core.fpu.FPUnderflowException;
 
+import java.io.IOException;
+
 /** Interface representing an instruction. It is essentially the view of an instruction
 * that the CPU has, and its purpose is breaking the circular dependency between the CPU class
 * and the Instruction class.*/
@@ -68,6 +70,14 @@ public interface InstructionInterface {
   int getSerialNumber();
   BitSet32 getRepr();
   boolean isBubble();
+  Opcode getOpcode();
+  boolean isTerminating();
 
   void setLabel(String label);
+
+  /** Saves the state the instruction keeps between pipeline stages, such as its temporary registers. */
+  void save(CheckpointWriter out) throws IOException;
+
+  /** Restores the state saved by save(). */
+  void restore(CheckpointReader in) throws IOException;
 }
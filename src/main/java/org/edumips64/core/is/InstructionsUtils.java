@@ -44,25 +44,23 @@ public class InstructionsUtils {
       throw new TwosComplementSumException();
     }
 
-    //performing 2's complement addition
+    //performing 2's complement addition, filling the result from the least significant bit
     boolean a, b, carry, result;
-    StringBuffer outputstring = new StringBuffer();
+    char[] output = new char[r1.length()];
 
     carry = false; //riporto iniziale
 
     for (int i = r1.length() - 1; i > -1; i--) {
-      a = (r1.charAt(i) == '1') ? true : false;
-      b = (r2.charAt(i) == '1') ? true : false;
+      a = r1.charAt(i) == '1';
+      b = r2.charAt(i) == '1';
 
-      result = (!a && !b && carry) || (!a && b && !carry) || (a && b && carry) || (a && !b && !carry);
-      carry = (b && carry) || (a && b && !carry) || (a && !b && carry);
+      result = a ^ b ^ carry;
+      carry = (a && b) || (carry && (a || b));
 
-      //appending outputstring to the left with resulting bit
-      outputstring.insert(0, result ? '1' : '0');
+      output[i] = result ? '1' : '0';
     }
 
-    return outputstring.substring(0);
-
+    return new String(output);
   }
 
 
@@ -47,14 +47,9 @@ public class J extends FlowControl_JType {
   }
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
-    //converting INSTR_INDEX into a bynary value of 26 bits in length
-    String instr_index = Converter.positiveIntToBin(28, params.get(INSTR_INDEX));
-    //appending the 35 most significant bits of the program counter on the left of "instr_index"
+    //replacing the 28 least significant bits of the program counter with INSTR_INDEX
     Register pc = cpu.getPC();
-    String pc_all = pc.getBinString();
-    String pc_significant = pc_all.substring(0, 36);
-    String pc_new = pc_significant + instr_index;
-    pc.setBits(pc_new, 0);
+    pc.writeDoubleWord((pc.getValue() & ~0x0FFFFFFFL) | (params[INSTR_INDEX] & 0x0FFFFFFFL));
     throw new JumpException();
   }
 
@@ -46,13 +46,16 @@ public class JALR extends FlowControl_RType {
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     // TODO(andrea): we should probably WAW on R31.
-    if (cpu.getRegister(params.get(RS_FIELD)).getWriteSemaphore() > 0) {
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
+
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
     //saving PC value into a temporary register
-    cpu.getRegister(31).incrWriteSemaphore();  //deadlock !!!
+    gpr.incrWriteSemaphore(31);  //deadlock !!!
     TR[PC_VALUE].writeDoubleWord(cpu.getPC().getValue() - 4);
-    cpu.getPC().setBits(cpu.getRegister(params.get(RS_FIELD)).getBinString(), 0);
+    cpu.getPC().setLong(gpr.read(rs));
 
     if (cpu.isEnableForwarding()) {
       doWB();
@@ -74,8 +77,9 @@ public class JALR extends FlowControl_RType {
     }
   }
   public void doWB() throws IrregularStringOfBitsException {
-    cpu.getRegister(31).setBits(TR[PC_VALUE].getBinString(), 0);
-    cpu.getRegister(31).decrWriteSemaphore();  //deadlock!!!
+    RegisterFile gpr = cpu.getRegisterFile();
+    gpr.write(31, TR[PC_VALUE].getLong());
+    gpr.decrWriteSemaphore(31);  //deadlock!!!
   }
 
 }
@@ -44,10 +44,13 @@ public class JR extends FlowControl_RType {
   }
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
-    if (cpu.getRegister(params.get(RS_FIELD)).getWriteSemaphore() > 0) {
+    RegisterFile gpr = cpu.getRegisterFile();
+    int rs = params[RS_FIELD];
+
+    if (gpr.isWritePending(getSourceRegisters())) {
       return true;
     }
-    cpu.getPC().setBits(cpu.getRegister(params.get(RS_FIELD)).getBinString(), 0);
+    cpu.getPC().setLong(gpr.read(rs));
     throw new JumpException();
   }
 
@@ -30,5 +30,12 @@ package org.edumips64.core.is;
 /**
  * @author Trubia Massimo, Russo Daniele
  */
-public class JumpException extends Exception {}
+public class JumpException extends Exception {
+  // Jumps are part of the normal flow of a program: the stack trace is never used, and filling it in for every
+  // taken jump costs more than the jump itself.
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
 
@@ -44,6 +44,6 @@ class LD extends Loading {
     this.memoryOpSize = 8;
   }
   public void doMEM() throws IrregularStringOfBitsException, MemoryElementNotFoundException, AddressErrorException, IrregularWriteOperationException {
-    TR[LMD_REGISTER].setBits(memEl.getBinString(), 0);
+    TR[LMD_REGISTER].setLong(memEl.getLong());
   }
 }
@@ -44,13 +44,13 @@ class LDC1 extends FPLoading {
   public void MEM() throws IrregularStringOfBitsException, NotAlignException, MemoryElementNotFoundException, AddressErrorException, IrregularWriteOperationException {
     super.MEM(); //unlock the fp register in order to avoid WAW hazards
     //restoring the address from the temporary register
-    long address = TR[OFFSET_PLUS_BASE].getValue();
+    long address = TR[OFFSET_PLUS_BASE].getLong();
     //For the trace file
-    dinero.Load(Converter.binToHex(Converter.positiveIntToBin(64, address)), 8);
+    dinero.Load(address, 8);
 
     MemoryElement memEl = memory.getCellByAddress(address);
     //reading from the memory element and saving values on LMD register
-    TR[LMD_REGISTER].setBits(memEl.getBinString(), 0);
+    TR[LMD_REGISTER].setLong(memEl.getLong());
 
     if (cpu.isEnableForwarding()) {
       doWB();
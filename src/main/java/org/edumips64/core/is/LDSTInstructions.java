@@ -31,8 +31,13 @@ import org.edumips64.core.MemoryElementNotFoundException;
 import org.edumips64.core.NotAlignException;
 import org.edumips64.core.fpu.FPInvalidOperationException;
 import org.edumips64.core.Converter;
+import org.edumips64.utils.ConfigStore;
 import org.edumips64.utils.CurrentLocale;
 import org.edumips64.core.IrregularStringOfBitsException;
+import org.edumips64.core.CheckpointReader;
+import org.edumips64.core.CheckpointWriter;
+
+import java.io.IOException;
 
 /**This is the base class of Load store instructions
  *
@@ -71,11 +76,7 @@ public abstract class LDSTInstructions extends Instruction {
   }
 
   public void IF() {
-    try {
-      dinero.IF(Converter.binToHex(Converter.intToBin(64, cpu.getLastPC().getValue())));
-    } catch (IrregularStringOfBitsException e) {
-      e.printStackTrace();
-    }
+    dinero.IF(cpu.getLastPC().getValue());
   }
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     return false;
@@ -83,20 +84,21 @@ public abstract class LDSTInstructions extends Instruction {
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, NotAlignException, AddressErrorException {
     // Compute the address
-    address = TR[OFFSET_PLUS_BASE].getValue();
+    address = TR[OFFSET_PLUS_BASE].getLong();
 
-    // Address must be >= 0
+    // Address must be >= 0. Messages are in the language of the configuration of this simulator.
+    ConfigStore config = cpu.getConfig();
     if (address < 0) {
-      String message = CurrentLocale.getString("NEGADDRERR") + " " + fullname + ". " +
-                       CurrentLocale.getString("ADDRESS") + ": " + address + ".";
+      String message = CurrentLocale.getString("NEGADDRERR", config) + " " + fullname + ". " +
+                       CurrentLocale.getString("ADDRESS", config) + ": " + address + ".";
       throw new AddressErrorException(message);
     }
 
     // Check alignment
     if (address % memoryOpSize != 0) {
-      String message = CurrentLocale.getString("ALIGNERR") + " " + fullname + ": " +
-                       CurrentLocale.getString("THEADDRESS") + " " + address + " " +
-                       CurrentLocale.getString("ISNOTALIGNED") + " " + memoryOpSize + " bytes";
+      String message = CurrentLocale.getString("ALIGNERR", config) + " " + fullname + ": " +
+                       CurrentLocale.getString("THEADDRESS", config) + " " + address + " " +
+                       CurrentLocale.getString("ISNOTALIGNED", config) + " " + memoryOpSize + " bytes";
       throw new NotAlignException(message);
     }
 
@@ -114,8 +116,19 @@ public abstract class LDSTInstructions extends Instruction {
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of params list to the "repr" 32 binary value
     repr.setBits(OPCODE_VALUE, 0);
-    repr.setBits(Converter.intToBin(BASE_FIELD_LENGTH, params.get(BASE_FIELD)), BASE_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(OFFSET_FIELD_LENGTH, params.get(OFFSET_FIELD)), OFFSET_FIELD_INIT);
+    repr.setBits(Converter.intToBin(BASE_FIELD_LENGTH, params[BASE_FIELD]), BASE_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(OFFSET_FIELD_LENGTH, params[OFFSET_FIELD]), OFFSET_FIELD_INIT);
+  }
+
+  // memEl is looked up and used in MEM, so only the address computed in EX is saved.
+  public void save(CheckpointWriter out) throws IOException {
+    super.save(out);
+    out.writeLong(address);
+  }
+
+  public void restore(CheckpointReader in) throws IOException {
+    super.restore(in);
+    address = in.readLong();
   }
 }
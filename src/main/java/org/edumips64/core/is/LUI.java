@@ -54,10 +54,9 @@ class LUI extends ALU_IType {
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the source register is valid passing its own values into a temporary register
     //locking the target register
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
-    rt.incrWriteSemaphore();
+    cpu.getRegisterFile().incrWriteSemaphore(params[RT_FIELD]);
     //writing the immediate value of "params" on a temporary register
-    TR[IMM_FIELD].writeHalf(params.get(IMM_FIELD));
+    TR[IMM_FIELD].writeHalf(params[IMM_FIELD]);
     return false;
   }
   public void EX() throws IrregularStringOfBitsException, IrregularWriteOperationException {
@@ -74,8 +73,8 @@ class LUI extends ALU_IType {
   public void pack() throws IrregularStringOfBitsException {
     repr.setBits(OPCODE_VALUE, 0);
     repr.setBits(Converter.intToBin(RS_FIELD_LENGTH, 0), RS_FIELD_INIT);
-    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params.get(RT_FIELD)), RT_FIELD_INIT);
-    repr.setBits(Converter.intToBin(IMM_FIELD_LENGTH, params.get(IMM_FIELD)), IMM_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RT_FIELD_LENGTH, params[RT_FIELD]), RT_FIELD_INIT);
+    repr.setBits(Converter.intToBin(IMM_FIELD_LENGTH, params[IMM_FIELD]), IMM_FIELD_INIT);
   }
 
 }
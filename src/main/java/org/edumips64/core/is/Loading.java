@@ -25,8 +25,6 @@
 
 package org.edumips64.core.is;
 
-import java.util.logging.Logger;
-
 import org.edumips64.core.*;
 import org.edumips64.core.fpu.FPInvalidOperationException;
 
@@ -35,7 +33,6 @@ import org.edumips64.core.fpu.FPInvalidOperationException;
  * @author  Trubia Massimo, Russo Daniele
  */
 public abstract class Loading extends LDSTInstructions {
-  protected static final Logger logger = Logger.getLogger(Loading.class.getName());
 
   Loading(Memory memory) {
     super(memory);
@@ -43,20 +40,20 @@ public abstract class Loading extends LDSTInstructions {
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the base register is valid ...
-    Register base = cpu.getRegister(params.get(BASE_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int base = params[BASE_FIELD];
 
-    if (base.getWriteSemaphore() > 0) {
-      logger.info("RAW in " + fullname + ": base register still needs to be written to.");
+    if (gpr.isWritePending(getSourceRegisters())) {
+      cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.RAW, this, base, 0);
       return true;
     }
 
     //calculating  address (base+offset)
-    long address = base.getValue() + params.get(OFFSET_FIELD);
+    long address = gpr.read(base) + params[OFFSET_FIELD];
     //saving address into a temporary register
     TR[OFFSET_PLUS_BASE].writeDoubleWord(address);
     //locking rt register
-    Register rt = cpu.getRegister(params.get(RT_FIELD));
-    rt.incrWriteSemaphore();
+    gpr.incrWriteSemaphore(params[RT_FIELD]);
     return false;
   }
 
@@ -65,7 +62,7 @@ public abstract class Loading extends LDSTInstructions {
     super.EX();
 
     // Save memory access for Dinero trace file
-    dinero.Load(Converter.binToHex(Converter.positiveIntToBin(64, address)), memoryOpSize);
+    dinero.Load(address, memoryOpSize);
   }
 
   public void WB() throws IrregularStringOfBitsException {
@@ -85,8 +82,9 @@ public abstract class Loading extends LDSTInstructions {
 
   public void doWB() throws IrregularStringOfBitsException {
     //passing memory value from temporary LMD register to the destination register and unlocking it
-    cpu.getRegister(params.get(RT_FIELD)).setBits(TR[LMD_REGISTER].getBinString(), 0);
-    cpu.getRegister(params.get(RT_FIELD)).decrWriteSemaphore();
+    RegisterFile gpr = cpu.getRegisterFile();
+    gpr.write(params[RT_FIELD], TR[LMD_REGISTER].getLong());
+    gpr.decrWriteSemaphore(params[RT_FIELD]);
   }
 }
 
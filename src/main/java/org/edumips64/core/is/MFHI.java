@@ -61,8 +61,7 @@ class MFHI extends ALU_RType {
 
     TR[HI_REG] = hi_reg;
     //locking the destination register
-    Register rd = cpu.getRegister(params.get(RD_FIELD));
-    rd.incrWriteSemaphore();
+    cpu.getRegisterFile().incrWriteSemaphore(params[RD_FIELD]);
     return false;
   }
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
@@ -78,13 +77,14 @@ class MFHI extends ALU_RType {
   }
 
   public void doWB() throws IrregularStringOfBitsException {
-    cpu.getRegister(params.get(RD_FIELD)).setBits(TR[HI_REG].getBinString(), 0);
-    cpu.getRegister(params.get(RD_FIELD)).decrWriteSemaphore();
+    RegisterFile gpr = cpu.getRegisterFile();
+    gpr.write(params[RD_FIELD], TR[HI_REG].getLong());
+    gpr.decrWriteSemaphore(params[RD_FIELD]);
   }
   public void pack() throws IrregularStringOfBitsException {
     //conversion of instruction parameters of "params" list to the "repr" form (32 binary value)
     repr.setBits(OPCODE_VALUE, OPCODE_VALUE_INIT);
-    repr.setBits(Converter.intToBin(RD_FIELD_LENGTH, params.get(RD_FIELD)), RD_FIELD_INIT);
+    repr.setBits(Converter.intToBin(RD_FIELD_LENGTH, params[RD_FIELD]), RD_FIELD_INIT);
   }
 
 }
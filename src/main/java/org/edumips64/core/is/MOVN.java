@@ -26,7 +26,12 @@
 
 package org.edumips64.core.is;
 import org.edumips64.core.IrregularStringOfBitsException;
+import org.edumips64.core.RegisterFile;
+import org.edumips64.core.CheckpointReader;
+import org.edumips64.core.CheckpointWriter;
 
+import java.io.IOException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -53,8 +58,8 @@ class MOVN extends ALU_RType {
   }
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
-    if (TR[RT_FIELD].getValue() != 0) {
-      TR[RD_FIELD].setBits(TR[RS_FIELD].getBinString(), 0);
+    if (TR[RT_FIELD].getLong() != 0) {
+      TR[RD_FIELD].setLong(TR[RS_FIELD].getLong());
       should_write = true;
     }
 
@@ -66,12 +71,26 @@ class MOVN extends ALU_RType {
   public void doWB() throws IrregularStringOfBitsException {
     // The doWB() method is overridden because it must check if the write
     // on the registers must be done, checking the should_write variable.
+    RegisterFile gpr = cpu.getRegisterFile();
+
     if (should_write) {
-      logger.info("Writing to the dest register, since the condition is true.");
-      cpu.getRegister(params.get(RD_FIELD)).setBits(TR[RD_FIELD].getBinString(), 0);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Writing to the dest register, since the condition is true.");
+      }
+      gpr.write(params[RD_FIELD], TR[RD_FIELD].getLong());
     }
 
     // We must unlock the register in both cases.
-    cpu.getRegister(params.get(RD_FIELD)).decrWriteSemaphore();
+    gpr.decrWriteSemaphore(params[RD_FIELD]);
+  }
+
+  public void save(CheckpointWriter out) throws IOException {
+    super.save(out);
+    out.writeBoolean(should_write);
+  }
+
+  public void restore(CheckpointReader in) throws IOException {
+    super.restore(in);
+    should_write = in.readBoolean();
   }
 }
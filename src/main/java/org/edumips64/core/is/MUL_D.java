@@ -48,7 +48,7 @@ class MUL_D extends FPArithmeticInstructions {
   }
 
   @Override
-  protected String doFPArith(String operand1, String operand2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException, IrregularStringOfBitsException {
+  protected long doFPArith(long operand1, long operand2) throws FPInvalidOperationException, FPUnderflowException, FPOverflowException, FPDivideByZeroException {
     return fpInstructionUtils.doubleMultiplication(operand1, operand2);
   }
 }
@@ -48,27 +48,14 @@ public class OR extends ALU_RType {
 
   public void EX()
   throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
-    //getting strings from temporary registers
-    String rs = TR[RS_FIELD].getBinString();
-    String rt = TR[RT_FIELD].getBinString();
-    //performing bitwise OR between string values
-    boolean rsbit, rtbit, resbit;
-    String outputstring = "";
-
-    for (int i = 0; i < 64; i ++) {
-      rsbit = rs.charAt(i) == '1' ? true : false;
-      rtbit = rt.charAt(i) == '1' ? true : false;
-
-      resbit = rsbit || rtbit;
-      outputstring += (resbit == true ? 1 : 0);
-    }
-
-    //saving bitwise AND result into a temporary register
-    TR[RD_FIELD].setBits(outputstring, 0);
+    //getting values from temporary registers
+    long rs = TR[RS_FIELD].getLong();
+    long rt = TR[RT_FIELD].getLong();
+    //performing bitwise OR
+    TR[RD_FIELD].setLong(rs | rt);
 
     if (cpu.isEnableForwarding()) {
       doWB();
     }
-
   }
 }
@@ -0,0 +1,212 @@
+package org.edumips64.core.is;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/** The opcodes of the instructions known to the simulator, along with the
+ * properties the CPU needs to dispatch them.
+ *
+ * The name of each constant is the name of the instruction class, i.e. the
+ * mnemonic with the dot replaced by an underscore. InstructionBuilder sets the
+ * opcode of every instruction it builds, so that the CPU and the pipelines can
+ * classify instructions by reading a field instead of comparing names.
+ */
+public enum Opcode {
+  // ALU R-Type
+  ADD(Format.ALU_R),
+  ADDU(Format.ALU_R),
+  SUB(Format.ALU_R),
+  SUBU(Format.ALU_R),
+  AND(Format.ALU_R),
+  DADD(Format.ALU_R),
+  DADDU(Format.ALU_R),
+  DSUB(Format.ALU_R),
+  DSUBU(Format.ALU_R),
+  OR(Format.ALU_R),
+  SLT(Format.ALU_R),
+  SLTU(Format.ALU_R),
+  XOR(Format.ALU_R),
+  MOVN(Format.ALU_R),
+  MOVZ(Format.ALU_R),
+  MFLO(Format.ALU_R),
+  MFHI(Format.ALU_R),
+
+  // Multiplications and divisions, writing HI and LO
+  DIV(Format.HI_LO),
+  DIVU(Format.HI_LO),
+  MULT(Format.HI_LO),
+  MULTU(Format.HI_LO),
+  DDIV(Format.HI_LO),
+  DDIVU(Format.HI_LO),
+  DMULT(Format.HI_LO),
+  DMULTU(Format.HI_LO),
+
+  // ALU I-Type
+  ADDI(Format.ALU_I),
+  ADDIU(Format.ALU_I),
+  ANDI(Format.ALU_I),
+  DADDI(Format.ALU_I),
+  DADDUI(Format.ALU_I),
+  DADDIU(Format.ALU_I),
+  LUI(Format.ALU_I),
+  ORI(Format.ALU_I),
+  SLTI(Format.ALU_I),
+  SLTIU(Format.ALU_I),
+  XORI(Format.ALU_I),
+
+  // ALU Shifting
+  SLL(Format.SHIFT),
+  SLLV(Format.SHIFT),
+  SRA(Format.SHIFT),
+  SRAV(Format.SHIFT),
+  SRL(Format.SHIFT),
+  SRLV(Format.SHIFT),
+  DSLL(Format.SHIFT),
+  DSLLV(Format.SHIFT),
+  DSRA(Format.SHIFT),
+  DSRAV(Format.SHIFT),
+  DSRL(Format.SHIFT),
+  DSRLV(Format.SHIFT),
+
+  // Load and store
+  LB(Format.LOAD),
+  LBU(Format.LOAD),
+  LH(Format.LOAD),
+  LHU(Format.LOAD),
+  LW(Format.LOAD),
+  LWU(Format.LOAD),
+  LD(Format.LOAD),
+  SB(Format.STORE),
+  SH(Format.STORE),
+  SW(Format.STORE),
+  SD(Format.STORE),
+
+  // Flow control
+  J(Format.JUMP),
+  JAL(Format.JUMP),
+  JALR(Format.JUMP),
+  JR(Format.JUMP),
+  B(Format.BRANCH),
+  BEQ(Format.BRANCH),
+  BNE(Format.BRANCH),
+  BNEZ(Format.BRANCH),
+  BEQZ(Format.BRANCH),
+  BGEZ(Format.BRANCH),
+
+  // Special instructions
+  NOP(Format.SPECIAL),
+  HALT(Format.SPECIAL),
+  TRAP(Format.SPECIAL),
+  SYSCALL(Format.SPECIAL),
+  BREAK(Format.SPECIAL),
+  BUBBLE(Format.SPECIAL),
+
+  // Floating point instructions
+  ADD_D(Format.FP_ARITHMETIC, FPUnit.ADDER),
+  SUB_D(Format.FP_ARITHMETIC, FPUnit.ADDER),
+  MUL_D(Format.FP_ARITHMETIC, FPUnit.MULTIPLIER),
+  DIV_D(Format.FP_ARITHMETIC, FPUnit.DIVIDER),
+  LDC1(Format.FP_LOAD),
+  L_D(Format.FP_LOAD),
+  LWC1(Format.FP_LOAD),
+  SDC1(Format.FP_STORE),
+  S_D(Format.FP_STORE),
+  SWC1(Format.FP_STORE),
+  DMTC1(Format.FP_MOVE_TO),
+  MTC1(Format.FP_MOVE_TO),
+  DMFC1(Format.FP_MOVE_FROM),
+  MFC1(Format.FP_MOVE_FROM),
+  MOV_D(Format.FP_MOVE),
+  MOVZ_D(Format.FP_MOVE),
+  MOVN_D(Format.FP_MOVE),
+  MOVT_D(Format.FP_MOVE),
+  MOVF_D(Format.FP_MOVE),
+  C_LT_D(Format.FP_COMPARE),
+  C_EQ_D(Format.FP_COMPARE),
+  BC1T(Format.FP_BRANCH),
+  BC1F(Format.FP_BRANCH),
+  CVT_L_D(Format.FP_CONVERSION),
+  CVT_D_L(Format.FP_CONVERSION),
+  CVT_W_D(Format.FP_CONVERSION),
+  CVT_D_W(Format.FP_CONVERSION);
+
+  /** The families of instructions, following the class hierarchy of the instruction set. */
+  public enum Format {
+    ALU_R, HI_LO, ALU_I, SHIFT, LOAD, STORE, JUMP, BRANCH, SPECIAL,
+    FP_ARITHMETIC, FP_LOAD, FP_STORE, FP_MOVE_TO, FP_MOVE_FROM, FP_MOVE, FP_COMPARE, FP_BRANCH, FP_CONVERSION
+  }
+
+  /** The functional unit of the FPU pipeline executing the instruction, NONE if it goes through the integer EX. */
+  public enum FPUnit {NONE, ADDER, MULTIPLIER, DIVIDER}
+
+  // Opcodes by mnemonic, both in the assembly form ("ADD.D") and in the class name form ("ADD_D").
+  private static final Map<String, Opcode> byMnemonic = new HashMap<>();
+
+  static {
+    for (Opcode opcode : values()) {
+      byMnemonic.put(opcode.name(), opcode);
+      byMnemonic.put(opcode.mnemonic, opcode);
+    }
+  }
+
+  private final Format format;
+  private final FPUnit fpUnit;
+  private final String mnemonic;
+
+  Opcode(Format format) {
+    this(format, FPUnit.NONE);
+  }
+
+  Opcode(Format format, FPUnit fpUnit) {
+    this.format = format;
+    this.fpUnit = fpUnit;
+    this.mnemonic = name().replace('_', '.');
+  }
+
+  /** Returns the opcode with the given upper case mnemonic, or null if there is none. */
+  public static Opcode fromMnemonic(String mnemonic) {
+    return byMnemonic.get(mnemonic);
+  }
+
+  /** Returns the mnemonic of the instruction, as written in the assembly code (e.g. "ADD.D"). */
+  public String getMnemonic() {
+    return mnemonic;
+  }
+
+  public Format getFormat() {
+    return format;
+  }
+
+  public FPUnit getFPUnit() {
+    return fpUnit;
+  }
+
+  /** Returns true if the instruction executes in the FPU pipeline. */
+  public boolean isFPArithmetic() {
+    return fpUnit != FPUnit.NONE;
+  }
+
+  /** Returns true if the instruction can change the program counter. */
+  public boolean isBranch() {
+    return format == Format.JUMP || format == Format.BRANCH || format == Format.FP_BRANCH;
+  }
+
+  /** Returns true if the first general purpose register in the syntax of the instruction is its destination. */
+  boolean writesFirstRegister() {
+    switch (format) {
+      case ALU_R:
+      case ALU_I:
+      case SHIFT:
+      case LOAD:
+      case FP_MOVE_FROM:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /** Returns true if the instruction saves the return address in R31. */
+  boolean linksR31() {
+    return this == JAL || this == JALR;
+  }
+}
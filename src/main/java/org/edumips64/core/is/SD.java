@@ -48,7 +48,7 @@ public class SD extends Storing {
   }
 
   public void doMEM() throws IrregularStringOfBitsException, MemoryElementNotFoundException, AddressErrorException, IrregularWriteOperationException {
-    memEl.setBits(TR[RT_FIELD].getBinString(), 0);
+    memEl.setLong(TR[RT_FIELD].getLong());
   }
 }
 
@@ -43,12 +43,12 @@ public class SDC1 extends FPStoring {
   public void MEM() throws IrregularStringOfBitsException, MemoryElementNotFoundException, AddressErrorException {
     try {
       //restoring the address from the temporary register
-      long address = TR[OFFSET_PLUS_BASE].getValue();
+      long address = TR[OFFSET_PLUS_BASE].getLong();
       //For the trace file
-      dinero.Store(Converter.binToHex(Converter.positiveIntToBin(64, address)), 8);
+      dinero.Store(address, 8);
       MemoryElement memEl = memory.getCellByAddress(address);
       //writing on the memory element the RT register
-      memEl.setBits(TR[RT_FIELD].getBinString(), 0);
+      memEl.setLong(TR[RT_FIELD].getLong());
 
       if (cpu.isEnableForwarding()) {
         WB();
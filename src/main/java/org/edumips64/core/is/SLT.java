@@ -25,7 +25,6 @@
 
 package org.edumips64.core.is;
 
-import org.edumips64.core.Converter;
 import org.edumips64.core.IrregularStringOfBitsException;
 
 /**
@@ -44,31 +43,14 @@ public class SLT extends ALU_RType {
     name = "SLT";
   }
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException {
-    String rs = TR[RS_FIELD].getBinString();
-    String rt = TR[RT_FIELD].getBinString();
-
-    long rs_value = Converter.binToLong(rs, false);
-    long rt_value = Converter.binToLong(rt, false);
-
-    String rd = "";
-
-    if (rs_value < rt_value) {
-      for (int i = 0; i < 63; i++) {
-        rd += '0';
-      }
-
-      rd = rd + '1';
-    } else {
-      for (int i = 0; i < 64; i ++) {
-        rd += '0';
-      }
-    }
-
-    TR[RD_FIELD].setBits(rd, 0);
+    //getting values from temporary registers
+    long rs = TR[RS_FIELD].getLong();
+    long rt = TR[RT_FIELD].getLong();
+    //comparing values as signed integers
+    TR[RD_FIELD].setLong(rs < rt ? 1 : 0);
 
     if (cpu.isEnableForwarding()) {
       doWB();
     }
-
   }
 }
@@ -47,33 +47,10 @@ class SLTIU extends ALU_IType {
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException, IrregularWriteOperationException {
     //getting values from temporary registers
-    String imm = TR[IMM_FIELD].getBinString();
-    String rs = TR[RS_FIELD].getBinString();
-    boolean rsbit, rtbit, diff, slt = false;
-
-    //comparison between registers as unsigned integers
-    for (int i = 0; i < 64; i++) {
-      //XORI
-      rsbit = rs.charAt(i) == '1' ? true : false;
-      rtbit = imm.charAt(i) == '1' ? true : false;
-      diff = rsbit ^ rtbit;
-
-      if (diff) { //bits are different
-        if (rtbit) { //rtbit is 1
-          slt = true;
-          break;
-        }
-
-        break;
-      }
-
-    }
-
-    if (slt) {
-      TR[RT_FIELD].writeDoubleWord(1);
-    } else {
-      TR[RT_FIELD].writeDoubleWord(0);
-    }
+    long rs = TR[RS_FIELD].getLong();
+    long imm = TR[IMM_FIELD].getLong();
+    //comparing values as unsigned integers: flipping the sign bits keeps their order
+    TR[RT_FIELD].setLong((rs ^ Long.MIN_VALUE) < (imm ^ Long.MIN_VALUE) ? 1 : 0);
 
     if (cpu.isEnableForwarding()) {
       doWB();
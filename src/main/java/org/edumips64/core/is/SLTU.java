@@ -47,34 +47,11 @@ class SLTU extends ALU_RType {
   }
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException, IrregularWriteOperationException {
-    //getting strings from temporary registers
-    String rs = TR[RS_FIELD].getBinString();
-    String rt = TR[RT_FIELD].getBinString();
-    boolean rsbit, rtbit, diff, slt = false;
-
-    //comparison between registers as unsigned integers
-    for (int i = 0; i < 64; i++) {
-      //XOR
-      rsbit = rs.charAt(i) == '1' ? true : false;
-      rtbit = rt.charAt(i) == '1' ? true : false;
-      diff = rsbit ^ rtbit;
-
-      if (diff) { //bits are different
-        if (rtbit) { //rtbit is 1
-          slt = true;
-          break;
-        }
-
-        break;
-      }
-
-    }
-
-    if (slt) {
-      TR[RD_FIELD].writeDoubleWord(1);
-    } else {
-      TR[RD_FIELD].writeDoubleWord(0);
-    }
+    //getting values from temporary registers
+    long rs = TR[RS_FIELD].getLong();
+    long rt = TR[RT_FIELD].getLong();
+    //comparing values as unsigned integers: flipping the sign bits keeps their order
+    TR[RD_FIELD].setLong((rs ^ Long.MIN_VALUE) < (rt ^ Long.MIN_VALUE) ? 1 : 0);
 
     if (cpu.isEnableForwarding()) {
       doWB();
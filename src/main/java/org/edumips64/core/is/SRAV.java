@@ -56,7 +56,7 @@ public class SRAV extends ALU_RType {
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException {
     //getting strings from temporary registers
-    int rs = (int) TR[RS_FIELD].getValue();
+    int rs = (int) TR[RS_FIELD].getLong();
     String rt = TR[RT_FIELD].getBinString();
     //cutting the high part of register
     rt = rt.substring(32, 64);
@@ -45,9 +45,9 @@ class SWC1 extends FPStoring {
   public void MEM() throws IrregularStringOfBitsException, NotAlignException, MemoryElementNotFoundException, AddressErrorException, IrregularWriteOperationException {
 
     //restoring the address from the temporary register
-    long address = TR[OFFSET_PLUS_BASE].getValue();
+    long address = TR[OFFSET_PLUS_BASE].getLong();
     //For the trace file
-    dinero.Store(Converter.binToHex(Converter.positiveIntToBin(64, address)), 4);
+    dinero.Store(address, 4);
     MemoryElement memEl = memory.getCellByAddress(address);
     //writing on the memory element the RT register
     memEl.writeWord(TR[RT_FIELD].readWord(0), (int)(address % 8));
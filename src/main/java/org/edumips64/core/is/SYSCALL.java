@@ -23,6 +23,8 @@ package org.edumips64.core.is;
 import org.edumips64.core.*;
 import org.edumips64.core.fpu.FPInvalidOperationException;
 import org.edumips64.utils.io.*;
+import java.io.IOException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /** SYSCALL instruction, used to issue system calls.
@@ -51,19 +53,14 @@ public class SYSCALL extends Instruction {
   }
 
   public void IF() {
-    syscall_n = params.get(0);
-    logger.info("SYSCALL " + syscall_n + " (" + this.hashCode() + ") is in IF");
+    syscall_n = params[0];
+    cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.SYSCALL, this, syscall_n);
 
-    try {
-      dinero.IF(Converter.binToHex(Converter.intToBin(64, cpu.getLastPC().getValue())));
-    } catch (IrregularStringOfBitsException e) {
-      e.printStackTrace();
-    }
+    dinero.IF(cpu.getLastPC().getValue());
   }
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     if (syscall_n == 0) {
-      logger.info("Stopping CPU due to SYSCALL (" + this.hashCode() + ")");
       cpu.setStatus(CPU.CPUStatus.STOPPING);
     } else if ((syscall_n > 0) && (syscall_n <= 5)) {
       Register r14 = cpu.getRegister(14);
@@ -77,21 +74,19 @@ public class SYSCALL extends Instruction {
       // In WB, R1 <- Return value
       r1.incrWriteSemaphore();
       address = r14.getValue();
-      logger.info("SYSCALL (" + this.hashCode() + "): locked register R14. Value = " + address);
     } else {
       // TODO: invalid syscall
-      logger.info("INVALID SYSCALL (" + this.hashCode() + ")");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("INVALID SYSCALL (" + this.hashCode() + ")");
+      }
     }
     return false;
   }
 
   public void EX() throws IrregularStringOfBitsException, IntegerOverflowException, TwosComplementSumException, IrregularWriteOperationException {
-    logger.info("SYSCALL (" + this.hashCode() + ") -> EX");
   }
 
   public void MEM() throws IrregularStringOfBitsException, MemoryElementNotFoundException {
-    logger.info("SYSCALL (" + this.hashCode() + ") -> MEM");
-
     if (syscall_n == 1) {
       // int open(const char* filename, int flags)
       String filename = fetchString(address);
@@ -103,25 +98,31 @@ public class SYSCALL extends Instruction {
 
       // Memory access for the string and the flags (note the <=)
       for (int i = (int) address; i <= flags_address; i += 8) {
-        dinero.Load(Converter.binToHex(Converter.positiveIntToBin(64, i)), 8);
+        dinero.Load(i, 8);
       }
 
-      logger.info("We must open " + filename + " with flags " + flags);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("We must open " + filename + " with flags " + flags);
+      }
 
       return_value = -1;
 
       try {
         return_value = iom.open(filename, flags);
       } catch (Exception e) {
-        logger.info("Error in executing the open(), the syscall will fail.");
-        logger.info(e.toString());
+        if (logger.isLoggable(Level.INFO)) {
+          logger.info("Error in executing the open(), the syscall will fail.");
+          logger.info(e.toString());
+        }
       }
 
     } else if (syscall_n == 2) {
       // int close(int fd)
       MemoryElement fd_cell = memory.getCellByAddress(address);
       int fd = (int) fd_cell.getValue();
-      logger.info("Closing fd " + fd);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Closing fd " + fd);
+      }
       return_value = iom.close(fd);
     } else if ((syscall_n == 3) || (syscall_n == 4)) {
       // int read(int fd, void* buf, int count)
@@ -145,31 +146,41 @@ public class SYSCALL extends Instruction {
 
       try {
         if (syscall_n == 3) {
-          logger.info("SYSCALL (" + this.hashCode() + "): trying to read from fd " + fd + " " + count + " bytes, writing them to address " + buf_addr);
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("SYSCALL (" + this.hashCode() + "): trying to read from fd " + fd + " " + count + " bytes, writing them to address " + buf_addr);
+          }
           return_value = iom.read(fd, buf_addr, count);
         } else {
-          logger.info("SYSCALL (" + this.hashCode() + "): trying to write to fd " + fd + " " + count + " bytes, reading them from address " + buf_addr);
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("SYSCALL (" + this.hashCode() + "): trying to write to fd " + fd + " " + count + " bytes, reading them from address " + buf_addr);
+          }
           return_value = iom.write(fd, buf_addr, count);
         }
       } catch (Exception e) {
-        logger.info("Error in executing the read(), the syscall will fail.");
-        logger.info(e.toString());
+        if (logger.isLoggable(Level.INFO)) {
+          logger.info("Error in executing the read(), the syscall will fail.");
+          logger.info(e.toString());
+        }
       }
     } else if (syscall_n == 5) {
       StringBuilder temp = new StringBuilder();
 
       // In the address variable (content of R14) we have the address of
       // the format string, that we get and put in the format_string_address variable
-      logger.info("Reading memory cell at address " + address + ", searching for the address of the format string");
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Reading memory cell at address " + address + ", searching for the address of the format string");
+      }
       MemoryElement tempMemCell = memory.getCellByAddress(address);
       int format_string_address = (int) tempMemCell.getValue();
 
       // Recording in the tracefile the last memory access
-      dinero.Load(Converter.binToHex(Converter.positiveIntToBin(64, address)), 8);
+      dinero.Load(address, 8);
 
       // Fetching the format string
       String format_string = fetchString(format_string_address);
-      logger.info("Read " + format_string);
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("Read " + format_string);
+      }
 
       // Going to the next memory cell to start fetching parameters.
       int next_param_address = (int) address + 8;
@@ -181,7 +192,7 @@ public class SYSCALL extends Instruction {
       t1 += 8 - (t1 % 8);
 
       for (int i = format_string_address; i < t1; i += 8) {
-        dinero.Load(Converter.binToHex(Converter.positiveIntToBin(64, i)), 8);
+        dinero.Load(i, 8);
       }
 
       int oldIndex = 0;
@@ -189,14 +200,18 @@ public class SYSCALL extends Instruction {
 
       while ((newIndex = format_string.indexOf('%', oldIndex)) >= 0) {
         char type = format_string.charAt(newIndex + 1);
-        logger.info("Found a placeholder... type " + type);
+        if (logger.isLoggable(Level.INFO)) {
+          logger.info("Found a placeholder... type " + type);
+        }
         temp.append(format_string.substring(oldIndex, newIndex));
 
         switch (type) {
         case 's':   // %s
           tempMemCell = memory.getCellByAddress(next_param_address);
           int str_address = (int) tempMemCell.getValue();
-          logger.info("Retrieving the string @ " + str_address + "...");
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("Retrieving the string @ " + str_address + "...");
+          }
           String param = fetchString(str_address);
 
           next_param_address += 8;
@@ -211,31 +226,41 @@ public class SYSCALL extends Instruction {
           t2 += 8 - (t2 % 8);
 
           for (int i = str_address; i < t2; i += 8) {
-            dinero.Load(Converter.binToHex(Converter.positiveIntToBin(64, i)), 8);
+            dinero.Load(i, 8);
           }
 
-          logger.info("Got " + param);
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("Got " + param);
+          }
           temp.append(param);
           break;
         case 'i':   // %i
         case 'd':   // %d
-          logger.info("Retrieving the integer @ " + next_param_address + "...");
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("Retrieving the integer @ " + next_param_address + "...");
+          }
           MemoryElement memCell = memory.getCellByAddress(next_param_address);
 
           // Tracefile entry for this memory access
-          dinero.Load(Converter.binToHex(Converter.positiveIntToBin(64, next_param_address)), 8);
+          dinero.Load(next_param_address, 8);
 
           Long val = memCell.getValue();
           next_param_address += 8;
           temp.append(val.toString());
-          logger.info("Got " + val);
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("Got " + val);
+          }
           break;
         case '%':   // %%
-          logger.info("Literal %...");
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("Literal %...");
+          }
           temp.append('%');
           break;
         default:
-          logger.info("Unknown placeholder");
+          if (logger.isLoggable(Level.INFO)) {
+            logger.info("Unknown placeholder");
+          }
           break;
         }
 
@@ -243,14 +268,18 @@ public class SYSCALL extends Instruction {
       }
 
       temp.append(format_string.substring(oldIndex));
-      logger.info("That became " + temp.toString());
+      if (logger.isLoggable(Level.INFO)) {
+        logger.info("That became " + temp.toString());
+      }
 
       //This prints to StdOutput.
       try {
         iom.write(1, temp.toString());
       } catch (WriteException e) {
-        logger.info("Error in executing the printf(), the syscall will fail.");
-        logger.info(e.toString());
+        if (logger.isLoggable(Level.INFO)) {
+          logger.info("Error in executing the printf(), the syscall will fail.");
+          logger.info(e.toString());
+        }
       }
 
       return_value = temp.length();
@@ -283,31 +312,37 @@ public class SYSCALL extends Instruction {
   }
 
   public void WB() throws IrregularStringOfBitsException, HaltException {
-    logger.info("SYSCALL (" + this.hashCode() + ") -> WB. n = " + syscall_n);
-
     if (syscall_n == 0) {
-      logger.info("Stopped CPU due to SYSCALL (" + this.hashCode() + ")");
       cpu.setStatus(CPU.CPUStatus.HALTED);
       throw new HaltException();
     } else if (syscall_n > 0 && syscall_n <= 5) {
-      logger.info("SYSCALL (" + this.hashCode() + "): setting R1 to " + return_value);
       Register r1 = cpu.getRegister(1);
-      logger.info("SYSCALL (" + this.hashCode() + "): got R1");
       r1.setBits(Converter.intToBin(64, return_value), 0);
-      logger.info("SYSCALL (" + this.hashCode() + "): set R1 to " + return_value);
       r1.decrWriteSemaphore();
-      logger.info("SYSCALL (" + this.hashCode() + "): decremented write semaphore");
+      cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.REGISTER_WRITE, this, 1, return_value);
     }
-
-    logger.info("SYSCALL (" + this.hashCode() + ") exiting from WB. n = " + syscall_n);
   }
 
   public void pack() throws IrregularStringOfBitsException {
     /* First 6 bits -> 000000 (SPECIAL) */
     repr.setBits(OPCODE_VALUE, 0);
     /* Next 20 bits -> binary value of the immediate parameter. */
-    repr.setBits(Converter.intToBin(20, params.get(0)), 6);
+    repr.setBits(Converter.intToBin(20, params[0]), 6);
     /* Last 6 bits -> 001100 (SYSCALL) */
     repr.setBits(FINAL_VALUE, 26);
   }
+
+  public void save(CheckpointWriter out) throws IOException {
+    super.save(out);
+    out.writeInt(syscall_n);
+    out.writeInt(return_value);
+    out.writeLong(address);
+  }
+
+  public void restore(CheckpointReader in) throws IOException {
+    super.restore(in);
+    syscall_n = in.readInt();
+    return_value = in.readInt();
+    address = in.readLong();
+  }
 }
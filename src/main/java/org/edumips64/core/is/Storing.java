@@ -26,7 +26,6 @@ package org.edumips64.core.is;
 import org.edumips64.core.*;
 import org.edumips64.core.fpu.FPInvalidOperationException;
 
-import java.util.logging.Logger;
 
 
 /** This is the base class for the storing instructions
@@ -34,8 +33,6 @@ import java.util.logging.Logger;
  * @author Massimo
  */
 public abstract class Storing extends LDSTInstructions {
-  protected static final Logger logger = Logger.getLogger(Storing.class.getName());
-  protected Register rt;
 
   Storing(Memory memory) {
     super(memory);
@@ -43,25 +40,26 @@ public abstract class Storing extends LDSTInstructions {
 
   public boolean ID() throws IrregularWriteOperationException, IrregularStringOfBitsException, TwosComplementSumException, HaltException, JumpException, BreakException, WAWException, FPInvalidOperationException {
     //if the base register and the rt register are valid passing value of rt register into a temporary register
-    Register base = cpu.getRegister(params.get(BASE_FIELD));
-    rt = cpu.getRegister(params.get(RT_FIELD));
+    RegisterFile gpr = cpu.getRegisterFile();
+    int base = params[BASE_FIELD];
+    int rt = params[RT_FIELD];
 
-    if (base.getWriteSemaphore() > 0) {
-      logger.info("RAW in " + fullname + ": base register still needs to be written to.");
+    if (gpr.isWritePending(RegisterFile.mask(base))) {
+      cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.RAW, this, base, 0);
       return true;
     }
 
     if (!cpu.isEnableForwarding()) {
-      if (rt.getWriteSemaphore() > 0) {
-        logger.info("RAW in " + fullname + ": rt register still needs to be written to.");
+      if (gpr.isWritePending(RegisterFile.mask(rt))) {
+        cpu.getTracer().record(Tracer.Level.ALL, Tracer.Event.RAW, this, rt, 0);
         return true;
       }
 
-      TR[RT_FIELD].setBits(rt.getBinString(), 0);
+      TR[RT_FIELD].setLong(gpr.read(rt));
     }
 
     //calculating  address (base+offset)
-    long address = base.getValue() + params.get(OFFSET_FIELD);
+    long address = gpr.read(base) + params[OFFSET_FIELD];
     //saving address into a temporary register
     TR[OFFSET_PLUS_BASE].writeDoubleWord(address);
     return false;
@@ -72,14 +70,14 @@ public abstract class Storing extends LDSTInstructions {
     super.EX();
 
     // Save memory access for Dinero trace file
-    dinero.Store(Converter.binToHex(Converter.positiveIntToBin(64, address)), memoryOpSize);
+    dinero.Store(address, memoryOpSize);
   }
 
   public void MEM() throws IrregularStringOfBitsException, MemoryElementNotFoundException, NotAlignException, AddressErrorException, IrregularWriteOperationException {
     memEl = memory.getCellByAddress(address);
 
     if (cpu.isEnableForwarding()) {
-      TR[RT_FIELD].setBits(rt.getBinString(), 0);
+      TR[RT_FIELD].setLong(cpu.getRegisterFile().read(params[RT_FIELD]));
     }
 
     doMEM();
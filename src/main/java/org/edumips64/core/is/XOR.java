@@ -48,16 +48,14 @@ public class XOR extends ALU_RType {
   }
 
   public void EX() throws IrregularStringOfBitsException {
-    String rs = TR[RS_FIELD].getBinString();
-    String rt = TR[RT_FIELD].getBinString();
-    String rd = "";
-
-    rd = InstructionsUtils.xorOperation(rs, rt);
-    TR[RD_FIELD].setBits(rd, 0);
+    //getting values from temporary registers
+    long rs = TR[RS_FIELD].getLong();
+    long rt = TR[RT_FIELD].getLong();
+    //performing bitwise XOR
+    TR[RD_FIELD].setLong(rs ^ rt);
 
     if (cpu.isEnableForwarding()) {
       doWB();
     }
-
   }
 }
@@ -36,11 +36,14 @@ import org.edumips64.core.fpu.FPOverflowException;
 import org.edumips64.core.fpu.FPUnderflowException;
 import org.edumips64.core.is.Instruction;
 import org.edumips64.core.is.InstructionBuilder;
+import org.edumips64.core.is.Opcode;
 import org.edumips64.utils.io.FileUtils;
 import org.edumips64.utils.io.ReadException;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 import java.util.logging.Logger;
 
@@ -59,6 +62,9 @@ public class Parser {
   private static final Logger logger = Logger.getLogger(Parser.class.getName());
   private final Memory mem;
 
+  // Largest memory address that can be written as a number in place of a label.
+  private static final int MAX_ADDRESS_OFFSET = 32767;
+
   private enum AliasRegister
   {zero, at, v0, v1, a0, a1, a2, a3, t0, t1, t2, t3, t4, t5, t6, t7, s0, s1, s2, s3, s4, s5, s6, s7, t8, t9, k0, k1, gp, sp, fp, ra}
   private static final String deprecateInstruction[] = {"BNEZ", "BEQZ", "HALT", "DADDUI", "L.D", "S.D"};
@@ -80,6 +86,10 @@ public class Parser {
   private InstructionBuilder instructionBuilder;
   private FPInstructionUtils fpInstructionUtils;
 
+  // Lines of the last parsed code, after the includes were expanded, and the row of each instruction by address.
+  private String[] sourceLines = new String[0];
+  private Map<Integer, Integer> instructionRows = new HashMap<>();
+
   /** Accessible only because of unit tests.
    *  The Parser needs an FCSR register only because the core FP functions of the simulator
    *  are coupled too tightly with the actual implementation of the FPU, and therefore they assume
@@ -147,7 +157,7 @@ public class Parser {
         int a = included.search(data.substring(i + 9, end).trim());
 
         if (a != -1) {
-          error = new ParserMultiException();
+          error = new ParserMultiException(instructionBuilder.getConfig());
           error.add("INCLUDE_LOOP", 0, 0, "#include " + data.substring(i + 9, end).trim());
           throw error;
         }
@@ -215,8 +225,8 @@ public class Parser {
     numError = 0;
     int numWarning = 0;
     int instrCount = -4;    // Hack fituso by Andrea
-    error = new ParserMultiException();
-    ParserMultiWarningException warning = new ParserMultiWarningException();
+    error = new ParserMultiException(instructionBuilder.getConfig());
+    ParserMultiWarningException warning = new ParserMultiWarningException(instructionBuilder.getConfig());
 
     LinkedList<VoidJump> voidJump = new LinkedList<>();
 
@@ -224,7 +234,9 @@ public class Parser {
     String lastLabel = "";
 
     code = code.replaceAll("\r\n", "\n");
-    for (String line : code.split("\n")) {
+    sourceLines = code.split("\n");
+    instructionRows.clear();
+    for (String line : sourceLines) {
       row++;
       logger.info("-- Processing line " + row);
 
@@ -511,7 +523,8 @@ public class Parser {
                 }
               }
 
-              tmpInst = instructionBuilder.buildInstruction(line.substring(i, end).toUpperCase());
+              Opcode opcode = Opcode.fromMnemonic(line.substring(i, end).toUpperCase());
+              tmpInst = (opcode == null) ? null : instructionBuilder.buildInstruction(opcode);
 
               if (tmpInst == null) {
                 numError++;
@@ -555,19 +568,19 @@ public class Parser {
                         numError++;
                         error.add("SEPARATORMISS", row, indPar, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
 
                       int reg;
 
                       if ((reg = isRegister(param.substring(indPar, endPar).trim())) >= 0) {
-                        tmpInst.getParams().add(reg);
+                        tmpInst.addParam(reg);
                         indPar = endPar + 1;
                       } else {
                         numError++;
                         error.add("INVALIDREGISTER", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         i = line.length();
                         continue;
                       }
@@ -584,19 +597,19 @@ public class Parser {
                         numError++;
                         error.add("SEPARATORMISS", row, indPar, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
 
                       int reg;
 
                       if ((reg = isRegisterFP(param.substring(indPar, endPar).trim())) >= 0) {
-                        tmpInst.getParams().add(reg);
+                        tmpInst.addParam(reg);
                         indPar = endPar + 1;
                       } else {
                         numError++;
                         error.add("INVALIDREGISTER", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         i = line.length();
                         continue;
                       }
@@ -615,7 +628,7 @@ public class Parser {
                         numError++;
                         error.add("SEPARATORMISS", row, indPar, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
 
@@ -639,7 +652,7 @@ public class Parser {
                             error.add("IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                           }
 
-                          tmpInst.getParams().add(imm);
+                          tmpInst.addParam(imm);
                           indPar = endPar + 1;
                         } else if (isHexNumber(param.substring(indPar, endPar))) {
                           try {
@@ -656,7 +669,7 @@ public class Parser {
                               error.add("IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                             }
 
-                            tmpInst.getParams().add(imm);
+                            tmpInst.addParam(imm);
                             indPar = endPar + 1;
                           } catch (IrregularStringOfHexException ex) {
                             //non ci dovrebbe mai arrivare
@@ -685,7 +698,7 @@ public class Parser {
                                 error.add("IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                               }
 
-                              tmpInst.getParams().add(tmpMem.getAddress() + imm);
+                              addLabelParam(tmpInst, tmpMem.getAddress() + imm, true, row, line, param.substring(indPar, endPar));
                               indPar = endPar + 1;
                             } else if (isHexNumber(param.substring(cc + 1, endPar))) {
                               try {
@@ -701,14 +714,15 @@ public class Parser {
                                   error.add("IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                                 }
 
-                                tmpInst.getParams().add(tmpMem.getAddress() + imm);
+                                addLabelParam(tmpInst, tmpMem.getAddress() + imm, true, row, line, param.substring(indPar, endPar));
                                 indPar = endPar + 1;
                               } catch (IrregularStringOfHexException ex) {
                                 logger.severe("Irregular string of bits: " + ex.getMessage());
                               }
                             } else {
                               MemoryElement tmpMem1 = symTab.getCell(param.substring(cc + 1, endPar).trim());
-                              tmpInst.getParams().add(tmpMem.getAddress() + tmpMem1.getAddress());
+                              addLabelParam(tmpInst, tmpMem.getAddress() + tmpMem1.getAddress(), true, row, line,
+                                  param.substring(indPar, endPar));
                             }
 
                           } else {
@@ -731,7 +745,7 @@ public class Parser {
                                   error.add("IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                                 }
 
-                                tmpInst.getParams().add(tmpMem.getAddress() - imm);
+                                addLabelParam(tmpInst, tmpMem.getAddress() - imm, true, row, line, param.substring(indPar, endPar));
                                 indPar = endPar + 1;
                               } else if (isHexNumber(param.substring(cc + 1, endPar))) {
                                 try {
@@ -747,25 +761,26 @@ public class Parser {
                                     error.add("IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                                   }
 
-                                  tmpInst.getParams().add(tmpMem.getAddress() - imm);
+                                  addLabelParam(tmpInst, tmpMem.getAddress() - imm, true, row, line, param.substring(indPar, endPar));
                                   indPar = endPar + 1;
                                 } catch (IrregularStringOfHexException ex) {
                                   //non ci dovrebbe mai arrivare
                                 }
                               } else {
                                 MemoryElement tmpMem1 = symTab.getCell(param.substring(cc + 1, endPar).trim());
-                                tmpInst.getParams().add(tmpMem.getAddress() - tmpMem1.getAddress());
+                                addLabelParam(tmpInst, tmpMem.getAddress() - tmpMem1.getAddress(), true, row, line,
+                                    param.substring(indPar, endPar));
                               }
                             } else {
                               tmpMem = symTab.getCell(param.substring(indPar, endPar).trim());
-                              tmpInst.getParams().add(tmpMem.getAddress());
+                              addLabelParam(tmpInst, tmpMem.getAddress(), true, row, line, param.substring(indPar, endPar));
                             }
                           }
                         } catch (MemoryElementNotFoundException ex) {
                           numError++;
                           error.add("INVALIDIMMEDIATE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                           i = line.length();
-                          tmpInst.getParams().add(0);
+                          tmpInst.addParam(0);
                           continue;
                         }
                       }
@@ -782,7 +797,7 @@ public class Parser {
                         numError++;
                         error.add("SEPARATORMISS", row, indPar, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
 
@@ -801,7 +816,7 @@ public class Parser {
                               numError++;
                               error.add("VALUEISNOTUNSIGNED", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                               i = line.length();
-                              tmpInst.getParams().add(0);
+                              tmpInst.addParam(0);
                               continue;
                             }
 
@@ -814,7 +829,7 @@ public class Parser {
                             error.add("5BIT_IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                           }
 
-                          tmpInst.getParams().add(imm);
+                          tmpInst.addParam(imm);
                           indPar = endPar + 1;
                         } else if (isHexNumber(param.substring(indPar, endPar).trim())) {
                           try {
@@ -824,11 +839,11 @@ public class Parser {
                               numError++;
                               error.add("VALUEISNOTUNSIGNED", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                               i = line.length();
-                              tmpInst.getParams().add(0);
+                              tmpInst.addParam(0);
                               continue;
                             }
 
-                            tmpInst.getParams().add(imm);
+                            tmpInst.addParam(imm);
                             indPar = endPar + 1;
 
                             if (imm < 0 || imm > 31) {
@@ -839,7 +854,7 @@ public class Parser {
                             numError++;
                             error.add("5BIT_IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
 
-                            tmpInst.getParams().add(imm);
+                            tmpInst.addParam(imm);
                             indPar = endPar + 1;
 
                           } catch (IrregularStringOfHexException ex) {
@@ -851,7 +866,7 @@ public class Parser {
                         numError++;
                         error.add("INVALIDIMMEDIATE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
                     } else if (syntax.charAt(z) == 'C') {  //Unsigned Immediate (3 bit)
@@ -867,7 +882,7 @@ public class Parser {
                         numError++;
                         error.add("SEPARATORMISS", row, indPar, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
 
@@ -886,7 +901,7 @@ public class Parser {
                               numError++;
                               error.add("VALUEISNOTUNSIGNED", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                               i = line.length();
-                              tmpInst.getParams().add(0);
+                              tmpInst.addParam(0);
                               continue;
                             }
 
@@ -899,7 +914,7 @@ public class Parser {
                             error.add("3BIT_IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                           }
 
-                          tmpInst.getParams().add(imm);
+                          tmpInst.addParam(imm);
                           indPar = endPar + 1;
                         } else if (isHexNumber(param.substring(indPar, endPar).trim())) {
                           try {
@@ -909,11 +924,11 @@ public class Parser {
                               numError++;
                               error.add("VALUEISNOTUNSIGNED", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                               i = line.length();
-                              tmpInst.getParams().add(0);
+                              tmpInst.addParam(0);
                               continue;
                             }
 
-                            tmpInst.getParams().add(imm);
+                            tmpInst.addParam(imm);
                             indPar = endPar + 1;
 
                             if (imm < 0 || imm > 31) {
@@ -924,7 +939,7 @@ public class Parser {
                             numError++;
                             error.add("3BIT_IMMEDIATE_TOO_LARGE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
 
-                            tmpInst.getParams().add(imm);
+                            tmpInst.addParam(imm);
                             indPar = endPar + 1;
 
                           } catch (IrregularStringOfHexException ex) {
@@ -936,7 +951,7 @@ public class Parser {
                         numError++;
                         error.add("INVALIDIMMEDIATE", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
                     }
@@ -954,7 +969,7 @@ public class Parser {
                         numError++;
                         error.add("SEPARATORMISS", row, indPar, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
 
@@ -962,30 +977,30 @@ public class Parser {
                         MemoryElement tmpMem;
 
                         if (param.substring(indPar, endPar).equals("")) {
-                          tmpInst.getParams().add(0);
+                          tmpInst.addParam(0);
                         } else if (isNumber(param.substring(indPar, endPar).trim())) {
                           int tmp = Integer.parseInt(param.substring(indPar, endPar).trim());
 
-                          //if (tmp<0 || tmp%2!=0 || tmp > org.edumips64.core.CPU.DATALIMIT)
-                          if (tmp < 0 || tmp > Memory.DATALIMIT) {
+                          // The address ends up in the 16-bit offset field of the instruction.
+                          if (tmp < 0 || tmp > MAX_ADDRESS_OFFSET) {
                             numError++;
                             String er = "LABELADDRESSINVALID";
 
-                            if (tmp > Memory.DATALIMIT) {
+                            if (tmp > MAX_ADDRESS_OFFSET) {
                               er = "LABELTOOLARGE";
                             }
 
                             error.add(er, row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                             i = line.length();
                             indPar = endPar + 1;
-                            tmpInst.getParams().add(0);
+                            tmpInst.addParam(0);
                             continue;
                           }
 
-                          tmpInst.getParams().add(tmp);
+                          tmpInst.addParam(tmp);
                         } else {
                           tmpMem = symTab.getCell(param.substring(indPar, endPar).trim());
-                          tmpInst.getParams().add(tmpMem.getAddress());
+                          addLabelParam(tmpInst, tmpMem.getAddress(), false, row, line, param.substring(indPar, endPar));
 
                         }
 
@@ -995,7 +1010,7 @@ public class Parser {
                         error.add("LABELNOTFOUND", row, line.indexOf(param.substring(indPar, endPar)) + 1, line);
                         i = line.length();
                         indPar = endPar + 1;
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
                     } else if (syntax.charAt(z) == 'E') {  //Instruction Label
@@ -1011,7 +1026,7 @@ public class Parser {
                         numError++;
                         error.add("SEPARATORMISS", row, indPar, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
 
@@ -1020,7 +1035,7 @@ public class Parser {
                       logger.info("Label " + label + " at address " + labelAddr);
 
                       if (labelAddr != null) {
-                        tmpInst.getParams().add(labelAddr);
+                        tmpInst.addParam(labelAddr);
                       } else {
                         VoidJump tmpVoid = new VoidJump();
                         tmpVoid.instr = tmpInst;
@@ -1044,7 +1059,7 @@ public class Parser {
                         numError++;
                         error.add("SEPARATORMISS", row, indPar, line);
                         i = line.length();
-                        tmpInst.getParams().add(0);
+                        tmpInst.addParam(0);
                         continue;
                       }
 
@@ -1052,7 +1067,7 @@ public class Parser {
 
                       if (labelAddr != null) {
                         labelAddr -= instrCount + 4;
-                        tmpInst.getParams().add(labelAddr);
+                        tmpInst.addParam(labelAddr);
                       } else {
                         VoidJump tmpVoid = new VoidJump();
                         tmpVoid.instr = tmpInst;
@@ -1072,7 +1087,7 @@ public class Parser {
                       numError++;
                       error.add("UNKNOWNSYNTAX", row, 1, line);
                       i = line.length();
-                      tmpInst.getParams().add(0);
+                      tmpInst.addParam(0);
                       continue;
                     }
                   } else {
@@ -1080,7 +1095,7 @@ public class Parser {
                       numError++;
                       error.add("UNKNOWNSYNTAX", row, 1, line);
                       i = line.length();
-                      tmpInst.getParams().add(0);
+                      tmpInst.addParam(0);
                       continue;
                     }
                   }
@@ -1093,6 +1108,7 @@ public class Parser {
                 try {
                   if (doPack) {
                     tmpInst.pack();
+                    tmpInst.decode();
                   }
                 } catch (IrregularStringOfBitsException ex) {
                   logger.severe("Irregular string of bits: " + ex.getMessage());
@@ -1100,6 +1116,7 @@ public class Parser {
               } else {
                 try {
                   tmpInst.pack();
+                  tmpInst.decode();
                 } catch (IrregularStringOfBitsException e) {
                   logger.severe("Irregular string of bits: " + e.getMessage());
                 }
@@ -1118,6 +1135,7 @@ public class Parser {
 
               try {
                 mem.addInstruction(tmpInst, instrCount);
+                instructionRows.put(instrCount, row);
                 if (lastLabel != null && !lastLabel.equals("")) {
                   logger.info("About to add label: " + lastLabel);
                   symTab.setInstructionLabel(instrCount, lastLabel.toUpperCase());
@@ -1170,10 +1188,11 @@ public class Parser {
           labelAddr -= voidJump.get(i).instrCount + 4;
         }
 
-        voidJump.get(i).instr.getParams().add(labelAddr);
+        voidJump.get(i).instr.addParam(labelAddr);
 
         try {
           voidJump.get(i).instr.pack();
+          voidJump.get(i).instr.decode();
         } catch (IrregularStringOfBitsException ex) {
           logger.severe("Irregular string of bits: " + ex.getMessage());
         }
@@ -1191,12 +1210,13 @@ public class Parser {
 
       try {
         logger.warning("No terminating instruction detected, adding one.");
-        Instruction tmpInst = instructionBuilder.buildInstruction("SYSCALL");
-        tmpInst.getParams().add(0);
+        Instruction tmpInst = instructionBuilder.buildInstruction(Opcode.SYSCALL);
+        tmpInst.addParam(0);
         tmpInst.setFullName("SYSCALL 0");
 
         try {
           tmpInst.pack();
+          tmpInst.decode();
         } catch (IrregularStringOfBitsException ex) {
           logger.severe("Irregular string of bits: " + ex.getMessage());
         }
@@ -1220,6 +1240,18 @@ public class Parser {
     }
   }
 
+  /** Returns the lines of the last parsed code, with the included files expanded. */
+  public String[] getSourceLines() {
+    return sourceLines;
+  }
+
+  /** Returns the row (from 1) of getSourceLines() holding the instruction at the given address, or 0 if the
+   * instruction was not written in the code. */
+  public int getSourceRow(int address) {
+    Integer row = instructionRows.get(address);
+    return row == null ? 0 : row;
+  }
+
   /** Clean multiple tab or spaces in a bad format String //and converts  this String to upper case
    *  @param s the bad format String
    *  @return the cleaned String
@@ -1377,6 +1409,20 @@ public class Parser {
 
   }
 
+  /** Adds to the instruction a parameter computed from label addresses. Addresses are longs, so the value is checked
+   * against the 16-bit field it is encoded in instead of being truncated.
+   *  @param signed true for a signed immediate, false for a memory offset, which cannot be negative
+   */
+  private void addLabelParam(Instruction inst, long value, boolean signed, int row, String line, String text) {
+    if (value < (signed ? -32768 : 0) || value > MAX_ADDRESS_OFFSET) {
+      numError++;
+      error.add(signed ? "IMMEDIATE_TOO_LARGE" : "LABELTOOLARGE", row, line.indexOf(text) + 1, line);
+      value = 0;
+    }
+
+    inst.addParam((int) value);
+  }
+
   /** Write a double in memory
    *  @param row number of row
    *  @param i
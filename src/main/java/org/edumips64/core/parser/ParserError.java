@@ -25,13 +25,15 @@
 
 package org.edumips64.core.parser;
 
+import org.edumips64.utils.ConfigStore;
+
 /**
  *
  * @author mancausoft, Vanni
  */
 
 public class ParserError extends ParserException {
-  ParserError(String description, int row, int column, String line) {
-    super(description, row, column, Parser.replaceTab(line));
+  ParserError(String description, int row, int column, String line, ConfigStore config) {
+    super(description, row, column, Parser.replaceTab(line), config);
   }
 }
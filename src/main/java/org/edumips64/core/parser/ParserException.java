@@ -37,6 +37,9 @@ public class ParserException {
   private String line, description;
   private boolean isError;
 
+  // Configuration whose language is used for the messages; if null, CurrentLocale's one is used.
+  private ConfigStore config;
+
   /** Create a new instance of ParserException
    *  @param description The Description of exception
    *  @param row The row where there are a error
@@ -44,11 +47,20 @@ public class ParserException {
    *  @param line A String with bad code
    */
   public ParserException(String description, int row, int column, String line) {
+    this(description, row, column, line, null);
+  }
+
+  /** Create a new instance of ParserException with messages in the language of the given configuration. */
+  public ParserException(String description, int row, int column, String line, ConfigStore config) {
     this.row = row;
     this.column = column;
     this.line = line;
-    this.description = CurrentLocale.getString(description);
+    this.config = config;
+    this.description = getString(description);
+  }
 
+  private String getString(String key) {
+    return (config == null) ? CurrentLocale.getString(key) : CurrentLocale.getString(key, config);
   }
 
   public void setError(boolean iserror) {
@@ -61,7 +73,7 @@ public class ParserException {
    * @return a string representation of the ParserException
    */
   public String toString() {
-    String tmp = new String(CurrentLocale.getString("ROW") + " " + row + ", " + CurrentLocale.getString("COLUMN") + " " + column + ": " + line + "\n" + description);
+    String tmp = new String(getString("ROW") + " " + row + ", " + getString("COLUMN") + " " + column + ": " + line + "\n" + description);
     return tmp;
   }
   public String[] getStringArray() {
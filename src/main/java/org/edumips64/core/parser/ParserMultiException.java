@@ -1,4 +1,6 @@
 package org.edumips64.core.parser;
+import org.edumips64.utils.ConfigStore;
+
 import java.util.*;
 /*
  * ParserMultiException.java
@@ -34,11 +36,21 @@ public class ParserMultiException extends Exception {
 
   protected LinkedList <ParserException>exception;
 
+  // Configuration whose language is used for the messages, or null. See ParserException.
+  protected ConfigStore config;
+
   /** Create the ParserMultiException
    */
   public ParserMultiException() {
+    this(null);
+  }
+
+  /** Create the ParserMultiException, with messages in the language of the given configuration
+   */
+  public ParserMultiException(ConfigStore config) {
     super(" ");
     exception = new LinkedList<ParserException>();
+    this.config = config;
   }
   /*Create the ParserMultiException from List
    *
@@ -71,7 +83,7 @@ public class ParserMultiException extends Exception {
    * @param line the String with error code
    */
   public void add(String description, int row, int column, String line) {
-    ParserError tmp = new ParserError(description, row, column, line);
+    ParserError tmp = new ParserError(description, row, column, line, config);
     tmp.setError(true);
     exception.add(tmp);
   }
@@ -82,7 +94,7 @@ public class ParserMultiException extends Exception {
    * @param line the String with error code
    */
   public void addWarning(String description, int row, int column, String line) {
-    ParserWarning tmp = new ParserWarning(description, row, column, line);
+    ParserWarning tmp = new ParserWarning(description, row, column, line, config);
     tmp.setError(false);
     exception.add(tmp);
   }
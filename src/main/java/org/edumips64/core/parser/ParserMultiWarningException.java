@@ -1,4 +1,7 @@
 package org.edumips64.core.parser;
+
+import org.edumips64.utils.ConfigStore;
+
 /*
  * ParserMultiWarningException.java
  *
@@ -30,9 +33,15 @@ package org.edumips64.core.parser;
  */
 
 public class ParserMultiWarningException extends ParserMultiException {
+  public ParserMultiWarningException() {
+  }
+
+  public ParserMultiWarningException(ConfigStore config) {
+    super(config);
+  }
 
   public void add(String description, int row, int column, String line) {
-    ParserWarning tmp = new ParserWarning(description, row, column, line);
+    ParserWarning tmp = new ParserWarning(description, row, column, line, config);
     tmp.setError(false);
     exception.add(tmp);
   }
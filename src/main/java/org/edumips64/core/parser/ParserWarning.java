@@ -25,14 +25,16 @@
 
 package org.edumips64.core.parser;
 
+import org.edumips64.utils.ConfigStore;
+
 /**
  *
  * @author mancausoft, Vanni
  */
 
 public class ParserWarning extends ParserException {
-  ParserWarning(String description, int row, int column, String line) {
-    super(description, row, column, line);
+  ParserWarning(String description, int row, int column, String line, ConfigStore config) {
+    super(description, row, column, line, config);
     super.setError(false);
   }
 }
@@ -0,0 +1,254 @@
+package org.edumips64.metrics;
+
+import org.edumips64.core.CPU;
+import org.edumips64.core.Dinero;
+import org.edumips64.core.SimulatorContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/** Metrics of a simulator instance: simulated performance (cycles, instructions, CPI, stalls, including those of
+ * the memory timing model, Dinero trace size)
+ * and host performance (cycles and steps per second, allocation per cycle, parse time).
+ *
+ * The thread that runs the simulation calls stepped() after each CPU.step(); every sampleSteps steps, the
+ * counters are copied into a sample, together with the time and the bytes allocated by the thread. Any thread
+ * can read the metrics, through the getters or JMX (see register()): counters are those of the last sample, and
+ * rates are computed over the samples of the last windowMillis milliseconds. A simulation that is stuck inside
+ * a step stops producing samples, which shows in getLastSampleAgeMillis().
+ */
+public class SimulatorMetrics implements SimulatorMetricsMBean {
+  public static final long DEFAULT_WINDOW_MILLIS = 10000;
+  public static final int DEFAULT_SAMPLE_STEPS = 4096;
+
+  // Bound on the samples kept in the window, whatever the sampling rate.
+  private static final int MAX_SAMPLES = 256;
+
+  private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+  private static class Sample {
+    long time;
+    long steps;
+    long cycles, instructions;
+    long rawStalls, wawStalls, dividerStalls, memoryStalls, exStalls, funcUnitStalls;
+    long cacheMissStalls, memoryWaitCycles;
+    long dineroTraceSize;
+    long allocatedBytes;
+  }
+
+  private String name;
+  private CPU cpu;
+  private Dinero dinero;
+  private LongSupplier clock;
+  private long windowNanos;
+  private int sampleSteps;
+
+  // Only used by the simulating thread.
+  private long steps;
+  private int stepsToSample;
+
+  // Samples in the window, the oldest first. Guarded by this.
+  private List<Sample> samples = new ArrayList<>();
+
+  private volatile long parseTimeNanos;
+  private ObjectName objectName;
+
+  /** Creates the metrics of the simulator, with the default window and sampling interval. */
+  public SimulatorMetrics(String name, SimulatorContext context) {
+    this(name, context.getCPU(), context.getDinero(), System::nanoTime, DEFAULT_WINDOW_MILLIS, DEFAULT_SAMPLE_STEPS);
+  }
+
+  // The clock returns nanoseconds.
+  SimulatorMetrics(String name, CPU cpu, Dinero dinero, LongSupplier clock, long windowMillis, int sampleSteps) {
+    if (windowMillis <= 0 || sampleSteps <= 0) {
+      throw new IllegalArgumentException("Invalid metrics parameters: " + windowMillis + ", " + sampleSteps);
+    }
+    this.name = name;
+    this.cpu = cpu;
+    this.dinero = dinero;
+    this.clock = clock;
+    this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    this.sampleSteps = sampleSteps;
+    stepsToSample = sampleSteps;
+  }
+
+  /** Counts a CPU step. Must be called by the thread that runs the simulation, after each step. */
+  public void stepped() {
+    steps++;
+    if (--stepsToSample == 0) {
+      sample();
+    }
+  }
+
+  /** Takes a sample now. Must be called by the thread that runs the simulation, for example when the program
+   * ends, so that the metrics include the last steps. */
+  public void sample() {
+    stepsToSample = sampleSteps;
+
+    Sample s = new Sample();
+    s.time = clock.getAsLong();
+    s.steps = steps;
+    s.cycles = cpu.getCycles();
+    s.instructions = cpu.getInstructions();
+    s.rawStalls = cpu.getRAWStalls();
+    s.wawStalls = cpu.getWAWStalls();
+    s.dividerStalls = cpu.getStructuralStallsDivider();
+    s.memoryStalls = cpu.getStructuralStallsMemory();
+    s.exStalls = cpu.getStructuralStallsEX();
+    s.funcUnitStalls = cpu.getStructuralStallsFuncUnit();
+    s.cacheMissStalls = cpu.getCacheMissStalls();
+    s.memoryWaitCycles = cpu.getMemoryWaitCycles();
+    s.dineroTraceSize = dinero.size();
+    s.allocatedBytes = allocatedBytes();
+
+    synchronized (this) {
+      samples.add(s);
+      // The oldest sample kept is the last one taken before the beginning of the window.
+      while ((samples.size() > 2 && samples.get(1).time <= s.time - windowNanos) || samples.size() > MAX_SAMPLES) {
+        samples.remove(0);
+      }
+    }
+  }
+
+  /** Records the time taken to parse the program. */
+  public void recordParseTime(long nanos) {
+    parseTimeNanos = nanos;
+  }
+
+  // Bytes allocated so far by the current thread, or -1 if the JVM can't tell.
+  private static long allocatedBytes() {
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean t = (com.sun.management.ThreadMXBean) threads;
+      if (t.isThreadAllocatedMemorySupported() && t.isThreadAllocatedMemoryEnabled()) {
+        return t.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+
+  private synchronized Sample last() {
+    return samples.isEmpty() ? new Sample() : samples.get(samples.size() - 1);
+  }
+
+  private synchronized Sample first() {
+    return samples.isEmpty() ? new Sample() : samples.get(0);
+  }
+
+  // Increase per second of a counter between the first and the last sample of the window.
+  private synchronized double rate(long first, long last) {
+    long nanos = last().time - first().time;
+    return (nanos <= 0) ? 0 : (last - first) * 1e9 / nanos;
+  }
+
+  /** Publishes the metrics as an MBean named org.edumips64:type=Simulator,name="name". */
+  public void register() throws JMException {
+    objectName = new ObjectName("org.edumips64:type=Simulator,name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+  }
+
+  /** Removes the MBean published by register(), if any. */
+  public void unregister() throws JMException {
+    if (objectName != null) {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      objectName = null;
+    }
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getCycles() {
+    return last().cycles;
+  }
+
+  public long getInstructions() {
+    return last().instructions;
+  }
+
+  public double getCPI() {
+    Sample s = last();
+    return (s.instructions == 0) ? 0 : (double) s.cycles / s.instructions;
+  }
+
+  public long getRAWStalls() {
+    return last().rawStalls;
+  }
+
+  public long getWAWStalls() {
+    return last().wawStalls;
+  }
+
+  public long getDividerStalls() {
+    return last().dividerStalls;
+  }
+
+  public long getMemoryStalls() {
+    return last().memoryStalls;
+  }
+
+  public long getEXStalls() {
+    return last().exStalls;
+  }
+
+  public long getFuncUnitStalls() {
+    return last().funcUnitStalls;
+  }
+
+  /** Cycles the pipeline stalled for loads and stores that missed in the caches, see CPU.getCacheMissStalls(). */
+  public long getCacheMissStalls() {
+    return last().cacheMissStalls;
+  }
+
+  /** Cycles the instruction in MEM still had to wait for the memory when the sample was taken. */
+  public long getMemoryWaitCycles() {
+    return last().memoryWaitCycles;
+  }
+
+  public long getDineroTraceSize() {
+    return last().dineroTraceSize;
+  }
+
+  public long getSteps() {
+    return last().steps;
+  }
+
+  public synchronized double getCyclesPerSecond() {
+    return rate(first().cycles, last().cycles);
+  }
+
+  public synchronized double getStepsPerSecond() {
+    return rate(first().steps, last().steps);
+  }
+
+  /** Bytes allocated by the simulating thread per simulated cycle in the window, or -1 if unknown. */
+  public synchronized double getAllocatedBytesPerCycle() {
+    Sample first = first();
+    Sample last = last();
+    long cycles = last.cycles - first.cycles;
+    long bytes = last.allocatedBytes - first.allocatedBytes;
+    if (first.allocatedBytes < 0 || bytes < 0 || cycles <= 0) {
+      return -1;
+    }
+    return (double) bytes / cycles;
+  }
+
+  public double getParseTimeMillis() {
+    return parseTimeNanos / 1e6;
+  }
+
+  public long getWindowMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(windowNanos);
+  }
+
+  /** Milliseconds since the last sample, or -1 if there are no samples. */
+  public synchronized long getLastSampleAgeMillis() {
+    return samples.isEmpty() ? -1 : TimeUnit.NANOSECONDS.toMillis(clock.getAsLong() - last().time);
+  }
+}
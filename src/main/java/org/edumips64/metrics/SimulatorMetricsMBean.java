@@ -0,0 +1,29 @@
+package org.edumips64.metrics;
+
+/** JMX view of SimulatorMetrics. Values are as of the last sample, rates are averaged over the rolling window. */
+public interface SimulatorMetricsMBean {
+  String getName();
+
+  // Simulated performance.
+  long getCycles();
+  long getInstructions();
+  double getCPI();
+  long getRAWStalls();
+  long getWAWStalls();
+  long getDividerStalls();
+  long getMemoryStalls();
+  long getEXStalls();
+  long getFuncUnitStalls();
+  long getCacheMissStalls();
+  long getMemoryWaitCycles();
+  long getDineroTraceSize();
+
+  // Host performance.
+  long getSteps();
+  double getCyclesPerSecond();
+  double getStepsPerSecond();
+  double getAllocatedBytesPerCycle();
+  double getParseTimeMillis();
+  long getWindowMillis();
+  long getLastSampleAgeMillis();
+}
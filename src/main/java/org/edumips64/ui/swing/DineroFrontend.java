@@ -24,6 +24,7 @@
 package org.edumips64.ui.swing;
 
 import org.edumips64.core.Dinero;
+import org.edumips64.core.cache.CacheSimulator;
 import org.edumips64.utils.ConfigKey;
 import org.edumips64.utils.ConfigStore;
 import org.edumips64.utils.io.LocalWriterAdapter;
@@ -47,6 +48,7 @@ public class DineroFrontend extends JDialog {
   private static final Logger logger = Logger.getLogger(DineroFrontend.class.getName());
   private static JTextField path, params;
   private static JButton execute;
+  private static JCheckBox builtIn;
   private static JTextArea result;
 
   private class StreamReader extends Thread {
@@ -152,7 +154,32 @@ public class DineroFrontend extends JDialog {
       }
     });
 
+    // The built-in simulator takes the same parameters, and needs no external process.
+    builtIn = new JCheckBox("Use the built-in cache simulator", true);
+    builtIn.setAlignmentX(Component.CENTER_ALIGNMENT);
+    path.setEnabled(false);
+    browse.setEnabled(false);
+    builtIn.addActionListener(e -> {
+      path.setEnabled(!builtIn.isSelected());
+      browse.setEnabled(!builtIn.isSelected());
+    });
+
     execute.addActionListener(e -> {
+      if (builtIn.isSelected()) {
+        result.setText("");
+        try {
+          CacheSimulator simulator = CacheSimulator.parse(params.getText());
+          dinero.replay(simulator);
+          result.append(">> Built-in cache simulator\n");
+          result.append(">> Parameters: " + params.getText() + "\n");
+          result.append(">> Simulation results:\n");
+          result.append(simulator.report());
+        } catch (IllegalArgumentException ex) {
+          result.append(">> ERROR: " + ex.getMessage());
+        }
+        return;
+      }
+
       try {
         String dineroPath = path.getText();
         String paramString = params.getText();
@@ -223,6 +250,9 @@ public class DineroFrontend extends JDialog {
       }
     });
 
+    cp.add(builtIn);
+    cp.add(Box.createRigidArea(vSpace));
+
     Box dineroEx = Box.createHorizontalBox();
     dineroEx.add(Box.createHorizontalGlue());
     dineroEx.add(pathLabel);
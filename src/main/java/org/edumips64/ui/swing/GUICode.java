@@ -34,7 +34,8 @@ import javax.swing.table.*;
 */
 public class GUICode extends GUIComponent {
   private CodePanel codePanel;
-  private String memoryAddress[] = new String[Memory.CODELIMIT];
+  // The table shows the instructions up to the last one used by the program, as many as fit in a JTable.
+  private int rows;
   private static int ifIndex, idIndex, exIndex, memIndex, wbIndex, A1Index, A2Index, A3Index, A4Index, M1Index, M2Index, M3Index, M4Index, M5Index, M6Index, M7Index, DIVIndex;
 
   public GUICode(CPU cpu, Memory memory, ConfigStore config) {
@@ -52,6 +53,12 @@ public class GUICode extends GUIComponent {
   }
 
   public void update() {
+    int newRows = Math.min(Integer.MAX_VALUE / codePanel.theTable.getRowHeight(), memory.getLastInstructionIndex() + 1);
+    if (newRows != rows) {
+      rows = newRows;
+      codePanel.tableModel.fireTableDataChanged();
+    }
+
     //codePanel.scrollTable.getViewport().setViewPosition(new Point(0,position+15));
 
     TableColumn column0 = codePanel.theTable.getColumnModel().getColumn(0);
@@ -112,7 +119,7 @@ public class GUICode extends GUIComponent {
 
       setLayout(new BorderLayout());
       setBackground(Color.WHITE);
-      tableModel = new MyTableModel(memoryAddress);
+      tableModel = new MyTableModel();
       theTable = new JTable(tableModel);
       theTable.setCellSelectionEnabled(false);
       theTable.setFocusable(false);
@@ -137,18 +144,13 @@ public class GUICode extends GUIComponent {
     class MyTableModel extends AbstractTableModel {
       private String[] columnLocaleStrings = {"ADDRESS", "HEXREPR", "LABEL", "INSTRUCTION", "COMMENT"};
       private Class[] columnClasses = {String.class, String.class, String.class, String.class, String.class};
-      private String memoryAddress[];
-
-      MyTableModel(String[] memoryAddress) {
-        this.memoryAddress = memoryAddress;
-      }
 
       public int getColumnCount() {
         return columnLocaleStrings.length;
       }
 
       public int getRowCount() {
-        return memoryAddress.length;
+        return rows;
       }
 
       public String getColumnName(int col) {
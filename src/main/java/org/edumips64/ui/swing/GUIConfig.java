@@ -120,6 +120,9 @@ public class GUIConfig extends JDialog {
 
     addRow(panel, row++, ConfigKey.FORWARDING, new JCheckBox());
     addRow(panel, row++, ConfigKey.N_STEPS, new JNumberField());
+    addRow(panel, row++, ConfigKey.MEMORY_TIMING, new JCheckBox());
+    addRow(panel, row++, ConfigKey.CACHE_OPTIONS, new JTextField());
+    addRow(panel, row++, ConfigKey.CACHE_LATENCIES, new JTextField());
 
     // fill remaining vertical space
     grid_add(panel, new JPanel(), gbl, gbc, 0, 1, 0, row, GridBagConstraints.REMAINDER, 1);
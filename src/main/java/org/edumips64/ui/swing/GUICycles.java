@@ -167,7 +167,7 @@ public class GUICycles extends GUIComponent {
             g.drawString(st, x+fontXOffset, y+fontYOffset);
             column++;
 
-            if ((!st.equals(" ")) && (!st.equals("RAW"))) {
+            if ((!st.equals(" ")) && (!st.equals("RAW")) && (!st.equals("StMem"))) {
               pre = st;
             }
           }
@@ -200,6 +200,9 @@ public class GUICycles extends GUIComponent {
         return new Color(config.getInt(ConfigKey.ID_COLOR));
       } else if (st.equals("WAW") || st.equals("StDiv") || st.equals("StEx") || st.equals("StFun")) {
         return new Color(config.getInt(ConfigKey.ID_COLOR));
+      } else if (st.equals("StMem")) {
+        // Stalled by a cache miss: the color of the stage the instruction is waiting in.
+        return getColorByState(pre, pre);
       } else if (st.equals(" ")) {
         if (pre.equals("IF")) {
           return new Color(config.getInt(ConfigKey.IF_COLOR));
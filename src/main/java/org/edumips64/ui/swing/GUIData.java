@@ -37,7 +37,8 @@ import javax.swing.table.*;
 */
 public class GUIData extends GUIComponent {
   private DataPanel dataPanel;
-  private String memoryAddress[] = new String[Memory.DATALIMIT];
+  // The table shows the cells up to the last one used by the program, as many as fit in a JTable.
+  private int rows;
   private JTextArea text;
   private int row;
   private StatusBar statusbar;
@@ -56,6 +57,12 @@ public class GUIData extends GUIComponent {
   }
 
   public void update() {
+    int newRows = (int) Math.min(Integer.MAX_VALUE / dataPanel.theTable.getRowHeight(),
+        memory.getLastUsedCellIndex() + 1);
+    if (newRows != rows) {
+      rows = newRows;
+      dataPanel.tableModel.fireTableDataChanged();
+    }
   }
 
   public void draw() {
@@ -76,7 +83,7 @@ public class GUIData extends GUIComponent {
       super();
       setBackground(Color.WHITE);
       setLayout(new BorderLayout());
-      tableModel = new FileTableModel(memoryAddress);
+      tableModel = new FileTableModel();
       theTable = new JTable(tableModel);
       theTable.setCellSelectionEnabled(false);
       theTable.setFont(font);
@@ -171,18 +178,13 @@ public class GUIData extends GUIComponent {
     class FileTableModel extends AbstractTableModel {
       private String[] columnLocaleStrings = {"ADDRESS", "HEXREPR", "LABEL", "DATA", "COMMENT"};
       private Class[] columnClasses = {String.class, String.class, String.class, String.class, String.class};
-      private String memoryAddress[];
-
-      FileTableModel(String[] memoryAddress) {
-        this.memoryAddress = memoryAddress;
-      }
 
       public int getColumnCount() {
         return columnLocaleStrings.length;
       }
 
       public int getRowCount() {
-        return memoryAddress.length;
+        return rows;
       }
 
       public String getColumnName(int col) {
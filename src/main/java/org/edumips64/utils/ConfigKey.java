@@ -30,6 +30,10 @@ public enum ConfigKey {
     SYNC_EXCEPTIONS_TERMINATE("syncexc-terminate"),
     N_STEPS("n_step"),
     SLEEP_INTERVAL("sleep_interval"),
+    HISTORY_SIZE("history_size"),
+    MEMORY_TIMING("memory_timing"),
+    CACHE_OPTIONS("cache_options"),
+    CACHE_LATENCIES("cache_latencies"),
     FP_INVALID_OPERATION("INVALID_OPERATION"),
     FP_OVERFLOW("OVERFLOW"),
     FP_UNDERFLOW("UNDERFLOW"),
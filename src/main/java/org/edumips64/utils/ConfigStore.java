@@ -23,6 +23,7 @@
  */
 package org.edumips64.utils;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -32,57 +33,66 @@ import java.util.logging.Logger;
  * storage object by calling the getConfig method of ConfigManager.
  * */
 public abstract class ConfigStore {
-  public static Map<ConfigKey, Object> defaults;
+  // Default values of the configuration keys. The map is read-only, since it is shared by all the ConfigStore
+  // instances of the process.
+  public static final Map<ConfigKey, Object> defaults;
   static {
-    ConfigStore.defaults = new HashMap<>();
+    Map<ConfigKey, Object> values = new HashMap<>();
 
     // Global parameters.
-    ConfigStore.defaults.put(ConfigKey.LANGUAGE, "en");
-    ConfigStore.defaults.put(ConfigKey.FILES, "");
+    values.put(ConfigKey.LANGUAGE, "en");
+    values.put(ConfigKey.FILES, "");
     // TODO(andrea): this will create problems in the applet, and needs to be
     // encapsulated in some way.
-    ConfigStore.defaults.put(ConfigKey.LAST_DIR, System.getProperty("user.dir", ""));
-    ConfigStore.defaults.put(ConfigKey.DINERO, "dineroIV");
-    ConfigStore.defaults.put(ConfigKey.SERIAL_NUMBER, 0);
+    values.put(ConfigKey.LAST_DIR, System.getProperty("user.dir", ""));
+    values.put(ConfigKey.DINERO, "dineroIV");
+    values.put(ConfigKey.SERIAL_NUMBER, 0);
 
     // Colors.
-    ConfigStore.defaults.put(ConfigKey.IF_COLOR, -256);                // Color.yellow.getRGB())
-    ConfigStore.defaults.put(ConfigKey.ID_COLOR, -16746256);           // Color(0, 120, 240).getRGB());
-    ConfigStore.defaults.put(ConfigKey.EX_COLOR, -65536);              // Color.red.getRGB());
-    ConfigStore.defaults.put(ConfigKey.MEM_COLOR, -16711936);          // Color.green.getRGB());
-    ConfigStore.defaults.put(ConfigKey.FP_ADDER_COLOR, -16744448);      // Color(0, 128, 0).getRGB());
-    ConfigStore.defaults.put(ConfigKey.FP_MULTIPLIER_COLOR,-16744320);  // Color(0, 128, 128).getRGB());
-    ConfigStore.defaults.put(ConfigKey.FP_DIVIDER_COLOR, -8355840);     // Color(128, 128, 0).getRGB());
-    ConfigStore.defaults.put(ConfigKey.WB_COLOR, -5111630);            // Color.magenta.darker().getRGB());
-    ConfigStore.defaults.put(ConfigKey.RAW_COLOR, -16776961);          // Color.blue.brighter().getRGB());
-    ConfigStore.defaults.put(ConfigKey.SAME_IF_COLOR, -6908236);        // Color(150, 150, 180).getRGB());
+    values.put(ConfigKey.IF_COLOR, -256);                // Color.yellow.getRGB())
+    values.put(ConfigKey.ID_COLOR, -16746256);           // Color(0, 120, 240).getRGB());
+    values.put(ConfigKey.EX_COLOR, -65536);              // Color.red.getRGB());
+    values.put(ConfigKey.MEM_COLOR, -16711936);          // Color.green.getRGB());
+    values.put(ConfigKey.FP_ADDER_COLOR, -16744448);      // Color(0, 128, 0).getRGB());
+    values.put(ConfigKey.FP_MULTIPLIER_COLOR,-16744320);  // Color(0, 128, 128).getRGB());
+    values.put(ConfigKey.FP_DIVIDER_COLOR, -8355840);     // Color(128, 128, 0).getRGB());
+    values.put(ConfigKey.WB_COLOR, -5111630);            // Color.magenta.darker().getRGB());
+    values.put(ConfigKey.RAW_COLOR, -16776961);          // Color.blue.brighter().getRGB());
+    values.put(ConfigKey.SAME_IF_COLOR, -6908236);        // Color(150, 150, 180).getRGB());
 
     // Simulation parameters.
-    ConfigStore.defaults.put(ConfigKey.FORWARDING, false);
-    ConfigStore.defaults.put(ConfigKey.WARNINGS, false);
-    ConfigStore.defaults.put(ConfigKey.VERBOSE, true);
-    ConfigStore.defaults.put(ConfigKey.SYNC_EXCEPTIONS_MASKED, false);
-    ConfigStore.defaults.put(ConfigKey.SYNC_EXCEPTIONS_TERMINATE, false);
-    ConfigStore.defaults.put(ConfigKey.N_STEPS, 4);
-    ConfigStore.defaults.put(ConfigKey.SLEEP_INTERVAL, 10);
+    values.put(ConfigKey.FORWARDING, false);
+    values.put(ConfigKey.WARNINGS, false);
+    values.put(ConfigKey.VERBOSE, true);
+    values.put(ConfigKey.SYNC_EXCEPTIONS_MASKED, false);
+    values.put(ConfigKey.SYNC_EXCEPTIONS_TERMINATE, false);
+    values.put(ConfigKey.N_STEPS, 4);
+    values.put(ConfigKey.SLEEP_INTERVAL, 10);
+    values.put(ConfigKey.HISTORY_SIZE, 0);                // MB of undo journal, 0 disables it
+    values.put(ConfigKey.MEMORY_TIMING, false);
+    values.put(ConfigKey.CACHE_OPTIONS, "-l1-isize 8k -l1-ibsize 32 -l1-dsize 8k -l1-dbsize 32 -l1-dassoc 2 "
+        + "-l2-usize 256k -l2-ubsize 64 -l2-uassoc 4");  // DineroIV options
+    values.put(ConfigKey.CACHE_LATENCIES, "1 10 100");   // Cycles for L1, L2 and the memory
 
     // FPU exceptions defaults.
-    ConfigStore.defaults.put(ConfigKey.FP_INVALID_OPERATION, true);
-    ConfigStore.defaults.put(ConfigKey.FP_OVERFLOW, true);
-    ConfigStore.defaults.put(ConfigKey.FP_UNDERFLOW, true);
-    ConfigStore.defaults.put(ConfigKey.FP_DIVIDE_BY_ZERO, true);
+    values.put(ConfigKey.FP_INVALID_OPERATION, true);
+    values.put(ConfigKey.FP_OVERFLOW, true);
+    values.put(ConfigKey.FP_UNDERFLOW, true);
+    values.put(ConfigKey.FP_DIVIDE_BY_ZERO, true);
 
     // FPU Rounding mode defaults.
-    ConfigStore.defaults.put(ConfigKey.FP_NEAREST, false);
-    ConfigStore.defaults.put(ConfigKey.FP_TOWARDS_ZERO, true);
-    ConfigStore.defaults.put(ConfigKey.FP_TOWARDS_PLUS_INFINITY, false);
-    ConfigStore.defaults.put(ConfigKey.FP_TOWARDS_MINUS_INFINITY, false);
+    values.put(ConfigKey.FP_NEAREST, false);
+    values.put(ConfigKey.FP_TOWARDS_ZERO, true);
+    values.put(ConfigKey.FP_TOWARDS_PLUS_INFINITY, false);
+    values.put(ConfigKey.FP_TOWARDS_MINUS_INFINITY, false);
 
     // How to show memory cells containing floating point values.
-    ConfigStore.defaults.put(ConfigKey.FP_LONG_DOUBLE_VIEW, true);  // long=true  double=false
+    values.put(ConfigKey.FP_LONG_DOUBLE_VIEW, true);  // long=true  double=false
 
     // UI font options.
-    ConfigStore.defaults.put(ConfigKey.UI_FONT_SIZE, 18);
+    values.put(ConfigKey.UI_FONT_SIZE, 18);
+
+    defaults = Collections.unmodifiableMap(values);
   }
 
   // The interface exposes getter and setter methods for all the supported
@@ -98,6 +108,20 @@ public abstract class ConfigStore {
 
   protected static final Logger logger = Logger.getLogger(ConfigStore.class.getName());
 
+  // Incremented every time a value is stored.
+  private volatile int version;
+
+  /** Returns a number that changes every time a value is stored, so that
+   * clients can keep values read from the store until it changes again. */
+  public int getVersion() {
+    return version;
+  }
+
+  // Must be called by the implementations after storing a value.
+  protected void valueChanged() {
+    version++;
+  }
+
   // Generic utility function to populate a ConfigStore object from a set of
   // <String, Object> pairs.
   public void mergeFromGenericMap(Map<ConfigKey, Object> values) throws ConfigStoreTypeException {
@@ -27,10 +27,15 @@ import java.util.logging.Logger;
 
 /** This class has mostly static methods. If the 'config' attribute is set, then the current language is
    fetched from it. Otherwise, "en" is considered the default and used.
+
+   The 'config' attribute is meant for the user interface, of which there is one per process. Code that
+   simulates on behalf of a given ConfigStore (see SimulatorContext) passes it to getString() instead, so
+   that simulators with different languages can share the process.
  */
 public class CurrentLocale {
 
-  private static Map<String, Map<String, String>> languages;
+  // Filled once, when the class is initialized, and only read afterwards.
+  private static final Map<String, Map<String, String>> languages;
   private static ConfigStore config;
 
   public static void setConfig(ConfigStore config) {
@@ -72,6 +77,7 @@ public class CurrentLocale {
     en.put("ERROR_LABEL", "Error accessing a memory element. Maybe you've reached the limit of EduMIPS64 memory.");
     en.put("ERROR", "Error");
     en.put("FILE_NOT_FOUND", "File not found");
+    en.put("MEMORY_TIMING_ERROR", "Invalid memory timing settings");
     en.put("SYSCALL5_ERROR", "Error writing to standard output");
     en.put("Menu.FILE", "_File");
     en.put("Menu.EXECUTE", "E_xecute");
@@ -143,6 +149,7 @@ public class CurrentLocale {
     en.put("WARS", "WAR Stalls");
     en.put("STRUCTS_DIVNOTAVAILABLE", "Structural Stalls (Divider not available)");
     en.put("STRUCTS_MEMNOTAVAILABLE", "Structural Stalls (Memory not available)");
+    en.put("CACHEMISS_STALLS", "Cache Miss Stalls");
     en.put("BTS", "Branch Taken Stalls");
     en.put("BMS", "Branch Misprediction Stalls");
     en.put("CSIZE", "Code size");
@@ -202,6 +209,12 @@ public class CurrentLocale {
     en.put("Config.SYNCEXC-TERMINATE.tip", "Halt the simulation on Division by zero and Integer Overflow exceptions");
     en.put("Config.FONTSIZE", "Font size");
     en.put("Config.FONTSIZE.tip", "Size of the font");
+    en.put("Config.MEMORY_TIMING", "Simulate memory latency");
+    en.put("Config.MEMORY_TIMING.tip", "Holds loads and stores in MEM while the caches are missed, stalling the pipeline");
+    en.put("Config.CACHE_OPTIONS", "Caches (DineroIV options)");
+    en.put("Config.CACHE_OPTIONS.tip", "Cache hierarchy used to compute the memory latency, e.g. -l1-dsize 8k -l1-dbsize 32 -l1-isize 8k -l1-ibsize 32");
+    en.put("Config.CACHE_LATENCIES", "Latencies (cycles)");
+    en.put("Config.CACHE_LATENCIES.tip", "Cycles of an access served by each level of caches and by the memory, separated by spaces");
     en.put("StatusBar.WELCOME", "Welcome to EduMIPS64");
     en.put("StatusBar.DECIMALVALUE", "Decimal value");
     en.put("StatusBar.OFREGISTER", "of R");
@@ -288,6 +301,7 @@ public class CurrentLocale {
     it.put("ERROR_LABEL", "Errore durante l'accesso alla memoria. Probabilmente è stato raggiunto il limite della memoria di EduMIPS64");
     it.put("ERROR", "Errore");
     it.put("FILE_NOT_FOUND", "File non trovato");
+    it.put("MEMORY_TIMING_ERROR", "Impostazioni della temporizzazione della memoria non valide");
     it.put("SYSCALL5_ERROR", "Errore nella scrittura su standard output");
     it.put("Menu.FILE", "_File");
     it.put("Menu.EXECUTE", "E_secuzione");
@@ -359,6 +373,7 @@ public class CurrentLocale {
     it.put("WARS", "Stalli WAR");
     it.put("STRUCTS_DIVNOTAVAILABLE", "Stalli strutturali (Divisore non disponibile)");
     it.put("STRUCTS_MEMNOTAVAILABLE", "Stalli strutturali (Memoria non disponibile)");
+    it.put("CACHEMISS_STALLS", "Stalli per cache miss");
     it.put("BTS", "Stalli 'Branch Taken'");
     it.put("BMS", "Stalli 'Branch Misprediction'");
     it.put("CSIZE", "Dimensione del codice");
@@ -418,6 +433,12 @@ public class CurrentLocale {
     it.put("Config.SYNCEXC-TERMINATE.tip", "Ferma la simulazione al verificarsi di eccezioni di tipo Divisione per zero ed Integer overflow");
     it.put("Config.FONTSIZE", "Dimensione font");
     it.put("Config.FONTSIZE.tip", "Dimensione del font");
+    it.put("Config.MEMORY_TIMING", "Simula la latenza della memoria");
+    it.put("Config.MEMORY_TIMING.tip", "Trattiene load e store in MEM durante i cache miss, mettendo in stallo la pipeline");
+    it.put("Config.CACHE_OPTIONS", "Cache (opzioni DineroIV)");
+    it.put("Config.CACHE_OPTIONS.tip", "Gerarchia di cache usata per calcolare la latenza della memoria, ad es. -l1-dsize 8k -l1-dbsize 32 -l1-isize 8k -l1-ibsize 32");
+    it.put("Config.CACHE_LATENCIES", "Latenze (cicli)");
+    it.put("Config.CACHE_LATENCIES.tip", "Cicli di un accesso servito da ogni livello di cache e dalla memoria, separati da spazi");
     it.put("StatusBar.WELCOME", "Benvenuti in EduMIPS64");
     it.put("StatusBar.DECIMALVALUE", "Valore decimale");
     it.put("StatusBar.OFREGISTER", "di R");
@@ -476,6 +497,11 @@ public class CurrentLocale {
   }
 
   public static String getString(String key) {
+    return getString(key, config);
+  }
+
+  /** Returns the message in the language of the given configuration, or in English if it is null. */
+  public static String getString(String key, ConfigStore config) {
     String lang_name = "en";
     if (config != null) {
       lang_name = config.getString(ConfigKey.LANGUAGE);
@@ -29,6 +29,7 @@ import org.edumips64.core.CPU;
 import org.edumips64.core.is.InstructionInterface;
 
 import java.util.*;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class CycleBuilder {
@@ -56,6 +57,8 @@ public class CycleBuilder {
   private int oldRAWStalls, oldWAWStalls, oldStructStallsEX, oldStructStallsDivider, oldStructStallsFuncUnit;
   // Used to understand if the EX instruction is in structural stall (memory).
   private int oldMemoryStalls;
+  // Used to understand if the pipeline is stalled by a cache miss of the instruction in MEM.
+  private int oldCacheMissStalls;
   // Groups five stalls (EXNotAvailable, FuncUnitNotAvailable,
   // DividerNotAvailable, RAW, WAW), in order to understand if a new
   // instruction has to be added to "elementsList"
@@ -104,7 +107,9 @@ public class CycleBuilder {
     // Reverse the list since the elements are updated from IF to WB, and the elementsList is sorted in
     // chronological order.
     Collections.reverse(lastElements);
-    logger.info("Got " + lastElements.size() + " CycleElements. " + instrInPipelineCount + " instructions in the pipeline.");
+    if (logger.isLoggable(Level.INFO)) {
+      logger.info("Got " + lastElements.size() + " CycleElements. " + instrInPipelineCount + " instructions in the pipeline.");
+    }
 
     // The map is reset at every cycle on purpose.
     processedCountMap = new HashMap<>();
@@ -125,6 +130,12 @@ public class CycleBuilder {
         logger.severe("Something fishy going on with the instruction that has to go into ID");
       }
 
+      // A cache miss stalls all the stages before MEM: their instructions are tagged with "StMem".
+      boolean cacheMissStallOccurred = (oldCacheMissStalls != cpu.getCacheMissStalls());
+      if (cacheMissStallOccurred) {
+        inputStallOccurred = true;
+      }
+
 
       // IF
       if (pipeline.get(CPU.PipeStage.IF) != null) {
@@ -153,7 +164,9 @@ public class CycleBuilder {
 
       // ID
       el = getElementToUpdate(pipeline.get(CPU.PipeStage.ID));
-      if (el != null) {
+      if (el != null && cacheMissStallOccurred) {
+        el.addState("StMem");
+      } else if (el != null) {
         if (!inputStallOccurred) {
           el.addState("ID");
         }
@@ -181,14 +194,17 @@ public class CycleBuilder {
 
       // EX
       el = getElementToUpdate(pipeline.get(CPU.PipeStage.EX));
-      if (el != null) {
+      if (el != null && cacheMissStallOccurred) {
+        el.addState("StMem");
+      } else if (el != null) {
         // If a structural stall(memory) occurs, the instruction in EX has to be tagged first with "EX" and then with "StEx"
         boolean exTagged = false;
+        String lastState = getLastStage(el);
 
-        if (el.getLastState().equals("ID") ||
-            el.getLastState().equals("RAW") ||
-            el.getLastState().equals("WAW") ||
-            el.getLastState().equals("StEx")) {
+        if (lastState.equals("ID") ||
+            lastState.equals("RAW") ||
+            lastState.equals("WAW") ||
+            lastState.equals("StEx")) {
           el.addState("EX");
           exTagged = true;
         }
@@ -219,20 +235,22 @@ public class CycleBuilder {
       for (int i = 1; i <= 3; ++i) {
         el = getElementToUpdate(cpu.getInstructionByFuncUnit("ADDER", i));
         if (el != null) {
-          el.addState("A" + i);
+          el.addState(cacheMissStallOccurred ? "StMem" : "A" + i);
         }
       }
 
       el = getElementToUpdate(cpu.getInstructionByFuncUnit("ADDER", 4));
-      if (el != null) {
+      if (el != null && cacheMissStallOccurred) {
+        el.addState("StMem");
+      } else if (el != null) {
         boolean A4tagged = false;
-        if (el.getLastState().equals("A3")) {
+        if (getLastStage(el).equals("A3")) {
           el.addState("A4");
           A4tagged = true;
         }
 
         //we have to check if a structural hazard  occurred and it involved the divider or the multiplier (it is sufficient to control if the "A4" o "StAdd" tag was added to the instruction
-        if (!A4tagged && (el.getLastState().equals("A4") || el.getLastState().equals("StAdd"))) {
+        if (!A4tagged && (getLastStage(el).equals("A4") || getLastStage(el).equals("StAdd"))) {
           el.addState("StAdd");
         }
       }
@@ -243,29 +261,33 @@ public class CycleBuilder {
       for (int i = 1; i <= 6; ++i) {
         el = getElementToUpdate(cpu.getInstructionByFuncUnit("MULTIPLIER", i));
         if (el != null) {
-          el.addState("M" + i);
+          el.addState(cacheMissStallOccurred ? "StMem" : "M" + i);
         }
       }
 
       el = getElementToUpdate(cpu.getInstructionByFuncUnit("MULTIPLIER", 7));
-      if (el != null) {
+      if (el != null && cacheMissStallOccurred) {
+        el.addState("StMem");
+      } else if (el != null) {
         boolean M7tagged = false;
-        if (el.getLastState().equals("M6")) {
+        if (getLastStage(el).equals("M6")) {
           el.addState("M7");
           M7tagged = true;
         }
 
         //we check if a structural hazard  occurred and involved the divider
-        if (!M7tagged && (el.getLastState().equals("M7") || el.getLastState().equals("StMul"))) {
+        if (!M7tagged && (getLastStage(el).equals("M7") || getLastStage(el).equals("StMul"))) {
           el.addState("StMul");
         }
       }
 
       //DIVIDER ------------------------------------------------------
       el = getElementToUpdate(cpu.getInstructionByFuncUnit("DIVIDER", 0));
-      if (el != null) {
+      if (el != null && cacheMissStallOccurred) {
+        el.addState("StMem");
+      } else if (el != null) {
         boolean DIVtagged = false;
-        stage = el.getLastState();
+        stage = getLastStage(el);
         if (!stage.equals("DIV") && !stage.matches("D[0-2][0-9]")) {
           el.addState("DIV");
           DIVtagged = true;
@@ -321,8 +343,21 @@ public class CycleBuilder {
     return element;
   }
 
+  // Returns the last state of the element, skipping the cycles it was stalled by cache misses.
+  private static String getLastStage(CycleElement el) {
+    Iterator<String> states = el.getStates().descendingIterator();
+    while (states.hasNext()) {
+      String state = states.next();
+      if (!state.equals("StMem")) {
+        return state;
+      }
+    }
+    return el.getLastState();
+  }
+
   private void updateStalls() {
     oldMemoryStalls = cpu.getMemoryStalls();
+    oldCacheMissStalls = cpu.getCacheMissStalls();
     oldRAWStalls = cpu.getRAWStalls();
     oldWAWStalls = cpu.getWAWStalls();
     oldStructStallsEX = cpu.getStructuralStallsEX();
@@ -18,6 +18,7 @@ public class InMemoryConfigStore extends ConfigStore {
   @Override
   public void putString(ConfigKey key, String value) {
     data.put(key, value);
+    valueChanged();
   }
 
   @Override
@@ -40,6 +41,7 @@ public class InMemoryConfigStore extends ConfigStore {
   @Override
   public void putInt(ConfigKey key, int value) {
     data.put(key, value);
+    valueChanged();
   }
 
   @Override
@@ -62,6 +64,7 @@ public class InMemoryConfigStore extends ConfigStore {
   @Override
   public void putBoolean(ConfigKey key, boolean value) {
     data.put(key, value);
+    valueChanged();
   }
 
   @Override
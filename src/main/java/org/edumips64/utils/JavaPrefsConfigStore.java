@@ -18,6 +18,7 @@ public class JavaPrefsConfigStore extends ConfigStore {
   @Override
   public void putString(ConfigKey key, String value) {
     prefs.put(String.valueOf(key), value);
+    valueChanged();
   }
 
   @Override
@@ -36,6 +37,7 @@ public class JavaPrefsConfigStore extends ConfigStore {
   @Override
   public void putInt(ConfigKey key, int value) {
     prefs.putInt(String.valueOf(key), value);
+    valueChanged();
   }
 
   @Override
@@ -54,6 +56,7 @@ public class JavaPrefsConfigStore extends ConfigStore {
   @Override
   public void putBoolean(ConfigKey key, boolean value) {
     prefs.putBoolean(String.valueOf(key), value);
+    valueChanged();
   }
 
   @Override
@@ -1,12 +1,18 @@
 package org.edumips64;
 
+import org.edumips64.core.SimulatorContext;
 import org.edumips64.utils.ConfigStore;
 import org.edumips64.utils.InMemoryConfigStore;
+import org.edumips64.utils.io.LocalFileUtils;
+import org.edumips64.utils.io.StringWriter;
 import org.junit.BeforeClass;
 
+import java.io.File;
 import java.util.logging.Handler;
 import java.util.logging.Logger;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * Base class for all tests.
  */
@@ -25,4 +31,23 @@ public class BaseTest {
     }
   }
 
+  /** Creates a simulator with a private configuration holding the default values, which discards the standard
+   * output of the programs. */
+  protected static SimulatorContext newContext() {
+    SimulatorContext context = new SimulatorContext(new LocalFileUtils());
+    context.getIOManager().setStdOutput(new StringWriter());
+    return context;
+  }
+
+  /** Loads a program of src/test/resources on the simulator and runs it until it halts (see runToHalt()). */
+  protected static void runProgram(SimulatorContext context, String program) throws Exception {
+    context.load(new File("src/test/resources/" + program).getAbsolutePath());
+    runToHalt(context);
+  }
+
+  /** Runs the loaded program until it halts. Synchronous exceptions stop it only if SYNC_EXCEPTIONS_TERMINATE is
+   * set, and then fail the test, as BREAK does. */
+  protected static void runToHalt(SimulatorContext context) throws Exception {
+    assertEquals(SimulatorContext.Exit.HALT, context.run(Long.MAX_VALUE, null));
+  }
 }
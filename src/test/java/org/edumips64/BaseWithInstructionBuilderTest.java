@@ -40,7 +40,7 @@ public class BaseWithInstructionBuilderTest extends BaseTest {
 
   public void testSetup() {
     memory = new Memory();
-    cpu = new CPU(memory, config, new BUBBLE());
+    cpu = new CPU(memory, config, BUBBLE.INSTANCE);
     cpu.setStatus(CPU.CPUStatus.READY);
     dinero = new Dinero();
     symTab = new SymbolTable(memory);
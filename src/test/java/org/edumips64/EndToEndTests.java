@@ -26,6 +26,8 @@
 package org.edumips64;
 
 import org.edumips64.core.*;
+import org.edumips64.core.cache.CacheSimulator;
+import org.edumips64.core.cache.MemoryTiming;
 import org.edumips64.core.fpu.RegisterFP;
 import org.edumips64.core.is.*;
 import org.edumips64.core.parser.Parser;
@@ -39,8 +41,13 @@ import org.edumips64.utils.io.LocalFileUtils;
 import org.edumips64.utils.io.LocalWriter;
 import org.edumips64.utils.io.StringWriter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.logging.Logger;
 import java.util.Map;
 import java.util.Scanner;
@@ -59,6 +66,15 @@ public class EndToEndTests extends BaseWithInstructionBuilderTest {
   private CycleBuilder builder;
   private static String testsLocation = "src/test/resources/";
 
+  enum Mode {PIPELINED, FUNCTIONAL, SAMPLED, CHECKPOINTED}
+
+  // Parameters of the SAMPLED mode, and the SamplingEngine of the last test run in that mode.
+  private static final int SAMPLING_FAST_FORWARD = 2000, SAMPLING_WARM_UP = 100, SAMPLING_WINDOW = 500;
+  private SamplingEngine sampler;
+
+  // Cycle at which the CHECKPOINTED mode saves the checkpoint.
+  private int checkpointCycle;
+
   @Rule
   public ErrorCollector collector = new ErrorCollector();
 
@@ -68,17 +84,27 @@ public class EndToEndTests extends BaseWithInstructionBuilderTest {
   class CpuTestStatus {
     int cycles;
     int instructions;
-    int rawStalls, wawStalls, memStalls, divStalls;
+    int rawStalls, wawStalls, memStalls, divStalls, cacheMissStalls;
     String traceFile;
     RegisterFP[] fpRegisters;
 
-    CpuTestStatus(CPU cpu, String dineroTrace) {
+    // Architectural state (registers and memory) and output of the program, compared across simulation modes.
+    String state;
+    String output;
+
+    CpuTestStatus(CPU cpu, String dineroTrace, String output) {
+      this.output = output;
+      // The code section of the memory is left out, since it contains the serial numbers of the instructions.
+      String memoryData = memory.toString();
+      memoryData = memoryData.substring(0, memoryData.indexOf("\nCode:"));
+      state = cpu.gprString() + "LO: " + cpu.getLO() + "\nHI: " + cpu.getHI() + "\n" + memoryData;
       cycles = cpu.getCycles();
       instructions = cpu.getInstructions();
       wawStalls = cpu.getWAWStalls();
       rawStalls = cpu.getRAWStalls();
       memStalls = cpu.getStructuralStallsMemory();
       divStalls = cpu.getStructuralStallsDivider();
+      cacheMissStalls = cpu.getCacheMissStalls();
       traceFile = dineroTrace;
 
       // Deep copy the FP Registers.
@@ -152,30 +178,47 @@ public class EndToEndTests extends BaseWithInstructionBuilderTest {
   // Writing the trace file can unnecessarily slow down the tests, so by default they are not written (see previous
   // override of this method).
   private CpuTestStatus runMipsTest(String testPath, boolean writeTracefile) throws Exception {
+    return runMipsTest(testPath, writeTracefile, Mode.PIPELINED);
+  }
+
+  // Version of runMipsTest that allows to choose how the program is executed: stepping the pipeline, executing one
+  // instruction at a time with the FunctionalEngine (cycles and stalls are always 0), sampling with the
+  // SamplingEngine, using the SAMPLING_* parameters, or stepping the pipeline after restoring a checkpoint saved at
+  // checkpointCycle into a freshly loaded copy of the program.
+  private CpuTestStatus runMipsTest(String testPath, boolean writeTracefile, Mode mode) throws Exception {
     log.warning("================================= Starting test " + testPath + " (forwarding: " +
-        config.getBoolean(ConfigKey.FORWARDING) + ")");
+        config.getBoolean(ConfigKey.FORWARDING) + ", mode: " + mode + ")");
     cpu.reset();
     dinero.reset();
     symTab.reset();
     builder.reset();
     testPath = testsLocation + testPath;
     String tracefile = null;
+    int outputStart = stdOut.toString().length();
 
     try {
-      try {
-        String absoluteFilename = new File(testPath).getAbsolutePath();
-        parser.parse(absoluteFilename);
-      } catch (ParserMultiWarningException e) {
-        // This exception is raised even if there are only warnings.
-        // We must raise it only if there are actual errors.
-        if (e.hasErrors()) {
-          throw e;
-        }
-      }
-
+      parse(testPath);
       dinero.setDataOffset(memory.getInstructionsNumber()*4);
       cpu.setStatus(CPU.CPUStatus.RUNNING);
 
+      if (mode == Mode.FUNCTIONAL) {
+        new FunctionalEngine(cpu, memory).run();
+      } else if (mode == Mode.SAMPLED) {
+        sampler = new SamplingEngine(cpu, memory, SAMPLING_FAST_FORWARD, SAMPLING_WARM_UP, SAMPLING_WINDOW);
+        sampler.run();
+      } else if (mode == Mode.CHECKPOINTED) {
+        while (cpu.getCycles() < checkpointCycle) {
+          cpu.step();
+        }
+        ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+        new Checkpoint(cpu, memory, symTab).save(checkpoint);
+
+        cpu.reset();
+        symTab.reset();
+        parse(testPath);
+        new Checkpoint(cpu, memory, symTab).restore(new ByteArrayInputStream(checkpoint.toByteArray()));
+      }
+
       while (true) {
         cpu.step();
         builder.step();
@@ -202,7 +245,7 @@ public class EndToEndTests extends BaseWithInstructionBuilderTest {
         throw new InvalidCycleElementTransactionException();
       }
 
-      return new CpuTestStatus(cpu, tracefile);
+      return new CpuTestStatus(cpu, tracefile, stdOut.toString().substring(outputStart));
     } finally {
       cpu.reset();
       dinero.reset();
@@ -210,6 +253,19 @@ public class EndToEndTests extends BaseWithInstructionBuilderTest {
     }
   }
 
+  private void parse(String testPath) throws Exception {
+    try {
+      String absoluteFilename = new File(testPath).getAbsolutePath();
+      parser.parse(absoluteFilename);
+    } catch (ParserMultiWarningException e) {
+      // This exception is raised even if there are only warnings.
+      // We must raise it only if there are actual errors.
+      if (e.hasErrors()) {
+        throw e;
+      }
+    }
+  }
+
   enum ForwardingStatus {ENABLED, DISABLED}
 
   /** Runs a MIPS64 test program with and without forwarding, raising an
@@ -243,6 +299,41 @@ public class EndToEndTests extends BaseWithInstructionBuilderTest {
     collector.checkThat("Instructions without forwarding (" + path + ")", statuses.get(ForwardingStatus.DISABLED).instructions, equalTo(expected_instructions));
   }
 
+  /** Runs a MIPS64 test program in the pipeline and in functional mode, checking that both runs execute the same
+   * instructions and leave the same architectural state, output and memory accesses.
+   */
+  private void runFunctionalTest(String path) throws Exception {
+    CpuTestStatus pipelined = runMipsTest(path, true, Mode.PIPELINED);
+    CpuTestStatus functional = runMipsTest(path, true, Mode.FUNCTIONAL);
+
+    collector.checkThat("Instructions (" + path + ")", functional.instructions, equalTo(pipelined.instructions));
+    collector.checkThat("Cycles (" + path + ")", functional.cycles, equalTo(0));
+    collector.checkThat("Registers and memory (" + path + ")", functional.state, equalTo(pipelined.state));
+    collector.checkThat("Output (" + path + ")", functional.output, equalTo(pipelined.output));
+    for (int i = 0; i < pipelined.fpRegisters.length; ++i) {
+      collector.checkThat("FP register " + i + " (" + path + ")", functional.fpRegisters[i].getBinString(),
+          equalTo(pipelined.fpRegisters[i].getBinString()));
+    }
+
+    String pipelinedTrace = new Scanner(new File(pipelined.traceFile)).useDelimiter("\\A").next();
+    String functionalTrace = new Scanner(new File(functional.traceFile)).useDelimiter("\\A").next();
+    // Without the pipeline the data accesses are not interleaved with the fetches in the same way, so the two
+    // streams are compared separately.
+    collector.checkThat("Fetches (" + path + ")", traceLines(functionalTrace, true), equalTo(traceLines(pipelinedTrace, true)));
+    collector.checkThat("Data accesses (" + path + ")", traceLines(functionalTrace, false), equalTo(traceLines(pipelinedTrace, false)));
+  }
+
+  // Returns the instruction fetches or the data accesses of a Dinero trace.
+  private static String traceLines(String trace, boolean fetches) {
+    StringBuilder sb = new StringBuilder();
+    for (String line : trace.split("\n")) {
+      if (line.startsWith("i ") == fetches) {
+        sb.append(line).append('\n');
+      }
+    }
+    return sb.toString();
+  }
+
   private void runTestAndCompareTracefileWithGolden(String path) throws Exception {
     CpuTestStatus s = runMipsTest(path, true);
     String goldenTrace = testsLocation + path + ".xdin.golden";
@@ -321,6 +412,24 @@ public class EndToEndTests extends BaseWithInstructionBuilderTest {
         runMipsTest("dsubu-simple-test.s");
     }
 
+  /* Test for the 64-bit integer ALU instructions */
+  @Test
+  public void testALU64() throws Exception {
+    runMipsTestWithAndWithoutForwarding("alu64.s");
+  }
+
+  @Test(expected = SynchronousException.class)
+  public void testDADDOverflow() throws Exception {
+    config.putBoolean(ConfigKey.SYNC_EXCEPTIONS_MASKED, false);
+    runMipsTest("dadd-overflow.s");
+  }
+
+  @Test(expected = SynchronousException.class)
+  public void testDSUBOverflow() throws Exception {
+    config.putBoolean(ConfigKey.SYNC_EXCEPTIONS_MASKED, false);
+    runMipsTest("dsub-overflow.s");
+  }
+
   /* Test for the instruction JAL */
   @Test
   public void testJAL() throws Exception {
@@ -550,4 +659,340 @@ public class EndToEndTests extends BaseWithInstructionBuilderTest {
   public void testSetBitSort() throws Exception {
     runMipsTestWithAndWithoutForwarding("set-bit-sort.s");
   }
+
+  /* ------- FUNCTIONAL MODE TESTS -------- */
+  @Test
+  public void testFunctionalMode() throws Exception {
+    String[] programs = {"zero.s", "halt.s", "hello-world.s", "b.s", "daddu-simple-test.s", "dsubu-simple-test.s",
+        "jal.s", "div.s", "divu.s", "test-strlen.s", "test-strcmp.s", "memtest.s", "forwarding.s",
+        "store-after-load.s", "fpu-waw.s", "fp-cond.s", "sub.d.s", "div.d.s", "fpu-out-of-order-terminate.s",
+        "movn-issue-7.s", "movz-issue-7.s", "aligned.s", "tracefile-ldst.s", "issue51-halt.s",
+        "issue51-syscall0.s", "jr-raw.s", "jalr-raw.s", "hailstoneenglish.s", "set-bit-sort.s", "alu64.s"};
+    for (String program : programs) {
+      runFunctionalTest(program);
+    }
+  }
+
+  @Test
+  public void testFunctionalModeWithoutForwarding() throws Exception {
+    config.putBoolean(ConfigKey.FORWARDING, false);
+    runFunctionalTest("forwarding.s");
+    runFunctionalTest("set-bit-sort.s");
+  }
+
+  @Test(expected = BreakException.class)
+  public void testFunctionalBREAK() throws Exception {
+    runMipsTest("break.s", false, Mode.FUNCTIONAL);
+  }
+
+  @Test(expected = SynchronousException.class)
+  public void testFunctionalDivisionByZeroThrowException() throws Exception {
+    config.putBoolean(ConfigKey.SYNC_EXCEPTIONS_MASKED, false);
+    runMipsTest("div0.s", false, Mode.FUNCTIONAL);
+  }
+
+  @Test(expected = NotAlignException.class)
+  public void testFunctionalMisalignLD() throws Exception {
+    runMipsTest("misaligned-ld.s", false, Mode.FUNCTIONAL);
+  }
+
+  /* ------- SAMPLED SIMULATION TESTS -------- */
+  @Test
+  public void testSampling() throws Exception {
+    for (String program : new String[] {"set-bit-sort.s", "hailstoneenglish.s"}) {
+      CpuTestStatus pipelined = runMipsTest(program, false, Mode.PIPELINED);
+      CpuTestStatus sampled = runMipsTest(program, false, Mode.SAMPLED);
+
+      // Draining the pipeline between windows must not change the results of the program.
+      collector.checkThat("Instructions (" + program + ")", sampled.instructions, equalTo(pipelined.instructions));
+      collector.checkThat("Registers and memory (" + program + ")", sampled.state, equalTo(pipelined.state));
+      collector.checkThat("Output (" + program + ")", sampled.output, equalTo(pipelined.output));
+      collector.checkThat("Instructions of the sampler (" + program + ")", sampler.getInstructions(), equalTo(pipelined.instructions));
+      collector.checkThat("Samples (" + program + ")", sampler.getSamples(), equalTo(pipelined.instructions / (SAMPLING_FAST_FORWARD + SAMPLING_WARM_UP + SAMPLING_WINDOW)));
+
+      // The estimate must be within 5% of the actual cycles.
+      SamplingEngine.Estimate cycles = sampler.getTotal(SamplingEngine.Counter.CYCLES);
+      log.warning("Estimated cycles for " + program + ": " + cycles + ", actual: " + pipelined.cycles);
+      double cyclesError = Math.abs(cycles.getMean() - pipelined.cycles) / pipelined.cycles;
+      collector.checkThat("Error on the estimated cycles (" + program + "): " + cyclesError, cyclesError < 0.05, is(true));
+
+      // Stalls are rare, so only check that the actual value is within the confidence interval.
+      SamplingEngine.Estimate raw = sampler.getTotal(SamplingEngine.Counter.RAW_STALLS);
+      collector.checkThat("Estimated RAW stalls (" + program + "): " + raw + ", actual: " + pipelined.rawStalls,
+          Math.abs(raw.getMean() - pipelined.rawStalls) <= raw.getHalfWidth(), is(true));
+    }
+  }
+
+  /* ------- CHECKPOINT TESTS -------- */
+  @Test
+  public void testCheckpoint() throws Exception {
+    // fpu-mul.s raises FPU exceptions, let's disable them.
+    config.putBoolean(ConfigKey.FP_INVALID_OPERATION, false);
+    config.putBoolean(ConfigKey.FP_OVERFLOW, false);
+    config.putBoolean(ConfigKey.FP_UNDERFLOW, false);
+    config.putBoolean(ConfigKey.FP_DIVIDE_BY_ZERO, false);
+
+    for (String program : new String[] {"fpu-mul.s", "fpu-waw.s", "div.d.divider-stalls.s", "movn-issue-7.s",
+        "test-strcmp.s", "set-bit-sort.s"}) {
+      CpuTestStatus pipelined = runMipsTest(program);
+
+      // Checkpoints are saved at about 20 different cycles of the run, to catch the pipelines in different states.
+      for (int cycle = 1; cycle < pipelined.cycles; cycle += Math.max(1, pipelined.cycles / 20)) {
+        checkpointCycle = cycle;
+        CpuTestStatus restored = runMipsTest(program, false, Mode.CHECKPOINTED);
+        String where = " (" + program + ", checkpoint at cycle " + cycle + ")";
+
+        collector.checkThat("Cycles" + where, restored.cycles, equalTo(pipelined.cycles));
+        collector.checkThat("Instructions" + where, restored.instructions, equalTo(pipelined.instructions));
+        collector.checkThat("RAW stalls" + where, restored.rawStalls, equalTo(pipelined.rawStalls));
+        collector.checkThat("WAW stalls" + where, restored.wawStalls, equalTo(pipelined.wawStalls));
+        collector.checkThat("Memory stalls" + where, restored.memStalls, equalTo(pipelined.memStalls));
+        collector.checkThat("Divider stalls" + where, restored.divStalls, equalTo(pipelined.divStalls));
+        collector.checkThat("Registers and memory" + where, restored.state, equalTo(pipelined.state));
+        for (int i = 0; i < pipelined.fpRegisters.length; ++i) {
+          collector.checkThat("FP register " + i + where, restored.fpRegisters[i].getBinString(),
+              equalTo(pipelined.fpRegisters[i].getBinString()));
+        }
+      }
+    }
+  }
+
+  @Test(expected = java.io.IOException.class)
+  public void testCheckpointOfDifferentProgram() throws Exception {
+    parse(testsLocation + "div.s");
+    cpu.setStatus(CPU.CPUStatus.RUNNING);
+    ByteArrayOutputStream checkpoint = new ByteArrayOutputStream();
+    new Checkpoint(cpu, memory, symTab).save(checkpoint);
+
+    cpu.reset();
+    symTab.reset();
+    parse(testsLocation + "divu.s");
+    new Checkpoint(cpu, memory, symTab).restore(new ByteArrayInputStream(checkpoint.toByteArray()));
+  }
+
+  /* ------- MEMORY TIMING TESTS -------- */
+  @Test
+  public void testMemoryTiming() throws Exception {
+    // fpu-mul.s raises FPU exceptions, let's disable them.
+    config.putBoolean(ConfigKey.FP_INVALID_OPERATION, false);
+    config.putBoolean(ConfigKey.FP_OVERFLOW, false);
+    config.putBoolean(ConfigKey.FP_UNDERFLOW, false);
+    config.putBoolean(ConfigKey.FP_DIVIDE_BY_ZERO, false);
+
+    // Small caches, so that the programs miss often.
+    MemoryTiming timing = new MemoryTiming(CacheSimulator.parse("-l1-isize 256 -l1-ibsize 16 -l1-dsize 64 "
+        + "-l1-dbsize 16 -l2-usize 1k -l2-ubsize 32"), new int[] {1, 5, 30});
+
+    for (String program : new String[] {"fpu-mul.s", "memtest.s", "store-after-load.s", "test-strlen.s",
+        "test-strcmp.s", "set-bit-sort.s"}) {
+      CpuTestStatus untimed = runMipsTest(program);
+      CpuTestStatus timed;
+      dinero.addListener(timing);
+      cpu.setMemoryTiming(timing);
+      try {
+        timed = runMipsTest(program);
+      } finally {
+        dinero.removeListener(timing);
+        cpu.setMemoryTiming(null);
+      }
+      String where = " (" + program + ")";
+
+      // The whole pipeline waits for the memory, so only the number of cycles changes.
+      collector.checkThat("Cache miss stalls without timing" + where, untimed.cacheMissStalls, equalTo(0));
+      collector.checkThat("Cache miss stalls" + where, timed.cacheMissStalls > 0, is(true));
+      collector.checkThat("Cycles" + where, timed.cycles, equalTo(untimed.cycles + timed.cacheMissStalls));
+      collector.checkThat("Instructions" + where, timed.instructions, equalTo(untimed.instructions));
+      collector.checkThat("RAW stalls" + where, timed.rawStalls, equalTo(untimed.rawStalls));
+      collector.checkThat("WAW stalls" + where, timed.wawStalls, equalTo(untimed.wawStalls));
+      collector.checkThat("Memory stalls" + where, timed.memStalls, equalTo(untimed.memStalls));
+      collector.checkThat("Divider stalls" + where, timed.divStalls, equalTo(untimed.divStalls));
+      collector.checkThat("Registers and memory" + where, timed.state, equalTo(untimed.state));
+      collector.checkThat("Output" + where, timed.output, equalTo(untimed.output));
+    }
+  }
+
+  /* The loads made by SYSCALL in MEM stall the SYSCALL itself, not the next instruction that reaches MEM. */
+  @Test
+  public void testMemoryTimingSyscall() throws Exception {
+    MemoryTiming timing = new MemoryTiming(CacheSimulator.parse("-l1-isize 256 -l1-ibsize 16 -l1-dsize 64 "
+        + "-l1-dbsize 16"), new int[] {1, 30});
+    dinero.addListener(timing);
+    cpu.setMemoryTiming(timing);
+    try {
+      CpuTestStatus status = runMipsTest("hello-world.s");
+      // Each cycle an instruction waits for the memory adds a MEM state.
+      Map<String, Integer> waits = new HashMap<>();
+      int total = 0;
+      for (CycleElement el : builder.getElementsList()) {
+        int wait = Collections.frequency(el.getStates(), "MEM") - 1;
+        waits.put(el.getName(), wait);
+        total += wait;
+      }
+      collector.checkThat("Cycles the printf waits for the memory", waits.get("syscall 5") > 0, is(true));
+      collector.checkThat("Cycles SYSCALL 0 waits for the memory", waits.get("syscall 0"), equalTo(0));
+      collector.checkThat("Cache miss stalls", total, equalTo(status.cacheMissStalls));
+    } finally {
+      dinero.removeListener(timing);
+      cpu.setMemoryTiming(null);
+    }
+  }
+
+  /* ------- REVERSE STEPPING TESTS -------- */
+
+  // State of the simulator compared by the reverse stepping tests: registers, memory, pipelines and statistics.
+  private String simulatorState() throws Exception {
+    return cpu.toString() + "FCSR: " + cpu.getFCSR() + "\nLO: " + cpu.getLO() + "\nHI: " + cpu.getHI() +
+        "\nPC: " + cpu.getPC() + "\nStatus: " + cpu.getStatus() + "\nDivider: " + cpu.getDividerCounter() +
+        "\nCycles: " + cpu.getCycles() + " " + cpu.getInstructions() + " " + cpu.getRAWStalls() + " " +
+        cpu.getWAWStalls() + " " + cpu.getStructuralStallsDivider() + " " + cpu.getStructuralStallsMemory() +
+        "\nDinero:\n" + dineroTrace();
+  }
+
+  private String dineroTrace() throws Exception {
+    StringWriter trace = new StringWriter();
+    dinero.writeTraceData(trace);
+    return trace.toString();
+  }
+
+  // Steps the CPU until the end of the program, adding the state before each step to states. Returns the final state.
+  private String runAndRecord(List<String> states) throws Exception {
+    try {
+      while (true) {
+        states.add(simulatorState());
+        cpu.step();
+      }
+    } catch (HaltException e) {
+      return simulatorState();
+    }
+  }
+
+  private void runHistoryTest(String program) throws Exception {
+    cpu.reset();
+    dinero.reset();
+    symTab.reset();
+    try {
+      parse(testsLocation + program);
+      dinero.setDataOffset(memory.getInstructionsNumber() * 4);
+      cpu.setStatus(CPU.CPUStatus.RUNNING);
+      History history = new History(cpu, memory, dinero, 10, 1 << 30);
+
+      List<String> states = new ArrayList<>();
+      String finalState = runAndRecord(states);
+      int steps = states.size();
+      collector.checkThat("Recorded steps (" + program + ")", history.size(), equalTo(steps));
+
+      // Going back and forth must give the same states.
+      for (int back : new int[] {1, 5, 3, 2}) {
+        if (back > history.size()) {
+          break;
+        }
+        int target = history.size() - back;
+        collector.checkThat("Steps undone (" + program + ")", history.stepBack(back), equalTo(back));
+        collector.checkThat("State after going back to " + target + " (" + program + ")", simulatorState(), equalTo(states.get(target)));
+        try {
+          cpu.step();
+        } catch (HaltException e) {
+          // The last step of the program.
+        }
+        String expected = (target + 1 < steps) ? states.get(target + 1) : finalState;
+        collector.checkThat("State after stepping to " + (target + 1) + " (" + program + ")", simulatorState(), equalTo(expected));
+        history.stepBack(1);
+      }
+
+      int recorded = history.size();
+      collector.checkThat("Steps undone (" + program + ")", history.stepBack(steps), equalTo(recorded));
+      collector.checkThat("Initial state (" + program + ")", simulatorState(), equalTo(states.get(0)));
+      List<String> replayed = new ArrayList<>();
+      collector.checkThat("Final state (" + program + ")", runAndRecord(replayed), equalTo(finalState));
+      collector.checkThat("Replayed states (" + program + ")", replayed, equalTo(states));
+    } finally {
+      cpu.reset();
+      dinero.reset();
+      symTab.reset();
+    }
+  }
+
+  @Test
+  public void testStepBack() throws Exception {
+    // fpu-mul.s raises FPU exceptions, let's disable them.
+    config.putBoolean(ConfigKey.FP_INVALID_OPERATION, false);
+    config.putBoolean(ConfigKey.FP_OVERFLOW, false);
+    config.putBoolean(ConfigKey.FP_UNDERFLOW, false);
+    config.putBoolean(ConfigKey.FP_DIVIDE_BY_ZERO, false);
+
+    for (String program : new String[] {"fpu-mul.s", "fpu-waw.s", "div.d.divider-stalls.s", "memtest.s",
+        "test-strcmp.s", "movz-issue-7.s"}) {
+      runHistoryTest(program);
+    }
+  }
+
+  @Test
+  public void testRunBackToLastWrite() throws Exception {
+    parse(testsLocation + "memtest.s");
+    cpu.setStatus(CPU.CPUStatus.RUNNING);
+    History history = new History(cpu, memory, dinero, History.DEFAULT_SNAPSHOT_INTERVAL, 1 << 30);
+    runAndRecord(new ArrayList<>());
+
+    // The step reached by going back writes the final value.
+    long r1 = cpu.getRegister(1).getValue();
+    long cell = memory.getCellByAddress(0).getValue();
+    int undone = history.runBackToRegisterWrite(1);
+    collector.checkThat("Steps undone to the last write of R1", undone > 0, is(true));
+    cpu.step();
+    collector.checkThat("R1", cpu.getRegister(1).getValue(), equalTo(r1));
+
+    undone = history.runBackToMemoryWrite(3);
+    collector.checkThat("Steps undone to the last write of address 3", undone > 0, is(true));
+    collector.checkThat("Cell 0 before the last write", memory.getCellByAddress(0).getValue() != cell, is(true));
+    cpu.step();
+    collector.checkThat("Cell 0 after the last write", memory.getCellByAddress(0).getValue(), equalTo(cell));
+
+    // R31 is never written.
+    collector.checkThat("Steps undone to the last write of R31", history.runBackToRegisterWrite(31), equalTo(0));
+    history.detach();
+  }
+
+  /* Steps whose accesses were already written to the output of the Dinero trace are not undone. */
+  @Test
+  public void testStepBackStreamedTrace() throws Exception {
+    parse(testsLocation + "set-bit-sort.s");
+    dinero.setOutput(new StringWriter());
+    cpu.setStatus(CPU.CPUStatus.RUNNING);
+    History history = new History(cpu, memory, dinero, History.DEFAULT_SNAPSHOT_INTERVAL, 1 << 30);
+    // The state of the simulator includes the trace kept in memory, so only the cycles are compared.
+    try {
+      while (true) {
+        cpu.step();
+      }
+    } catch (HaltException e) {
+      // The program ended.
+    }
+    int cycles = cpu.getCycles();
+
+    int size = history.size();
+    int undone = history.stepBack(size);
+    collector.checkThat("Steps undone: " + undone, undone > 0 && undone < size, is(true));
+    collector.checkThat("Cycles after going back", cpu.getCycles(), equalTo(cycles - undone));
+    collector.checkThat("Steps undone at the start of the trace", history.stepBack(1), equalTo(0));
+    collector.checkThat("Steps undone to the last write of R1", history.runBackToRegisterWrite(1), equalTo(0));
+    history.detach();
+    dinero.reset();
+  }
+
+  @Test
+  public void testStepBackLimitedHistory() throws Exception {
+    parse(testsLocation + "test-strcmp.s");
+    cpu.setStatus(CPU.CPUStatus.RUNNING);
+    int maxBytes = 16 * 1024;
+    History history = new History(cpu, memory, dinero, 10, maxBytes);
+    List<String> states = new ArrayList<>();
+    runAndRecord(states);
+
+    int size = history.size();
+    collector.checkThat("Journal size: " + history.getBytes(), history.getBytes() <= maxBytes, is(true));
+    collector.checkThat("Recorded steps: " + size, size > 0 && size < states.size(), is(true));
+    collector.checkThat("Steps undone", history.stepBack(states.size()), equalTo(size));
+    collector.checkThat("Oldest state", simulatorState(), equalTo(states.get(states.size() - size)));
+    history.detach();
+  }
 }
@@ -0,0 +1,171 @@
+package org.edumips64;
+
+import org.edumips64.utils.ConfigKey;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class MainBatchTest extends BaseTest {
+  private static String testsLocation = "src/test/resources/";
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private List<Map<ConfigKey, Object>> matrix(String... dimensions) {
+    Map<ConfigKey, List<Object>> parsed = new LinkedHashMap<>();
+    for (String d : dimensions) {
+      MainBatch.parseDimension(d, parsed);
+    }
+    return MainBatch.configMatrix(parsed);
+  }
+
+  private String[] runBatch(List<File> programs, List<Map<ConfigKey, Object>> configs, int threads) throws Exception {
+    StringWriter out = new StringWriter();
+    int jobs = new MainBatch(programs, configs, threads, MainBatch.DEFAULT_MAX_CYCLES, out).run();
+    String[] lines = out.toString().split("\n");
+    assertEquals(jobs, lines.length);
+
+    // Lines are written in completion order: sort them by job.
+    String[] sorted = new String[lines.length];
+    for (String line : lines) {
+      int job = Integer.parseInt(line.substring("{\"job\":".length(), line.indexOf(',')));
+      assertNull(sorted[job]);
+      sorted[job] = line;
+    }
+    return sorted;
+  }
+
+  // Returns the line without the timings, which change from run to run.
+  private String withoutTime(String line) {
+    return line.replaceAll(",\"(parse|wall)_ms\":\\d+", "");
+  }
+
+  @Test
+  public void testConfigMatrix() {
+    List<Map<ConfigKey, Object>> configs = matrix("forwarding=true,false", "syncexc-masked=false,true", "n_step=4,8,16");
+    assertEquals(12, configs.size());
+    assertEquals(true, configs.get(0).get(ConfigKey.FORWARDING));
+    assertEquals(16, configs.get(11).get(ConfigKey.N_STEPS));
+    assertEquals(1, matrix().size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownConfigKey() {
+    matrix("no-such-key=1");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBoolean() {
+    matrix("forwarding=yes");
+  }
+
+  @Test
+  public void testJsonString() {
+    StringBuilder json = new StringBuilder();
+    MainBatch.appendString(json, "a\"b\\c\nd\u0001");
+    assertEquals("\"a\\\"b\\\\c\\nd\\u0001\"", json.toString());
+  }
+
+  @Test
+  public void testExitReasons() throws Exception {
+    List<File> programs = Arrays.asList(new File(testsLocation + "hello-world.s"), new File(testsLocation + "break.s"),
+        new File(testsLocation + "div0.s"), new File(testsLocation + "nonexistent.s"));
+    String[] lines = runBatch(programs, matrix("syncexc-terminate=true"), 2);
+
+    assertThat(lines[0].contains("\"exit\":\"halt\""), is(true));
+    assertThat(lines[0].contains("\"stdout\":\"9th of July:\\nEduMIPS64 version 1.2 is being tested! 100% success!\""), is(true));
+    assertThat(lines[1].contains("\"exit\":\"break\""), is(true));
+    assertThat(lines[2].contains("\"exit\":\"synchronous_exception\""), is(true));
+    assertThat(lines[3].contains("\"exit\":\"parse_error\""), is(true));
+  }
+
+  @Test
+  public void testCycleLimit() throws Exception {
+    StringWriter out = new StringWriter();
+    List<File> programs = Collections.singletonList(new File(testsLocation + "set-bit-sort.s"));
+    new MainBatch(programs, matrix(), 1, 100, out).run();
+    assertThat(out.toString().contains("\"exit\":\"cycle_limit\",\"message\":null,\"cycles\":100,"), is(true));
+  }
+
+  /* Jobs run in parallel must give the same results as jobs run one at a time. */
+  @Test
+  public void testParallelMatchesSequential() throws Exception {
+    List<File> programs = new ArrayList<>();
+    for (String p : new String[] {"hello-world.s", "fpu-mul.s", "forwarding.s", "test-strcmp.s", "set-bit-sort.s",
+        "hailstoneenglish.s", "div.d.divider-stalls.s", "movn-issue-7.s"}) {
+      programs.add(new File(testsLocation + p));
+    }
+    List<Map<ConfigKey, Object>> configs = matrix("forwarding=true,false");
+
+    String[] sequential = runBatch(programs, configs, 1);
+    String[] parallel = runBatch(programs, configs, 4);
+    for (int i = 0; i < sequential.length; i++) {
+      assertThat(sequential[i].contains("\"exit\":\"halt\""), is(true));
+      assertEquals(withoutTime(sequential[i]), withoutTime(parallel[i]));
+    }
+
+    // Forwarding must make a difference, so the configuration was actually applied.
+    assertNotEquals(withoutTime(sequential[2]), withoutTime(sequential[3]));
+  }
+
+  /* The traces streamed by the jobs, plain or gzipped, are the same as the golden ones written by the GUI. */
+  @Test
+  public void testTraces() throws Exception {
+    String[] names = {"tracefile-ld.s", "tracefile-ldst.s", "tracefile-noldst.s", "tracefile-st.s"};
+    List<File> programs = new ArrayList<>();
+    for (String name : names) {
+      programs.add(new File(testsLocation + name));
+    }
+    File plain = folder.newFolder("plain");
+    File gzipped = folder.newFolder("gzipped");
+
+    for (File dir : new File[] {plain, gzipped}) {
+      StringWriter out = new StringWriter();
+      MainBatch batch = new MainBatch(programs, matrix(), 2, MainBatch.DEFAULT_MAX_CYCLES, out);
+      batch.writeTraces(dir, dir == gzipped);
+      batch.run();
+      assertThat(out.toString().contains("\"exit\":\"error\""), is(false));
+    }
+
+    for (int job = 0; job < names.length; job++) {
+      String golden = new String(Files.readAllBytes(new File(testsLocation + names[job] + ".xdin.golden").toPath()),
+          StandardCharsets.UTF_8).replaceAll("\r\n", "\n");
+      assertEquals(golden, read(new FileInputStream(new File(plain, job + "-" + names[job] + ".xdin"))));
+      assertEquals(golden, read(new GZIPInputStream(
+          new FileInputStream(new File(gzipped, job + "-" + names[job] + ".xdin.gz")))));
+    }
+  }
+
+  private static String read(InputStream in) throws Exception {
+    try (Scanner scanner = new Scanner(in, "UTF-8")) {
+      return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+    }
+  }
+
+  @Test
+  public void testCaches() throws Exception {
+    StringWriter out = new StringWriter();
+    List<File> programs = Collections.singletonList(new File(testsLocation + "tracefile-ldst.s"));
+    MainBatch batch = new MainBatch(programs, matrix(), 1, MainBatch.DEFAULT_MAX_CYCLES, out);
+    batch.simulateCaches("-l1-usize 1k -l1-ubsize 32");
+    batch.run();
+    assertThat(out.toString().contains("\"caches\":[{\"name\":\"l1-ucache\",\"accesses\":"), is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCaches() throws Exception {
+    new MainBatch(Collections.emptyList(), matrix(), 1, 1, new StringWriter()).simulateCaches("-l1-usize 1k");
+  }
+}
@@ -0,0 +1,66 @@
+package org.edumips64;
+
+import org.edumips64.core.Profiler;
+import org.edumips64.core.SimulatorContext;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.io.StringWriter;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class MainProfilerTest extends BaseTest {
+  private static String testsLocation = "src/test/resources/";
+
+  private SimulatorContext context;
+
+  // Profiles the program with the given -c options.
+  private Profiler profile(String program, String... options) throws Exception {
+    Map<ConfigKey, Object> config = new LinkedHashMap<>();
+    for (String option : options) {
+      CommandLineTools.parseConfig(option, config);
+    }
+    context = CommandLineTools.newContext(CommandLineTools.newConfig(config), new StringWriter());
+    return MainProfiler.profile(context, new File(testsLocation + program), MainBatch.DEFAULT_MAX_CYCLES);
+  }
+
+  private static long cacheMissStalls(Profiler profiler) {
+    long sum = 0;
+    for (int address : profiler.getAddresses()) {
+      sum += profiler.get(address, Profiler.Counter.CACHE_MISS_STALLS);
+    }
+    return sum;
+  }
+
+  /* Without memory timing, the profile has no cache misses. */
+  @Test
+  public void testDefaultConfig() throws Exception {
+    Profiler profiler = profile("memtest.s");
+    assertEquals(0, cacheMissStalls(profiler));
+    assertEquals(context.getCPU().getCycles(), profiler.getCycles());
+  }
+
+  /* With -c memory_timing=true, the stalls of the cache misses are charged to the instructions. */
+  @Test
+  public void testMemoryTiming() throws Exception {
+    long cycles = profile("memtest.s").getCycles();
+    Profiler profiler = profile("memtest.s", "memory_timing=true", "cache_latencies=1 50 200");
+    assertThat(cacheMissStalls(profiler) > 0, is(true));
+    assertEquals(context.getCPU().getCacheMissStalls(), cacheMissStalls(profiler));
+    assertThat(profiler.getCycles() > cycles, is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConfigWithManyValues() {
+    CommandLineTools.parseConfig("forwarding=true,false", new LinkedHashMap<>());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownConfigKey() {
+    CommandLineTools.parseConfig("nosuchkey=true", new LinkedHashMap<>());
+  }
+}
@@ -0,0 +1,82 @@
+package org.edumips64.analysis;
+
+import org.edumips64.BaseTest;
+import org.edumips64.core.cache.AccessTrace;
+import org.edumips64.core.cache.CacheSimulator;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.edumips64.core.MemoryAccessListener.Type.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class CacheSweepTest extends BaseTest {
+  // A loop over an array of 2 KB, with a fetch per access and a write every 4 reads.
+  private static AccessTrace trace() {
+    AccessTrace trace = new AccessTrace();
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 256; i++) {
+        trace.access(FETCH, (i % 16) * 4, 4);
+        trace.access(i % 4 == 0 ? WRITE : READ, 4096 + i * 8, 8);
+      }
+    }
+    return trace;
+  }
+
+  @Test
+  public void testExpand() {
+    assertEquals(Arrays.asList(
+        "-l1-usize 1k -l1-ubsize 16 -l1-uassoc 1",
+        "-l1-usize 1k -l1-ubsize 16 -l1-uassoc 2",
+        "-l1-usize 1k -l1-ubsize 32 -l1-uassoc 1",
+        "-l1-usize 1k -l1-ubsize 32 -l1-uassoc 2",
+        "-l1-usize 4k -l1-ubsize 16 -l1-uassoc 1",
+        "-l1-usize 4k -l1-ubsize 16 -l1-uassoc 2",
+        "-l1-usize 4k -l1-ubsize 32 -l1-uassoc 1",
+        "-l1-usize 4k -l1-ubsize 32 -l1-uassoc 2"),
+        CacheSweep.expand(" -l1-usize 1k,4k -l1-ubsize 16,32 -l1-uassoc 1,2 "));
+    assertEquals(Arrays.asList(""), CacheSweep.expand(""));
+  }
+
+  /* Configurations replayed in parallel give the same results as each one simulated on its own. */
+  @Test
+  public void testParallelMatchesSequential() {
+    AccessTrace trace = trace();
+    assertEquals(2560, trace.size());
+    List<String> configurations = CacheSweep.expand(
+        "-l1-isize 64,256 -l1-ibsize 16 -l1-dsize 512,2k,4k -l1-dbsize 16,64 -l1-dassoc 1,4 -l1-drepl l,f,r "
+        + "-l2-usize 8k -l2-ubsize 64");
+    List<CacheSimulator> results = new CacheSweep(trace).run(configurations, 4);
+    assertEquals(configurations.size(), results.size());
+
+    for (int i = 0; i < configurations.size(); i++) {
+      CacheSimulator expected = CacheSimulator.parse(configurations.get(i));
+      trace.replay(expected);
+      assertEquals(configurations.get(i), expected.report(), results.get(i).report());
+    }
+
+    // 4 KB hold the whole array, 512 bytes don't.
+    assertThat(results.get(0).getCaches().get(1).getMissRate() > 0.1, is(true));
+    assertThat(results.get(configurations.size() - 1).getCaches().get(1).getMissRate() < 0.1, is(true));
+  }
+
+  @Test
+  public void testCsv() {
+    List<String> configurations = CacheSweep.expand("-l1-usize 64,4k -l1-ubsize 16");
+    List<CacheSimulator> results = new CacheSweep(trace()).run(configurations, 2);
+    String[] lines = CacheSweep.toCsv(configurations, results).split("\n");
+    assertEquals(3, lines.length);
+    assertEquals("configuration,cache,size,block_size,associativity,replacement,write_back,write_allocate,"
+        + "accesses,misses,miss_rate,evictions,writebacks", lines[0]);
+    assertThat(lines[2].startsWith("\"-l1-usize 4k -l1-ubsize 16\",l1-ucache,4096,16,1,LRU,true,true,2560,"),
+        is(true));
+    assertThat(CacheSweep.toTable(configurations, results).contains("l1-ucache"), is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidConfiguration() {
+    new CacheSweep(trace()).run(CacheSweep.expand("-l1-usize 64,100 -l1-ubsize 16"), 2);
+  }
+}
@@ -0,0 +1,111 @@
+package org.edumips64.analysis;
+
+import org.edumips64.BaseTest;
+import org.edumips64.core.Memory;
+import org.edumips64.core.MemoryHeatMap;
+import org.edumips64.core.SimulatorContext;
+import org.edumips64.core.SymbolTable;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class HeatMapReportTest extends BaseTest {
+  // Reads the 4 cells of array in 3 rounds, then writes result.
+  private static final String PROGRAM = ".data\n"
+      + "array: .word 1, 2, 3, 4\n"
+      + "result: .space 8\n"
+      + ".code\n"
+      + "daddi r2, r0, 3\n"
+      + "loop: ld r1, 0(r0)\n"
+      + "ld r1, 8(r0)\n"
+      + "ld r1, 16(r0)\n"
+      + "ld r1, 24(r0)\n"
+      + "daddi r2, r2, -1\n"
+      + "bne r2, r0, loop\n"
+      + "sd r2, 32(r0)\n"
+      + "syscall 0\n";
+
+  private SimulatorContext context;
+  private MemoryHeatMap heatMap;
+  private HeatMapReport report;
+
+  @Before
+  public void run() throws Exception {
+    context = newContext();
+    context.getParser().doParsing(PROGRAM);
+    heatMap = new MemoryHeatMap(10);
+    context.getCPU().setHeatMap(heatMap);
+    runToHalt(context);
+    report = new HeatMapReport(heatMap, context.getSymbolTable().getCellLabels());
+  }
+
+  @Test
+  public void testLabels() {
+    assertEquals("array", report.getLabel(0));
+    assertEquals("array+24", report.getLabel(24));
+    assertEquals("result+8", report.getLabel(40));
+    assertEquals("0x28", new HeatMapReport(heatMap, new SymbolTable(new Memory()).getCellLabels()).getLabel(40));
+  }
+
+  @Test
+  public void testCsv() {
+    String[] lines = report.toCsv().split("\n");
+    assertEquals(6, lines.length);
+    assertEquals("address,label,reads,writes,accesses,mean_reuse_distance", lines[0]);
+    assertEquals("0,array,3,0,3,3.00", lines[1]);
+    assertEquals("24,array+24,3,0,3,3.00", lines[4]);
+    assertEquals("32,result,0,1,1,", lines[5]);
+
+    lines = report.toWorkingSetCsv().split("\n");
+    assertEquals(heatMap.getWindows() + 1, lines.length);
+    assertEquals("window,first_cycle,accesses,working_set_cells,working_set_bytes", lines[0]);
+    assertThat(lines[2].startsWith("1,11,"), is(true));
+    long accesses = 0;
+    for (int i = 1; i < lines.length; i++) {
+      String[] fields = lines[i].split(",");
+      accesses += Long.parseLong(fields[2]);
+      assertEquals(Long.parseLong(fields[3]) * 8, Long.parseLong(fields[4]));
+    }
+    assertEquals(13, accesses);
+
+    String summary = report.toSummary();
+    assertThat(summary, summary.startsWith("12 reads, 1 writes, 5 cells (40 bytes)\n"), is(true));
+    // All the reuses are at distance 3, and hit in a cache of 4 cells.
+    assertThat(summary, summary.matches("(?s).*\n2-3 +8 +61\\.54%\n.*"), is(true));
+  }
+
+  @Test
+  public void testPng() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    report.writePng(out);
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+
+    // 5 rows of 51 pixels, and a column for each window after the label band.
+    int columnWidth = 512 / heatMap.getWindows();
+    assertEquals(6 + heatMap.getWindows() * columnWidth, image.getWidth());
+    assertEquals(5 * 51, image.getHeight());
+
+    // result is only written in the last window with accesses.
+    int last = -1;
+    for (int w = 0; w < heatMap.getWindows(); w++) {
+      if (heatMap.getWindowAccesses(w) > 0) {
+        last = w;
+      }
+    }
+    assertThat(heatMap.getWindowAccesses(0) > 0, is(true));
+    assertThat((image.getRGB(6, 0) & 0xFFFFFF) != 0, is(true));
+    assertEquals(0, image.getRGB(6, 4 * 51) & 0xFFFFFF);
+    assertThat((image.getRGB(6 + last * columnWidth, 4 * 51) & 0xFFFFFF) != 0, is(true));
+
+    // The label band changes color between array and result.
+    assertEquals(image.getRGB(0, 0), image.getRGB(0, 3 * 51));
+    assertThat(image.getRGB(0, 0) != image.getRGB(0, 4 * 51), is(true));
+  }
+}
@@ -0,0 +1,77 @@
+package org.edumips64.analysis;
+
+import org.edumips64.BaseTest;
+import org.edumips64.core.Profiler;
+import org.edumips64.core.SimulatorContext;
+import org.edumips64.utils.ConfigKey;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class ProfileReportTest extends BaseTest {
+  private SimulatorContext context;
+  private Profiler profiler;
+  private ProfileReport report;
+
+  @Before
+  public void runStrlen() throws Exception {
+    context = newContext();
+    context.getConfig().putBoolean(ConfigKey.FORWARDING, false);
+    profiler = new Profiler(context.getMemory());
+    context.getCPU().setProfiler(profiler);
+    runProgram(context, "test-strlen.s");
+    report = new ProfileReport(profiler);
+  }
+
+  @Test
+  public void testTable() {
+    List<Integer> hot = report.getHotAddresses();
+    for (int i = 1; i < hot.size(); i++) {
+      assertThat(profiler.get(hot.get(i - 1), Profiler.Counter.CYCLES)
+          >= profiler.get(hot.get(i), Profiler.Counter.CYCLES), is(true));
+    }
+
+    String[] lines = report.toTable(3).split("\n");
+    assertEquals(4, lines.length);
+    assertThat(lines[0].startsWith("address"), is(true));
+    // The branch waiting for the load in the loop of strlen.
+    assertThat(lines[1].startsWith("00000064"), is(true));
+    assertThat(lines[1].endsWith("bne r2,r0,_loop"), is(true));
+    assertEquals(hot.size() + 1, report.toTable(0).split("\n").length);
+  }
+
+  @Test
+  public void testAnnotatedSource() {
+    String[] lines = report.toAnnotatedSource(context.getParser()).split("\n");
+    String[] source = context.getParser().getSourceLines();
+    assertEquals(source.length + 1, lines.length);
+    // The header, then cycles, executions and stalls before the line number.
+    assertThat(lines[1].trim().startsWith("| "), is(true));
+    assertThat(lines[10].matches("\\s+2\\s+1\\s+0 \\|\\s+10  daddi r1,r0,empty_string"), is(true));
+    for (int i = 0; i < source.length; i++) {
+      assertThat(lines[i + 1].endsWith(source[i]), is(true));
+    }
+  }
+
+  @Test
+  public void testCollapsedStacks() {
+    long total = 0;
+    boolean inStrlen = false;
+    for (String line : report.toCollapsedStacks().split("\n")) {
+      assertThat(line, line.matches("main(;\\S+)+ \\d+"), is(true));
+      total += Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+      inStrlen |= line.startsWith("main;STRLEN;00000064_bne_r2,r0,_loop ");
+    }
+    assertThat(inStrlen, is(true));
+
+    long cycles = 0;
+    for (int address : profiler.getAddresses()) {
+      cycles += profiler.get(address, Profiler.Counter.CYCLES);
+    }
+    assertEquals(cycles, total);
+  }
+}
@@ -2,10 +2,14 @@ package org.edumips64.core;
 
 import org.edumips64.BaseTest;
 import org.edumips64.core.is.BUBBLE;
+import org.edumips64.utils.ConfigKey;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.matchers.JUnitMatchers.containsString;
 
 public class CPUTest extends BaseTest {
@@ -14,7 +18,7 @@ public class CPUTest extends BaseTest {
   @Before
   public void setUp() throws Exception {
     Memory m = new Memory();
-    cpu = new CPU(m, config, new BUBBLE());
+    cpu = new CPU(m, config, BUBBLE.INSTANCE);
   }
 
   @Test(expected = StoppedCPUException.class)
@@ -31,4 +35,25 @@ public class CPUTest extends BaseTest {
     assertThat(cpuRepr, containsString("FP Register 0"));
     assertThat(cpuRepr, containsString("ID"));
   }
-}
\ No newline at end of file
+
+  /** The configuration is read when the CPU is created and, if it changed, at the beginning of each step. */
+  @Test
+  public void testConfigurationSnapshot() throws Exception {
+    config.putBoolean(ConfigKey.FORWARDING, false);
+    config.putBoolean(ConfigKey.FP_NEAREST, true);
+    cpu = new CPU(new Memory(), config, BUBBLE.INSTANCE);
+    assertFalse(cpu.isEnableForwarding());
+    assertEquals(FCSRRegister.FPRoundingMode.TO_NEAREST, cpu.getFCSRRoundingMode());
+
+    config.putBoolean(ConfigKey.FORWARDING, true);
+    assertFalse(cpu.isEnableForwarding());
+
+    cpu.setStatus(CPU.CPUStatus.HALTED);
+    try {
+      cpu.step();
+    } catch (StoppedCPUException e) {
+      // Expected, the CPU is not running.
+    }
+    assertTrue(cpu.isEnableForwarding());
+  }
+}
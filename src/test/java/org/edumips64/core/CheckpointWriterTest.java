@@ -0,0 +1,57 @@
+package org.edumips64.core;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class CheckpointWriterTest {
+  private Memory memory = new Memory();
+
+  private CheckpointReader roundTrip(ByteArrayOutputStream out) {
+    return new CheckpointReader(new ByteArrayInputStream(out.toByteArray()), memory, null);
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    CheckpointWriter writer = new CheckpointWriter(out, memory);
+    writer.writeInt(-2);
+    writer.writeInt(Integer.MAX_VALUE);
+    writer.writeLong(Long.MIN_VALUE);
+    writer.writeLong(0x123456789ABCDEFL);
+    writer.writeBoolean(true);
+    writer.writeString("ciao \u00e8");
+    writer.writeString("");
+    writer.writeString(null);
+    writer.writeInstruction(null);
+
+    CheckpointReader reader = roundTrip(out);
+    assertEquals(-2, reader.readInt());
+    assertEquals(Integer.MAX_VALUE, reader.readInt());
+    assertEquals(Long.MIN_VALUE, reader.readLong());
+    assertEquals(0x123456789ABCDEFL, reader.readLong());
+    assertTrue(reader.readBoolean());
+    assertEquals("ciao \u00e8", reader.readString());
+    assertEquals("", reader.readString());
+    assertNull(reader.readString());
+    assertNull(reader.readInstruction());
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncated() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CheckpointWriter(out, memory).writeInt(42);
+    roundTrip(out).readLong();
+  }
+
+  @Test(expected = IOException.class)
+  public void testMissingInstruction() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new CheckpointWriter(out, memory).writeInt(3);
+    roundTrip(out).readInstruction();
+  }
+}
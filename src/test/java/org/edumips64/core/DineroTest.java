@@ -0,0 +1,113 @@
+package org.edumips64.core;
+
+import org.edumips64.BaseTest;
+import org.edumips64.utils.io.StringWriter;
+import org.edumips64.utils.io.WriteException;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class DineroTest extends BaseTest {
+  private static final int ACCESSES = Dinero.BUFFER_SIZE * 3 + 10;
+
+  // Records the same mix of fetches, loads and stores, with negative and large addresses too.
+  private void record(Dinero dinero) {
+    dinero.setDataOffset(20);
+    for (int i = 0; i < ACCESSES; i++) {
+      switch (i % 3) {
+        case 0:
+          dinero.IF(i * 4L);
+          break;
+        case 1:
+          dinero.Load(-i, 8);
+          break;
+        default:
+          dinero.Store(Long.MAX_VALUE - i, 1 + i % 4);
+      }
+    }
+  }
+
+  @Test
+  public void testFormat() throws Exception {
+    Dinero dinero = new Dinero();
+    dinero.setDataOffset(4);
+    dinero.IF(0x1C);
+    dinero.Load(0, 8);
+    dinero.Store(-16, 4);
+
+    StringWriter trace = new StringWriter();
+    dinero.writeTraceData(trace);
+    assertEquals("i 000000000000001C 4\n" +
+        "r 0000000000000008 8\n" +
+        "w FFFFFFFFFFFFFFF8 4\n", trace.toString());
+  }
+
+  /* Streaming the trace while recording must give the same file as writing it at the end, without keeping it. */
+  @Test
+  public void testStreamingMatchesMemory() throws Exception {
+    Dinero memory = new Dinero();
+    record(memory);
+    StringWriter expected = new StringWriter();
+    memory.writeTraceData(expected);
+    assertEquals(ACCESSES, memory.size());
+
+    Dinero streaming = new Dinero();
+    StringWriter output = new StringWriter();
+    streaming.setOutput(output);
+    record(streaming);
+    assertThat(output.toString().length() > 0, is(true));
+    assertThat(output.toString().length() < expected.toString().length(), is(true));
+    assertEquals(ACCESSES, streaming.size());
+    streaming.flush();
+    assertEquals(expected.toString(), output.toString());
+  }
+
+  /* An output set after some accesses were recorded gets them too. */
+  @Test
+  public void testLateOutput() throws Exception {
+    Dinero memory = new Dinero();
+    record(memory);
+    StringWriter expected = new StringWriter();
+    memory.writeTraceData(expected);
+
+    Dinero late = new Dinero();
+    late.IF(0);
+    StringWriter output = new StringWriter();
+    late.setOutput(output);
+    record(late);
+    late.flush();
+    assertEquals("i 0000000000000000 4\n" + expected, output.toString());
+  }
+
+  @Test
+  public void testTruncate() throws Exception {
+    Dinero dinero = new Dinero();
+    StringWriter output = new StringWriter();
+    dinero.setOutput(output);
+    record(dinero);
+
+    // The accesses after the last batch can still be removed.
+    dinero.truncate(Dinero.BUFFER_SIZE * 3 + 1);
+    assertEquals(Dinero.BUFFER_SIZE * 3 + 1, dinero.size());
+    dinero.flush();
+    assertEquals(Dinero.BUFFER_SIZE * 3 + 1, output.toString().split("\n").length);
+
+    try {
+      dinero.truncate(1);
+      fail("Written accesses must not be removable");
+    } catch (IllegalStateException e) {
+      // Expected.
+    }
+  }
+
+  @Test(expected = WriteException.class)
+  public void testWriteError() throws Exception {
+    Dinero dinero = new Dinero();
+    dinero.setOutput(s -> {
+      throw new WriteException(new Exception("disk full"));
+    });
+    record(dinero);
+    dinero.flush();
+  }
+}
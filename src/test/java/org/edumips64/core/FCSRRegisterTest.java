@@ -0,0 +1,63 @@
+package org.edumips64.core;
+
+import org.edumips64.core.fpu.FPOverflowException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FCSRRegisterTest {
+  private FCSRRegister fcsr = new FCSRRegister();
+
+  @Test
+  public void testRoundingMode() throws Exception {
+    for (FCSRRegister.FPRoundingMode rm : FCSRRegister.FPRoundingMode.values()) {
+      fcsr.setFCSRRoundingMode(rm);
+      assertEquals(rm, fcsr.getFCSRRoundingMode());
+    }
+    fcsr.setFCSRRoundingMode(FCSRRegister.FPRoundingMode.TOWARD_ZERO);
+    assertEquals("00000000000000000000000000000001", fcsr.getBinString());
+  }
+
+  @Test
+  public void testBitLayout() throws Exception {
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
+    assertEquals(1 << 11, fcsr.getInt());
+    fcsr.reset(false);
+
+    fcsr.setFCSRCause(FCSRRegister.FPExceptions.DIVIDE_BY_ZERO, true);
+    assertEquals(1 << 15, fcsr.getInt());
+    fcsr.reset(false);
+
+    fcsr.setFCSRFlags(FCSRRegister.FPExceptions.INEXACT, true);
+    assertEquals(1 << 2, fcsr.getInt());
+    fcsr.reset(false);
+
+    fcsr.setFCSRConditionCode(0, 1);
+    fcsr.setFCSRConditionCode(7, 1);
+    assertEquals("10000000100000000000000000000000", fcsr.getBinString());
+    assertEquals(1, fcsr.getFCSRConditionCode(7));
+    assertEquals(0, fcsr.getFCSRConditionCode(6));
+    fcsr.setFCSRConditionCode(7, 0);
+    assertEquals(0, fcsr.getFCSRConditionCode(7));
+    assertEquals(1, fcsr.getFCSRConditionCode(0));
+  }
+
+  @Test
+  public void testDisabledExceptionSetsFlag() throws Exception {
+    fcsr.setFlagsOrRaiseException(FCSRRegister.FPExceptions.UNDERFLOW);
+    assertTrue(fcsr.getFCSRCause(FCSRRegister.FPExceptions.UNDERFLOW));
+    assertTrue(fcsr.getFCSRFlags(FCSRRegister.FPExceptions.UNDERFLOW));
+    assertFalse(fcsr.getFCSRFlags(FCSRRegister.FPExceptions.OVERFLOW));
+  }
+
+  @Test(expected = FPOverflowException.class)
+  public void testEnabledExceptionIsRaised() throws Exception {
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.OVERFLOW, true);
+    try {
+      fcsr.setFlagsOrRaiseException(FCSRRegister.FPExceptions.OVERFLOW);
+    } finally {
+      assertTrue(fcsr.getFCSRCause(FCSRRegister.FPExceptions.OVERFLOW));
+      assertFalse(fcsr.getFCSRFlags(FCSRRegister.FPExceptions.OVERFLOW));
+    }
+  }
+}
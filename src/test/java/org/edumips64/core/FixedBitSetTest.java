@@ -1,5 +1,6 @@
 package org.edumips64.core;
 
+import org.edumips64.core.fpu.BitSet64FP;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -47,4 +48,67 @@ public class FixedBitSetTest {
           assertEquals(expected, bitset.getBinString());
       }
   }
-}
\ No newline at end of file
+
+  // The long value and the string view must describe the same bits.
+  @Test()
+  public void testLongMatchesBinString() throws Exception {
+    bitset.writeDoubleWord(-2);
+    assertEquals(-2, bitset.getLong());
+    assertEquals("1111111111111111111111111111111111111111111111111111111111111110", bitset.getBinString());
+    assertEquals("FFFFFFFFFFFFFFFE", bitset.getHexString());
+
+    bitset.setBits("0000000100000010", 48);
+    assertEquals(0xFFFFFFFFFFFF0102L, bitset.getLong());
+  }
+
+  // Typed accessors read and write the right bytes, with and without sign extension.
+  @Test()
+  public void testTypedAccessors() throws Exception {
+    bitset.reset(false);
+    bitset.writeByte(-1, 3);
+    bitset.writeHalf(0x1234, 6);
+    assertEquals(0x12340000FF000000L, bitset.getLong());
+    assertEquals(-1, bitset.readByte(3));
+    assertEquals(255, bitset.readByteUnsigned(3));
+    assertEquals(0x1234, bitset.readHalf(6));
+    assertEquals(0xFF000000L, bitset.readWordUnsigned(0));
+    assertEquals(0xFF000000, bitset.readWord(0));
+
+    bitset.writeWord(-2L, 4);
+    assertEquals(-2, bitset.readWord(4));
+    assertEquals(0xFFFFFFFEL, bitset.readWordUnsigned(4));
+
+    bitset.writeHalf(-3);
+    assertEquals(-3, bitset.getLong());
+    bitset.writeHalfUnsigned(65535);
+    assertEquals(65535, bitset.getLong());
+  }
+
+  @Test(expected = NotAlignException.class)
+  public void testMisalignedWrite() throws Exception {
+    bitset.writeWord(1, 2);
+  }
+
+  @Test()
+  public void testBitSet32() throws Exception {
+    BitSet32 b = new BitSet32();
+    b.reset(true);
+    assertEquals(-1, b.getInt());
+    assertEquals(0xFFFFFFFFL, b.getLong());
+    assertEquals("FFFFFFFF", b.getHexString());
+  }
+
+  // Writing a double sets its raw IEEE 754 bits, as the decimal form does.
+  @Test()
+  public void testBitSet64FPWriteDouble() throws Exception {
+    BitSet64FP fromDouble = new BitSet64FP();
+    BitSet64FP fromString = new BitSet64FP();
+    double[] values = {0.0, 1.0, -2.5, 0.1, 1e-310, -123456789.0, 4294967295.0, Double.MAX_VALUE, -Double.MIN_NORMAL};
+    for (double value : values) {
+      fromDouble.writeDouble(value);
+      fromString.writeDouble(value + "");
+      assertEquals(Double.toString(value), fromString.getLong(), fromDouble.getLong());
+      assertEquals(Double.doubleToRawLongBits(value), fromDouble.getLong());
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package org.edumips64.core;
+
+import org.edumips64.BaseTest;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class MemoryHeatMapTest extends BaseTest {
+  /* Reuse distances match the ones found by brute force, also after the tree is compacted. */
+  @Test
+  public void testReuseDistances() {
+    MemoryHeatMap heatMap = new MemoryHeatMap(10);
+    long[] expected = new long[33];
+    List<Long> accesses = new ArrayList<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 5000; i++) {
+      // A hot set of 16 cells and a cold set of 300.
+      long index = random.nextInt(4) == 0 ? 1000 + random.nextInt(300) : random.nextInt(16);
+      Set<Long> between = new HashSet<>();
+      boolean reused = false;
+      for (int j = accesses.size() - 1; j >= 0; j--) {
+        if (accesses.get(j) == index) {
+          reused = true;
+          break;
+        }
+        between.add(accesses.get(j));
+      }
+      if (reused) {
+        expected[32 - Integer.numberOfLeadingZeros(between.size())]++;
+      }
+      accesses.add(index);
+      if (i % 3 == 0) {
+        heatMap.write(index);
+      } else {
+        heatMap.read(index);
+      }
+    }
+
+    assertArrayEquals(expected, heatMap.getReuseHistogram());
+    int cells = new HashSet<>(accesses).size();
+    assertEquals(cells, heatMap.getCells());
+    assertEquals(cells, heatMap.getColdAccesses());
+    long reads = 0;
+    long writes = 0;
+    for (int cell = 0; cell < heatMap.getCells(); cell++) {
+      reads += heatMap.getReads(cell);
+      writes += heatMap.getWrites(cell);
+    }
+    assertEquals(3333, reads);
+    assertEquals(1667, writes);
+  }
+
+  @Test
+  public void testWindows() {
+    MemoryHeatMap heatMap = new MemoryHeatMap(10);
+    heatMap.setCycle(1);
+    heatMap.read(1);
+    heatMap.read(1);
+    heatMap.write(2);
+    heatMap.setCycle(10);
+    heatMap.read(3);
+    // Window 1 is empty.
+    heatMap.setCycle(21);
+    heatMap.write(2);
+
+    assertEquals(3, heatMap.getWindows());
+    assertEquals(3, heatMap.getWorkingSet(0));
+    assertEquals(4, heatMap.getWindowAccesses(0));
+    assertArrayEquals(new int[] {0, 1, 2}, heatMap.getWindowCells(0));
+    assertArrayEquals(new int[] {2, 1, 1}, heatMap.getWindowCounts(0));
+    assertEquals(0, heatMap.getWorkingSet(1));
+    assertEquals(1, heatMap.getWorkingSet(2));
+    assertArrayEquals(new int[] {1}, heatMap.getWindowCells(2));
+    assertEquals(24, heatMap.getAddress(2));
+    assertEquals(1.0, heatMap.getMeanReuseDistance(1), 1e-9);
+    assertThat(Double.isNaN(heatMap.getMeanReuseDistance(2)), is(true));
+
+    heatMap.reset();
+    assertEquals(0, heatMap.getCells());
+    assertEquals(1, heatMap.getWindows());
+  }
+
+  /* Only the accesses made by the program while the CPU executes a cycle are counted. */
+  @Test
+  public void testProgramAccesses() throws Exception {
+    SimulatorContext context = newContext();
+    CPU cpu = context.getCPU();
+    MemoryHeatMap heatMap = new MemoryHeatMap(5);
+    cpu.setHeatMap(heatMap);
+    runProgram(context, "store-after-load.s");
+
+    long accesses = 0;
+    for (int w = 0; w < heatMap.getWindows(); w++) {
+      accesses += heatMap.getWindowAccesses(w);
+    }
+    long reads = 0;
+    long writes = 0;
+    for (int cell = 0; cell < heatMap.getCells(); cell++) {
+      reads += heatMap.getReads(cell);
+      writes += heatMap.getWrites(cell);
+    }
+    assertEquals(reads + writes, accesses);
+    assertEquals((cpu.getCycles() + 4) / 5, heatMap.getWindows());
+    assertThat(reads > 0, is(true));
+    assertThat(writes > 0, is(true));
+
+    // Reads all the cells, outside of a cycle.
+    context.getMemory().toString();
+    assertEquals(accesses, heatMap.getColdAccesses() + sum(heatMap.getReuseHistogram()));
+  }
+
+  private static long sum(long[] values) {
+    long sum = 0;
+    for (long value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  /* Partial writes don't count as reads. */
+  @Test
+  public void testPartialWrite() throws Exception {
+    Memory memory = new Memory();
+    MemoryHeatMap heatMap = new MemoryHeatMap(1);
+    memory.setHeatMap(heatMap);
+    MemoryElement cell = memory.getCellByAddress(8);
+    cell.writeByte(1, 3);
+    cell.setBits("1", 0);
+    assertEquals(0, heatMap.getReads(0));
+    assertEquals(2, heatMap.getWrites(0));
+    cell.readByte(3);
+    assertEquals(1, heatMap.getReads(0));
+
+    memory.setHeatMap(null);
+    cell.writeByte(2, 3);
+    assertEquals(2, heatMap.getWrites(0));
+  }
+}
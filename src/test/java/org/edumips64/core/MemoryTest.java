@@ -3,11 +3,15 @@ package org.edumips64.core;
 import org.edumips64.BaseTest;
 import org.edumips64.core.is.BUBBLE;
 import org.edumips64.core.is.InstructionBuilder;
+import org.edumips64.core.is.InstructionInterface;
 import org.edumips64.utils.io.LocalFileUtils;
 import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class MemoryTest extends BaseTest {
   private Memory m;
@@ -16,7 +20,7 @@ public class MemoryTest extends BaseTest {
   @Before
   public void setUp() throws Exception {
     m = new Memory();
-    CPU cpu = new CPU(m, config, new BUBBLE());
+    CPU cpu = new CPU(m, config, BUBBLE.INSTANCE);
     IOManager iom = new IOManager(new LocalFileUtils(), m);
     Dinero dinero = new Dinero();
     instructionBuilder = new InstructionBuilder(m, iom, cpu, dinero, config);
@@ -27,7 +31,7 @@ public class MemoryTest extends BaseTest {
   public void testInstructionCount() throws Exception {
     // Add 5 BUBBLE instructions.
     for (int i = 0; i < 5; ++i) {
-      m.addInstruction(new BUBBLE(), i*4);
+      m.addInstruction(BUBBLE.INSTANCE, i*4);
     }
     // Add 2 non-BUBBLE instructions.
     m.addInstruction(instructionBuilder.buildInstruction("SYSCALL"), 24);
@@ -57,4 +61,128 @@ public class MemoryTest extends BaseTest {
     m.addInstruction(instructionBuilder.buildInstruction("SYSCALL"), 0);
     assertEquals(1, m.getInstructionsNumber());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testInstructionIndex() throws Exception {
+    InstructionInterface first = instructionBuilder.buildInstruction("SYSCALL");
+    InstructionInterface second = instructionBuilder.buildInstruction("SYSCALL");
+    m.addInstruction(first, 0);
+    m.addInstruction(second, 8);
+
+    assertEquals(0, m.getInstructionIndex(first));
+    assertEquals(2, m.getInstructionIndex(second));
+    assertEquals(-1, m.getInstructionIndex(BUBBLE.INSTANCE));
+    assertEquals(-1, m.getInstructionIndex(null));
+    assertEquals(second, m.getInstruction(8));
+    assertNull(m.getInstruction(4));
+    assertNull(m.getInstruction(1 << 20));
+
+    // Replacing an instruction removes the old one from the index.
+    m.addInstruction(first, 8);
+    assertEquals(-1, m.getInstructionIndex(second));
+    assertEquals(2, m.getInstructionIndex(first));
+
+    m.reset();
+    assertEquals(-1, m.getInstructionIndex(first));
+    assertNull(m.getInstruction(0));
+  }
+
+  @Test
+  public void testCellsAreViewsOverTheSameData() throws Exception {
+    MemoryElement el = m.getCellByAddress(16);
+    el.writeDoubleWord(42);
+    assertEquals(42, m.getCellByIndex(2).getValue());
+    assertEquals(16, m.getCellByIndex(2).getAddress());
+
+    m.getCellByIndex(2).writeByte(-1, 7);
+    assertEquals(0xFF0000000000002AL, el.getValue());
+  }
+
+  @Test
+  public void testAnnotations() throws Exception {
+    MemoryElement el = m.getCellByIndex(3);
+    assertEquals("", el.getLabel());
+    el.setLabel("vector");
+    el.setCode(".word 1");
+    el.setComment("comment");
+    assertEquals("vector", m.getCellByAddress(24).getLabel());
+    assertEquals(".word 1", m.getCellByAddress(24).getCode());
+    assertEquals("comment", m.getCellByAddress(24).getComment());
+    assertEquals("", m.getCellByIndex(4).getLabel());
+  }
+
+  @Test
+  public void testDataReset() throws Exception {
+    m.getCellByIndex(100).writeDoubleWord(-1);
+    m.getCellByIndex(100).setLabel("label");
+    m.reset();
+    assertEquals(0, m.getCellByIndex(100).getValue());
+    assertEquals("", m.getCellByIndex(100).getLabel());
+  }
+
+  @Test(expected = MemoryElementNotFoundException.class)
+  public void testNegativeAddress() throws Exception {
+    m.getCellByAddress(-8);
+  }
+
+  /* Addresses well beyond the old 64 KB data and code limits. */
+  @Test
+  public void testLargeAddresses() throws Exception {
+    long address = 0x123456789A0L;
+    m.getCellByAddress(address).writeDoubleWord(7);
+    assertEquals(7, m.getCellByAddress(address).getValue());
+    assertEquals(address, m.getCellByAddress(address).getAddress());
+    assertEquals(address / 8, m.getLastUsedCellIndex());
+    assertEquals(0, m.getCellByAddress(address + 8).getValue());
+
+    InstructionInterface far = instructionBuilder.buildInstruction("SYSCALL");
+    m.addInstruction(far, 1 << 24);
+    assertEquals(far, m.getInstruction(1 << 24));
+    assertEquals((1 << 24) / 4, m.getInstructionIndex(far));
+    assertEquals((1 << 24) / 4, m.getLastInstructionIndex());
+    assertEquals(1, m.getInstructionsNumber());
+
+    m.reset();
+    assertEquals(-1, m.getLastUsedCellIndex());
+    assertEquals(-1, m.getLastInstructionIndex());
+  }
+
+  @Test(expected = SymbolTableOverflowException.class)
+  public void testNegativeCodeAddress() throws Exception {
+    m.addInstruction(instructionBuilder.buildInstruction("SYSCALL"), -4);
+  }
+
+  @Test
+  public void testPagedDataMemory() throws Exception {
+    PagedDataMemory data = new PagedDataMemory();
+    assertEquals(-1, data.nextTouched(0));
+    assertEquals(0, data.read(1L << 40));
+    assertEquals(0, data.getPageCount());
+
+    data.write(3, 1);
+    data.write(64, 0);
+    data.write(200, 5);
+    data.write(1L << 40, 9);
+    assertEquals(2, data.getPageCount());
+    assertTrue(data.isTouched(64));
+    assertFalse(data.isTouched(65));
+    assertFalse(data.isTouched(1L << 30));
+    assertEquals(3, data.nextTouched(0));
+    assertEquals(64, data.nextTouched(4));
+    assertEquals(200, data.nextTouched(65));
+    assertEquals(1L << 40, data.nextTouched(201));
+    assertEquals(-1, data.nextTouched((1L << 40) + 1));
+    assertEquals(9, data.read(1L << 40));
+    assertEquals(5, data.read(200));
+
+    data.erase(64);
+    data.erase(1L << 30);
+    assertFalse(data.isTouched(64));
+    assertEquals(200, data.nextTouched(4));
+
+    data.reset();
+    assertEquals(0, data.read(200));
+    assertEquals(-1, data.nextTouched(0));
+    assertEquals(0, data.getPageCount());
+  }
+}
@@ -2,14 +2,19 @@ package org.edumips64.core;
 
 import org.edumips64.BaseTest;
 import org.edumips64.core.is.BUBBLE;
+import org.edumips64.core.is.Instruction;
 import org.edumips64.core.is.InstructionBuilder;
+import org.edumips64.core.is.Opcode;
 import org.edumips64.core.parser.Parser;
 import org.edumips64.core.parser.ParserMultiException;
 import org.edumips64.utils.io.LocalFileUtils;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class ParserTest extends BaseTest {
   private Parser parser;
@@ -18,7 +23,7 @@ public class ParserTest extends BaseTest {
   @Before
   public void setUp() throws Exception {
     memory = new Memory();
-    CPU cpu = new CPU(memory, config, new BUBBLE());
+    CPU cpu = new CPU(memory, config, BUBBLE.INSTANCE);
     SymbolTable symTab = new SymbolTable(memory);
     IOManager iom = new IOManager(new LocalFileUtils(), memory);
     Dinero dinero = new Dinero();
@@ -187,4 +192,50 @@ public class ParserTest extends BaseTest {
   public void NegativeOutOfBoundsDoubleWordTest() throws Exception {
     ParseData(".word -9223372036854775809");
   }
-}
\ No newline at end of file
+
+  @Test
+  public void DecodedInstructionsTest() throws Exception {
+    parser.doParsing(".code\nDADD r3, r1, r2\nSD r4, 8(r5)\nDIV.D f1, f2, f3\nJAL done\ndone: SYSCALL 0");
+
+    Instruction dadd = (Instruction) memory.getInstruction(0);
+    assertEquals(Opcode.DADD, dadd.getOpcode());
+    assertArrayEquals(new int[] {3, 1, 2}, dadd.getParams());
+    assertEquals(Opcode.Format.ALU_R, dadd.getOpcode().getFormat());
+    assertEquals(3, dadd.getDestRegister());
+    assertEquals(RegisterFile.mask(1) | RegisterFile.mask(2), dadd.getSourceRegisters());
+    assertEquals(dadd.getRepr().getInt(), dadd.getEncoding());
+    assertFalse(dadd.isTerminating());
+
+    Instruction sd = (Instruction) memory.getInstruction(4);
+    assertEquals(-1, sd.getDestRegister());
+    assertEquals(RegisterFile.mask(4) | RegisterFile.mask(5), sd.getSourceRegisters());
+
+    Instruction div = (Instruction) memory.getInstruction(8);
+    assertEquals(Opcode.FPUnit.DIVIDER, div.getOpcode().getFPUnit());
+    assertEquals(0, div.getSourceRegisters());
+
+    Instruction jal = (Instruction) memory.getInstruction(12);
+    assertTrue(jal.getOpcode().isBranch());
+    assertEquals(31, jal.getDestRegister());
+    assertEquals(jal.getRepr().getInt(), jal.getEncoding());
+
+    assertTrue(((Instruction) memory.getInstruction(16)).isTerminating());
+  }
+
+  @Test
+  public void LabelAddressInOffsetTest() throws Exception {
+    parser.doParsing(".data\n.space 32760\nnear: .word 1\n.code\nLD r1, near(r0)\nSYSCALL 0");
+    assertEquals(32760, ((Instruction) memory.getInstruction(0)).getParams()[1]);
+  }
+
+  // Label addresses beyond the 16-bit offset field are reported, not truncated.
+  @Test(expected = ParserMultiException.class)
+  public void LabelAddressTooLargeTest() throws Exception {
+    parser.doParsing(".data\n.space 65536\nfar: .word 1\n.code\nLD r1, far(r0)\nSYSCALL 0");
+  }
+
+  @Test(expected = ParserMultiException.class)
+  public void LabelImmediateTooLargeTest() throws Exception {
+    parser.doParsing(".data\n.space 32768\nfar: .word 1\n.code\nDADDI r1, r0, far\nSYSCALL 0");
+  }
+}
@@ -46,7 +46,7 @@ public class PipelineTest extends BaseWithInstructionBuilderTest {
   @Test
   public void testSizeIncreaseWithBubble() {
     assertEquals(0, pipeline.size());
-    pipeline.setIF(new BUBBLE());
+    pipeline.setIF(BUBBLE.INSTANCE);
     assertEquals(1, pipeline.size());
   }
   
@@ -59,7 +59,7 @@ public class PipelineTest extends BaseWithInstructionBuilderTest {
 
   @Test
   public void testIsBubble() {
-    pipeline.setIF(new BUBBLE());
+    pipeline.setIF(BUBBLE.INSTANCE);
     assertTrue(pipeline.isBubble(CPU.PipeStage.IF));
     assertTrue(pipeline.isEmptyOrBubble(CPU.PipeStage.IF));
     
@@ -71,11 +71,11 @@ public class PipelineTest extends BaseWithInstructionBuilderTest {
   @Test
   public void testClear() {
     assertEquals(0, pipeline.size());
-    pipeline.setIF(new BUBBLE());
-    pipeline.setID(new BUBBLE());
-    pipeline.setEX(new BUBBLE());
-    pipeline.setMEM(new BUBBLE());
-    pipeline.setWB(new BUBBLE());
+    pipeline.setIF(BUBBLE.INSTANCE);
+    pipeline.setID(BUBBLE.INSTANCE);
+    pipeline.setEX(BUBBLE.INSTANCE);
+    pipeline.setMEM(BUBBLE.INSTANCE);
+    pipeline.setWB(BUBBLE.INSTANCE);
     assertEquals(5, pipeline.size());
     
     pipeline.clear();
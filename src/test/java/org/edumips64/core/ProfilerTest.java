@@ -0,0 +1,91 @@
+package org.edumips64.core;
+
+import org.edumips64.BaseTest;
+import org.edumips64.utils.ConfigKey;
+import org.junit.Test;
+
+import static org.edumips64.core.Profiler.Counter.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class ProfilerTest extends BaseTest {
+  private static final String[] programs = {"hello-world.s", "fpu-mul.s", "forwarding.s", "test-strlen.s",
+      "test-strcmp.s", "memtest.s", "fpu-waw.s", "div.d.divider-stalls.s", "set-bit-sort.s"};
+
+  private SimulatorContext context;
+
+  // Runs the program with a profiler until it ends.
+  private Profiler run(String program, boolean forwarding, boolean memoryTiming) throws Exception {
+    context = newContext();
+    context.getConfig().putBoolean(ConfigKey.FORWARDING, forwarding);
+    context.getConfig().putBoolean(ConfigKey.MEMORY_TIMING, memoryTiming);
+    Profiler profiler = new Profiler(context.getMemory());
+    context.getCPU().setProfiler(profiler);
+    // Masked FPU exceptions don't stop the program.
+    runProgram(context, program);
+    return profiler;
+  }
+
+  private static long sum(Profiler profiler, Profiler.Counter counter) {
+    long sum = 0;
+    for (int address : profiler.getAddresses()) {
+      sum += profiler.get(address, counter);
+    }
+    return sum;
+  }
+
+  /* The counters of the instructions add up to the counters of the CPU. */
+  @Test
+  public void testTotals() throws Exception {
+    for (String program : programs) {
+      for (int variant = 0; variant < 3; variant++) {
+        Profiler profiler = run(program, variant != 1, variant == 2);
+        CPU cpu = context.getCPU();
+        String name = program + " " + variant;
+        assertEquals(name, cpu.getCycles(), profiler.getCycles());
+        assertEquals(name, cpu.getInstructions(), sum(profiler, EXECUTIONS));
+        assertEquals(name, cpu.getRAWStalls(), sum(profiler, RAW_STALLS));
+        assertEquals(name, cpu.getWAWStalls(), sum(profiler, WAW_STALLS));
+        assertEquals(name, cpu.getStructuralStallsDivider() + cpu.getStructuralStallsEX()
+            + cpu.getStructuralStallsFuncUnit() + cpu.getStructuralStallsMemory(), sum(profiler, STRUCTURAL_STALLS));
+        assertEquals(name, cpu.getCacheMissStalls(), sum(profiler, CACHE_MISS_STALLS));
+        assertThat(name, sum(profiler, CYCLES) <= cpu.getCycles(), is(true));
+        assertThat(name, sum(profiler, CYCLES) >= cpu.getCycles() - 5, is(true));
+
+        long pathCycles = 0;
+        for (long[] sample : profiler.getPathCycles()) {
+          pathCycles += sample[2];
+        }
+        assertEquals(name, sum(profiler, CYCLES), pathCycles);
+      }
+    }
+  }
+
+  /* RAW stalls are charged to the instruction that writes the register, too. */
+  @Test
+  public void testRAWProducers() throws Exception {
+    Profiler profiler = run("test-strlen.s", false, false);
+    // _LOOP: lb r2,0(r1); daddi r1,r1,1; bne r2,r0,_loop
+    int lb = 0x5C;
+    int bne = 0x64;
+    assertThat(profiler.get(bne, RAW_STALLS) > 0, is(true));
+    assertEquals(profiler.get(bne, RAW_STALLS), profiler.get(lb, RAW_CAUSED));
+    assertEquals(sum(profiler, RAW_STALLS), sum(profiler, RAW_CAUSED));
+    assertEquals(profiler.get(lb, EXECUTIONS), profiler.get(bne, EXECUTIONS));
+
+    // STRLEN is called twice from the program.
+    assertEquals(2, profiler.getPaths());
+    assertEquals(0, profiler.getCaller(1));
+    assertEquals("STRLEN", profiler.getInstruction(profiler.getEntry(1)).getLabel());
+    for (long[] sample : profiler.getPathCycles()) {
+      if (sample[1] == lb) {
+        assertEquals(1, sample[0]);
+      }
+    }
+
+    context.getCPU().reset();
+    assertEquals(0, profiler.getCycles());
+    assertThat(profiler.getAddresses().isEmpty(), is(true));
+    assertEquals(1, profiler.getPaths());
+  }
+}
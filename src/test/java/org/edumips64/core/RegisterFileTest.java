@@ -0,0 +1,70 @@
+package org.edumips64.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RegisterFileTest {
+  private RegisterFile gpr = new RegisterFile();
+
+  @Test
+  public void testR0IsHardwiredToZero() throws Exception {
+    gpr.write(0, 42);
+    assertEquals(0, gpr.read(0));
+    gpr.getRegister(0).writeDoubleWord(42);
+    assertEquals(0, gpr.getRegister(0).getValue());
+  }
+
+  @Test
+  public void testViewsShareTheValues() throws Exception {
+    gpr.write(5, -1);
+    assertEquals(-1, gpr.getRegister(5).getValue());
+    assertEquals("FFFFFFFFFFFFFFFF", gpr.getRegister(5).getHexString());
+
+    gpr.getRegister(6).writeDoubleWord(1234);
+    assertEquals(1234, gpr.read(6));
+    assertSame(gpr.getRegister(6), gpr.getRegisters()[6]);
+  }
+
+  @Test
+  public void testScoreboard() throws Exception {
+    int sources = RegisterFile.mask(3) | RegisterFile.mask(4);
+    assertFalse(gpr.isWritePending(sources));
+
+    // Two instructions in flight writing R4.
+    gpr.incrWriteSemaphore(4);
+    gpr.getRegister(4).incrWriteSemaphore();
+    assertTrue(gpr.isWritePending(sources));
+    assertFalse(gpr.isWritePending(RegisterFile.mask(3)));
+    assertEquals(2, gpr.getWriteSemaphore(4));
+    assertEquals(2, gpr.getRegister(4).getWriteSemaphore());
+
+    gpr.decrWriteSemaphore(4);
+    assertTrue(gpr.isWritePending(sources));
+    gpr.decrWriteSemaphore(4);
+    assertFalse(gpr.isWritePending(sources));
+    assertEquals(0, gpr.getPendingWrites());
+  }
+
+  @Test
+  public void testR31() throws Exception {
+    gpr.incrWriteSemaphore(31);
+    assertEquals(RegisterFile.mask(31), gpr.getPendingWrites());
+    assertTrue(gpr.isWritePending(RegisterFile.mask(31)));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testUnbalancedDecrement() throws Exception {
+    gpr.decrWriteSemaphore(1);
+  }
+
+  @Test
+  public void testReset() throws Exception {
+    gpr.write(7, 7);
+    gpr.incrWriteSemaphore(7);
+    gpr.reset();
+    assertEquals(0, gpr.read(7));
+    assertEquals(0, gpr.getWriteSemaphore(7));
+    assertFalse(gpr.isWritePending(-1));
+  }
+}
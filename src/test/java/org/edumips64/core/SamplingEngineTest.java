@@ -0,0 +1,36 @@
+package org.edumips64.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class SamplingEngineTest {
+  @Test
+  public void testEstimate() {
+    SamplingEngine.Estimate e = SamplingEngine.Estimate.of(Arrays.asList(1.0, 2.0, 3.0, 4.0));
+    assertEquals(2.5, e.getMean(), 1e-9);
+    // Standard deviation: sqrt(5/3).
+    assertEquals(1.96 * Math.sqrt(5.0 / 3) / 2, e.getHalfWidth(), 1e-9);
+
+    SamplingEngine.Estimate scaled = e.scale(10);
+    assertEquals(25, scaled.getMean(), 1e-9);
+    assertEquals(e.getRelativeError(), scaled.getRelativeError(), 1e-9);
+  }
+
+  @Test
+  public void testEstimateWithFewSamples() {
+    assertTrue(Double.isNaN(SamplingEngine.Estimate.of(Collections.<Double>emptyList()).getMean()));
+
+    SamplingEngine.Estimate e = SamplingEngine.Estimate.of(Collections.singletonList(1.5));
+    assertEquals(1.5, e.getMean(), 1e-9);
+    assertTrue(Double.isNaN(e.getHalfWidth()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidWindow() {
+    new SamplingEngine(null, null, 100, 10, 0);
+  }
+}
@@ -0,0 +1,141 @@
+package org.edumips64.core;
+
+import org.edumips64.BaseTest;
+import org.edumips64.core.parser.ParserMultiException;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.ConfigStore;
+import org.edumips64.utils.io.LocalFileUtils;
+import org.edumips64.utils.io.StringWriter;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class SimulatorContextTest extends BaseTest {
+  private static final String testsLocation = "src/test/resources/";
+  private static final String[] programs = {"hello-world.s", "fpu-mul.s", "forwarding.s", "test-strcmp.s",
+      "memtest.s", "fpu-waw.s", "div.d.divider-stalls.s", "misaligned-ld.s"};
+  private static final int THREADS = 8;
+  private static final int ROUNDS = 3;
+
+  // Runs one of the programs on a new simulator, with a configuration that depends on the variant, and returns
+  // a description of the final state.
+  private String run(int program, int variant) throws Exception {
+    SimulatorContext context = new SimulatorContext(new LocalFileUtils());
+    ConfigStore config = context.getConfig();
+    config.putBoolean(ConfigKey.FORWARDING, variant % 2 == 0);
+    config.putString(ConfigKey.LANGUAGE, (variant / 2) % 2 == 0 ? "en" : "it");
+
+    StringWriter stdOut = new StringWriter();
+    context.getIOManager().setStdOutput(stdOut);
+    context.load(new File(testsLocation + programs[program]).getAbsolutePath());
+
+    CPU cpu = context.getCPU();
+    StringBuilder end = new StringBuilder();
+    try {
+      SimulatorContext.Exit exit = context.run(Long.MAX_VALUE, new SimulatorContext.RunListener() {
+        @Override
+        public void stepped() {}
+
+        @Override
+        public void synchronousException(SynchronousException e) {
+          end.append(e.getCode()).append(' ');
+        }
+      });
+      end.append(exit);
+    } catch (NotAlignException e) {
+      end.append(e.getMessage());
+    }
+    return end + "\n" + cpu + "\n" + context.getMemory() + "\n" + stdOut;
+  }
+
+  /* N simulators stepping on N threads at the same time must give the same results as one at a time. */
+  @Test
+  public void testConcurrentSimulators() throws Exception {
+    int variants = 4;
+    String[][] expected = new String[programs.length][variants];
+    for (int p = 0; p < programs.length; p++) {
+      for (int v = 0; v < variants; v++) {
+        expected[p][v] = run(p, v);
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CyclicBarrier start = new CyclicBarrier(THREADS);
+    List<Future<?>> results = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      int thread = t;
+      results.add(executor.submit(() -> {
+        start.await();
+        for (int round = 0; round < ROUNDS; round++) {
+          // Each thread goes through the programs in a different order.
+          for (int i = 0; i < programs.length * variants; i++) {
+            int job = (i + thread * 5) % (programs.length * variants);
+            int p = job / variants;
+            int v = job % variants;
+            assertEquals(programs[p] + " " + v, expected[p][v], run(p, v));
+          }
+        }
+        return null;
+      }));
+    }
+
+    executor.shutdown();
+    for (Future<?> result : results) {
+      result.get();
+    }
+    assertThat(executor.awaitTermination(1, TimeUnit.MINUTES), is(true));
+  }
+
+  /* The messages of a simulator are in the language of its own configuration. */
+  @Test
+  public void testLanguagePerContext() throws Exception {
+    int misaligned = programs.length - 1;
+    assertThat(run(misaligned, 0).startsWith("Alignment error"), is(true));
+    assertThat(run(misaligned, 2).startsWith("Errore di allineamento"), is(true));
+
+    SimulatorContext context = new SimulatorContext(new LocalFileUtils());
+    context.getConfig().putString(ConfigKey.LANGUAGE, "it");
+    assertEquals("Riga", context.getString("ROW"));
+    try {
+      context.getParser().doParsing(".code\nnotaninstruction r1\n");
+      fail("The program should not parse");
+    } catch (ParserMultiException e) {
+      assertThat(e.toString().startsWith("Riga "), is(true));
+    }
+  }
+
+  // Loads the program on a new simulator and runs it for at most maxCycles cycles.
+  private SimulatorContext.Exit runUntil(String program, long maxCycles, boolean terminate) throws Exception {
+    SimulatorContext context = new SimulatorContext(new LocalFileUtils());
+    context.getConfig().putBoolean(ConfigKey.SYNC_EXCEPTIONS_TERMINATE, terminate);
+    context.getIOManager().setStdOutput(new StringWriter());
+    context.load(new File(testsLocation + program).getAbsolutePath());
+    SimulatorContext.Exit exit = context.run(maxCycles, null);
+    assertThat(context.getCPU().getCycles() <= maxCycles, is(true));
+    return exit;
+  }
+
+  @Test
+  public void testRunExits() throws Exception {
+    assertEquals(SimulatorContext.Exit.HALT, runUntil("hello-world.s", Long.MAX_VALUE, false));
+    assertEquals(SimulatorContext.Exit.CYCLE_LIMIT, runUntil("hello-world.s", 5, false));
+    assertEquals(SimulatorContext.Exit.BREAK, runUntil("break.s", Long.MAX_VALUE, false));
+    assertEquals(SimulatorContext.Exit.SYNCHRONOUS_EXCEPTION, runUntil("dadd-overflow.s", Long.MAX_VALUE, true));
+    assertEquals(SimulatorContext.Exit.HALT, runUntil("dadd-overflow.s", Long.MAX_VALUE, false));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testDefaultsAreReadOnly() {
+    ConfigStore.defaults.put(ConfigKey.FORWARDING, true);
+  }
+}
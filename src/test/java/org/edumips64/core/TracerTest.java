@@ -0,0 +1,65 @@
+package org.edumips64.core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TracerTest {
+  private Tracer tracer = new Tracer(4);
+
+  @Test
+  public void testOffRecordsNothing() {
+    tracer.record(Tracer.Level.PIPELINE, Tracer.Event.CYCLE_START, null);
+    assertTrue(tracer.getRecords().isEmpty());
+    assertEquals("", tracer.dump());
+  }
+
+  @Test
+  public void testLevelGuard() {
+    tracer.setLevel(Tracer.Level.PIPELINE);
+    assertTrue(tracer.isEnabled(Tracer.Level.PIPELINE));
+    assertFalse(tracer.isEnabled(Tracer.Level.ALL));
+
+    tracer.record(Tracer.Level.ALL, Tracer.Event.REGISTER_WRITE, null, 3, 42);
+    tracer.record(Tracer.Level.PIPELINE, Tracer.Event.RAW_STALL, null, 1);
+    List<Tracer.Record> records = tracer.getRecords();
+    assertEquals(1, records.size());
+    assertEquals(Tracer.Event.RAW_STALL, records.get(0).getEvent());
+  }
+
+  @Test
+  public void testRecordFields() {
+    tracer.setLevel(Tracer.Level.ALL);
+    tracer.setCycle(7);
+    tracer.setStage(CPU.PipeStage.WB);
+    tracer.record(Tracer.Level.ALL, Tracer.Event.REGISTER_WRITE, "DADD R3, R1, R2", 3, 42);
+
+    Tracer.Record r = tracer.getRecords().get(0);
+    assertEquals(7, r.getCycle());
+    assertEquals(CPU.PipeStage.WB, r.getStage());
+    assertEquals("DADD R3, R1, R2", r.getSubject());
+    assertEquals(3, r.getIndex());
+    assertEquals(42, r.getValue());
+    assertEquals("[7] WB REGISTER_WRITE DADD R3, R1, R2 R3 = 42\n", tracer.dump());
+  }
+
+  @Test
+  public void testRingBufferKeepsTheNewestRecords() {
+    tracer.setLevel(Tracer.Level.PIPELINE);
+    for (int i = 1; i <= 6; ++i) {
+      tracer.setCycle(i);
+      tracer.record(Tracer.Level.PIPELINE, Tracer.Event.CYCLE_START, null);
+    }
+
+    List<Tracer.Record> records = tracer.getRecords();
+    assertEquals(4, records.size());
+    for (int i = 0; i < 4; ++i) {
+      assertEquals(i + 3, records.get(i).getCycle());
+    }
+
+    tracer.clear();
+    assertTrue(tracer.getRecords().isEmpty());
+  }
+}
@@ -0,0 +1,166 @@
+package org.edumips64.core.cache;
+
+import org.edumips64.BaseTest;
+import org.edumips64.core.SimulatorContext;
+import org.junit.Test;
+
+import static org.edumips64.core.MemoryAccessListener.Type.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class CacheSimulatorTest extends BaseTest {
+  // A 4-block cache with blocks of 16 bytes.
+  private static Cache cache(int associativity, CacheConfig.Replacement replacement, boolean writeBack,
+                             boolean writeAllocate) {
+    return new Cache("test", new CacheConfig(64, 16, associativity, replacement, writeBack, writeAllocate));
+  }
+
+  @Test
+  public void testDirectMapped() {
+    Cache c = cache(1, CacheConfig.Replacement.LRU, true, true);
+    assertEquals(1, c.access(READ, 0, 8));
+    assertEquals(0, c.access(READ, 8, 8));
+    // 64 maps to the same set as 0.
+    assertEquals(1, c.access(READ, 64, 8));
+    assertEquals(1, c.access(READ, 0, 8));
+    assertEquals(1, c.access(READ, 16, 8));
+
+    assertEquals(5, c.getAccesses());
+    assertEquals(4, c.getMisses());
+    assertEquals(2, c.getEvictions());
+    assertEquals(0, c.getWritebacks());
+    assertEquals(0.8, c.getMissRate(), 1e-9);
+  }
+
+  @Test
+  public void testReplacement() {
+    // Two sets of two ways: 0, 32 and 64 all go to set 0.
+    Cache lru = cache(2, CacheConfig.Replacement.LRU, true, true);
+    Cache fifo = cache(2, CacheConfig.Replacement.FIFO, true, true);
+    for (Cache c : new Cache[] {lru, fifo}) {
+      c.access(READ, 0, 4);
+      c.access(READ, 32, 4);
+      c.access(READ, 0, 4);
+      c.access(READ, 64, 4);
+    }
+    // LRU evicted 32, FIFO evicted 0.
+    assertEquals(0, lru.access(READ, 0, 4));
+    assertEquals(1, fifo.access(READ, 0, 4));
+
+    // Random replacement is repeatable.
+    Cache random = cache(4, CacheConfig.Replacement.RANDOM, true, true);
+    Cache again = cache(4, CacheConfig.Replacement.RANDOM, true, true);
+    for (int i = 0; i < 100; i++) {
+      assertEquals(random.access(READ, (i * 7 % 13) * 16, 4), again.access(READ, (i * 7 % 13) * 16, 4));
+    }
+  }
+
+  @Test
+  public void testWritePolicies() {
+    CacheSimulator writeBack = new CacheSimulator()
+        .addLevel(new CacheConfig(64, 16, 1))
+        .addLevel(new CacheConfig(1024, 16, 1));
+    writeBack.simulate(WRITE, 0, 8);
+    writeBack.simulate(WRITE, 8, 8);
+    // Evicts the dirty block, which is written to L2.
+    writeBack.simulate(READ, 64, 8);
+    Cache l1 = writeBack.getCaches().get(0);
+    Cache l2 = writeBack.getCaches().get(1);
+    assertEquals(1, l1.getWritebacks());
+    assertEquals(1, l2.getAccesses(WRITE));
+    assertEquals(2, l2.getAccesses(READ));
+
+    CacheSimulator writeThrough = new CacheSimulator()
+        .addLevel(new CacheConfig(64, 16, 1, CacheConfig.Replacement.LRU, false, false))
+        .addLevel(new CacheConfig(1024, 16, 1));
+    // Not allocated: both writes miss, and go to L2, which allocates the block.
+    assertEquals(2, writeThrough.simulate(WRITE, 0, 8));
+    assertEquals(1, writeThrough.simulate(WRITE, 8, 8));
+    assertEquals(1, writeThrough.simulate(READ, 0, 8));
+    assertEquals(0, writeThrough.simulate(WRITE, 0, 8));
+    l1 = writeThrough.getCaches().get(0);
+    l2 = writeThrough.getCaches().get(1);
+    assertEquals(2, l1.getMisses(WRITE));
+    assertEquals(3, l2.getAccesses(WRITE));
+    assertEquals(0, l1.getWritebacks());
+
+    // A write spanning two blocks forwards the part in each block, which is one block of L2.
+    for (boolean writeAllocate : new boolean[] {false, true}) {
+      CacheSimulator unaligned = new CacheSimulator()
+          .addLevel(new CacheConfig(64, 8, 1, CacheConfig.Replacement.LRU, false, writeAllocate))
+          .addLevel(new CacheConfig(1024, 8, 1));
+      unaligned.simulate(WRITE, 4, 8);
+      assertEquals(2, unaligned.getCaches().get(0).getAccesses(WRITE));
+      assertEquals(2, unaligned.getCaches().get(1).getAccesses(WRITE));
+    }
+  }
+
+  @Test
+  public void testHierarchy() {
+    CacheSimulator sim = CacheSimulator.parse("-l1-isize 1k -l1-ibsize 32 -l1-dsize 1K -l1-dbsize 32 -l1-dassoc 2 "
+        + "-l2-usize 16k -l2-ubsize 64 -l2-urepl f");
+    assertEquals(2, sim.getLevels());
+    assertEquals(3, sim.getCaches().size());
+    assertEquals("l1-icache", sim.getCaches().get(0).getName());
+    assertEquals("l1-dcache", sim.getCaches().get(1).getName());
+    assertEquals("l2-ucache", sim.getCaches().get(2).getName());
+    assertEquals(2, sim.getCaches().get(1).getConfig().getAssociativity());
+    assertEquals(CacheConfig.Replacement.FIFO, sim.getCaches().get(2).getConfig().getReplacement());
+
+    assertEquals(2, sim.simulate(FETCH, 0, 4));
+    assertEquals(0, sim.simulate(FETCH, 4, 4));
+    // The L2 block of 64 bytes holds the instructions at 32 too.
+    assertEquals(1, sim.simulate(FETCH, 32, 4));
+    assertEquals(2, sim.simulate(READ, 4096, 8));
+    assertEquals(0, sim.simulate(WRITE, 4096, 8));
+    assertEquals(2, sim.getCaches().get(2).getAccesses(FETCH));
+    assertEquals(1, sim.getCaches().get(2).getAccesses(READ));
+
+    assertEquals(0, new CacheSimulator().simulate(READ, 0, 8));
+  }
+
+  @Test
+  public void testInvalidOptions() {
+    String[] invalid = {"-l1-usize", "-l1-usize 1k", "-l1-usize 1k -l1-ubsize 24", "-l1-usize 96 -l1-ubsize 16",
+        "-l1-xsize 1k", "-informat d", "-l1-usize 1k -l1-ubsize 16 -l1-urepl x", "-l1-isize 1k -l1-ibsize 16",
+        "-l1-usize 1k -l1-ubsize 16 -l2-isize 4k -l2-ibsize 16 -l2-dsize 4k -l2-dbsize 16",
+        "-l2-usize 1k -l2-ubsize 16", "-l1-usize k -l1-ubsize 16"};
+    for (String options : invalid) {
+      try {
+        CacheSimulator.parse(options);
+        fail("Accepted: " + options);
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+    }
+  }
+
+  @Test
+  public void testPercent() {
+    assertEquals("0.00%", CacheSimulator.percent(0, 0));
+    assertEquals("33.33%", CacheSimulator.percent(1, 3));
+    assertEquals("5.07%", CacheSimulator.percent(507, 10000));
+    assertEquals("100.00%", CacheSimulator.percent(4, 4));
+  }
+
+  /* Simulating while the program runs and replaying the recorded trace give the same statistics. */
+  @Test
+  public void testRunAndReplay() throws Exception {
+    String options = "-l1-isize 64 -l1-ibsize 16 -l1-dsize 64 -l1-dbsize 16 -l2-usize 512 -l2-ubsize 32";
+    CacheSimulator live = CacheSimulator.parse(options);
+
+    SimulatorContext context = newContext();
+    context.getDinero().addListener(live);
+    runProgram(context, "set-bit-sort.s");
+
+    CacheSimulator replayed = CacheSimulator.parse(options);
+    context.getDinero().replay(replayed);
+    assertEquals(live.report(), replayed.report());
+    assertThat(live.getCaches().get(0).getAccesses(FETCH) > 0, is(true));
+    assertThat(live.getCaches().get(1).getMisses() > 0, is(true));
+    assertThat(live.report().contains("l2-ucache (512B/32B/1-way/LRU/write-back/allocate)"), is(true));
+
+    live.reset();
+    assertEquals(0, live.getCaches().get(2).getAccesses());
+  }
+}
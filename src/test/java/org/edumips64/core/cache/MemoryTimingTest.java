@@ -0,0 +1,75 @@
+package org.edumips64.core.cache;
+
+import org.edumips64.BaseTest;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.ConfigStore;
+import org.edumips64.utils.InMemoryConfigStore;
+import org.junit.Test;
+
+import static org.edumips64.core.MemoryAccessListener.Type.*;
+import static org.junit.Assert.*;
+
+public class MemoryTimingTest extends BaseTest {
+  private static MemoryTiming timing() {
+    return new MemoryTiming(CacheSimulator.parse("-l1-isize 64 -l1-ibsize 16 -l1-dsize 64 -l1-dbsize 16 "
+        + "-l2-usize 1k -l2-ubsize 16"), new int[] {1, 4, 20});
+  }
+
+  @Test
+  public void testStallCycles() {
+    MemoryTiming timing = timing();
+    // Served by the memory, then by L1.
+    timing.access(READ, 0, 8);
+    assertEquals(19, timing.takeStallCycles());
+    timing.access(READ, 8, 8);
+    assertEquals(0, timing.takeStallCycles());
+
+    // Evicted from L1 by 64, still in L2.
+    timing.access(WRITE, 64, 8);
+    timing.access(READ, 0, 8);
+    assertEquals(19 + 3, timing.takeStallCycles());
+    assertEquals(0, timing.takeStallCycles());
+
+    // Fetches don't stall.
+    timing.access(FETCH, 4096, 4);
+    assertEquals(0, timing.takeStallCycles());
+    assertEquals(1, timing.getCaches().getCaches().get(0).getMisses());
+
+    timing.access(READ, 128, 8);
+    timing.reset();
+    assertEquals(0, timing.takeStallCycles());
+    assertEquals(0, timing.getCaches().getCaches().get(1).getAccesses());
+  }
+
+  @Test
+  public void testConfig() {
+    ConfigStore config = new InMemoryConfigStore(ConfigStore.defaults);
+    assertNull(MemoryTiming.fromConfig(config));
+
+    config.putBoolean(ConfigKey.MEMORY_TIMING, true);
+    MemoryTiming timing = MemoryTiming.fromConfig(config);
+    assertEquals(2, timing.getCaches().getLevels());
+    assertEquals(100, timing.getLatency(2));
+
+    config.putString(ConfigKey.CACHE_LATENCIES, " 2  30 ");
+    config.putString(ConfigKey.CACHE_OPTIONS, "-l1-usize 1k -l1-ubsize 32");
+    timing = MemoryTiming.fromConfig(config);
+    assertEquals(1, timing.getCaches().getLevels());
+    assertEquals(2, timing.getLatency(0));
+    assertEquals(30, timing.getLatency(1));
+  }
+
+  @Test
+  public void testInvalidLatencies() {
+    CacheSimulator caches = CacheSimulator.parse("-l1-usize 1k -l1-ubsize 32");
+    String[] invalid = {"", "1", "1 10 100", "0 10", "1 x"};
+    for (String latencies : invalid) {
+      try {
+        new MemoryTiming(caches, MemoryTiming.parseLatencies(latencies));
+        fail("Accepted: " + latencies);
+      } catch (IllegalArgumentException e) {
+        // Expected.
+      }
+    }
+  }
+}
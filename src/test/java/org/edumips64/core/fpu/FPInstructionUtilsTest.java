@@ -7,6 +7,12 @@ import org.edumips64.core.IrregularStringOfBitsException;
 import org.junit.Test;
 import org.junit.Before;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
 public class FPInstructionUtilsTest extends BaseTest {
   private FPInstructionUtils fp;
   private FCSRRegister fcsr;
@@ -47,4 +53,181 @@ public class FPInstructionUtilsTest extends BaseTest {
     fcsr.setFPExceptions(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
     fp.doubleToBin("--10");
   }
+
+  private static long bits(double d) {
+    return Double.doubleToLongBits(d);
+  }
+
+  private void setRoundingMode(FCSRRegister.FPRoundingMode rm) throws Exception {
+    fcsr.setFCSRRoundingMode(rm);
+  }
+
+  @Test
+  public void RoundingModesTest() throws Exception {
+    // 1 + 2^-60 and -1 - 2^-60 are not representable.
+    double tiny = Math.pow(2, -60);
+    double nextUpOne = 1 + Math.ulp(1.0);
+    double nextDownOne = 1 - Math.ulp(1.0) / 2;
+
+    setRoundingMode(FCSRRegister.FPRoundingMode.TO_NEAREST);
+    assertEquals(bits(1.0), fp.doubleSum(bits(1.0), bits(tiny)));
+    assertEquals(bits(-1.0), fp.doubleSum(bits(-1.0), bits(-tiny)));
+
+    setRoundingMode(FCSRRegister.FPRoundingMode.TOWARD_ZERO);
+    assertEquals(bits(1.0), fp.doubleSum(bits(1.0), bits(tiny)));
+    assertEquals(bits(nextDownOne), fp.doubleSubtraction(bits(1.0), bits(tiny)));
+    assertEquals(bits(-nextDownOne), fp.doubleSubtraction(bits(-1.0), bits(-tiny)));
+
+    setRoundingMode(FCSRRegister.FPRoundingMode.TOWARDS_PLUS_INFINITY);
+    assertEquals(bits(nextUpOne), fp.doubleSum(bits(1.0), bits(tiny)));
+    assertEquals(bits(-1.0), fp.doubleSum(bits(-1.0), bits(-tiny)));
+    // 1/3 rounded to nearest is smaller than 1/3.
+    assertEquals(bits(1.0 / 3) + 1, fp.doubleDivision(bits(1.0), bits(3.0)));
+
+    setRoundingMode(FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY);
+    assertEquals(bits(1.0), fp.doubleSum(bits(1.0), bits(tiny)));
+    assertEquals(bits(-nextUpOne), fp.doubleSum(bits(-1.0), bits(-tiny)));
+    assertEquals(bits(-0.0), fp.doubleSubtraction(bits(1.5), bits(1.5)));
+  }
+
+  @Test
+  public void SignedZerosTest() throws Exception {
+    assertEquals(bits(-0.0), fp.doubleSum(bits(-0.0), bits(-0.0)));
+    assertEquals(bits(0.0), fp.doubleSum(bits(-0.0), bits(0.0)));
+    assertEquals(bits(0.0), fp.doubleSubtraction(bits(2.5), bits(2.5)));
+    assertEquals(bits(-0.0), fp.doubleMultiplication(bits(-3.0), bits(0.0)));
+    assertEquals(bits(-0.0), fp.doubleDivision(bits(0.0), bits(-3.0)));
+    assertEquals(bits(0.0), fp.doubleDivision(bits(3.0), bits(Double.POSITIVE_INFINITY)));
+  }
+
+  @Test
+  public void OverflowRoundingTest() throws Exception {
+    long max = bits(Double.MAX_VALUE);
+    assertEquals(bits(Double.POSITIVE_INFINITY), fp.doubleSum(max, max));
+    assertEquals(bits(Double.NEGATIVE_INFINITY), fp.doubleMultiplication(max, bits(-2.0)));
+
+    setRoundingMode(FCSRRegister.FPRoundingMode.TOWARD_ZERO);
+    assertEquals(max, fp.doubleSum(max, max));
+    assertEquals(max, fp.doubleMultiplication(max, bits(1.5)));
+
+    setRoundingMode(FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY);
+    assertEquals(max, fp.doubleSum(max, max));
+    assertEquals(bits(Double.NEGATIVE_INFINITY), fp.doubleSum(bits(-Double.MAX_VALUE), bits(-Double.MAX_VALUE)));
+  }
+
+  @Test(expected = FPOverflowException.class)
+  public void OverflowTrapTest() throws Exception {
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.OVERFLOW, true);
+    fp.doubleMultiplication(bits(1.7E308), bits(1.7E308));
+  }
+
+  @Test(expected = FPUnderflowException.class)
+  public void UnderflowTrapTest() throws Exception {
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.UNDERFLOW, true);
+    fp.doubleMultiplication(bits(9.0E-324), bits(6.0E-324));
+  }
+
+  @Test
+  public void ExactSubnormalTest() throws Exception {
+    // Exact subnormal results don't underflow.
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.UNDERFLOW, true);
+    assertEquals(bits(Double.MIN_VALUE * 3), fp.doubleSum(bits(Double.MIN_VALUE), bits(Double.MIN_VALUE * 2)));
+    assertEquals(bits(Double.MIN_NORMAL / 4), fp.doubleDivision(bits(Double.MIN_NORMAL), bits(4.0)));
+  }
+
+  @Test(expected = FPInvalidOperationException.class)
+  public void InvalidOperationTest() throws Exception {
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.INVALID_OPERATION, true);
+    fp.doubleSum(bits(Double.POSITIVE_INFINITY), bits(Double.NEGATIVE_INFINITY));
+  }
+
+  @Test(expected = FPDivideByZeroException.class)
+  public void DivideByZeroTest() throws Exception {
+    fcsr.setFPExceptions(FCSRRegister.FPExceptions.DIVIDE_BY_ZERO, true);
+    fp.doubleDivision(bits(1.0), bits(-0.0));
+  }
+
+  /** Compares the results of random operations, in every rounding mode, with the exact results computed by BigDecimal. */
+  @Test
+  public void RandomOperationsTest() throws Exception {
+    Random random = new Random(42);
+    FCSRRegister.FPRoundingMode[] modes = FCSRRegister.FPRoundingMode.values();
+
+    for (int i = 0; i < 20000; ++i) {
+      double a = randomDouble(random);
+      double b = randomDouble(random);
+      FCSRRegister.FPRoundingMode rm = modes[i % modes.length];
+      setRoundingMode(rm);
+
+      BigDecimal x = new BigDecimal(a);
+      BigDecimal y = new BigDecimal(b);
+      String operands = a + ", " + b + ", " + rm;
+      assertEquals("sum " + operands, reference(x.add(y), a + b, rm), fp.doubleSum(bits(a), bits(b)));
+      assertEquals("mul " + operands, reference(x.multiply(y), a * b, rm), fp.doubleMultiplication(bits(a), bits(b)));
+
+      // The exact quotient has no finite representation: q is compared with x / y by comparing q * y with x.
+      double q = a / b;
+      long expected = bits(q);
+      if (!Double.isInfinite(q) && q != 0) {
+        int cmp = x.compareTo(new BigDecimal(q).multiply(y)) * (int) Math.signum(b);
+        expected = directed(q, cmp, rm);
+      } else {
+        expected = reference(x.divide(y, new MathContext(2000)), q, rm);
+      }
+      assertEquals("div " + operands, expected, fp.doubleDivision(bits(a), bits(b)));
+    }
+  }
+
+  /** Random non-zero finite doubles, with a bias towards the extremes of the exponent range. */
+  private static double randomDouble(Random random) {
+    double d;
+    do {
+      long exponent;
+      switch (random.nextInt(4)) {
+        case 0:
+          exponent = random.nextInt(60);
+          break;
+        case 1:
+          exponent = 2046 - random.nextInt(60);
+          break;
+        default:
+          exponent = 1023 - 30 + random.nextInt(60);
+      }
+      long mantissa = random.nextLong() & 0x000FFFFFFFFFFFFFL;
+      if (random.nextBoolean()) {
+        mantissa &= 0x000FFFFFFF000000L;
+      }
+      d = Double.longBitsToDouble((random.nextBoolean() ? 0x8000000000000000L : 0) | (exponent << 52) | mantissa);
+    } while (d == 0);
+    return d;
+  }
+
+  /** Returns the bits of the exact value rounded with rm, given its round-to-nearest approximation. */
+  private static long reference(BigDecimal exact, double nearest, FCSRRegister.FPRoundingMode rm) {
+    if (exact.signum() == 0) {
+      return bits(rm == FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY ? -0.0 : 0.0);
+    }
+    if (Double.isInfinite(nearest)) {
+      boolean up = (nearest > 0) ? rm == FCSRRegister.FPRoundingMode.TOWARDS_PLUS_INFINITY : rm == FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY;
+      if (rm == FCSRRegister.FPRoundingMode.TO_NEAREST || up) {
+        return bits(nearest);
+      }
+      return bits(Math.copySign(Double.MAX_VALUE, nearest));
+    }
+    return directed(nearest, exact.compareTo(new BigDecimal(nearest)), rm);
+  }
+
+  /** Moves the round-to-nearest result by one ulp if needed, given the sign of exact - nearest. */
+  private static long directed(double nearest, int cmp, FCSRRegister.FPRoundingMode rm) {
+    double result = nearest;
+    if (cmp > 0 && (rm == FCSRRegister.FPRoundingMode.TOWARDS_PLUS_INFINITY || (rm == FCSRRegister.FPRoundingMode.TOWARD_ZERO && nearest < 0))) {
+      result = Math.nextUp(nearest);
+    } else if (cmp < 0 && (rm == FCSRRegister.FPRoundingMode.TOWARDS_MINUS_INFINITY || (rm == FCSRRegister.FPRoundingMode.TOWARD_ZERO && nearest > 0))) {
+      result = Math.nextDown(nearest);
+    }
+    if (result == 0) {
+      result = Math.copySign(0.0, nearest);
+    }
+    return bits(result);
+  }
 }
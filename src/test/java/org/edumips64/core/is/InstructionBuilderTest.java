@@ -0,0 +1,39 @@
+package org.edumips64.core.is;
+
+import org.edumips64.BaseWithInstructionBuilderTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class InstructionBuilderTest extends BaseWithInstructionBuilderTest {
+  @Before
+  public void testSetup() {
+    super.testSetup();
+  }
+
+  @Test
+  public void testEveryOpcodeIsBuilt() {
+    for (Opcode opcode : Opcode.values()) {
+      if (opcode == Opcode.BUBBLE) {
+        continue;
+      }
+      Instruction instruction = instructionBuilder.buildInstruction(opcode);
+      assertNotNull(opcode.name(), instruction);
+      assertEquals(opcode.name(), instruction.getClass().getSimpleName());
+      assertEquals(opcode, instruction.getOpcode());
+    }
+  }
+
+  @Test
+  public void testMnemonics() {
+    assertEquals(Opcode.ADD_D, instructionBuilder.buildInstruction("ADD.D").getOpcode());
+    assertEquals(Opcode.ADD_D, instructionBuilder.buildInstruction("ADD_D").getOpcode());
+    assertEquals("CVT.D.L", Opcode.CVT_D_L.getMnemonic());
+    assertNull(instructionBuilder.buildInstruction("FOO"));
+    assertNull(instructionBuilder.buildInstruction("BUBBLE"));
+  }
+}
@@ -0,0 +1,133 @@
+package org.edumips64.metrics;
+
+import org.edumips64.BaseTest;
+import org.edumips64.core.CPU;
+import org.edumips64.core.SimulatorContext;
+import org.edumips64.core.is.HaltException;
+import org.edumips64.utils.ConfigKey;
+import org.edumips64.utils.io.LocalFileUtils;
+import org.edumips64.utils.io.StringWriter;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+public class SimulatorMetricsTest extends BaseTest {
+  private static final String testsLocation = "src/test/resources/";
+  private static final long MILLIS = 1000000;
+
+  private SimulatorContext context;
+  private long now;
+
+  @Before
+  public void loadProgram() throws Exception {
+    context = new SimulatorContext(new LocalFileUtils());
+    context.getIOManager().setStdOutput(new StringWriter());
+    context.getParser().parse(new File(testsLocation + "forwarding.s").getAbsolutePath());
+    context.getCPU().setStatus(CPU.CPUStatus.RUNNING);
+  }
+
+  // Steps the CPU until the program ends, each step taking one millisecond of the fake clock.
+  private void run(SimulatorMetrics metrics) throws Exception {
+    try {
+      while (true) {
+        now += MILLIS;
+        context.getCPU().step();
+        metrics.stepped();
+      }
+    } catch (HaltException e) {
+      metrics.sample();
+    }
+  }
+
+  @Test
+  public void testCounters() throws Exception {
+    SimulatorMetrics metrics = new SimulatorMetrics("test", context.getCPU(), context.getDinero(), () -> now, 1000, 4);
+    assertEquals(-1, metrics.getLastSampleAgeMillis());
+    assertEquals(0, metrics.getCycles());
+    metrics.sample();
+    run(metrics);
+
+    CPU cpu = context.getCPU();
+    assertEquals(cpu.getCycles(), metrics.getCycles());
+    assertEquals(cpu.getInstructions(), metrics.getInstructions());
+    assertEquals((double) cpu.getCycles() / cpu.getInstructions(), metrics.getCPI(), 1e-9);
+    assertEquals(cpu.getRAWStalls(), metrics.getRAWStalls());
+    assertEquals(cpu.getStructuralStallsFuncUnit(), metrics.getFuncUnitStalls());
+    assertEquals(context.getDinero().size(), metrics.getDineroTraceSize());
+    assertThat(metrics.getDineroTraceSize() > 0, is(true));
+    assertEquals(0, metrics.getLastSampleAgeMillis());
+
+    // The halting step throws, so it isn't counted.
+    assertEquals(cpu.getCycles() - 1, metrics.getSteps());
+  }
+
+  /* The stalls of the memory timing model: the lw misses in both levels of caches. */
+  @Test
+  public void testMemoryTiming() throws Exception {
+    context.getConfig().putBoolean(ConfigKey.MEMORY_TIMING, true);
+    context.setupMemoryTiming();
+    SimulatorMetrics metrics = new SimulatorMetrics("test", context.getCPU(), context.getDinero(), () -> now, 1000, 4);
+    CPU cpu = context.getCPU();
+    while (cpu.getMemoryWaitCycles() == 0) {
+      cpu.step();
+    }
+    metrics.sample();
+    assertEquals(cpu.getMemoryWaitCycles(), metrics.getMemoryWaitCycles());
+    assertThat(metrics.getMemoryWaitCycles() > 0, is(true));
+
+    run(metrics);
+    assertEquals(cpu.getCacheMissStalls(), metrics.getCacheMissStalls());
+    assertThat(metrics.getCacheMissStalls() > 0, is(true));
+    assertEquals(0, metrics.getMemoryWaitCycles());
+  }
+
+  /* Rates only cover the window, and stay at their last value when the simulation stops. */
+  @Test
+  public void testWindowRates() throws Exception {
+    SimulatorMetrics metrics = new SimulatorMetrics("test", context.getCPU(), context.getDinero(), () -> now, 10, 2);
+    metrics.sample();
+    run(metrics);
+
+    // One cycle per millisecond; the halting step isn't counted as a step.
+    assertEquals(1000, metrics.getCyclesPerSecond(), 1e-9);
+    assertThat(metrics.getStepsPerSecond() > 800 && metrics.getStepsPerSecond() < 1000, is(true));
+    assertEquals(10, metrics.getWindowMillis());
+
+    now += 50 * MILLIS;
+    assertEquals(50, metrics.getLastSampleAgeMillis());
+    assertEquals(1000, metrics.getCyclesPerSecond(), 1e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSampling() {
+    new SimulatorMetrics("test", context.getCPU(), context.getDinero(), () -> now, 1000, 0);
+  }
+
+  @Test
+  public void testRegister() throws Exception {
+    String jobName = "job 1: \"forwarding.s\"";
+    SimulatorMetrics metrics = new SimulatorMetrics(jobName, context);
+    metrics.recordParseTime(3 * MILLIS);
+    metrics.sample();
+    metrics.register();
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("org.edumips64:type=Simulator,name=" + ObjectName.quote(jobName));
+    try {
+      assertEquals(jobName, server.getAttribute(name, "Name"));
+      assertEquals(3.0, (Double) server.getAttribute(name, "ParseTimeMillis"), 1e-9);
+      assertEquals(0L, server.getAttribute(name, "Cycles"));
+      assertEquals(0L, server.getAttribute(name, "CacheMissStalls"));
+    } finally {
+      metrics.unregister();
+    }
+    assertThat(server.isRegistered(name), is(false));
+  }
+}
@@ -0,0 +1,46 @@
+; 64-bit integer arithmetic and logic on edge values. Reaches BREAK on a wrong result.
+.code
+        daddi   r11, r0, -1         ; r11 = -1
+        dsrl    r1, r11, 1          ; r1 = 0x7FFFFFFFFFFFFFFF
+        daddiu  r2, r1, 1           ; r2 = 0x8000000000000000, no overflow check
+        daddi   r4, r0, -2
+        daddi   r6, r0, 1
+
+        daddu   r3, r1, r1          ; wraps to -2
+        bne     r3, r4, fail
+        dsubu   r5, r2, r1          ; wraps to 1
+        bne     r5, r6, fail
+        dsub    r7, r1, r6
+        dadd    r8, r7, r6
+        bne     r8, r1, fail
+        dadd    r8, r2, r1          ; -1, operands of different signs
+        bne     r8, r11, fail
+
+        slt     r9, r2, r1          ; signed: min < max
+        beqz    r9, fail
+        sltu    r9, r1, r2          ; unsigned: max < min
+        beqz    r9, fail
+        sltu    r9, r2, r1
+        bnez    r9, fail
+        sltiu   r9, r1, -1          ; the immediate is sign extended
+        beqz    r9, fail
+
+        and     r10, r2, r4
+        bne     r10, r2, fail
+        or      r10, r1, r2
+        bne     r10, r11, fail
+        xor     r10, r10, r1
+        bne     r10, r2, fail
+        andi    r12, r11, -1        ; the immediate is zero extended
+        ori     r13, r0, -1
+        bne     r12, r13, fail
+        xori    r14, r12, -1
+        bnez    r14, fail
+
+        daddi   r15, r0, 3
+loop:   daddi   r15, r15, -1
+        bnez    r15, loop
+        j       done
+
+fail:   break
+done:   syscall 0
@@ -0,0 +1,7 @@
+; The sum of two positive numbers overflows.
+.code
+        daddi   r1, r0, -1
+        dsrl    r1, r1, 1
+        daddi   r2, r0, 1
+        dadd    r3, r1, r2
+        syscall 0
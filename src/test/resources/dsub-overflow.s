@@ -0,0 +1,8 @@
+; The difference between a negative and a positive number overflows.
+.code
+        daddi   r1, r0, -1
+        dsrl    r1, r1, 1
+        daddiu  r1, r1, 1
+        daddi   r2, r0, 1
+        dsub    r3, r1, r2
+        syscall 0